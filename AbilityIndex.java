@@ -0,0 +1,222 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice invertido de habilidades.
+ * Para cada habilidad (normalizada en minúsculas) guarda la lista de Pokémon que la poseen.
+ * Además mantiene un índice de trigramas sobre las habilidades distintas, de modo que una
+ * búsqueda por subcadena solo revisa las habilidades que contienen todos los trigramas
+ * de la consulta en lugar de recorrer todos los Pokémon.
+ */
+public class AbilityIndex implements PokemonIndex {
+
+    /**
+     * Un Pokémon encontrado en una búsqueda junto con la habilidad que coincidió.
+     */
+    public static class Coincidencia {
+        private final Pokemon pokemon;
+        private final String habilidad;
+
+        Coincidencia(Pokemon pokemon, String habilidad) {
+            this.pokemon = pokemon;
+            this.habilidad = habilidad;
+        }
+
+        /**
+         * Retorna el Pokémon encontrado.
+         *
+         * @return el Pokémon.
+         */
+        public Pokemon getPokemon() {
+            return pokemon;
+        }
+
+        /**
+         * Retorna la habilidad del Pokémon que coincidió con la búsqueda.
+         *
+         * @return la habilidad, tal como aparece en el Pokémon.
+         */
+        public String getHabilidad() {
+            return habilidad;
+        }
+    }
+
+    /**
+     * Lista de Pokémon que poseen una misma habilidad, en orden de inserción.
+     */
+    private static class Postings {
+        final int id;
+        final String habilidad;
+        // clave del mapa -> Pokémon junto con la habilidad tal como él la escribe
+        final LinkedHashMap<String, Coincidencia> pokemons = new LinkedHashMap<>();
+
+        Postings(int id, String habilidad) {
+            this.id = id;
+            this.habilidad = habilidad;
+        }
+    }
+
+    private static final int N = 3;
+
+    private final Map<String, Postings> porHabilidad = new HashMap<>();
+    private final List<Postings> porId = new ArrayList<>();
+    private final List<Integer> idsLibres = new ArrayList<>();
+    private final Map<String, BitSet> trigramas = new HashMap<>();
+
+    /**
+     * Normaliza una habilidad o consulta para compararla sin distinguir mayúsculas o minúsculas.
+     *
+     * @param texto El texto a normalizar.
+     * @return el texto sin espacios en los extremos y en minúsculas.
+     */
+    public static String normalizar(String texto) {
+        return texto.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void agregar(String clave, Pokemon p) {
+        for (String habilidad : p.getAbilities()) {
+            String normalizada = normalizar(habilidad);
+            Postings postings = porHabilidad.get(normalizada);
+            if (postings == null) {
+                postings = crearPostings(normalizada);
+            }
+            postings.pokemons.put(clave, new Coincidencia(p, habilidad));
+        }
+    }
+
+    @Override
+    public void eliminar(String clave, Pokemon p) {
+        for (String habilidad : p.getAbilities()) {
+            Postings postings = porHabilidad.get(normalizar(habilidad));
+            if (postings == null) {
+                continue;
+            }
+            postings.pokemons.remove(clave);
+            if (postings.pokemons.isEmpty()) {
+                eliminarPostings(postings);
+            }
+        }
+    }
+
+    @Override
+    public void limpiar() {
+        porHabilidad.clear();
+        porId.clear();
+        idsLibres.clear();
+        trigramas.clear();
+    }
+
+    /**
+     * Busca los Pokémon que tienen exactamente la habilidad indicada (sin distinguir mayúsculas).
+     *
+     * @param habilidad La habilidad a buscar.
+     * @return la lista de coincidencias, vacía si ninguno la tiene.
+     */
+    public List<Coincidencia> buscarExacta(String habilidad) {
+        List<Coincidencia> resultado = new ArrayList<>();
+        Postings postings = porHabilidad.get(normalizar(habilidad));
+        if (postings != null) {
+            agregarCoincidencias(postings, new HashMap<>(), resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca los Pokémon que poseen alguna habilidad que contiene el texto indicado
+     * (sin distinguir mayúsculas). Cada Pokémon aparece una sola vez.
+     *
+     * @param consulta El texto a buscar dentro de las habilidades.
+     * @return la lista de coincidencias, vacía si no hay ninguna.
+     */
+    public List<Coincidencia> buscarPorSubcadena(String consulta) {
+        String normalizada = consulta.toLowerCase(Locale.ROOT);
+        List<Coincidencia> resultado = new ArrayList<>();
+        Map<String, Boolean> vistos = new HashMap<>();
+        if (normalizada.length() < N) {
+            // Consultas muy cortas: se revisan las habilidades distintas, que son pocas
+            for (Postings postings : porId) {
+                if (postings != null && postings.habilidad.contains(normalizada)) {
+                    agregarCoincidencias(postings, vistos, resultado);
+                }
+            }
+            return resultado;
+        }
+        BitSet candidatos = null;
+        for (int i = 0; i + N <= normalizada.length(); i++) {
+            BitSet conTrigrama = trigramas.get(normalizada.substring(i, i + N));
+            if (conTrigrama == null) {
+                return resultado;
+            }
+            if (candidatos == null) {
+                candidatos = (BitSet) conTrigrama.clone();
+            } else {
+                candidatos.and(conTrigrama);
+            }
+        }
+        for (int id = candidatos.nextSetBit(0); id >= 0; id = candidatos.nextSetBit(id + 1)) {
+            Postings postings = porId.get(id);
+            // Los trigramas solo descartan candidatos; se confirma la subcadena completa
+            if (postings.habilidad.contains(normalizada)) {
+                agregarCoincidencias(postings, vistos, resultado);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna la cantidad de habilidades distintas indexadas.
+     *
+     * @return la cantidad de habilidades distintas.
+     */
+    public int getCantidadHabilidades() {
+        return porHabilidad.size();
+    }
+
+    private void agregarCoincidencias(Postings postings, Map<String, Boolean> vistos, List<Coincidencia> resultado) {
+        for (Map.Entry<String, Coincidencia> e : postings.pokemons.entrySet()) {
+            if (vistos.putIfAbsent(e.getKey(), Boolean.TRUE) == null) {
+                resultado.add(e.getValue());
+            }
+        }
+    }
+
+    private Postings crearPostings(String habilidad) {
+        int id;
+        if (idsLibres.isEmpty()) {
+            id = porId.size();
+            porId.add(null);
+        } else {
+            id = idsLibres.remove(idsLibres.size() - 1);
+        }
+        Postings postings = new Postings(id, habilidad);
+        porId.set(id, postings);
+        porHabilidad.put(habilidad, postings);
+        for (int i = 0; i + N <= habilidad.length(); i++) {
+            trigramas.computeIfAbsent(habilidad.substring(i, i + N), t -> new BitSet()).set(id);
+        }
+        return postings;
+    }
+
+    private void eliminarPostings(Postings postings) {
+        porHabilidad.remove(postings.habilidad);
+        porId.set(postings.id, null);
+        idsLibres.add(postings.id);
+        String habilidad = postings.habilidad;
+        for (int i = 0; i + N <= habilidad.length(); i++) {
+            String trigrama = habilidad.substring(i, i + N);
+            BitSet conTrigrama = trigramas.get(trigrama);
+            if (conTrigrama != null) {
+                conTrigrama.clear(postings.id);
+                if (conTrigrama.isEmpty()) {
+                    trigramas.remove(trigrama);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+import java.util.Arrays;
+
+/**
+ * Estadísticas de un catálogo de Pokémon calculadas en streaming con {@link CsvStreamReader}:
+ * peso promedio por tipo, frecuencia de cada habilidad y proporción de legendarios por
+ * generación.
+ *
+ * Los tipos y las habilidades se codifican con {@link StringDictionary} directamente desde las
+ * porciones de la fila, por lo que solo se crea un String la primera vez que aparece cada valor;
+ * los acumuladores son arreglos de primitivos indexados por ese código o por la generación.
+ * La memoria depende de la cantidad de tipos, habilidades y generaciones distintas, no de la
+ * cantidad de filas.
+ */
+public class CatalogStatistics implements CsvRowVisitor {
+    // Generaciones mayores se cuentan en las filas, pero no en la proporción de legendarios
+    private static final int MAX_GENERACION = 1023;
+
+    private final StringDictionary tipos = new StringDictionary();
+    private double[] sumaPesoPorTipo = new double[32];
+    private long[] cantidadPorTipo = new long[32];
+    private final StringDictionary habilidades = new StringDictionary();
+    private long[] frecuenciaHabilidades = new long[256];
+    private long[] totalPorGeneracion = new long[16];
+    private long[] legendariosPorGeneracion = new long[16];
+    private long filas;
+    private long errores;
+
+    @Override
+    public void visitar(CsvRow fila) {
+        filas++;
+        CharSequence tipo1 = fila.getType1();
+        CharSequence tipo2 = fila.getType2();
+        acumularTipo(tipo1, fila.getWeight());
+        // Un Pokémon de dos tipos cuenta para el promedio de ambos
+        if (tipo2.length() > 0 && !iguales(tipo1, tipo2)) {
+            acumularTipo(tipo2, fila.getWeight());
+        }
+        for (int i = 0; i < fila.getCantidadHabilidades(); i++) {
+            CharSequence habilidad = fila.getHabilidad(i);
+            int codigo = habilidades.codificar(habilidad, 0, habilidad.length());
+            if (codigo == frecuenciaHabilidades.length) {
+                frecuenciaHabilidades = Arrays.copyOf(frecuenciaHabilidades, codigo * 2);
+            }
+            frecuenciaHabilidades[codigo]++;
+        }
+        int generacion = fila.getGeneration();
+        if (generacion >= 0 && generacion <= MAX_GENERACION) {
+            if (generacion >= totalPorGeneracion.length) {
+                int capacidad = Math.max(generacion + 1, totalPorGeneracion.length * 2);
+                totalPorGeneracion = Arrays.copyOf(totalPorGeneracion, capacidad);
+                legendariosPorGeneracion = Arrays.copyOf(legendariosPorGeneracion, capacidad);
+            }
+            totalPorGeneracion[generacion]++;
+            if (fila.isLegendaryStatus()) {
+                legendariosPorGeneracion[generacion]++;
+            }
+        }
+    }
+
+    @Override
+    public void error(long numeroLinea, CharSequence linea, String motivo) {
+        errores++;
+    }
+
+    private void acumularTipo(CharSequence tipo, double peso) {
+        int codigo = tipos.codificar(tipo, 0, tipo.length());
+        if (codigo == cantidadPorTipo.length) {
+            cantidadPorTipo = Arrays.copyOf(cantidadPorTipo, codigo * 2);
+            sumaPesoPorTipo = Arrays.copyOf(sumaPesoPorTipo, codigo * 2);
+        }
+        cantidadPorTipo[codigo]++;
+        sumaPesoPorTipo[codigo] += peso;
+    }
+
+    private static boolean iguales(CharSequence a, CharSequence b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retorna la cantidad de filas válidas procesadas.
+     *
+     * @return la cantidad de filas.
+     */
+    public long getFilas() {
+        return filas;
+    }
+
+    /**
+     * Retorna la cantidad de líneas descartadas por no poder interpretarse.
+     *
+     * @return la cantidad de errores.
+     */
+    public long getErrores() {
+        return errores;
+    }
+
+    /**
+     * Retorna el peso promedio de los Pokémon que tienen el tipo indicado como Type1 o Type2.
+     *
+     * @param tipo El tipo, tal como aparece en el archivo.
+     * @return el peso promedio en kg, o NaN si ningún Pokémon tiene ese tipo.
+     */
+    public double getPesoPromedio(String tipo) {
+        int codigo = tipos.buscar(tipo);
+        return codigo < 0 ? Double.NaN : sumaPesoPorTipo[codigo] / cantidadPorTipo[codigo];
+    }
+
+    /**
+     * Retorna cuántos Pokémon tienen la habilidad indicada.
+     *
+     * @param habilidad La habilidad, tal como aparece en el archivo.
+     * @return la cantidad de Pokémon con esa habilidad.
+     */
+    public long getFrecuencia(String habilidad) {
+        int codigo = habilidades.buscar(habilidad);
+        return codigo < 0 ? 0 : frecuenciaHabilidades[codigo];
+    }
+
+    /**
+     * Retorna la fracción de Pokémon legendarios de la generación indicada.
+     *
+     * @param generacion La generación.
+     * @return la proporción entre 0 y 1, o NaN si no hay Pokémon de esa generación.
+     */
+    public double getProporcionLegendarios(int generacion) {
+        if (generacion < 0 || generacion >= totalPorGeneracion.length || totalPorGeneracion[generacion] == 0) {
+            return Double.NaN;
+        }
+        return (double) legendariosPorGeneracion[generacion] / totalPorGeneracion[generacion];
+    }
+
+    /**
+     * Escribe el resumen: peso promedio por tipo, las habilidades más frecuentes y la proporción
+     * de legendarios por generación.
+     *
+     * @param salida         El destino del resumen.
+     * @param maxHabilidades La cantidad de habilidades más frecuentes a mostrar.
+     */
+    public void escribir(OutputSink salida, int maxHabilidades) {
+        salida.append("Filas: ").append(String.valueOf(filas)).append(" - Errores: ")
+                .append(String.valueOf(errores)).nuevaLinea();
+        salida.linea("Peso promedio por tipo:");
+        Integer[] ordenTipos = codigosOrdenados(tipos.size());
+        Arrays.sort(ordenTipos, (a, b) -> tipos.decodificar(a).compareToIgnoreCase(tipos.decodificar(b)));
+        for (int codigo : ordenTipos) {
+            salida.append("  ").append(tipos.decodificar(codigo)).append(": ")
+                    .append(String.format(java.util.Locale.ROOT, "%.2f kg", sumaPesoPorTipo[codigo] / cantidadPorTipo[codigo]))
+                    .append(" (").append(String.valueOf(cantidadPorTipo[codigo])).append(')').nuevaLinea();
+        }
+        salida.linea("Habilidades más frecuentes:");
+        Integer[] ordenHabilidades = codigosOrdenados(habilidades.size());
+        Arrays.sort(ordenHabilidades, (a, b) -> Long.compare(frecuenciaHabilidades[b], frecuenciaHabilidades[a]));
+        for (int i = 0; i < Math.min(maxHabilidades, ordenHabilidades.length); i++) {
+            int codigo = ordenHabilidades[i];
+            salida.append("  ").append(habilidades.decodificar(codigo)).append(": ")
+                    .append(String.valueOf(frecuenciaHabilidades[codigo])).nuevaLinea();
+        }
+        salida.linea("Legendarios por generación:");
+        for (int g = 0; g < totalPorGeneracion.length; g++) {
+            if (totalPorGeneracion[g] > 0) {
+                salida.append("  ").append(g).append(": ").append(String.valueOf(legendariosPorGeneracion[g]))
+                        .append(" de ").append(String.valueOf(totalPorGeneracion[g]))
+                        .append(String.format(java.util.Locale.ROOT, " (%.1f %%)", getProporcionLegendarios(g) * 100))
+                        .nuevaLinea();
+            }
+        }
+        salida.flush();
+    }
+
+    private static Integer[] codigosOrdenados(int cantidad) {
+        Integer[] codigos = new Integer[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            codigos[i] = i;
+        }
+        return codigos;
+    }
+}
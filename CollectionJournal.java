@@ -0,0 +1,642 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Registro de escritura anticipada (write-ahead log) de las colecciones de los usuarios.
+ *
+ * Cada operación (agregar o quitar un Pokémon de la colección de un usuario) se agrega al
+ * final del registro antes de confirmarse. Las operaciones de todos los hilos se acumulan en
+ * un buffer en memoria y un único hilo escritor las escribe por lotes, con un solo
+ * {@link FileChannel#force} por lote (group commit): mientras se sincroniza un lote, el
+ * siguiente se va llenando, por lo que la cantidad de sincronizaciones depende del tiempo que
+ * tarda el disco y no de la cantidad de operaciones.
+ *
+ * Cada cambio en memoria se aplica dentro del mismo bloqueo con el que se agrega al registro
+ * (ver {@link #registrar(byte, String, String, BooleanSupplier)}), así que el orden del registro
+ * es exactamente el orden de los cambios.
+ *
+ * Cuando el registro supera un tamaño se escribe un checkpoint compactado: la colección de
+ * cada usuario como una secuencia de agregados, en orden de inserción. Bajo ese bloqueo se
+ * marca el punto del buffer pendiente donde empieza el registro nuevo y se copia el estado,
+ * de modo que la copia contiene exactamente las operaciones anteriores a la marca. Volver a
+ * aplicar sobre la copia operaciones que ya contiene no sería correcto: quitar y volver a
+ * agregar un Pokémon cambia su posición. El archivo se escribe fuera del bloqueo y los
+ * registros anteriores se borran cuando el checkpoint ya es durable.
+ *
+ * Archivos del directorio (N es la generación, que aumenta con cada checkpoint):
+ * <pre>
+ *   colecciones-N.checkpoint  estado que incluye todos los registros de generación menor que N
+ *   colecciones-N.log         operaciones posteriores, a aplicar sobre el checkpoint
+ * </pre>
+ * Ambos usan el mismo formato de registro (enteros big-endian):
+ * <pre>
+ *   longitud (int), CRC32C del contenido (int),
+ *   contenido: operación (byte), usuario y nombre (short con la longitud + bytes UTF-8)
+ * </pre>
+ * Al abrir se carga el último checkpoint y se aplican los registros siguientes en orden. Si el
+ * último registro quedó a medio escribir (una caída durante la escritura), se descarta desde la
+ * primera entrada incompleta o con CRC inválido, que nunca llegó a confirmarse.
+ */
+public class CollectionJournal implements Closeable {
+    /** Operación que agrega un Pokémon a la colección de un usuario. */
+    public static final byte AGREGAR = 1;
+    /** Operación que quita un Pokémon de la colección de un usuario. */
+    public static final byte QUITAR = 2;
+
+    // Tamaño del registro a partir del cual se escribe un checkpoint
+    static final long LIMITE_REGISTRO = 64L << 20;
+    // Bytes pendientes a partir de los cuales los hilos esperan a que el escritor avance
+    private static final int MAX_PENDIENTE = 8 << 20;
+    private static final String PREFIJO = "colecciones-";
+    private static final String EXTENSION_REGISTRO = ".log";
+    private static final String EXTENSION_CHECKPOINT = ".checkpoint";
+
+    /**
+     * Recibe las operaciones del registro durante la recuperación.
+     */
+    @FunctionalInterface
+    public interface Destino {
+        /**
+         * Aplica una operación.
+         *
+         * @param operacion {@link #AGREGAR} o {@link #QUITAR}.
+         * @param usuario   El identificador del usuario.
+         * @param nombre    El nombre del Pokémon.
+         */
+        void aplicar(byte operacion, String usuario, String nombre);
+    }
+
+    /**
+     * Entrega el estado actual de las colecciones al escribir un checkpoint. Se llama con el
+     * bloqueo del registro tomado, por lo que no debe registrar operaciones.
+     */
+    @FunctionalInterface
+    public interface Fuente {
+        /**
+         * Entrega cada Pokémon de cada colección como un {@link #AGREGAR}, en orden de inserción.
+         *
+         * @param destino El destino de los agregados.
+         */
+        void recorrer(Destino destino);
+    }
+
+    private final Path directorio;
+    private final Fuente fuente;
+    private final long limiteRegistro;
+    private final Object bloqueo = new Object();
+    private final Object bloqueoCheckpoint = new Object();
+    private final Thread escritor;
+    // Estado compartido, protegido por bloqueo
+    private ByteBuffer pendiente = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer libre = ByteBuffer.allocate(1 << 16);
+    private long secuencia;
+    private long secuenciaDurable;
+    private long generacion;
+    private boolean rotacionSolicitada;
+    // Posición del buffer pendiente donde empieza el registro de la nueva generación
+    private int marcaRotacion;
+    private boolean checkpointEnCurso;
+    private boolean cerrando;
+    private IOException fallo;
+    private long operaciones;
+    private long sincronizaciones;
+    // Solo los usa el hilo escritor (y el constructor antes de iniciarlo)
+    private FileChannel canal;
+    private long tamanoRegistro;
+
+    /**
+     * Abre el registro del directorio indicado, aplica al destino el último checkpoint y las
+     * operaciones posteriores, e inicia el hilo escritor. Si el directorio no existe se crea.
+     *
+     * @param directorio     El directorio del registro.
+     * @param recuperacion   El destino que recibe las operaciones guardadas, en orden.
+     * @param fuente         La fuente del estado actual para los checkpoints.
+     * @param limiteRegistro El tamaño del registro (en bytes) a partir del cual se escribe un checkpoint.
+     * @throws IOException si no se puede leer el registro o algún archivo está dañado.
+     */
+    public CollectionJournal(Path directorio, Destino recuperacion, Fuente fuente, long limiteRegistro) throws IOException {
+        this.directorio = directorio;
+        this.fuente = fuente;
+        this.limiteRegistro = limiteRegistro;
+        Files.createDirectories(directorio);
+        recuperar(recuperacion);
+        escritor = new Thread(this::escribirLotes, "registro-colecciones");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Abre el registro con el límite por defecto de 64 MB antes de cada checkpoint.
+     *
+     * @param directorio   El directorio del registro.
+     * @param recuperacion El destino que recibe las operaciones guardadas, en orden.
+     * @param fuente       La fuente del estado actual para los checkpoints.
+     * @throws IOException si no se puede leer el registro o algún archivo está dañado.
+     */
+    public CollectionJournal(Path directorio, Destino recuperacion, Fuente fuente) throws IOException {
+        this(directorio, recuperacion, fuente, LIMITE_REGISTRO);
+    }
+
+    /**
+     * Retorna el directorio del registro asociado a un archivo CSV.
+     *
+     * @param csv La ruta del archivo CSV.
+     * @return la ruta del directorio (mismo nombre con la extensión ".colecciones").
+     */
+    public static Path rutaPara(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".colecciones");
+    }
+
+    private void recuperar(Destino destino) throws IOException {
+        List<Long> checkpoints = new ArrayList<>();
+        List<Long> registros = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                String nombre = archivo.getFileName().toString();
+                if (nombre.endsWith(".tmp")) {
+                    // Checkpoint que no llegó a completarse
+                    Files.deleteIfExists(archivo);
+                } else if (nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION_CHECKPOINT)) {
+                    checkpoints.add(generacionDe(nombre, EXTENSION_CHECKPOINT));
+                } else if (nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION_REGISTRO)) {
+                    registros.add(generacionDe(nombre, EXTENSION_REGISTRO));
+                }
+            }
+        }
+        long base = checkpoints.isEmpty() ? 0 : Collections.max(checkpoints);
+        if (!checkpoints.isEmpty()) {
+            Path checkpoint = ruta(base, EXTENSION_CHECKPOINT);
+            long leidos = leer(checkpoint, destino);
+            if (leidos < Files.size(checkpoint)) {
+                throw new IOException("Checkpoint dañado: " + checkpoint);
+            }
+        }
+        Collections.sort(registros);
+        generacion = base;
+        Path anterior = null;
+        long ultimoValido = 0;
+        for (long g : registros) {
+            if (g < base) {
+                // Registro ya incluido en el checkpoint; quedó de una limpieza interrumpida
+                Files.deleteIfExists(ruta(g, EXTENSION_REGISTRO));
+                continue;
+            }
+            // Solo el último registro puede terminar en una entrada incompleta
+            if (anterior != null && ultimoValido < Files.size(anterior)) {
+                throw new IOException("Registro dañado: " + anterior);
+            }
+            anterior = ruta(g, EXTENSION_REGISTRO);
+            generacion = g;
+            ultimoValido = leer(anterior, destino);
+        }
+        for (long g : checkpoints) {
+            if (g < base) {
+                Files.deleteIfExists(ruta(g, EXTENSION_CHECKPOINT));
+            }
+        }
+        // Se continúa escribiendo al final del último registro, sin la parte incompleta
+        canal = FileChannel.open(ruta(generacion, EXTENSION_REGISTRO),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        canal.truncate(ultimoValido);
+        canal.position(ultimoValido);
+        canal.force(true);
+        tamanoRegistro = ultimoValido;
+        sincronizarDirectorio();
+    }
+
+    private static long generacionDe(String nombre, String extension) throws IOException {
+        try {
+            return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - extension.length()));
+        } catch (NumberFormatException e) {
+            throw new IOException("Nombre de archivo inesperado en el registro: " + nombre, e);
+        }
+    }
+
+    private Path ruta(long g, String extension) {
+        return directorio.resolve(PREFIJO + g + extension);
+    }
+
+    /**
+     * Aplica las entradas válidas del archivo al destino y retorna la posición donde terminan.
+     */
+    private static long leer(Path archivo, Destino destino) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] contenido = new byte[256];
+        long valido = 0;
+        try (InputStream archivoEntrada = Files.newInputStream(archivo);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(archivoEntrada, 1 << 16))) {
+            while (true) {
+                int longitud;
+                int esperado;
+                try {
+                    longitud = in.readInt();
+                    esperado = in.readInt();
+                    if (longitud < 5 || longitud > 5 + 2 * 0xFFFF) {
+                        break;
+                    }
+                    if (longitud > contenido.length) {
+                        contenido = new byte[longitud];
+                    }
+                    in.readFully(contenido, 0, longitud);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(contenido, 0, longitud);
+                if ((int) crc.getValue() != esperado) {
+                    break;
+                }
+                ByteBuffer entrada = ByteBuffer.wrap(contenido, 0, longitud);
+                byte operacion = entrada.get();
+                String usuario = cadena(entrada);
+                String nombre = cadena(entrada);
+                if (operacion != AGREGAR && operacion != QUITAR || entrada.hasRemaining()) {
+                    throw new IOException("Entrada inválida en " + archivo + " (posición " + valido + ")");
+                }
+                destino.aplicar(operacion, usuario, nombre);
+                valido += 8 + longitud;
+            }
+        }
+        return valido;
+    }
+
+    private static String cadena(ByteBuffer entrada) throws IOException {
+        if (entrada.remaining() < 2) {
+            throw new IOException("Entrada truncada en el registro");
+        }
+        int longitud = Short.toUnsignedInt(entrada.getShort());
+        if (entrada.remaining() < longitud) {
+            throw new IOException("Entrada truncada en el registro");
+        }
+        String valor = new String(entrada.array(), entrada.position(), longitud, StandardCharsets.UTF_8);
+        entrada.position(entrada.position() + longitud);
+        return valor;
+    }
+
+    /**
+     * Codifica una entrada completa (longitud, CRC y contenido) en el buffer.
+     */
+    private static ByteBuffer codificar(ByteBuffer destino, byte operacion, byte[] usuario, byte[] nombre) {
+        int longitud = 1 + 2 + usuario.length + 2 + nombre.length;
+        if (destino.remaining() < 8 + longitud) {
+            ByteBuffer mayor = ByteBuffer.allocate(Math.max(destino.capacity() * 2, destino.position() + 8 + longitud));
+            destino.flip();
+            mayor.put(destino);
+            destino = mayor;
+        }
+        int inicio = destino.position();
+        destino.putInt(longitud);
+        destino.putInt(0);
+        destino.put(operacion);
+        destino.putShort((short) usuario.length);
+        destino.put(usuario);
+        destino.putShort((short) nombre.length);
+        destino.put(nombre);
+        CRC32C crc = new CRC32C();
+        crc.update(destino.array(), inicio + 8, longitud);
+        destino.putInt(inicio + 4, (int) crc.getValue());
+        return destino;
+    }
+
+    private static byte[] bytes(String valor, String campo) {
+        byte[] b = valor.getBytes(StandardCharsets.UTF_8);
+        if (b.length > 0xFFFF) {
+            throw new IllegalArgumentException("El " + campo + " supera los 65535 bytes");
+        }
+        return b;
+    }
+
+    /**
+     * Agrega una operación al registro sin esperar a que sea durable.
+     *
+     * @param operacion {@link #AGREGAR} o {@link #QUITAR}.
+     * @param usuario   El identificador del usuario.
+     * @param nombre    El nombre del Pokémon.
+     * @return el número de secuencia de la operación, para {@link #esperar(long)}.
+     * @throws UncheckedIOException  si el registro ya no puede escribirse.
+     * @throws IllegalStateException si el registro está cerrado.
+     */
+    public long registrar(byte operacion, String usuario, String nombre) {
+        return registrar(operacion, usuario, nombre, () -> true);
+    }
+
+    /**
+     * Aplica un cambio en memoria y, si tuvo efecto, lo agrega al registro sin esperar a que
+     * sea durable. El cambio se ejecuta bajo el bloqueo del registro, por lo que debe ser breve
+     * y es atómico respecto de los checkpoints.
+     *
+     * @param operacion {@link #AGREGAR} o {@link #QUITAR}.
+     * @param usuario   El identificador del usuario.
+     * @param nombre    El nombre del Pokémon.
+     * @param cambio    Aplica la operación en memoria y retorna si cambió la colección.
+     * @return el número de secuencia de la operación, para {@link #esperar(long)}, o 0 si
+     *         el cambio no tuvo efecto y no se registró.
+     * @throws UncheckedIOException  si el registro ya no puede escribirse.
+     * @throws IllegalStateException si el registro está cerrado.
+     */
+    public long registrar(byte operacion, String usuario, String nombre, BooleanSupplier cambio) {
+        byte[] u = bytes(usuario, "usuario");
+        byte[] n = bytes(nombre, "nombre");
+        synchronized (bloqueo) {
+            while (pendiente.position() >= MAX_PENDIENTE && fallo == null && !cerrando) {
+                esperarAvance();
+            }
+            verificarEstado();
+            if (!cambio.getAsBoolean()) {
+                return 0;
+            }
+            pendiente = codificar(pendiente, operacion, u, n);
+            operaciones++;
+            bloqueo.notifyAll();
+            return ++secuencia;
+        }
+    }
+
+    /**
+     * Espera hasta que la operación con el número de secuencia indicado (y todas las anteriores)
+     * estén sincronizadas en el disco.
+     *
+     * @param secuencia El número retornado por {@link #registrar(byte, String, String, BooleanSupplier)}.
+     * @throws UncheckedIOException si la escritura falló.
+     */
+    public void esperar(long secuencia) {
+        synchronized (bloqueo) {
+            while (secuenciaDurable < secuencia) {
+                if (fallo != null) {
+                    throw new UncheckedIOException("No se pudo escribir el registro de colecciones", fallo);
+                }
+                esperarAvance();
+            }
+        }
+    }
+
+    private void esperarAvance() {
+        try {
+            bloqueo.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera del registro de colecciones interrumpida", e);
+        }
+    }
+
+    private void verificarEstado() {
+        if (fallo != null) {
+            throw new UncheckedIOException("No se pudo escribir el registro de colecciones", fallo);
+        }
+        if (cerrando) {
+            throw new IllegalStateException("El registro de colecciones está cerrado");
+        }
+    }
+
+    /**
+     * Ciclo del hilo escritor: toma todo lo pendiente, lo escribe, lo sincroniza una vez y
+     * despierta a los hilos que esperaban esas operaciones.
+     */
+    private void escribirLotes() {
+        while (true) {
+            ByteBuffer lote;
+            long hasta;
+            boolean rotar;
+            int marca;
+            synchronized (bloqueo) {
+                while (pendiente.position() == 0 && !rotacionSolicitada && !cerrando) {
+                    try {
+                        bloqueo.wait();
+                    } catch (InterruptedException e) {
+                        // Solo se sale al cerrar
+                    }
+                }
+                if (pendiente.position() == 0 && !rotacionSolicitada) {
+                    return;
+                }
+                lote = pendiente;
+                pendiente = libre;
+                libre = null;
+                hasta = secuencia;
+                rotar = rotacionSolicitada;
+                marca = marcaRotacion;
+                // Los hilos detenidos por MAX_PENDIENTE ya pueden seguir
+                bloqueo.notifyAll();
+            }
+            try {
+                lote.flip();
+                if (rotar) {
+                    // Lo anterior a la marca va al registro actual y el resto al nuevo
+                    int fin = lote.limit();
+                    lote.limit(marca);
+                    escribir(lote);
+                    FileChannel siguiente = FileChannel.open(ruta(generacion + 1, EXTENSION_REGISTRO),
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    sincronizarDirectorio();
+                    canal.close();
+                    canal = siguiente;
+                    tamanoRegistro = 0;
+                    lote.limit(fin);
+                }
+                escribir(lote);
+            } catch (IOException e) {
+                synchronized (bloqueo) {
+                    fallo = e;
+                    bloqueo.notifyAll();
+                }
+                return;
+            }
+            lote.clear();
+            synchronized (bloqueo) {
+                libre = lote;
+                secuenciaDurable = hasta;
+                sincronizaciones++;
+                if (rotar) {
+                    generacion++;
+                    rotacionSolicitada = false;
+                }
+                if (tamanoRegistro >= limiteRegistro && !checkpointEnCurso && !cerrando) {
+                    checkpointEnCurso = true;
+                    Thread hilo = new Thread(this::checkpointEnSegundoPlano, "checkpoint-colecciones");
+                    hilo.setDaemon(true);
+                    hilo.start();
+                }
+                bloqueo.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Escribe el buffer en el registro actual y lo sincroniza, si tiene algo.
+     */
+    private void escribir(ByteBuffer lote) throws IOException {
+        if (!lote.hasRemaining()) {
+            return;
+        }
+        tamanoRegistro += lote.remaining();
+        while (lote.hasRemaining()) {
+            canal.write(lote);
+        }
+        canal.force(false);
+    }
+
+    private void checkpointEnSegundoPlano() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException e) {
+            synchronized (bloqueo) {
+                if (cerrando) {
+                    return;
+                }
+            }
+            System.out.println("No se pudo escribir el checkpoint de colecciones: " + e.getMessage());
+        } finally {
+            synchronized (bloqueo) {
+                checkpointEnCurso = false;
+            }
+        }
+    }
+
+    /**
+     * Escribe un checkpoint compactado con el estado actual de la fuente y borra los registros
+     * que quedan incluidos en él. Los cambios solo se detienen mientras se copia el estado en
+     * memoria; la escritura del archivo no los bloquea.
+     *
+     * @throws IOException si no se puede escribir el checkpoint.
+     */
+    public void checkpoint() throws IOException {
+        synchronized (bloqueoCheckpoint) {
+            long nueva;
+            ByteBuffer[] estado = {ByteBuffer.allocate(1 << 16)};
+            synchronized (bloqueo) {
+                verificarEstado();
+                nueva = generacion + 1;
+                rotacionSolicitada = true;
+                marcaRotacion = pendiente.position();
+                fuente.recorrer((operacion, usuario, nombre) ->
+                        estado[0] = codificar(estado[0], operacion, bytes(usuario, "usuario"), bytes(nombre, "nombre")));
+                bloqueo.notifyAll();
+                // El checkpoint se publica después de que exista el registro nuevo
+                while (generacion < nueva) {
+                    if (fallo != null) {
+                        throw new IOException("No se pudo escribir el registro de colecciones", fallo);
+                    }
+                    esperarAvance();
+                }
+            }
+            Path temporal = Files.createTempFile(directorio, PREFIJO, ".tmp");
+            try {
+                try (FileChannel archivo = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                    estado[0].flip();
+                    while (estado[0].hasRemaining()) {
+                        archivo.write(estado[0]);
+                    }
+                    archivo.force(true);
+                }
+                try {
+                    Files.move(temporal, ruta(nueva, EXTENSION_CHECKPOINT), StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporal, ruta(nueva, EXTENSION_CHECKPOINT));
+                }
+                sincronizarDirectorio();
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+            for (long g = nueva - 1; g >= 0; g--) {
+                boolean registro = Files.deleteIfExists(ruta(g, EXTENSION_REGISTRO));
+                boolean checkpoint = Files.deleteIfExists(ruta(g, EXTENSION_CHECKPOINT));
+                if (!registro && !checkpoint) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sincroniza el directorio para que la creación y el renombrado de archivos sean durables.
+     */
+    private void sincronizarDirectorio() {
+        try (FileChannel dir = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Algunos sistemas (como Windows) no permiten abrir un directorio; allí el
+            // renombrado ya es durable o no hay forma de forzarlo
+        }
+    }
+
+    /**
+     * Retorna la cantidad de operaciones registradas desde que se abrió el registro.
+     *
+     * @return la cantidad de operaciones.
+     */
+    public long getOperaciones() {
+        synchronized (bloqueo) {
+            return operaciones;
+        }
+    }
+
+    /**
+     * Retorna la cantidad de lotes sincronizados con el disco desde que se abrió el registro.
+     *
+     * @return la cantidad de sincronizaciones.
+     */
+    public long getSincronizaciones() {
+        synchronized (bloqueo) {
+            return sincronizaciones;
+        }
+    }
+
+    /**
+     * Retorna la generación del registro en uso; aumenta con cada checkpoint.
+     *
+     * @return la generación actual.
+     */
+    public long getGeneracion() {
+        synchronized (bloqueo) {
+            return generacion;
+        }
+    }
+
+    /**
+     * Espera a que se escriba todo lo registrado, detiene el hilo escritor y cierra el archivo.
+     * No escribe un checkpoint; para eso se llama antes a {@link #checkpoint()}.
+     *
+     * @throws IOException si la escritura pendiente falló o no se puede cerrar el archivo.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (bloqueoCheckpoint) {
+            synchronized (bloqueo) {
+                if (cerrando) {
+                    return;
+                }
+                cerrando = true;
+                bloqueo.notifyAll();
+            }
+            try {
+                escritor.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Cierre del registro de colecciones interrumpido", e);
+            }
+            canal.close();
+            if (fallo != null) {
+                throw new IOException("No se pudo escribir el registro de colecciones", fallo);
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Filtros sobre columnas primitivas que producen una máscara de bits de filas seleccionadas.
+ *
+ * Cada palabra de la máscara corresponde a 64 filas consecutivas. Un filtro recorre solo las
+ * palabras que todavía tienen algún bit en uno, calcula los 64 bits de la condición sin
+ * saltos condicionales y los combina con AND, de modo que aplicar varias condiciones seguidas
+ * evalúa una condición compuesta.
+ *
+ * Si la JVM se inició con --add-modules jdk.incubator.vector y la clase
+ * vector.VectorColumnKernel está compilada, los filtros se delegan en ella y comparan varias
+ * filas por instrucción; si no, se usan las versiones escalares de esta clase. La versión
+ * vectorial puede desactivarse con -Dpokemon.vector=false.
+ */
+final class ColumnScanKernel {
+    private static final MethodHandle RANGO_DOUBLE;
+    private static final MethodHandle RANGO_INT;
+    private static final MethodHandle CUALQUIERA;
+
+    static {
+        MethodHandle rangoDouble = null;
+        MethodHandle rangoInt = null;
+        MethodHandle cualquiera = null;
+        if (!"false".equals(System.getProperty("pokemon.vector"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                Class<?> kernel = Class.forName("vector.VectorColumnKernel");
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                rangoDouble = lookup.findStatic(kernel, "filtrarRango", MethodType.methodType(void.class,
+                        double[].class, double.class, double.class, long[].class, int.class));
+                rangoInt = lookup.findStatic(kernel, "filtrarRango", MethodType.methodType(void.class,
+                        int[].class, int.class, int.class, long[].class, int.class));
+                cualquiera = lookup.findStatic(kernel, "filtrarCualquiera", MethodType.methodType(void.class,
+                        int[].class, int[].class, int.class, long[].class, int.class));
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Sin la clase vectorial compilada se usan los filtros escalares
+                rangoDouble = null;
+                rangoInt = null;
+                cualquiera = null;
+            }
+        }
+        RANGO_DOUBLE = rangoDouble;
+        RANGO_INT = rangoInt;
+        CUALQUIERA = cualquiera;
+    }
+
+    private ColumnScanKernel() {
+    }
+
+    /**
+     * Indica si los filtros usan la Vector API.
+     *
+     * @return true si se usa la versión vectorial.
+     */
+    static boolean esVectorial() {
+        return RANGO_DOUBLE != null;
+    }
+
+    /**
+     * Deja en la máscara solo las filas cuyo valor está entre min y max (incluidos).
+     *
+     * @param columna La columna de valores.
+     * @param min     El valor mínimo.
+     * @param max     El valor máximo.
+     * @param mascara La máscara, con un bit por fila; se modifica.
+     * @param filas   La cantidad de filas válidas de la columna.
+     */
+    static void filtrarRango(double[] columna, double min, double max, long[] mascara, int filas) {
+        if (RANGO_DOUBLE != null) {
+            try {
+                RANGO_DOUBLE.invokeExact(columna, min, max, mascara, filas);
+                return;
+            } catch (Throwable t) {
+                throw propagar(t);
+            }
+        }
+        for (int w = 0; w < mascara.length; w++) {
+            if (mascara[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int fin = Math.min(64, filas - base);
+            long bits = 0;
+            for (int b = 0; b < fin; b++) {
+                double v = columna[base + b];
+                bits |= (v >= min & v <= max ? 1L : 0L) << b;
+            }
+            mascara[w] &= bits;
+        }
+    }
+
+    /**
+     * Deja en la máscara solo las filas cuyo valor está entre min y max (incluidos). Para
+     * filtrar por igualdad se usa min == max.
+     *
+     * @param columna La columna de valores.
+     * @param min     El valor mínimo.
+     * @param max     El valor máximo.
+     * @param mascara La máscara, con un bit por fila; se modifica.
+     * @param filas   La cantidad de filas válidas de la columna.
+     */
+    static void filtrarRango(int[] columna, int min, int max, long[] mascara, int filas) {
+        if (RANGO_INT != null) {
+            try {
+                RANGO_INT.invokeExact(columna, min, max, mascara, filas);
+                return;
+            } catch (Throwable t) {
+                throw propagar(t);
+            }
+        }
+        for (int w = 0; w < mascara.length; w++) {
+            if (mascara[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int fin = Math.min(64, filas - base);
+            long bits = 0;
+            for (int b = 0; b < fin; b++) {
+                int v = columna[base + b];
+                bits |= (v >= min & v <= max ? 1L : 0L) << b;
+            }
+            mascara[w] &= bits;
+        }
+    }
+
+    /**
+     * Deja en la máscara solo las filas en que alguna de las dos columnas tiene el valor indicado.
+     *
+     * @param columnaA La primera columna.
+     * @param columnaB La segunda columna.
+     * @param valor    El valor buscado.
+     * @param mascara  La máscara, con un bit por fila; se modifica.
+     * @param filas    La cantidad de filas válidas de las columnas.
+     */
+    static void filtrarCualquiera(int[] columnaA, int[] columnaB, int valor, long[] mascara, int filas) {
+        if (CUALQUIERA != null) {
+            try {
+                CUALQUIERA.invokeExact(columnaA, columnaB, valor, mascara, filas);
+                return;
+            } catch (Throwable t) {
+                throw propagar(t);
+            }
+        }
+        for (int w = 0; w < mascara.length; w++) {
+            if (mascara[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int fin = Math.min(64, filas - base);
+            long bits = 0;
+            for (int b = 0; b < fin; b++) {
+                bits |= (columnaA[base + b] == valor | columnaB[base + b] == valor ? 1L : 0L) << b;
+            }
+            mascara[w] &= bits;
+        }
+    }
+
+    private static RuntimeException propagar(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,391 @@
+import java.io.ObjectStreamException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Almacenamiento columnar opcional para catálogos grandes de Pokémon.
+ * Cada atributo numérico se guarda en un arreglo primitivo paralelo y los atributos de texto
+ * de baja cardinalidad (tipos, clasificación y habilidades) se guardan como códigos enteros
+ * de diccionarios compartidos. Así cada tipo o habilidad existe una sola vez en memoria y no
+ * se crea una lista de habilidades por Pokémon.
+ *
+ * Los objetos {@link Pokemon} que entrega este almacenamiento son vistas ligeras: solo guardan
+ * una referencia al almacenamiento y el número de fila, y leen los atributos de las columnas.
+ * El almacenamiento solo admite agregar filas; las filas que dejan de usarse se liberan al
+ * recargar los datos.
+ */
+public class ColumnarPokemonStore {
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private final StringDictionary tipos = new StringDictionary();
+    private final StringDictionary clasificaciones = new StringDictionary();
+    private final StringDictionary habilidades = new StringDictionary();
+
+    private String[] nombres = new String[CAPACIDAD_INICIAL];
+    private int[] pokedexNumbers = new int[CAPACIDAD_INICIAL];
+    // Códigos de los diccionarios; se guardan como int porque la cantidad de clasificaciones
+    // distintas crece con el catálogo y puede superar el rango de un short
+    private int[] tipos1 = new int[CAPACIDAD_INICIAL];
+    private int[] tipos2 = new int[CAPACIDAD_INICIAL];
+    private int[] clasificacion = new int[CAPACIDAD_INICIAL];
+    private double[] alturas = new double[CAPACIDAD_INICIAL];
+    private double[] pesos = new double[CAPACIDAD_INICIAL];
+    private short[] generaciones = new short[CAPACIDAD_INICIAL];
+    private boolean[] legendarios = new boolean[CAPACIDAD_INICIAL];
+    // Las habilidades de la fila i están en habilidadesPorFila[inicioHabilidades[i] .. inicioHabilidades[i + 1])
+    private int[] inicioHabilidades = new int[CAPACIDAD_INICIAL + 1];
+    private int[] habilidadesPorFila = new int[CAPACIDAD_INICIAL * 2];
+    private int totalHabilidades;
+    private int filas;
+
+    /**
+     * Agrega una fila a partir de un registro separado por {@link CsvTokenizer}.
+     * Los tipos, la clasificación y las habilidades se codifican directamente desde la línea,
+     * sin crear cadenas para los valores que ya están en los diccionarios.
+     *
+     * @param tokenizer El tokenizer con una fila de al menos 10 campos.
+     * @return el número de fila asignado.
+     * @throws NumberFormatException si algún campo numérico no es válido o la generación no
+     *                               cabe en la columna.
+     */
+    public int agregar(CsvTokenizer tokenizer) {
+        // Se validan primero los campos numéricos para no dejar filas a medias
+        int pokedexNumber = tokenizer.getInt(1);
+        double height = tokenizer.getDouble(5);
+        double weight = tokenizer.getDouble(6);
+        short generation = generacion(tokenizer.getInt(8));
+        boolean legendary = tokenizer.getBoolean(9);
+
+        int fila = reservarFila();
+        nombres[fila] = tokenizer.getField(0);
+        pokedexNumbers[fila] = pokedexNumber;
+        tipos1[fila] = codificarCampo(tipos, tokenizer, 2);
+        tipos2[fila] = codificarCampo(tipos, tokenizer, 3);
+        clasificacion[fila] = codificarCampo(clasificaciones, tokenizer, 4);
+        alturas[fila] = height;
+        pesos[fila] = weight;
+        generaciones[fila] = generation;
+        legendarios[fila] = legendary;
+        if (tokenizer.isFieldEscaped(7)) {
+            String abilitiesStr = tokenizer.getField(7);
+            agregarHabilidades(abilitiesStr, 0, abilitiesStr.length());
+        } else {
+            agregarHabilidades(tokenizer.getSource(), tokenizer.getFieldStart(7), tokenizer.getFieldEnd(7));
+        }
+        cerrarFila(fila);
+        return fila;
+    }
+
+    /**
+     * Agrega una fila copiando los atributos de un Pokémon.
+     *
+     * @param p El Pokémon a agregar.
+     * @return el número de fila asignado.
+     * @throws NumberFormatException si la generación no cabe en la columna.
+     */
+    public int agregar(Pokemon p) {
+        short generation = generacion(p.getGeneration());
+        int fila = reservarFila();
+        nombres[fila] = p.getName();
+        pokedexNumbers[fila] = p.getPokedexNumber();
+        tipos1[fila] = tipos.codificar(p.getType1());
+        tipos2[fila] = tipos.codificar(p.getType2());
+        clasificacion[fila] = clasificaciones.codificar(p.getClassification());
+        alturas[fila] = p.getHeight();
+        pesos[fila] = p.getWeight();
+        generaciones[fila] = generation;
+        legendarios[fila] = p.isLegendaryStatus();
+        for (String habilidad : p.getAbilities()) {
+            agregarHabilidad(habilidades.codificar(habilidad));
+        }
+        cerrarFila(fila);
+        return fila;
+    }
+
+    /**
+     * Retorna una vista ligera del Pokémon guardado en la fila indicada.
+     *
+     * @param fila El número de fila.
+     * @return un Pokémon que lee sus atributos de las columnas.
+     */
+    public Pokemon getPokemon(int fila) {
+        if (fila < 0 || fila >= filas) {
+            throw new IndexOutOfBoundsException("Fila inválida: " + fila);
+        }
+        return new Vista(this, fila);
+    }
+
+    /**
+     * Retorna la cantidad de filas guardadas.
+     *
+     * @return la cantidad de filas.
+     */
+    public int size() {
+        return filas;
+    }
+
+    /**
+     * Retorna el diccionario compartido de tipos (Type1 y Type2).
+     *
+     * @return el diccionario de tipos.
+     */
+    public StringDictionary getTipos() {
+        return tipos;
+    }
+
+    /**
+     * Retorna el diccionario compartido de habilidades.
+     *
+     * @return el diccionario de habilidades.
+     */
+    public StringDictionary getHabilidades() {
+        return habilidades;
+    }
+
+    /**
+     * Retorna el código del tipo primario de la fila, según {@link #getTipos()}.
+     *
+     * @param fila El número de fila.
+     * @return el código del tipo primario.
+     */
+    public int getCodigoTipo1(int fila) {
+        return tipos1[fila];
+    }
+
+    /**
+     * Retorna el código del tipo secundario de la fila, según {@link #getTipos()}.
+     *
+     * @param fila El número de fila.
+     * @return el código del tipo secundario.
+     */
+    public int getCodigoTipo2(int fila) {
+        return tipos2[fila];
+    }
+
+    /**
+     * Retorna la altura de la fila.
+     *
+     * @param fila El número de fila.
+     * @return la altura en metros.
+     */
+    public double getHeight(int fila) {
+        return alturas[fila];
+    }
+
+    /**
+     * Retorna el peso de la fila.
+     *
+     * @param fila El número de fila.
+     * @return el peso en kilogramos.
+     */
+    public double getWeight(int fila) {
+        return pesos[fila];
+    }
+
+    /**
+     * Retorna la generación de la fila.
+     *
+     * @param fila El número de fila.
+     * @return la generación.
+     */
+    public int getGeneration(int fila) {
+        return generaciones[fila];
+    }
+
+    /**
+     * Indica si el Pokémon de la fila es legendario.
+     *
+     * @param fila El número de fila.
+     * @return verdadero si es legendario.
+     */
+    public boolean isLegendary(int fila) {
+        return legendarios[fila];
+    }
+
+    /**
+     * Estima la memoria ocupada por las columnas, los diccionarios, los nombres y una vista por fila.
+     *
+     * @return la cantidad aproximada de bytes.
+     */
+    public long estimarMemoriaBytes() {
+        long bytes = nombres.length * 4L
+                + pokedexNumbers.length * 4L
+                + (tipos1.length + tipos2.length + clasificacion.length) * 4L
+                + (alturas.length + pesos.length) * 8L
+                + generaciones.length * 2L
+                + legendarios.length
+                + inicioHabilidades.length * 4L
+                + habilidadesPorFila.length * 4L;
+        for (int i = 0; i < filas; i++) {
+            bytes += 40 + nombres[i].length();
+        }
+        bytes += tipos.estimarMemoriaBytes() + clasificaciones.estimarMemoriaBytes() + habilidades.estimarMemoriaBytes();
+        // Cada vista guarda la referencia al almacenamiento y el número de fila
+        bytes += filas * (long) TAMANO_VISTA;
+        return bytes;
+    }
+
+    // Tamaño de una vista: encabezado, la referencia nula heredada de Pokemon, el almacenamiento
+    // y la fila (con referencias comprimidas)
+    private static final int TAMANO_VISTA = 24;
+
+    /**
+     * Verifica que la generación quepa en la columna de shorts.
+     */
+    private static short generacion(int generation) {
+        if (generation < Short.MIN_VALUE || generation > Short.MAX_VALUE) {
+            throw new NumberFormatException("Generación fuera de rango: " + generation);
+        }
+        return (short) generation;
+    }
+
+    private int codificarCampo(StringDictionary diccionario, CsvTokenizer tokenizer, int indice) {
+        if (tokenizer.isFieldEscaped(indice)) {
+            return diccionario.codificar(tokenizer.getField(indice));
+        }
+        return diccionario.codificar(tokenizer.getSource(), tokenizer.getFieldStart(indice), tokenizer.getFieldEnd(indice));
+    }
+
+    /**
+     * Separa las habilidades de la porción [inicio, fin) por ";" o "," y las codifica.
+     */
+    private void agregarHabilidades(CharSequence texto, int inicio, int fin) {
+        int desde = inicio;
+        for (int i = inicio; i <= fin; i++) {
+            if (i == fin || texto.charAt(i) == ';' || texto.charAt(i) == ',') {
+                int a = desde;
+                int b = i;
+                while (a < b && Character.isWhitespace(texto.charAt(a))) {
+                    a++;
+                }
+                while (b > a && Character.isWhitespace(texto.charAt(b - 1))) {
+                    b--;
+                }
+                if (a < b) {
+                    agregarHabilidad(habilidades.codificar(texto, a, b));
+                }
+                desde = i + 1;
+            }
+        }
+    }
+
+    private void agregarHabilidad(int codigo) {
+        if (totalHabilidades == habilidadesPorFila.length) {
+            habilidadesPorFila = Arrays.copyOf(habilidadesPorFila, totalHabilidades * 2);
+        }
+        habilidadesPorFila[totalHabilidades++] = codigo;
+    }
+
+    private int reservarFila() {
+        if (filas == nombres.length) {
+            int capacidad = filas * 2;
+            nombres = Arrays.copyOf(nombres, capacidad);
+            pokedexNumbers = Arrays.copyOf(pokedexNumbers, capacidad);
+            tipos1 = Arrays.copyOf(tipos1, capacidad);
+            tipos2 = Arrays.copyOf(tipos2, capacidad);
+            clasificacion = Arrays.copyOf(clasificacion, capacidad);
+            alturas = Arrays.copyOf(alturas, capacidad);
+            pesos = Arrays.copyOf(pesos, capacidad);
+            generaciones = Arrays.copyOf(generaciones, capacidad);
+            legendarios = Arrays.copyOf(legendarios, capacidad);
+            inicioHabilidades = Arrays.copyOf(inicioHabilidades, capacidad + 1);
+        }
+        inicioHabilidades[filas] = totalHabilidades;
+        return filas;
+    }
+
+    private void cerrarFila(int fila) {
+        inicioHabilidades[fila + 1] = totalHabilidades;
+        filas = fila + 1;
+    }
+
+    /**
+     * Vista de una fila del almacenamiento columnar. No copia ningún atributo: además de lo que
+     * hereda de Pokemon (una referencia nula) solo guarda el almacenamiento y la fila.
+     */
+    private static class Vista extends Pokemon {
+        private static final long serialVersionUID = 1L;
+
+        private final ColumnarPokemonStore store;
+        private final int fila;
+
+        Vista(ColumnarPokemonStore store, int fila) {
+            this.store = store;
+            this.fila = fila;
+        }
+
+        @Override
+        public String getName() {
+            return store.nombres[fila];
+        }
+
+        @Override
+        public int getPokedexNumber() {
+            return store.pokedexNumbers[fila];
+        }
+
+        @Override
+        public String getType1() {
+            return store.tipos.decodificar(store.tipos1[fila]);
+        }
+
+        @Override
+        public String getType2() {
+            return store.tipos.decodificar(store.tipos2[fila]);
+        }
+
+        @Override
+        public String getClassification() {
+            return store.clasificaciones.decodificar(store.clasificacion[fila]);
+        }
+
+        @Override
+        public double getHeight() {
+            return store.alturas[fila];
+        }
+
+        @Override
+        public double getWeight() {
+            return store.pesos[fila];
+        }
+
+        @Override
+        public List<String> getAbilities() {
+            final int inicio = store.inicioHabilidades[fila];
+            final int fin = store.inicioHabilidades[fila + 1];
+            return new AbstractList<String>() {
+                @Override
+                public String get(int index) {
+                    if (index < 0 || index >= fin - inicio) {
+                        throw new IndexOutOfBoundsException("Índice: " + index);
+                    }
+                    return store.habilidades.decodificar(store.habilidadesPorFila[inicio + index]);
+                }
+
+                @Override
+                public int size() {
+                    return fin - inicio;
+                }
+            };
+        }
+
+        @Override
+        public int getGeneration() {
+            return store.generaciones[fila];
+        }
+
+        @Override
+        public boolean isLegendaryStatus() {
+            return store.legendarios[fila];
+        }
+
+        /**
+         * Al serializar se escribe un Pokémon independiente en lugar de todo el almacenamiento.
+         */
+        private Object writeReplace() throws ObjectStreamException {
+            return new Pokemon(getName(), getPokedexNumber(), getType1(), getType2(), getClassification(),
+                    getHeight(), getWeight(), getAbilities(), getGeneration(), isLegendaryStatus());
+        }
+    }
+}
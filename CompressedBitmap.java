@@ -0,0 +1,549 @@
+import java.util.Arrays;
+
+/**
+ * Conjunto de enteros no negativos comprimido al estilo de Roaring.
+ * Los enteros se agrupan por sus 16 bits altos; cada grupo guarda los 16 bits bajos en un
+ * contenedor que es un arreglo ordenado si tiene pocos elementos (hasta 4096) o un mapa de
+ * 65536 bits en otro caso. Así un conjunto disperso ocupa 2 bytes por elemento y uno denso
+ * 1 bit por elemento.
+ *
+ * Las operaciones {@link #and}, {@link #or} y {@link #andNot} retornan un conjunto nuevo y no
+ * modifican los operandos; {@link #andCardinality} cuenta la intersección sin construirla.
+ */
+public class CompressedBitmap {
+    // Máxima cantidad de elementos de un contenedor en forma de arreglo
+    private static final int MAX_ARREGLO = 4096;
+    private static final int PALABRAS = 1 << 10;
+
+    private char[] claves = new char[4];
+    private Contenedor[] contenedores = new Contenedor[4];
+    private int tamano;
+
+    /**
+     * Agrega un entero al conjunto.
+     *
+     * @param x El entero (no negativo) a agregar.
+     */
+    public void add(int x) {
+        char alto = (char) (x >>> 16);
+        int i = buscarClave(alto);
+        if (i < 0) {
+            i = -i - 1;
+            insertarContenedor(i, alto, new Contenedor());
+        }
+        contenedores[i] = contenedores[i].agregar((char) x);
+    }
+
+    /**
+     * Quita un entero del conjunto, si estaba.
+     *
+     * @param x El entero a quitar.
+     */
+    public void remove(int x) {
+        int i = buscarClave((char) (x >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Contenedor c = contenedores[i].quitar((char) x);
+        if (c.cardinalidad == 0) {
+            System.arraycopy(claves, i + 1, claves, i, tamano - i - 1);
+            System.arraycopy(contenedores, i + 1, contenedores, i, tamano - i - 1);
+            contenedores[--tamano] = null;
+        } else {
+            contenedores[i] = c;
+        }
+    }
+
+    /**
+     * Indica si el entero pertenece al conjunto.
+     *
+     * @param x El entero a buscar.
+     * @return verdadero si está en el conjunto.
+     */
+    public boolean contains(int x) {
+        int i = buscarClave((char) (x >>> 16));
+        return i >= 0 && contenedores[i].contiene((char) x);
+    }
+
+    /**
+     * Retorna la cantidad de elementos del conjunto.
+     *
+     * @return la cardinalidad.
+     */
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < tamano; i++) {
+            total += contenedores[i].cardinalidad;
+        }
+        return total;
+    }
+
+    /**
+     * Indica si el conjunto no tiene elementos.
+     *
+     * @return verdadero si está vacío.
+     */
+    public boolean isEmpty() {
+        return tamano == 0;
+    }
+
+    /**
+     * Vacía el conjunto.
+     */
+    public void clear() {
+        Arrays.fill(contenedores, 0, tamano, null);
+        tamano = 0;
+    }
+
+    /**
+     * Retorna la intersección de este conjunto con otro.
+     *
+     * @param otro El otro conjunto.
+     * @return un conjunto nuevo con los elementos presentes en ambos.
+     */
+    public CompressedBitmap and(CompressedBitmap otro) {
+        CompressedBitmap r = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < tamano && j < otro.tamano) {
+            if (claves[i] < otro.claves[j]) {
+                i++;
+            } else if (claves[i] > otro.claves[j]) {
+                j++;
+            } else {
+                Contenedor c = contenedores[i].and(otro.contenedores[j]);
+                if (c.cardinalidad > 0) {
+                    r.agregarAlFinal(claves[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Retorna la unión de este conjunto con otro.
+     *
+     * @param otro El otro conjunto.
+     * @return un conjunto nuevo con los elementos presentes en alguno de los dos.
+     */
+    public CompressedBitmap or(CompressedBitmap otro) {
+        CompressedBitmap r = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < tamano || j < otro.tamano) {
+            if (j == otro.tamano || (i < tamano && claves[i] < otro.claves[j])) {
+                r.agregarAlFinal(claves[i], contenedores[i].copia());
+                i++;
+            } else if (i == tamano || claves[i] > otro.claves[j]) {
+                r.agregarAlFinal(otro.claves[j], otro.contenedores[j].copia());
+                j++;
+            } else {
+                r.agregarAlFinal(claves[i], contenedores[i].or(otro.contenedores[j]));
+                i++;
+                j++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Retorna la diferencia entre este conjunto y otro. Junto con un conjunto que contenga todas
+     * las filas válidas, sirve para expresar la negación.
+     *
+     * @param otro El conjunto cuyos elementos se excluyen.
+     * @return un conjunto nuevo con los elementos de este que no están en el otro.
+     */
+    public CompressedBitmap andNot(CompressedBitmap otro) {
+        CompressedBitmap r = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < tamano; i++) {
+            while (j < otro.tamano && otro.claves[j] < claves[i]) {
+                j++;
+            }
+            Contenedor c = j < otro.tamano && otro.claves[j] == claves[i]
+                    ? contenedores[i].andNot(otro.contenedores[j])
+                    : contenedores[i].copia();
+            if (c.cardinalidad > 0) {
+                r.agregarAlFinal(claves[i], c);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Cuenta los elementos comunes a este conjunto y otro sin construir la intersección.
+     *
+     * @param otro El otro conjunto.
+     * @return la cardinalidad de la intersección.
+     */
+    public int andCardinality(CompressedBitmap otro) {
+        int total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < tamano && j < otro.tamano) {
+            if (claves[i] < otro.claves[j]) {
+                i++;
+            } else if (claves[i] > otro.claves[j]) {
+                j++;
+            } else {
+                total += contenedores[i].andCardinalidad(otro.contenedores[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Retorna los elementos del conjunto en orden ascendente.
+     *
+     * @return un arreglo nuevo con los elementos.
+     */
+    public int[] toArray() {
+        int[] r = new int[cardinality()];
+        int k = 0;
+        for (int i = 0; i < tamano; i++) {
+            int base = claves[i] << 16;
+            Contenedor c = contenedores[i];
+            if (c.bits == null) {
+                for (int e = 0; e < c.cardinalidad; e++) {
+                    r[k++] = base | c.arreglo[e];
+                }
+            } else {
+                for (int w = 0; w < PALABRAS; w++) {
+                    long palabra = c.bits[w];
+                    while (palabra != 0) {
+                        r[k++] = base | (w << 6) | Long.numberOfTrailingZeros(palabra);
+                        palabra &= palabra - 1;
+                    }
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Retorna el conjunto como palabras de 64 bits, en el formato de {@link java.util.BitSet#toLongArray}:
+     * el bit x está en la palabra x / 64. Sirve para combinar el conjunto con máscaras calculadas
+     * sobre columnas.
+     *
+     * @return un arreglo nuevo que llega hasta la palabra del mayor elemento.
+     */
+    public long[] toLongArray() {
+        if (tamano == 0) {
+            return new long[0];
+        }
+        Contenedor ultimo = contenedores[tamano - 1];
+        int mayor = ultimo.bits == null ? ultimo.arreglo[ultimo.cardinalidad - 1] : ultimo.mayorBit();
+        long[] r = new long[(((claves[tamano - 1] << 16) | mayor) >>> 6) + 1];
+        for (int i = 0; i < tamano; i++) {
+            int base = claves[i] << 10;
+            Contenedor c = contenedores[i];
+            if (c.bits == null) {
+                for (int e = 0; e < c.cardinalidad; e++) {
+                    char x = c.arreglo[e];
+                    r[base + (x >>> 6)] |= 1L << x;
+                }
+            } else {
+                System.arraycopy(c.bits, 0, r, base, Math.min(PALABRAS, r.length - base));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Estima la memoria que ocupan los contenedores del conjunto.
+     *
+     * @return la cantidad aproximada de bytes.
+     */
+    public long estimarMemoriaBytes() {
+        long bytes = 16 + claves.length * 2L + contenedores.length * 4L;
+        for (int i = 0; i < tamano; i++) {
+            Contenedor c = contenedores[i];
+            bytes += 24 + (c.bits == null ? 16 + c.arreglo.length * 2L : 16 + PALABRAS * 8L);
+        }
+        return bytes;
+    }
+
+    private int buscarClave(char alto) {
+        // Casi siempre se agrega o busca en el último contenedor (filas crecientes)
+        if (tamano > 0 && claves[tamano - 1] == alto) {
+            return tamano - 1;
+        }
+        return Arrays.binarySearch(claves, 0, tamano, alto);
+    }
+
+    private void insertarContenedor(int i, char alto, Contenedor c) {
+        if (tamano == claves.length) {
+            claves = Arrays.copyOf(claves, tamano * 2);
+            contenedores = Arrays.copyOf(contenedores, tamano * 2);
+        }
+        System.arraycopy(claves, i, claves, i + 1, tamano - i);
+        System.arraycopy(contenedores, i, contenedores, i + 1, tamano - i);
+        claves[i] = alto;
+        contenedores[i] = c;
+        tamano++;
+    }
+
+    private void agregarAlFinal(char alto, Contenedor c) {
+        insertarContenedor(tamano, alto, c);
+    }
+
+    /**
+     * Los 16 bits bajos de los elementos de un grupo: arreglo ordenado (bits == null) o mapa de bits.
+     */
+    private static final class Contenedor {
+        char[] arreglo;
+        long[] bits;
+        int cardinalidad;
+
+        Contenedor() {
+            arreglo = new char[4];
+        }
+
+        private Contenedor(char[] arreglo, long[] bits, int cardinalidad) {
+            this.arreglo = arreglo;
+            this.bits = bits;
+            this.cardinalidad = cardinalidad;
+        }
+
+        boolean contiene(char x) {
+            if (bits != null) {
+                return (bits[x >>> 6] & (1L << x)) != 0;
+            }
+            return Arrays.binarySearch(arreglo, 0, cardinalidad, x) >= 0;
+        }
+
+        Contenedor agregar(char x) {
+            if (bits != null) {
+                long antes = bits[x >>> 6];
+                bits[x >>> 6] = antes | (1L << x);
+                if (bits[x >>> 6] != antes) {
+                    cardinalidad++;
+                }
+                return this;
+            }
+            int i = cardinalidad > 0 && arreglo[cardinalidad - 1] < x
+                    ? -cardinalidad - 1
+                    : Arrays.binarySearch(arreglo, 0, cardinalidad, x);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinalidad == MAX_ARREGLO) {
+                return aBits().agregar(x);
+            }
+            i = -i - 1;
+            if (cardinalidad == arreglo.length) {
+                arreglo = Arrays.copyOf(arreglo, Math.min(MAX_ARREGLO, Math.max(4, cardinalidad * 2)));
+            }
+            System.arraycopy(arreglo, i, arreglo, i + 1, cardinalidad - i);
+            arreglo[i] = x;
+            cardinalidad++;
+            return this;
+        }
+
+        Contenedor quitar(char x) {
+            if (bits != null) {
+                long antes = bits[x >>> 6];
+                bits[x >>> 6] = antes & ~(1L << x);
+                if (bits[x >>> 6] != antes) {
+                    cardinalidad--;
+                }
+                return cardinalidad <= MAX_ARREGLO ? aArreglo() : this;
+            }
+            int i = Arrays.binarySearch(arreglo, 0, cardinalidad, x);
+            if (i >= 0) {
+                System.arraycopy(arreglo, i + 1, arreglo, i, cardinalidad - i - 1);
+                cardinalidad--;
+            }
+            return this;
+        }
+
+        Contenedor copia() {
+            return bits != null
+                    ? new Contenedor(null, bits.clone(), cardinalidad)
+                    : new Contenedor(Arrays.copyOf(arreglo, Math.max(cardinalidad, 1)), null, cardinalidad);
+        }
+
+        Contenedor and(Contenedor o) {
+            if (bits == null && o.bits == null) {
+                char[] r = new char[Math.min(cardinalidad, o.cardinalidad)];
+                int k = 0;
+                int i = 0;
+                int j = 0;
+                while (i < cardinalidad && j < o.cardinalidad) {
+                    if (arreglo[i] < o.arreglo[j]) {
+                        i++;
+                    } else if (arreglo[i] > o.arreglo[j]) {
+                        j++;
+                    } else {
+                        r[k++] = arreglo[i];
+                        i++;
+                        j++;
+                    }
+                }
+                return new Contenedor(r, null, k);
+            }
+            if (bits == null || o.bits == null) {
+                // Arreglo contra mapa de bits: se filtran los elementos del arreglo
+                Contenedor a = bits == null ? this : o;
+                Contenedor b = bits == null ? o : this;
+                char[] r = new char[a.cardinalidad];
+                int k = 0;
+                for (int i = 0; i < a.cardinalidad; i++) {
+                    // Sin saltos: se escribe siempre y solo se avanza si el bit está
+                    char x = a.arreglo[i];
+                    r[k] = x;
+                    k += (int) (b.bits[x >>> 6] >>> x) & 1;
+                }
+                return new Contenedor(r, null, k);
+            }
+            // Se cuenta primero para escribir el resultado directamente en la forma que le corresponde
+            int card = andCardinalidad(o);
+            if (card > MAX_ARREGLO) {
+                long[] r = new long[PALABRAS];
+                for (int w = 0; w < PALABRAS; w++) {
+                    r[w] = bits[w] & o.bits[w];
+                }
+                return new Contenedor(null, r, card);
+            }
+            char[] r = new char[Math.max(card, 1)];
+            int k = 0;
+            for (int w = 0; w < PALABRAS; w++) {
+                for (long palabra = bits[w] & o.bits[w]; palabra != 0; palabra &= palabra - 1) {
+                    r[k++] = (char) ((w << 6) | Long.numberOfTrailingZeros(palabra));
+                }
+            }
+            return new Contenedor(r, null, card);
+        }
+
+        Contenedor or(Contenedor o) {
+            if (bits == null && o.bits == null && cardinalidad + o.cardinalidad <= MAX_ARREGLO) {
+                char[] r = new char[cardinalidad + o.cardinalidad];
+                int k = 0;
+                int i = 0;
+                int j = 0;
+                while (i < cardinalidad || j < o.cardinalidad) {
+                    if (j == o.cardinalidad || (i < cardinalidad && arreglo[i] < o.arreglo[j])) {
+                        r[k++] = arreglo[i++];
+                    } else if (i == cardinalidad || arreglo[i] > o.arreglo[j]) {
+                        r[k++] = o.arreglo[j++];
+                    } else {
+                        r[k++] = arreglo[i++];
+                        j++;
+                    }
+                }
+                return new Contenedor(r, null, k);
+            }
+            long[] r = comoBits();
+            o.unirEn(r);
+            int card = 0;
+            for (long palabra : r) {
+                card += Long.bitCount(palabra);
+            }
+            return normalizar(r, card);
+        }
+
+        Contenedor andNot(Contenedor o) {
+            if (bits == null) {
+                char[] r = new char[cardinalidad];
+                int k = 0;
+                for (int i = 0; i < cardinalidad; i++) {
+                    if (!o.contiene(arreglo[i])) {
+                        r[k++] = arreglo[i];
+                    }
+                }
+                return new Contenedor(r, null, k);
+            }
+            long[] r = bits.clone();
+            if (o.bits != null) {
+                for (int w = 0; w < PALABRAS; w++) {
+                    r[w] &= ~o.bits[w];
+                }
+            } else {
+                for (int i = 0; i < o.cardinalidad; i++) {
+                    char x = o.arreglo[i];
+                    r[x >>> 6] &= ~(1L << x);
+                }
+            }
+            int card = 0;
+            for (long palabra : r) {
+                card += Long.bitCount(palabra);
+            }
+            return normalizar(r, card);
+        }
+
+        int andCardinalidad(Contenedor o) {
+            if (bits != null && o.bits != null) {
+                int card = 0;
+                for (int w = 0; w < PALABRAS; w++) {
+                    card += Long.bitCount(bits[w] & o.bits[w]);
+                }
+                return card;
+            }
+            Contenedor a = bits == null ? this : o;
+            Contenedor b = bits == null ? o : this;
+            int card = 0;
+            for (int i = 0; i < a.cardinalidad; i++) {
+                if (b.contiene(a.arreglo[i])) {
+                    card++;
+                }
+            }
+            return card;
+        }
+
+        int mayorBit() {
+            int w = PALABRAS - 1;
+            while (bits[w] == 0) {
+                w--;
+            }
+            return (w << 6) | (63 - Long.numberOfLeadingZeros(bits[w]));
+        }
+
+        private long[] comoBits() {
+            if (bits != null) {
+                return bits.clone();
+            }
+            long[] r = new long[PALABRAS];
+            unirEn(r);
+            return r;
+        }
+
+        private void unirEn(long[] r) {
+            if (bits != null) {
+                for (int w = 0; w < PALABRAS; w++) {
+                    r[w] |= bits[w];
+                }
+            } else {
+                for (int i = 0; i < cardinalidad; i++) {
+                    char x = arreglo[i];
+                    r[x >>> 6] |= 1L << x;
+                }
+            }
+        }
+
+        private Contenedor aBits() {
+            return new Contenedor(null, comoBits(), cardinalidad);
+        }
+
+        private Contenedor aArreglo() {
+            char[] r = new char[Math.max(cardinalidad, 1)];
+            int k = 0;
+            for (int w = 0; w < PALABRAS; w++) {
+                long palabra = bits[w];
+                while (palabra != 0) {
+                    r[k++] = (char) ((w << 6) | Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+            return new Contenedor(r, null, k);
+        }
+
+        private static Contenedor normalizar(long[] bits, int cardinalidad) {
+            Contenedor c = new Contenedor(null, bits, cardinalidad);
+            return cardinalidad <= MAX_ARREGLO ? c.aArreglo() : c;
+        }
+    }
+}
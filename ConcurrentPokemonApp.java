@@ -0,0 +1,382 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versión de la aplicación pensada para atender a muchos usuarios desde la misma JVM.
+ *
+ * El catálogo completo se publica como un {@link Catalogo} inmutable en un campo volatile:
+ * las lecturas no toman ningún bloqueo, y una recarga construye un catálogo nuevo (con sus
+ * índices) y lo reemplaza de forma atómica, sin que los lectores vean un estado intermedio.
+ *
+ * Cada usuario tiene su propia colección, que conserva el orden de inserción. Las colecciones
+ * se guardan en un ConcurrentHashMap por identificador de usuario y cada una se sincroniza
+ * por separado, de modo que dos usuarios distintos nunca compiten por el mismo bloqueo.
+ *
+ * Con {@link #abrirRegistro(Path)} las colecciones se vuelven durables: cada cambio se escribe
+ * en un {@link CollectionJournal} y la operación retorna cuando ya está sincronizado en el
+ * disco. Los cambios de muchos usuarios comparten cada sincronización, por lo que no se paga
+ * una por operación.
+ */
+public class ConcurrentPokemonApp {
+
+    /**
+     * Resultado de agregar un Pokémon a la colección de un usuario.
+     */
+    public enum Resultado {
+        AGREGADO,
+        YA_EXISTE,
+        NO_ENCONTRADO
+    }
+
+    /**
+     * Catálogo de Pokémon con sus índices. Una vez publicado no se modifica, por lo que puede
+     * leerse desde cualquier cantidad de hilos sin sincronización.
+     */
+    public static final class Catalogo {
+        private final PokemonApp datos;
+        private final Map<String, Pokemon> pokemons;
+        private final long version;
+
+        private Catalogo(PokemonApp datos, long version) {
+            this.datos = datos;
+            this.pokemons = Collections.unmodifiableMap(datos.getPokemonMap());
+            this.version = version;
+        }
+
+        /**
+         * Retorna el Pokémon con el nombre indicado.
+         *
+         * @param name El nombre del Pokémon.
+         * @return el Pokémon, o null si no está en el catálogo.
+         */
+        public Pokemon get(String name) {
+            return pokemons.get(name);
+        }
+
+        /**
+         * Retorna una vista de solo lectura de todos los Pokémon del catálogo.
+         *
+         * @return el mapa de Pokémon (clave: nombre).
+         */
+        public Map<String, Pokemon> getPokemons() {
+            return pokemons;
+        }
+
+        /**
+         * Retorna la cantidad de Pokémon del catálogo.
+         *
+         * @return la cantidad de Pokémon.
+         */
+        public int size() {
+            return pokemons.size();
+        }
+
+        /**
+         * Retorna el número de versión del catálogo; aumenta con cada recarga.
+         *
+         * @return la versión del catálogo.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Busca los Pokémon que poseen alguna habilidad que contiene el texto indicado.
+         *
+         * @param habilidad El texto a buscar (sin distinguir mayúsculas).
+         * @return la lista de coincidencias, vacía si no hay ninguna.
+         */
+        public List<AbilityIndex.Coincidencia> buscarPorHabilidad(String habilidad) {
+            return datos.buscarPorHabilidad(habilidad);
+        }
+
+        /**
+         * Retorna los Pokémon cuyo tipo primario es el indicado.
+         *
+         * @param tipo El tipo a buscar (sin distinguir mayúsculas).
+         * @return los Pokémon de ese tipo, vacío si no hay ninguno.
+         */
+        public Collection<Pokemon> getPorTipo1(String tipo) {
+            return datos.getTypeIndex().getPorTipo1(tipo);
+        }
+
+        /**
+         * Retorna todos los Pokémon del catálogo ordenados por su tipo primario.
+         *
+         * @return un Iterable sobre los Pokémon ordenados por Type1.
+         */
+        public Iterable<Pokemon> ordenadosPorTipo1() {
+            return datos.getPokemonsOrdenadosPorTipo1();
+        }
+    }
+
+    /**
+     * Colección de un usuario. Se protege con su propio monitor.
+     * Un valor null es un nombre recuperado del registro que no estaba en el catálogo; se
+     * conserva en su posición y se resuelve cuando una recarga lo incluye.
+     */
+    private static final class ColeccionUsuario {
+        private final LinkedHashMap<String, Pokemon> pokemons = new LinkedHashMap<>();
+
+        synchronized boolean agregar(String name, Pokemon p) {
+            if (pokemons.containsKey(name)) {
+                return false;
+            }
+            pokemons.put(name, p);
+            return true;
+        }
+
+        synchronized boolean quitar(String name) {
+            if (!pokemons.containsKey(name)) {
+                return false;
+            }
+            pokemons.remove(name);
+            return true;
+        }
+
+        synchronized boolean contiene(String name) {
+            return pokemons.containsKey(name);
+        }
+
+        synchronized List<Pokemon> copiar() {
+            List<Pokemon> copia = new ArrayList<>(pokemons.size());
+            for (Pokemon p : pokemons.values()) {
+                if (p != null) {
+                    copia.add(p);
+                }
+            }
+            return copia;
+        }
+
+        synchronized List<String> copiarNombres() {
+            return new ArrayList<>(pokemons.keySet());
+        }
+
+        synchronized void resolverPendientes(Catalogo catalogo) {
+            for (Map.Entry<String, Pokemon> e : pokemons.entrySet()) {
+                if (e.getValue() == null) {
+                    e.setValue(catalogo.get(e.getKey()));
+                }
+            }
+        }
+
+        synchronized int size() {
+            return pokemons.size();
+        }
+    }
+
+    private final int mapOption;
+    private final Object bloqueoRecarga = new Object();
+    private volatile Catalogo catalogo;
+    private final ConcurrentHashMap<String, ColeccionUsuario> colecciones = new ConcurrentHashMap<>();
+    // Registro de las colecciones; null mientras no se abre
+    private volatile CollectionJournal registro;
+
+    /**
+     * Construye la aplicación con un catálogo vacío.
+     *
+     * @param mapOption La implementación de Map del catálogo (ver {@link MapFactory}).
+     */
+    public ConcurrentPokemonApp(int mapOption) {
+        this.mapOption = mapOption;
+        this.catalogo = new Catalogo(new PokemonApp(mapOption), 0);
+    }
+
+    /**
+     * Carga el catálogo desde el archivo CSV (o su instantánea) y lo publica.
+     * Los lectores siguen usando el catálogo anterior hasta que el nuevo está completo.
+     *
+     * @param filePath La ruta completa del archivo CSV.
+     */
+    public void recargar(String filePath) {
+        PokemonApp datos = new PokemonApp(mapOption);
+        datos.cargarDatos(filePath);
+        publicar(datos);
+    }
+
+    /**
+     * Reemplaza el catálogo por uno nuevo con los Pokémon indicados.
+     *
+     * @param pokemons Los Pokémon del nuevo catálogo.
+     */
+    public void recargar(Collection<Pokemon> pokemons) {
+        PokemonApp datos = new PokemonApp(mapOption);
+        for (Pokemon p : pokemons) {
+            datos.getPokemonMap().put(p.getName(), p);
+        }
+        publicar(datos);
+    }
+
+    private void publicar(PokemonApp datos) {
+        // Las recargas se serializan entre sí para que las versiones sean consecutivas;
+        // los lectores nunca toman este bloqueo
+        synchronized (bloqueoRecarga) {
+            catalogo = new Catalogo(datos, catalogo.getVersion() + 1);
+        }
+        for (ColeccionUsuario coleccion : colecciones.values()) {
+            coleccion.resolverPendientes(catalogo);
+        }
+    }
+
+    /**
+     * Abre el registro de colecciones del directorio indicado y recupera las colecciones
+     * guardadas, en su orden de inserción. Conviene cargar el catálogo antes, para que los
+     * Pokémon recuperados se resuelvan de inmediato; los que no están en el catálogo se
+     * conservan y aparecen en la colección cuando una recarga los incluye.
+     *
+     * @param directorio El directorio del registro.
+     * @throws IOException si no se puede leer el registro o algún archivo está dañado.
+     */
+    public void abrirRegistro(Path directorio) throws IOException {
+        if (registro != null) {
+            throw new IllegalStateException("El registro de colecciones ya está abierto");
+        }
+        Catalogo actual = catalogo;
+        registro = new CollectionJournal(directorio, (operacion, usuario, name) -> {
+            ColeccionUsuario coleccion = colecciones.computeIfAbsent(usuario, u -> new ColeccionUsuario());
+            if (operacion == CollectionJournal.AGREGAR) {
+                coleccion.agregar(name, actual.get(name));
+            } else {
+                coleccion.quitar(name);
+            }
+        }, destino -> {
+            for (Map.Entry<String, ColeccionUsuario> e : colecciones.entrySet()) {
+                for (String name : e.getValue().copiarNombres()) {
+                    destino.aplicar(CollectionJournal.AGREGAR, e.getKey(), name);
+                }
+            }
+        });
+    }
+
+    /**
+     * Escribe un checkpoint con el estado actual de las colecciones y cierra el registro.
+     * Las colecciones siguen en memoria, pero los cambios posteriores ya no se guardan.
+     *
+     * @throws IOException si no se puede escribir el checkpoint o cerrar el registro.
+     */
+    public void cerrarRegistro() throws IOException {
+        CollectionJournal actual = registro;
+        if (actual == null) {
+            return;
+        }
+        try {
+            actual.checkpoint();
+        } finally {
+            registro = null;
+            actual.close();
+        }
+    }
+
+    /**
+     * Retorna el registro de colecciones abierto.
+     *
+     * @return el registro, o null si las colecciones no se guardan.
+     */
+    public CollectionJournal getRegistro() {
+        return registro;
+    }
+
+    /**
+     * Retorna el catálogo publicado en este momento. Para hacer varias consultas coherentes
+     * entre sí conviene obtenerlo una vez y reutilizarlo.
+     *
+     * @return el catálogo actual.
+     */
+    public Catalogo getCatalogo() {
+        return catalogo;
+    }
+
+    /**
+     * Agrega un Pokémon del catálogo a la colección del usuario indicado.
+     * La operación es atómica: si varios hilos agregan el mismo Pokémon al mismo usuario,
+     * solo uno obtiene {@link Resultado#AGREGADO}. Si el registro está abierto, retorna
+     * cuando el agregado ya está sincronizado en el disco.
+     *
+     * @param usuario El identificador del usuario.
+     * @param name    El nombre del Pokémon a agregar.
+     * @return el resultado de la operación.
+     */
+    public Resultado agregarPokemonAUsuario(String usuario, String name) {
+        Pokemon p = catalogo.get(name);
+        ColeccionUsuario coleccion = colecciones.computeIfAbsent(usuario, u -> new ColeccionUsuario());
+        if (p == null) {
+            return coleccion.contiene(name) ? Resultado.YA_EXISTE : Resultado.NO_ENCONTRADO;
+        }
+        CollectionJournal actual = registro;
+        if (actual == null) {
+            return coleccion.agregar(name, p) ? Resultado.AGREGADO : Resultado.YA_EXISTE;
+        }
+        // El registro aplica el cambio bajo su propio bloqueo; la espera del disco es aparte
+        long secuencia = actual.registrar(CollectionJournal.AGREGAR, usuario, name, () -> coleccion.agregar(name, p));
+        if (secuencia == 0) {
+            return Resultado.YA_EXISTE;
+        }
+        actual.esperar(secuencia);
+        return Resultado.AGREGADO;
+    }
+
+    /**
+     * Quita un Pokémon de la colección del usuario indicado. Si el registro está abierto,
+     * retorna cuando la operación ya está sincronizada en el disco.
+     *
+     * @param usuario El identificador del usuario.
+     * @param name    El nombre del Pokémon a quitar.
+     * @return true si el Pokémon estaba en la colección.
+     */
+    public boolean quitarPokemonDeUsuario(String usuario, String name) {
+        ColeccionUsuario coleccion = colecciones.get(usuario);
+        if (coleccion == null) {
+            return false;
+        }
+        CollectionJournal actual = registro;
+        if (actual == null) {
+            return coleccion.quitar(name);
+        }
+        long secuencia = actual.registrar(CollectionJournal.QUITAR, usuario, name, () -> coleccion.quitar(name));
+        if (secuencia == 0) {
+            return false;
+        }
+        actual.esperar(secuencia);
+        return true;
+    }
+
+    /**
+     * Retorna una copia de la colección del usuario, en el orden en que se agregaron los Pokémon.
+     *
+     * @param usuario El identificador del usuario.
+     * @return la lista de Pokémon del usuario, vacía si el usuario no tiene colección.
+     */
+    public List<Pokemon> getColeccionUsuario(String usuario) {
+        ColeccionUsuario coleccion = colecciones.get(usuario);
+        return coleccion == null ? new ArrayList<>() : coleccion.copiar();
+    }
+
+    /**
+     * Retorna la cantidad de Pokémon en la colección del usuario, incluidos los recuperados
+     * del registro que todavía no están en el catálogo.
+     *
+     * @param usuario El identificador del usuario.
+     * @return la cantidad de Pokémon, 0 si el usuario no tiene colección.
+     */
+    public int getTamanoColeccion(String usuario) {
+        ColeccionUsuario coleccion = colecciones.get(usuario);
+        return coleccion == null ? 0 : coleccion.size();
+    }
+
+    /**
+     * Retorna los identificadores de los usuarios que tienen colección.
+     *
+     * @return el conjunto de usuarios (vista de solo lectura).
+     */
+    public Set<String> getUsuarios() {
+        return Collections.unmodifiableSet(colecciones.keySet());
+    }
+}
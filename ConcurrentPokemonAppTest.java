@@ -0,0 +1,240 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pruebas de estrés de ConcurrentPokemonApp con varios hilos.
+ */
+public class ConcurrentPokemonAppTest {
+    private static final int POKEMONS = 500;
+    private static final int HILOS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private ConcurrentPokemonApp app;
+    private List<Pokemon> catalogo;
+
+    /**
+     * Crea un catálogo sintético con tipos y habilidades repetidos.
+     */
+    @BeforeEach
+    public void setUp() {
+        app = new ConcurrentPokemonApp(1);
+        catalogo = crearCatalogo("P", POKEMONS);
+        app.recargar(catalogo);
+    }
+
+    private static List<Pokemon> crearCatalogo(String prefijo, int cantidad) {
+        String[] tipos = {"Fire", "Water", "Grass", "Electric"};
+        List<Pokemon> pokemons = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            pokemons.add(new Pokemon(prefijo + i, i + 1, tipos[i % tipos.length], "", "Test", 1.0, 10.0,
+                    "Blaze;Torrent", 1, false));
+        }
+        return pokemons;
+    }
+
+    /**
+     * Ejecuta la tarea en todos los hilos a la vez y espera a que terminen.
+     */
+    private static void enParalelo(int hilos, Tarea tarea) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch inicio = new CountDownLatch(1);
+        List<Future<?>> futuros = new ArrayList<>();
+        for (int h = 0; h < hilos; h++) {
+            final int hilo = h;
+            futuros.add(pool.submit(() -> {
+                inicio.await();
+                tarea.ejecutar(hilo);
+                return null;
+            }));
+        }
+        inicio.countDown();
+        for (Future<?> futuro : futuros) {
+            futuro.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private interface Tarea {
+        void ejecutar(int hilo) throws Exception;
+    }
+
+    /**
+     * Prueba que varios hilos agregando los mismos Pokémon al mismo usuario no produzcan duplicados.
+     */
+    @Test
+    public void testAgregarMismoUsuarioSinDuplicados() throws Exception {
+        AtomicInteger agregados = new AtomicInteger();
+        enParalelo(HILOS, hilo -> {
+            for (int i = 0; i < POKEMONS; i++) {
+                if (app.agregarPokemonAUsuario("ash", "P" + i) == ConcurrentPokemonApp.Resultado.AGREGADO) {
+                    agregados.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(POKEMONS, agregados.get());
+        List<Pokemon> coleccion = app.getColeccionUsuario("ash");
+        assertEquals(POKEMONS, coleccion.size());
+        assertEquals(POKEMONS, new HashSet<>(coleccion).size());
+        assertEquals(ConcurrentPokemonApp.Resultado.NO_ENCONTRADO, app.agregarPokemonAUsuario("ash", "MissingNo"));
+    }
+
+    /**
+     * Prueba que cada usuario conserve el orden de inserción de su propia colección.
+     */
+    @Test
+    public void testColeccionesPorUsuarioConservanOrden() throws Exception {
+        enParalelo(HILOS, hilo -> {
+            for (int i = 0; i < POKEMONS; i++) {
+                app.agregarPokemonAUsuario("usuario" + hilo, "P" + i);
+            }
+        });
+
+        assertEquals(HILOS, app.getUsuarios().size());
+        for (int h = 0; h < HILOS; h++) {
+            List<Pokemon> coleccion = app.getColeccionUsuario("usuario" + h);
+            assertEquals(POKEMONS, coleccion.size());
+            for (int i = 0; i < POKEMONS; i++) {
+                assertEquals("P" + i, coleccion.get(i).getName());
+            }
+        }
+    }
+
+    /**
+     * Prueba que los lectores siempre vean un catálogo completo mientras otro hilo lo recarga.
+     * Cada catálogo publicado debe ser coherente: el mapa y los índices corresponden a la misma versión.
+     */
+    @Test
+    public void testRecargaAtomicaDuranteLecturas() throws Exception {
+        List<Pokemon> otroCatalogo = crearCatalogo("Q", POKEMONS * 2);
+        AtomicBoolean recargando = new AtomicBoolean(true);
+        AtomicInteger inconsistencias = new AtomicInteger();
+
+        Thread recargador = new Thread(() -> {
+            for (int i = 0; i < 50; i++) {
+                app.recargar(i % 2 == 0 ? otroCatalogo : catalogo);
+            }
+            recargando.set(false);
+        });
+        recargador.start();
+        enParalelo(HILOS, hilo -> {
+            while (recargando.get()) {
+                ConcurrentPokemonApp.Catalogo actual = app.getCatalogo();
+                int total = actual.size();
+                int porTipo = 0;
+                for (Pokemon p : actual.ordenadosPorTipo1()) {
+                    porTipo++;
+                }
+                if (porTipo != total || actual.buscarPorHabilidad("blaze").size() != total
+                        || (total != POKEMONS && total != POKEMONS * 2)) {
+                    inconsistencias.incrementAndGet();
+                }
+            }
+        });
+        recargador.join();
+
+        assertEquals(0, inconsistencias.get());
+        assertEquals(51, app.getCatalogo().getVersion());
+    }
+
+    /**
+     * Prueba las rutas del servicio HTTP, incluida una solicitud por lotes, con varios clientes a la vez.
+     */
+    @Test
+    public void testServicioHttp() throws Exception {
+        PokemonHttpServer servidor = new PokemonHttpServer(app, 0);
+        servidor.iniciar();
+        try {
+            HttpClient cliente = HttpClient.newHttpClient();
+            String base = "http://localhost:" + servidor.getPuerto();
+            HttpResponse<String> r = cliente.send(HttpRequest.newBuilder(
+                    URI.create(base + "/pokemon?nombre=P7")).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, r.statusCode());
+            assertTrue(r.body().startsWith("{\"nombre\":\"P7\",\"pokedex\":8,\"tipo1\":\"Electric\""));
+            r = cliente.send(HttpRequest.newBuilder(URI.create(base + "/pokemon?nombre=Nadie")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(404, r.statusCode());
+
+            AtomicInteger agregados = new AtomicInteger();
+            enParalelo(HILOS, hilo -> {
+                for (int i = 0; i < 50; i++) {
+                    HttpResponse<String> respuesta = cliente.send(HttpRequest.newBuilder(
+                            URI.create(base + "/coleccion?usuario=web&nombre=P" + i))
+                            .POST(HttpRequest.BodyPublishers.noBody()).build(),
+                            HttpResponse.BodyHandlers.ofString());
+                    if (respuesta.statusCode() == 201) {
+                        agregados.incrementAndGet();
+                    }
+                }
+            });
+            assertEquals(50, agregados.get());
+            assertEquals(50, app.getTamanoColeccion("web"));
+
+            r = cliente.send(HttpRequest.newBuilder(URI.create(base + "/lote"))
+                    .POST(HttpRequest.BodyPublishers.ofString("GET /tipo?tipo=fire\nGET /nada\n")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, r.statusCode());
+            assertTrue(r.body().startsWith("[{\"estado\":200,\"respuesta\":[{\"nombre\":\"P0\""));
+            assertTrue(r.body().endsWith("{\"estado\":404,\"respuesta\":{\"error\":\"Ruta desconocida: /nada\"}}]"));
+        } finally {
+            servidor.detener();
+        }
+    }
+
+    /**
+     * Prueba que las colecciones se recuperan del registro, con su orden de inserción, tanto
+     * sin checkpoint (como tras una caída) como después de cerrarlo con un checkpoint.
+     */
+    @Test
+    public void testRegistroDeColecciones() throws Exception {
+        java.nio.file.Path directorio = java.nio.file.Files.createTempDirectory("colecciones");
+        app.abrirRegistro(directorio);
+        enParalelo(HILOS, hilo -> {
+            for (int i = 0; i < 200; i++) {
+                String usuario = "u" + (i % 8);
+                if (i % 5 == 4) {
+                    app.quitarPokemonDeUsuario(usuario, "P" + ((hilo * 31 + i) % POKEMONS / 2));
+                } else {
+                    app.agregarPokemonAUsuario(usuario, "P" + ((hilo * 31 + i) % POKEMONS));
+                }
+            }
+        });
+        assertTrue(app.getRegistro().getSincronizaciones() <= app.getRegistro().getOperaciones());
+        List<List<Pokemon>> antes = new ArrayList<>();
+        for (int u = 0; u < 8; u++) {
+            antes.add(app.getColeccionUsuario("u" + u));
+        }
+        // Se cierra sin checkpoint, como si la aplicación terminara de golpe
+        app.getRegistro().close();
+
+        ConcurrentPokemonApp recuperada = new ConcurrentPokemonApp(1);
+        recuperada.recargar(catalogo);
+        recuperada.abrirRegistro(directorio);
+        for (int u = 0; u < 8; u++) {
+            assertEquals(antes.get(u), recuperada.getColeccionUsuario("u" + u));
+        }
+        assertEquals(ConcurrentPokemonApp.Resultado.AGREGADO, recuperada.agregarPokemonAUsuario("nuevo", "P1"));
+        recuperada.cerrarRegistro();
+
+        ConcurrentPokemonApp otra = new ConcurrentPokemonApp(1);
+        otra.recargar(catalogo);
+        otra.abrirRegistro(directorio);
+        assertEquals(antes.get(3), otra.getColeccionUsuario("u3"));
+        assertEquals(1, otra.getTamanoColeccion("nuevo"));
+        otra.cerrarRegistro();
+    }
+}
@@ -0,0 +1,290 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Detecta los cambios entre dos versiones del archivo CSV de Pokémon.
+ *
+ * Recuerda, por cada número de Pokédex, el nombre y un hash de 64 bits de la línea leída la
+ * última vez. Al comparar una versión nueva, solo se crean objetos Pokemon para las filas
+ * agregadas o cuyo hash cambió; las filas iguales se reconocen sin interpretar sus campos.
+ *
+ * El cálculo de diferencias no modifica ningún mapa: quien las recibe decide cuándo aplicarlas,
+ * de modo que los lectores nunca ven una recarga a medias. Con {@link #vigilar} las
+ * diferencias se calculan en un hilo aparte cada vez que el archivo cambia en disco.
+ *
+ * La vigilancia puede leer el archivo mientras otro programa lo escribe. Por eso solo acepta
+ * una versión cuya última línea termina en salto de línea y se puede interpretar; si no, la
+ * descarta sin olvidar la versión anterior y espera al siguiente aviso de cambio. Quien escribe
+ * el archivo puede evitar del todo las lecturas parciales escribiendo en un archivo temporal de
+ * la misma carpeta y renombrándolo sobre el original (el renombrado genera un aviso de creación).
+ */
+public class CsvReloader {
+    // Tiempo de espera tras un aviso de cambio, para no leer el archivo mientras se escribe
+    private static final long ESPERA_ESCRITURA_MS = 200;
+
+    /**
+     * Fila recordada de la versión anterior del archivo.
+     */
+    private static final class Fila {
+        final String nombre;
+        final long hash;
+
+        Fila(String nombre, long hash) {
+            this.nombre = nombre;
+            this.hash = hash;
+        }
+    }
+
+    private Map<Integer, Fila> filas = new HashMap<>();
+
+    /**
+     * Cambios entre dos versiones del archivo.
+     */
+    public static class Diferencias {
+        final List<Pokemon> agregados = new ArrayList<>();
+        // Nombre anterior -> versión nueva del Pokémon
+        final Map<String, Pokemon> modificados = new LinkedHashMap<>();
+        final List<String> eliminados = new ArrayList<>();
+        final List<String> errores = new ArrayList<>();
+        long filas;
+
+        /**
+         * Retorna los Pokémon cuyo número de Pokédex no estaba en la versión anterior.
+         */
+        public List<Pokemon> getAgregados() {
+            return Collections.unmodifiableList(agregados);
+        }
+
+        /**
+         * Retorna las filas que cambiaron: el nombre anterior y la versión nueva del Pokémon.
+         */
+        public Map<String, Pokemon> getModificados() {
+            return Collections.unmodifiableMap(modificados);
+        }
+
+        /**
+         * Retorna los nombres de los Pokémon cuyo número de Pokédex ya no está en el archivo.
+         */
+        public List<String> getEliminados() {
+            return Collections.unmodifiableList(eliminados);
+        }
+
+        /**
+         * Retorna los mensajes de las líneas que no se pudieron interpretar.
+         */
+        public List<String> getErrores() {
+            return Collections.unmodifiableList(errores);
+        }
+
+        /**
+         * Retorna la cantidad de filas leídas del archivo nuevo.
+         */
+        public long getFilas() {
+            return filas;
+        }
+
+        /**
+         * Indica si no hay cambios que aplicar.
+         */
+        public boolean isVacio() {
+            return agregados.isEmpty() && modificados.isEmpty() && eliminados.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return agregados.size() + " agregados, " + modificados.size() + " modificados, "
+                    + eliminados.size() + " eliminados";
+        }
+    }
+
+    /**
+     * Recuerda el contenido actual del archivo como punto de partida, sin crear objetos Pokemon.
+     * Se usa después de una carga completa para que la siguiente comparación solo informe los cambios.
+     *
+     * @param csv La ruta del archivo CSV.
+     * @throws IOException si el archivo no se puede leer.
+     */
+    public synchronized void registrar(Path csv) throws IOException {
+        leer(csv, false, false);
+    }
+
+    /**
+     * Compara el archivo con la versión recordada y la reemplaza por la actual.
+     *
+     * @param csv La ruta del archivo CSV.
+     * @return los cambios desde la comparación anterior (o desde {@link #registrar}).
+     * @throws IOException si el archivo no se puede leer.
+     */
+    public synchronized Diferencias comparar(Path csv) throws IOException {
+        return leer(csv, true, false);
+    }
+
+    /**
+     * Igual que {@link #comparar(Path)}, pero si exigirCompleto es true y la última línea del
+     * archivo no termina en salto de línea o no se puede interpretar, descarta la lectura: retorna
+     * null y conserva la versión recordada, para no informar como eliminadas las filas que aún no
+     * se escribieron.
+     */
+    synchronized Diferencias comparar(Path csv, boolean exigirCompleto) throws IOException {
+        return leer(csv, true, exigirCompleto);
+    }
+
+    private Diferencias leer(Path csv, boolean crearPokemons, boolean exigirCompleto) throws IOException {
+        Diferencias d = new Diferencias();
+        Map<Integer, Fila> nuevas = new HashMap<>(Math.max(16, filas.size() * 2));
+        boolean ultimaValida = true;
+        boolean terminaEnSalto;
+        try (FileChannel canal = FileChannel.open(csv, StandardOpenOption.READ);
+             BufferedReader br = new BufferedReader(Channels.newReader(canal, StandardCharsets.UTF_8))) {
+            // Omitir el encabezado
+            if (br.readLine() != null) {
+                CsvTokenizer tokenizer = new CsvTokenizer();
+                String line;
+                while ((line = br.readLine()) != null) {
+                    d.filas++;
+                    ultimaValida = false;
+                    if (tokenizer.split(line) < 10) {
+                        d.errores.add("Línea inválida (menos de 10 campos): " + line);
+                        continue;
+                    }
+                    try {
+                        int pokedex = tokenizer.getInt(1);
+                        long hash = hash(line);
+                        Fila anterior = filas.get(pokedex);
+                        if (anterior != null && anterior.hash == hash) {
+                            // Línea idéntica a una ya aceptada
+                            nuevas.put(pokedex, anterior);
+                            ultimaValida = true;
+                            continue;
+                        }
+                        if (!crearPokemons) {
+                            nuevas.put(pokedex, new Fila(tokenizer.getField(0), hash));
+                            ultimaValida = true;
+                            continue;
+                        }
+                        Pokemon p = PokemonApp.crearPokemon(tokenizer);
+                        ultimaValida = true;
+                        nuevas.put(pokedex, new Fila(p.getName(), hash));
+                        if (anterior == null) {
+                            d.agregados.add(p);
+                        } else {
+                            d.modificados.put(anterior.nombre, p);
+                        }
+                    } catch (NumberFormatException e) {
+                        d.errores.add("Error al parsear la línea: " + line);
+                    }
+                }
+            }
+            // Al llegar al final la posición del canal es la cantidad de bytes leídos
+            terminaEnSalto = terminaEnSaltoDeLinea(canal, canal.position());
+        }
+        if (exigirCompleto && !(terminaEnSalto && ultimaValida)) {
+            return null;
+        }
+        for (Map.Entry<Integer, Fila> e : filas.entrySet()) {
+            if (!nuevas.containsKey(e.getKey())) {
+                d.eliminados.add(e.getValue().nombre);
+            }
+        }
+        filas = nuevas;
+        return d;
+    }
+
+    private static boolean terminaEnSaltoDeLinea(FileChannel canal, long leidos) throws IOException {
+        if (leidos == 0) {
+            return true;
+        }
+        ByteBuffer ultimo = ByteBuffer.allocate(1);
+        return canal.read(ultimo, leidos - 1) == 1 && ultimo.get(0) == '\n';
+    }
+
+    /**
+     * Hash FNV-1a de 64 bits de los caracteres de la línea.
+     */
+    private static long hash(String line) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            h ^= line.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Vigila el archivo con un {@link WatchService} y, cada vez que cambia, calcula las
+     * diferencias en un hilo daemon y se las entrega al consumidor (solo si hay cambios).
+     * El consumidor se ejecuta en el hilo de vigilancia. Las lecturas cuya última línea está
+     * incompleta o no es válida se descartan (ver la descripción de la clase).
+     *
+     * @param csv        La ruta del archivo CSV; debe haberse registrado antes.
+     * @param consumidor Quien recibe las diferencias.
+     * @return un objeto que detiene la vigilancia al cerrarse.
+     * @throws IOException si no se puede vigilar la carpeta del archivo.
+     */
+    public Closeable vigilar(Path csv, Consumer<Diferencias> consumidor) throws IOException {
+        Path archivo = csv.toAbsolutePath();
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        archivo.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread hilo = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watcher.take();
+                    boolean cambio = false;
+                    for (WatchEvent<?> evento : key.pollEvents()) {
+                        Object contexto = evento.context();
+                        if (contexto instanceof Path && archivo.getFileName().equals(contexto)) {
+                            cambio = true;
+                        }
+                    }
+                    key.reset();
+                    if (!cambio) {
+                        continue;
+                    }
+                    // Esperar a que termine la escritura y descartar los avisos que generó
+                    Thread.sleep(ESPERA_ESCRITURA_MS);
+                    WatchKey pendiente;
+                    while ((pendiente = watcher.poll()) != null) {
+                        pendiente.pollEvents();
+                        pendiente.reset();
+                    }
+                    try {
+                        Diferencias d = comparar(archivo, true);
+                        if (d == null) {
+                            System.out.println("Se ignora el cambio del archivo: la última línea está incompleta o no es válida.");
+                        } else if (!d.isVacio()) {
+                            consumidor.accept(d);
+                        }
+                    } catch (IOException e) {
+                        System.out.println("Error al releer el archivo: " + e.getMessage());
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Fin de la vigilancia
+            }
+        }, "vigilancia-" + archivo.getFileName());
+        hilo.setDaemon(true);
+        hilo.start();
+        return watcher;
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * Vista reutilizable de una fila del CSV de Pokémon, usada por {@link CsvStreamReader}.
+ *
+ * Los campos numéricos se interpretan al leer la fila y se entregan como valores primitivos.
+ * Los campos de texto se entregan como {@link CharSequence} que apuntan directamente al bloque
+ * leído del archivo; las habilidades se separan en porciones sin crear una lista ni un String
+ * por habilidad. La misma instancia y las mismas porciones se reutilizan para todas las filas,
+ * por lo que solo son válidas durante la llamada a {@link CsvRowVisitor#visitar}: para
+ * conservar un valor hay que copiarlo (por ejemplo con toString o codificarlo en un
+ * {@link StringDictionary}).
+ */
+public final class CsvRow {
+    // Cantidad de campos de una fila válida
+    static final int CAMPOS = 10;
+
+    private final CsvTokenizer tokenizer = new CsvTokenizer();
+    private final Fragmento nombre = new Fragmento();
+    private final Fragmento tipo1 = new Fragmento();
+    private final Fragmento tipo2 = new Fragmento();
+    private final Fragmento clasificacion = new Fragmento();
+    private final Fragmento textoHabilidades = new Fragmento();
+    private Fragmento[] habilidades = {new Fragmento(), new Fragmento(), new Fragmento(), new Fragmento()};
+    private int cantidadHabilidades;
+    private int pokedex;
+    private double altura;
+    private double peso;
+    private int generacion;
+    private boolean legendario;
+    private long numeroLinea;
+
+    /**
+     * Separa e interpreta la porción [inicio, fin) del texto como una fila del CSV.
+     *
+     * @return null si la fila es válida, o el motivo por el que no lo es.
+     */
+    String leer(CharSequence texto, int inicio, int fin, long numeroLinea) {
+        this.numeroLinea = numeroLinea;
+        if (tokenizer.split(texto, inicio, fin) < CAMPOS) {
+            return "Línea inválida (menos de " + CAMPOS + " campos)";
+        }
+        try {
+            pokedex = tokenizer.getInt(1);
+            altura = tokenizer.getDouble(5);
+            peso = tokenizer.getDouble(6);
+            generacion = tokenizer.getInt(8);
+        } catch (NumberFormatException e) {
+            return "Error al parsear la línea: " + e.getMessage();
+        }
+        // "Legendary Status" puede venir como "True"/"False" o "Yes"/"No"
+        legendario = tokenizer.getBoolean(9);
+        asignar(nombre, 0);
+        asignar(tipo1, 2);
+        asignar(tipo2, 3);
+        asignar(clasificacion, 4);
+        asignar(textoHabilidades, 7);
+        separarHabilidades();
+        return null;
+    }
+
+    private void asignar(Fragmento f, int campo) {
+        f.asignar(tokenizer.getSource(), tokenizer.getFieldStart(campo), tokenizer.getFieldEnd(campo),
+                tokenizer.isFieldEscaped(campo));
+    }
+
+    /**
+     * Separa las habilidades por punto y coma o por coma, igual que {@link Pokemon}, sin los
+     * espacios de los extremos y omitiendo las vacías.
+     */
+    private void separarHabilidades() {
+        cantidadHabilidades = 0;
+        CharSequence texto = textoHabilidades.texto;
+        int fin = textoHabilidades.fin;
+        int inicio = textoHabilidades.inicio;
+        for (int i = inicio; i <= fin; i++) {
+            if (i == fin || texto.charAt(i) == ';' || texto.charAt(i) == ',') {
+                int a = inicio;
+                int b = i;
+                while (a < b && texto.charAt(a) <= ' ') {
+                    a++;
+                }
+                while (b > a && texto.charAt(b - 1) <= ' ') {
+                    b--;
+                }
+                if (a < b) {
+                    if (cantidadHabilidades == habilidades.length) {
+                        habilidades = java.util.Arrays.copyOf(habilidades, cantidadHabilidades * 2);
+                        for (int k = cantidadHabilidades; k < habilidades.length; k++) {
+                            habilidades[k] = new Fragmento();
+                        }
+                    }
+                    habilidades[cantidadHabilidades++].asignar(texto, a, b, false);
+                }
+                inicio = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Retorna el número de línea de la fila en el archivo (la línea de encabezado es la 1).
+     *
+     * @return el número de línea.
+     */
+    public long getNumeroLinea() {
+        return numeroLinea;
+    }
+
+    public CharSequence getNombre() {
+        return nombre;
+    }
+
+    public int getPokedexNumber() {
+        return pokedex;
+    }
+
+    public CharSequence getType1() {
+        return tipo1;
+    }
+
+    /**
+     * Retorna el tipo secundario, vacío si el Pokémon no tiene.
+     *
+     * @return el tipo secundario.
+     */
+    public CharSequence getType2() {
+        return tipo2;
+    }
+
+    public CharSequence getClassification() {
+        return clasificacion;
+    }
+
+    public double getHeight() {
+        return altura;
+    }
+
+    public double getWeight() {
+        return peso;
+    }
+
+    public int getGeneration() {
+        return generacion;
+    }
+
+    public boolean isLegendaryStatus() {
+        return legendario;
+    }
+
+    /**
+     * Retorna la cantidad de habilidades de la fila.
+     *
+     * @return la cantidad de habilidades.
+     */
+    public int getCantidadHabilidades() {
+        return cantidadHabilidades;
+    }
+
+    /**
+     * Retorna la habilidad indicada, sin espacios en los extremos.
+     *
+     * @param indice El índice de la habilidad, entre 0 y {@link #getCantidadHabilidades()} - 1.
+     * @return la habilidad.
+     */
+    public CharSequence getHabilidad(int indice) {
+        if (indice < 0 || indice >= cantidadHabilidades) {
+            throw new IndexOutOfBoundsException("Habilidad " + indice + " de " + cantidadHabilidades);
+        }
+        return habilidades[indice];
+    }
+
+    /**
+     * Porción de texto que se reasigna en cada fila. Los campos con comillas escapadas ("")
+     * se copian sin ellas a un buffer propio, que también se reutiliza.
+     */
+    private static final class Fragmento implements CharSequence {
+        private CharSequence texto = "";
+        private int inicio;
+        private int fin;
+        private StringBuilder buffer;
+
+        void asignar(CharSequence origen, int desde, int hasta, boolean escapado) {
+            if (!escapado) {
+                texto = origen;
+                inicio = desde;
+                fin = hasta;
+                return;
+            }
+            if (buffer == null) {
+                buffer = new StringBuilder(64);
+            }
+            buffer.setLength(0);
+            for (int i = desde; i < hasta; i++) {
+                char c = origen.charAt(i);
+                buffer.append(c);
+                if (c == '"') {
+                    i++; // la segunda comilla del par se descarta
+                }
+            }
+            texto = buffer;
+            inicio = 0;
+            fin = buffer.length();
+        }
+
+        @Override
+        public int length() {
+            return fin - inicio;
+        }
+
+        @Override
+        public char charAt(int indice) {
+            if (indice < 0 || indice >= fin - inicio) {
+                throw new IndexOutOfBoundsException(indice);
+            }
+            return texto.charAt(inicio + indice);
+        }
+
+        @Override
+        public CharSequence subSequence(int desde, int hasta) {
+            return toString().substring(desde, hasta);
+        }
+
+        @Override
+        public String toString() {
+            return texto.subSequence(inicio, fin).toString();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * Recibe las filas que entrega {@link CsvStreamReader} mientras recorre un CSV de Pokémon.
+ *
+ * La fila es una vista reutilizable: sus valores solo son válidos durante la llamada, y el
+ * visitante debe acumular lo que necesite en estructuras propias (por ejemplo arreglos de
+ * primitivos indexados por el código de un {@link StringDictionary}).
+ */
+@FunctionalInterface
+public interface CsvRowVisitor {
+
+    /**
+     * Procesa una fila válida.
+     *
+     * @param fila La fila, válida solo durante esta llamada.
+     */
+    void visitar(CsvRow fila);
+
+    /**
+     * Informa una fila que no se pudo interpretar. Por defecto se ignora.
+     *
+     * @param numeroLinea El número de línea en el archivo.
+     * @param linea       El texto de la línea, válido solo durante esta llamada.
+     * @param motivo      La descripción del error.
+     */
+    default void error(long numeroLinea, CharSequence linea, String motivo) {
+    }
+}
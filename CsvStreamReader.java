@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Recorre un CSV de Pokémon en streaming y entrega cada fila a un {@link CsvRowVisitor},
+ * sin crear objetos {@link Pokemon} ni agregarlos a un mapa.
+ *
+ * El archivo se lee por bloques en un buffer de bytes fijo que se decodifica a un buffer de
+ * caracteres también fijo; cada línea completa se separa con {@link CsvTokenizer} directamente
+ * sobre ese buffer y se interpreta en una única {@link CsvRow} reutilizable. La parte final de
+ * un bloque que no termina en salto de línea se conserva para el siguiente. Así la memoria
+ * usada no depende del tamaño del archivo y, para las filas válidas, no se crean objetos por
+ * fila (salvo lo que cree el visitante). El buffer de caracteres solo crece si una línea no
+ * cabe en él.
+ *
+ * Se usa para estadísticas sobre archivos que no conviene cargar completos, como las de
+ * {@link CatalogStatistics}. La primera línea se considera el encabezado y se omite, al igual
+ * que las líneas vacías.
+ */
+public class CsvStreamReader {
+    // Tamaño por defecto de los buffers de lectura
+    static final int TAMANO_BUFFER = 1 << 20;
+
+    private final int tamanoBuffer;
+    private long filas;
+    private long errores;
+    private long bytes;
+
+    /**
+     * Construye un lector con buffers de 1 MB.
+     */
+    public CsvStreamReader() {
+        this(TAMANO_BUFFER);
+    }
+
+    /**
+     * Construye un lector con buffers del tamaño indicado.
+     *
+     * @param tamanoBuffer El tamaño de los buffers de bytes y de caracteres.
+     */
+    public CsvStreamReader(int tamanoBuffer) {
+        if (tamanoBuffer < 16) {
+            throw new IllegalArgumentException("El buffer debe tener al menos 16 bytes: " + tamanoBuffer);
+        }
+        this.tamanoBuffer = tamanoBuffer;
+    }
+
+    /**
+     * Recorre el archivo y entrega cada fila al visitante, en el orden del archivo.
+     *
+     * @param archivo   El archivo CSV, con encabezado.
+     * @param visitante El visitante que recibe las filas válidas y los errores.
+     * @return la cantidad de filas válidas.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    public long recorrer(Path archivo, CsvRowVisitor visitante) throws IOException {
+        filas = 0;
+        errores = 0;
+        bytes = 0;
+        CsvRow fila = new CsvRow();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer entrada = ByteBuffer.allocate(tamanoBuffer);
+        // UTF-8 nunca produce más caracteres que bytes
+        CharBuffer texto = CharBuffer.allocate(tamanoBuffer);
+        Caracteres vista = new Caracteres();
+        long numeroLinea = 0;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            boolean finArchivo = false;
+            boolean terminado = false;
+            while (!terminado) {
+                if (!finArchivo) {
+                    int leidos = canal.read(entrada);
+                    if (leidos < 0) {
+                        finArchivo = true;
+                    } else {
+                        bytes += leidos;
+                    }
+                }
+                entrada.flip();
+                CoderResult resultado = decoder.decode(entrada, texto, finArchivo);
+                entrada.compact();
+                if (finArchivo && resultado.isUnderflow()) {
+                    decoder.flush(texto);
+                    terminado = true;
+                }
+                texto.flip();
+                // Las líneas completas se procesan directamente sobre el arreglo del buffer
+                char[] caracteres = texto.array();
+                vista.caracteres = caracteres;
+                int inicioLinea = 0;
+                int fin = texto.limit();
+                for (int i = 0; i < fin; i++) {
+                    if (caracteres[i] == '\n') {
+                        procesar(fila, vista, inicioLinea, i, ++numeroLinea, visitante);
+                        inicioLinea = i + 1;
+                    }
+                }
+                if (terminado && inicioLinea < fin) {
+                    procesar(fila, vista, inicioLinea, fin, ++numeroLinea, visitante);
+                    inicioLinea = fin;
+                }
+                texto.position(inicioLinea);
+                texto.compact();
+                if (!texto.hasRemaining()) {
+                    // Una línea ocupa todo el buffer: se agranda para poder completarla
+                    CharBuffer mayor = CharBuffer.allocate(texto.capacity() * 2);
+                    texto.flip();
+                    mayor.put(texto);
+                    texto = mayor;
+                }
+            }
+        }
+        return filas;
+    }
+
+    private void procesar(CsvRow fila, Caracteres texto, int inicio, int fin, long numeroLinea,
+                          CsvRowVisitor visitante) {
+        if (fin > inicio && texto.caracteres[fin - 1] == '\r') {
+            fin--;
+        }
+        // La primera línea es el encabezado; las líneas vacías se omiten
+        if (numeroLinea == 1 || inicio == fin) {
+            return;
+        }
+        String error = fila.leer(texto, inicio, fin, numeroLinea);
+        if (error == null) {
+            filas++;
+            visitante.visitar(fila);
+        } else {
+            errores++;
+            visitante.error(numeroLinea, texto.subSequence(inicio, fin), error);
+        }
+    }
+
+    /**
+     * Vista de un arreglo de caracteres como {@link CharSequence}, sin copiarlo. El tokenizer y
+     * las porciones de {@link CsvRow} leen el bloque a través de ella en lugar del CharBuffer,
+     * cuyo charAt suma la posición y revisa los límites en cada carácter.
+     */
+    private static final class Caracteres implements CharSequence {
+        char[] caracteres;
+
+        @Override
+        public int length() {
+            return caracteres.length;
+        }
+
+        @Override
+        public char charAt(int indice) {
+            return caracteres[indice];
+        }
+
+        @Override
+        public CharSequence subSequence(int inicio, int fin) {
+            return new String(caracteres, inicio, fin - inicio);
+        }
+
+        @Override
+        public String toString() {
+            return new String(caracteres);
+        }
+    }
+
+    /**
+     * Retorna la cantidad de filas válidas del último recorrido.
+     *
+     * @return la cantidad de filas.
+     */
+    public long getFilas() {
+        return filas;
+    }
+
+    /**
+     * Retorna la cantidad de filas que no se pudieron interpretar en el último recorrido.
+     *
+     * @return la cantidad de errores.
+     */
+    public long getErrores() {
+        return errores;
+    }
+
+    /**
+     * Retorna la cantidad de bytes leídos en el último recorrido.
+     *
+     * @return los bytes leídos.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,328 @@
+/**
+ * Separador de líneas CSV que recorre cada línea una sola vez.
+ * Reconoce campos entre comillas (por ejemplo "Overgrow, Chlorophyll") y comillas
+ * escapadas ("") sin utilizar expresiones regulares.
+ *
+ * Los límites de cada campo se guardan en arreglos de enteros que se reutilizan entre
+ * filas, de modo que separar una línea no crea objetos. Los campos solo se convierten
+ * en String cuando se solicitan con {@link #getField(int)}.
+ */
+public class CsvTokenizer {
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private CharSequence linea;
+    private int[] inicios = new int[CAPACIDAD_INICIAL];
+    private int[] fines = new int[CAPACIDAD_INICIAL];
+    // Indica si el campo contiene comillas escapadas ("") que deben reducirse a una sola
+    private boolean[] escapados = new boolean[CAPACIDAD_INICIAL];
+    private int numCampos;
+    private final StringBuilder buffer = new StringBuilder(64);
+
+    /**
+     * Separa una línea completa en campos.
+     *
+     * @param linea La línea a separar (sin el salto de línea final).
+     * @return la cantidad de campos encontrados.
+     */
+    public int split(CharSequence linea) {
+        return split(linea, 0, linea.length());
+    }
+
+    /**
+     * Separa en campos la porción [inicio, fin) de una secuencia de caracteres.
+     * Permite trabajar directamente sobre un bloque grande sin copiar cada línea.
+     *
+     * @param texto  La secuencia que contiene la línea.
+     * @param inicio La posición del primer carácter de la línea.
+     * @param fin    La posición siguiente al último carácter de la línea.
+     * @return la cantidad de campos encontrados.
+     */
+    public int split(CharSequence texto, int inicio, int fin) {
+        this.linea = texto;
+        numCampos = 0;
+        int i = inicio;
+        while (true) {
+            // Omitir espacios al inicio del campo
+            while (i < fin && texto.charAt(i) == ' ') {
+                i++;
+            }
+            int inicioCampo;
+            int finCampo;
+            boolean escapado = false;
+            if (i < fin && texto.charAt(i) == '"') {
+                // Campo entre comillas: avanzar hasta la comilla de cierre
+                inicioCampo = ++i;
+                while (i < fin) {
+                    char c = texto.charAt(i);
+                    if (c == '"') {
+                        if (i + 1 < fin && texto.charAt(i + 1) == '"') {
+                            escapado = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                finCampo = i;
+                // Saltar la comilla de cierre y cualquier carácter hasta la siguiente coma
+                while (i < fin && texto.charAt(i) != ',') {
+                    i++;
+                }
+            } else {
+                inicioCampo = i;
+                while (i < fin && texto.charAt(i) != ',') {
+                    i++;
+                }
+                finCampo = i;
+                // Omitir espacios y el retorno de carro al final del campo
+                while (finCampo > inicioCampo && esEspacio(texto.charAt(finCampo - 1))) {
+                    finCampo--;
+                }
+            }
+            agregarCampo(inicioCampo, finCampo, escapado);
+            if (i >= fin) {
+                return numCampos;
+            }
+            i++; // saltar la coma
+        }
+    }
+
+    private static boolean esEspacio(char c) {
+        return c == ' ' || c == '\r' || c == '\t';
+    }
+
+    private void agregarCampo(int inicio, int fin, boolean escapado) {
+        if (numCampos == inicios.length) {
+            int nuevaCapacidad = inicios.length * 2;
+            inicios = java.util.Arrays.copyOf(inicios, nuevaCapacidad);
+            fines = java.util.Arrays.copyOf(fines, nuevaCapacidad);
+            escapados = java.util.Arrays.copyOf(escapados, nuevaCapacidad);
+        }
+        inicios[numCampos] = inicio;
+        fines[numCampos] = fin;
+        escapados[numCampos] = escapado;
+        numCampos++;
+    }
+
+    /**
+     * Retorna la cantidad de campos de la última línea separada.
+     *
+     * @return la cantidad de campos.
+     */
+    public int getFieldCount() {
+        return numCampos;
+    }
+
+    /**
+     * Retorna la posición inicial del campo indicado dentro de la secuencia original.
+     *
+     * @param indice El índice del campo.
+     * @return la posición inicial.
+     */
+    public int getFieldStart(int indice) {
+        return inicios[indice];
+    }
+
+    /**
+     * Retorna la posición final (exclusiva) del campo indicado dentro de la secuencia original.
+     *
+     * @param indice El índice del campo.
+     * @return la posición final.
+     */
+    public int getFieldEnd(int indice) {
+        return fines[indice];
+    }
+
+    /**
+     * Retorna la longitud del campo indicado.
+     *
+     * @param indice El índice del campo.
+     * @return la longitud del campo.
+     */
+    public int getFieldLength(int indice) {
+        return fines[indice] - inicios[indice];
+    }
+
+    /**
+     * Indica si el campo contiene comillas escapadas (""), en cuyo caso su contenido real
+     * solo se obtiene con {@link #getField(int)}.
+     *
+     * @param indice El índice del campo.
+     * @return verdadero si el campo tiene comillas escapadas.
+     */
+    public boolean isFieldEscaped(int indice) {
+        return escapados[indice];
+    }
+
+    /**
+     * Retorna el carácter en la posición indicada del campo, relativa a su inicio.
+     *
+     * @param indice   El índice del campo.
+     * @param posicion La posición dentro del campo.
+     * @return el carácter correspondiente.
+     */
+    public char charAt(int indice, int posicion) {
+        return linea.charAt(inicios[indice] + posicion);
+    }
+
+    /**
+     * Retorna la secuencia sobre la que se hizo la última separación.
+     *
+     * @return la secuencia original.
+     */
+    public CharSequence getSource() {
+        return linea;
+    }
+
+    /**
+     * Retorna el contenido del campo indicado como String, sin comillas.
+     *
+     * @param indice El índice del campo.
+     * @return el contenido del campo.
+     */
+    public String getField(int indice) {
+        int inicio = inicios[indice];
+        int fin = fines[indice];
+        if (!escapados[indice]) {
+            if (linea instanceof String) {
+                return ((String) linea).substring(inicio, fin);
+            }
+            return linea.subSequence(inicio, fin).toString();
+        }
+        buffer.setLength(0);
+        for (int i = inicio; i < fin; i++) {
+            char c = linea.charAt(i);
+            buffer.append(c);
+            if (c == '"') {
+                i++; // la segunda comilla del par se descarta
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Compara el contenido del campo con una cadena, sin crear objetos.
+     *
+     * @param indice El índice del campo.
+     * @param valor  La cadena a comparar.
+     * @return verdadero si son iguales ignorando mayúsculas y minúsculas.
+     */
+    public boolean fieldEqualsIgnoreCase(int indice, String valor) {
+        int inicio = inicios[indice];
+        int longitud = fines[indice] - inicio;
+        if (longitud != valor.length()) {
+            return false;
+        }
+        for (int i = 0; i < longitud; i++) {
+            char a = linea.charAt(inicio + i);
+            char b = valor.charAt(i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Interpreta el campo como un entero sin crear cadenas intermedias.
+     *
+     * @param indice El índice del campo.
+     * @return el valor entero.
+     * @throws NumberFormatException si el campo no es un entero válido.
+     */
+    public int getInt(int indice) {
+        int inicio = inicios[indice];
+        int fin = fines[indice];
+        if (inicio == fin) {
+            throw new NumberFormatException("Campo vacío en la posición " + indice);
+        }
+        boolean negativo = false;
+        int i = inicio;
+        char primero = linea.charAt(i);
+        if (primero == '-' || primero == '+') {
+            negativo = primero == '-';
+            i++;
+            if (i == fin) {
+                throw new NumberFormatException("Entero inválido: " + getField(indice));
+            }
+        }
+        long valor = 0;
+        for (; i < fin; i++) {
+            int digito = linea.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                throw new NumberFormatException("Entero inválido: " + getField(indice));
+            }
+            valor = valor * 10 + digito;
+            if (valor > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("Entero fuera de rango: " + getField(indice));
+            }
+        }
+        valor = negativo ? -valor : valor;
+        if (valor > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Entero fuera de rango: " + getField(indice));
+        }
+        return (int) valor;
+    }
+
+    /**
+     * Interpreta el campo como un número decimal. Los valores simples (dígitos con un punto
+     * opcional) se convierten sin crear cadenas; cualquier otro formato se delega a
+     * {@link Double#parseDouble(String)}.
+     *
+     * @param indice El índice del campo.
+     * @return el valor decimal.
+     * @throws NumberFormatException si el campo no es un número válido.
+     */
+    public double getDouble(int indice) {
+        int inicio = inicios[indice];
+        int fin = fines[indice];
+        int i = inicio;
+        boolean negativo = false;
+        if (i < fin && (linea.charAt(i) == '-' || linea.charAt(i) == '+')) {
+            negativo = linea.charAt(i) == '-';
+            i++;
+        }
+        long mantisa = 0;
+        int decimales = 0;
+        int digitos = 0;
+        boolean punto = false;
+        for (; i < fin; i++) {
+            char c = linea.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // Con más de 15 dígitos la conversión rápida pierde precisión
+                if (++digitos > 15) {
+                    return Double.parseDouble(getField(indice));
+                }
+                mantisa = mantisa * 10 + (c - '0');
+                if (punto) {
+                    decimales++;
+                }
+            } else if (c == '.' && !punto) {
+                punto = true;
+            } else {
+                return Double.parseDouble(getField(indice));
+            }
+        }
+        if (digitos == 0) {
+            return Double.parseDouble(getField(indice));
+        }
+        double valor = decimales == 0 ? mantisa : mantisa / POTENCIAS_DE_DIEZ[decimales];
+        return negativo ? -valor : valor;
+    }
+
+    private static final double[] POTENCIAS_DE_DIEZ = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    /**
+     * Interpreta el campo como un valor booleano. Acepta "True"/"False" y "Yes"/"No"
+     * sin distinguir mayúsculas o minúsculas.
+     *
+     * @param indice El índice del campo.
+     * @return verdadero si el campo es "True" o "Yes".
+     */
+    public boolean getBoolean(int indice) {
+        return fieldEqualsIgnoreCase(indice, "True") || fieldEqualsIgnoreCase(indice, "Yes");
+    }
+}
@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Índices de mapas de bits comprimidos sobre los atributos de baja cardinalidad de los Pokémon:
+ * generación, legendario, Type1, Type2 y clasificación.
+ *
+ * Cada Pokémon ocupa una fila (las filas liberadas se reutilizan) y cada valor de atributo tiene
+ * un {@link CompressedBitmap} con sus filas. Los conjuntos se combinan con and, or y andNot (la
+ * negación es {@link #negar}), y los conteos por faceta se calculan con
+ * {@link CompressedBitmap#andCardinality} sin recorrer los objetos Pokemon.
+ *
+ * Es el único juego de mapas de bits de la aplicación: {@link PokemonQueryEngine} lo contiene,
+ * guarda sus columnas en las mismas filas y planifica las consultas con estos conjuntos. Se
+ * mantiene a través del motor, que lo actualiza como {@link PokemonIndex} antes de actualizar sus
+ * columnas. Los conjuntos que retorna son los del índice y no deben modificarse.
+ */
+public class FacetIndex implements PokemonIndex {
+    private static final CompressedBitmap VACIO = new CompressedBitmap();
+
+    private final Map<String, Integer> filaPorClave = new HashMap<>();
+    private Pokemon[] pokemons = new Pokemon[64];
+    private int[] filasLibres = new int[16];
+    private int cantidadLibres;
+    private int totalFilas;
+
+    private final CompressedBitmap vivas = new CompressedBitmap();
+    private final CompressedBitmap legendarios = new CompressedBitmap();
+    private final TreeMap<Integer, CompressedBitmap> porGeneracion = new TreeMap<>();
+    private final TreeMap<String, CompressedBitmap> porTipo1 = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, CompressedBitmap> porTipo2 = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, CompressedBitmap> porClasificacion = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    @Override
+    public void agregar(String clave, Pokemon p) {
+        int fila = cantidadLibres > 0 ? filasLibres[--cantidadLibres] : nuevaFila();
+        filaPorClave.put(clave, fila);
+        pokemons[fila] = p;
+        vivas.add(fila);
+        if (p.isLegendaryStatus()) {
+            legendarios.add(fila);
+        }
+        porGeneracion.computeIfAbsent(p.getGeneration(), g -> new CompressedBitmap()).add(fila);
+        porTipo1.computeIfAbsent(texto(p.getType1()), t -> new CompressedBitmap()).add(fila);
+        porTipo2.computeIfAbsent(texto(p.getType2()), t -> new CompressedBitmap()).add(fila);
+        porClasificacion.computeIfAbsent(texto(p.getClassification()), c -> new CompressedBitmap()).add(fila);
+    }
+
+    @Override
+    public void eliminar(String clave, Pokemon p) {
+        Integer fila = filaPorClave.remove(clave);
+        if (fila == null) {
+            return;
+        }
+        int f = fila;
+        vivas.remove(f);
+        legendarios.remove(f);
+        quitarDe(porGeneracion, p.getGeneration(), f);
+        quitarDe(porTipo1, texto(p.getType1()), f);
+        quitarDe(porTipo2, texto(p.getType2()), f);
+        quitarDe(porClasificacion, texto(p.getClassification()), f);
+        pokemons[f] = null;
+        if (cantidadLibres == filasLibres.length) {
+            filasLibres = Arrays.copyOf(filasLibres, cantidadLibres * 2);
+        }
+        filasLibres[cantidadLibres++] = f;
+    }
+
+    @Override
+    public void limpiar() {
+        filaPorClave.clear();
+        Arrays.fill(pokemons, null);
+        cantidadLibres = 0;
+        totalFilas = 0;
+        vivas.clear();
+        legendarios.clear();
+        porGeneracion.clear();
+        porTipo1.clear();
+        porTipo2.clear();
+        porClasificacion.clear();
+    }
+
+    private int nuevaFila() {
+        if (totalFilas == pokemons.length) {
+            pokemons = Arrays.copyOf(pokemons, pokemons.length * 2);
+        }
+        return totalFilas++;
+    }
+
+    private static <K> void quitarDe(Map<K, CompressedBitmap> indice, K valor, int fila) {
+        CompressedBitmap b = indice.get(valor);
+        if (b != null) {
+            b.remove(fila);
+            // Se eliminan los valores sin filas para que no aparezcan en las facetas
+            if (b.isEmpty()) {
+                indice.remove(valor);
+            }
+        }
+    }
+
+    private static String texto(String s) {
+        return s == null ? "" : s.trim();
+    }
+
+    /**
+     * Retorna la fila asignada a una clave, o -1 si no está indexada.
+     */
+    int fila(String clave) {
+        Integer fila = filaPorClave.get(clave);
+        return fila == null ? -1 : fila;
+    }
+
+    /**
+     * Retorna el Pokémon de una fila, o null si la fila está libre.
+     */
+    Pokemon pokemon(int fila) {
+        return pokemons[fila];
+    }
+
+    /**
+     * Retorna la cantidad de filas usadas alguna vez; todas las filas son menores que este valor.
+     */
+    int totalFilas() {
+        return totalFilas;
+    }
+
+    /**
+     * Retorna la cantidad de Pokémon indexados.
+     *
+     * @return la cantidad de filas ocupadas.
+     */
+    public int size() {
+        return filaPorClave.size();
+    }
+
+    /**
+     * Retorna las filas de todos los Pokémon indexados.
+     *
+     * @return el conjunto de todas las filas.
+     */
+    public CompressedBitmap todos() {
+        return vivas;
+    }
+
+    /**
+     * Retorna las filas de los Pokémon de la generación indicada.
+     *
+     * @param generacion La generación.
+     * @return el conjunto de filas (vacío si no hay ninguno).
+     */
+    public CompressedBitmap generacion(int generacion) {
+        return porGeneracion.getOrDefault(generacion, VACIO);
+    }
+
+    /**
+     * Retorna las filas de los Pokémon legendarios o de los no legendarios.
+     *
+     * @param legendario true para los legendarios, false para el resto.
+     * @return el conjunto de filas.
+     */
+    public CompressedBitmap legendario(boolean legendario) {
+        return legendario ? legendarios : vivas.andNot(legendarios);
+    }
+
+    /**
+     * Retorna las filas de los Pokémon con el tipo primario indicado (sin distinguir mayúsculas).
+     *
+     * @param tipo El tipo primario.
+     * @return el conjunto de filas (vacío si no hay ninguno).
+     */
+    public CompressedBitmap tipo1(String tipo) {
+        return porTipo1.getOrDefault(texto(tipo), VACIO);
+    }
+
+    /**
+     * Retorna las filas de los Pokémon con el tipo secundario indicado (sin distinguir mayúsculas).
+     *
+     * @param tipo El tipo secundario.
+     * @return el conjunto de filas (vacío si no hay ninguno).
+     */
+    public CompressedBitmap tipo2(String tipo) {
+        return porTipo2.getOrDefault(texto(tipo), VACIO);
+    }
+
+    /**
+     * Retorna las filas de los Pokémon que tienen el tipo indicado como primario o secundario.
+     *
+     * @param tipo El tipo.
+     * @return un conjunto nuevo con las filas.
+     */
+    public CompressedBitmap tipo(String tipo) {
+        return tipo1(tipo).or(tipo2(tipo));
+    }
+
+    /**
+     * Retorna las filas de los Pokémon con la clasificación indicada (sin distinguir mayúsculas).
+     *
+     * @param clasificacion La clasificación, por ejemplo "Seed Pokémon".
+     * @return el conjunto de filas (vacío si no hay ninguno).
+     */
+    public CompressedBitmap clasificacion(String clasificacion) {
+        return porClasificacion.getOrDefault(texto(clasificacion), VACIO);
+    }
+
+    /**
+     * Retorna las filas indexadas que no están en el conjunto indicado.
+     *
+     * @param filas El conjunto a negar.
+     * @return un conjunto nuevo con el complemento.
+     */
+    public CompressedBitmap negar(CompressedBitmap filas) {
+        return vivas.andNot(filas);
+    }
+
+    /**
+     * Retorna los Pokémon de las filas indicadas, en orden de fila.
+     *
+     * @param filas El conjunto de filas.
+     * @return la lista de Pokémon.
+     */
+    public List<Pokemon> pokemons(CompressedBitmap filas) {
+        int[] f = filas.toArray();
+        List<Pokemon> resultado = new ArrayList<>(f.length);
+        for (int fila : f) {
+            resultado.add(pokemons[fila]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Cuenta, para cada faceta (Type1, Type2, generación, legendario y clasificación), cuántos
+     * Pokémon del conjunto indicado tienen cada valor. Solo se usan conteos de intersecciones.
+     *
+     * @param filtro El conjunto sobre el que se cuenta, por ejemplo {@link #todos()} o tipo1("Fire").
+     * @return los conteos por faceta.
+     */
+    public Facetas facetar(CompressedBitmap filtro) {
+        int legendariosFiltrados = filtro.andCardinality(legendarios);
+        Map<Boolean, Integer> porLegendario = new TreeMap<>();
+        porLegendario.put(true, legendariosFiltrados);
+        porLegendario.put(false, filtro.andCardinality(vivas) - legendariosFiltrados);
+        return new Facetas(contar(porTipo1, filtro), contar(porTipo2, filtro), contar(porGeneracion, filtro),
+                porLegendario, contar(porClasificacion, filtro));
+    }
+
+    private static <K> Map<K, Integer> contar(TreeMap<K, CompressedBitmap> indice, CompressedBitmap filtro) {
+        Map<K, Integer> conteos = new TreeMap<>(indice.comparator());
+        for (Map.Entry<K, CompressedBitmap> e : indice.entrySet()) {
+            int n = filtro.andCardinality(e.getValue());
+            if (n > 0) {
+                conteos.put(e.getKey(), n);
+            }
+        }
+        return conteos;
+    }
+
+    /**
+     * Conteos por valor de cada atributo; solo aparecen los valores con al menos un Pokémon.
+     * Los mapas están ordenados por valor.
+     */
+    public static class Facetas {
+        private final Map<String, Integer> porTipo1;
+        private final Map<String, Integer> porTipo2;
+        private final Map<Integer, Integer> porGeneracion;
+        private final Map<Boolean, Integer> porLegendario;
+        private final Map<String, Integer> porClasificacion;
+
+        Facetas(Map<String, Integer> porTipo1, Map<String, Integer> porTipo2, Map<Integer, Integer> porGeneracion,
+                Map<Boolean, Integer> porLegendario, Map<String, Integer> porClasificacion) {
+            this.porTipo1 = Collections.unmodifiableMap(porTipo1);
+            this.porTipo2 = Collections.unmodifiableMap(porTipo2);
+            this.porGeneracion = Collections.unmodifiableMap(porGeneracion);
+            this.porLegendario = Collections.unmodifiableMap(porLegendario);
+            this.porClasificacion = Collections.unmodifiableMap(porClasificacion);
+        }
+
+        /**
+         * Conteos por Type1, sin distinguir mayúsculas en las claves.
+         *
+         * @return tipo primario -> cantidad de Pokémon.
+         */
+        public Map<String, Integer> getPorTipo1() {
+            return porTipo1;
+        }
+
+        /**
+         * Conteos por Type2; la clave "" agrupa a los Pokémon sin tipo secundario.
+         *
+         * @return tipo secundario -> cantidad de Pokémon.
+         */
+        public Map<String, Integer> getPorTipo2() {
+            return porTipo2;
+        }
+
+        /**
+         * Conteos por generación.
+         *
+         * @return generación -> cantidad de Pokémon.
+         */
+        public Map<Integer, Integer> getPorGeneracion() {
+            return porGeneracion;
+        }
+
+        /**
+         * Conteos de legendarios (true) y no legendarios (false); ambas claves están siempre,
+         * aunque su conteo sea cero.
+         *
+         * @return estado legendario -> cantidad de Pokémon.
+         */
+        public Map<Boolean, Integer> getPorLegendario() {
+            return porLegendario;
+        }
+
+        /**
+         * Conteos por clasificación, sin distinguir mayúsculas en las claves.
+         *
+         * @return clasificación -> cantidad de Pokémon.
+         */
+        public Map<String, Integer> getPorClasificacion() {
+            return porClasificacion;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generador de carga para {@link PokemonHttpServer} sobre la interfaz local.
+ *
+ * Abre varias conexiones HTTP/1.1 persistentes y, en cada una, envía una solicitud y espera la
+ * respuesta antes de enviar la siguiente (carga de lazo cerrado). La mezcla de solicitudes es
+ * 80 % búsquedas por nombre, 10 % por habilidad, 5 % listados por tipo y 5 % agregados a
+ * colecciones, con nombres, tipos y habilidades tomados del CSV. Con un lote mayor que 1, cada
+ * envío es un POST /lote con esa cantidad de solicitudes.
+ *
+ * Informa las solicitudes por segundo y los percentiles de latencia medidos en el cliente (por
+ * envío) y en el servidor (por solicitud HTTP, si el servidor corre en el mismo proceso). El
+ * primer quinto de la duración se usa para calentar la JVM y no se mide.
+ *
+ * Uso: java HttpLoadGenerator archivo.csv [conexiones] [segundos] [lote] [puerto]
+ * Sin puerto, se inicia un servidor en el mismo proceso con el catálogo del archivo.
+ */
+public class HttpLoadGenerator {
+    private final int puerto;
+    private final List<String> rutas;
+    private final LatencyHistogram latencias = new LatencyHistogram();
+    private final LongAdder solicitudes = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    // Servidor en el mismo proceso, cuyas latencias se reinician al empezar a medir
+    private final PokemonHttpServer servidorLocal;
+    private volatile boolean midiendo;
+    private volatile boolean terminado;
+
+    /**
+     * Construye un generador contra el puerto local indicado.
+     *
+     * @param puerto        El puerto del servidor.
+     * @param rutas         Las rutas (con su consulta) a solicitar, con la proporción deseada.
+     * @param servidorLocal El servidor si corre en este proceso, o null.
+     */
+    HttpLoadGenerator(int puerto, List<String> rutas, PokemonHttpServer servidorLocal) {
+        this.puerto = puerto;
+        this.rutas = rutas;
+        this.servidorLocal = servidorLocal;
+    }
+
+    /**
+     * Arma la mezcla de solicitudes a partir de los Pokémon del archivo.
+     */
+    static List<String> rutasDesde(String archivo) throws IOException {
+        List<String> nombres = new ArrayList<>();
+        Set<String> tipos = new LinkedHashSet<>();
+        Set<String> habilidades = new LinkedHashSet<>();
+        new CsvStreamReader().recorrer(Paths.get(archivo), fila -> {
+            nombres.add(fila.getNombre().toString());
+            tipos.add(fila.getType1().toString());
+            if (fila.getCantidadHabilidades() > 0) {
+                habilidades.add(fila.getHabilidad(0).toString());
+            }
+        });
+        if (nombres.isEmpty()) {
+            throw new IOException("El archivo no tiene Pokémon: " + archivo);
+        }
+        List<String> listaTipos = new ArrayList<>(tipos);
+        List<String> listaHabilidades = new ArrayList<>(habilidades);
+        SplittableRandom azar = new SplittableRandom(42);
+        List<String> rutas = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            int r = azar.nextInt(100);
+            String nombre = codificar(nombres.get(azar.nextInt(nombres.size())));
+            if (r < 80) {
+                rutas.add("GET /pokemon?nombre=" + nombre);
+            } else if (r < 90 && !listaHabilidades.isEmpty()) {
+                rutas.add("GET /habilidad?q=" + codificar(listaHabilidades.get(azar.nextInt(listaHabilidades.size()))));
+            } else if (r < 95) {
+                rutas.add("GET /tipo?tipo=" + codificar(listaTipos.get(azar.nextInt(listaTipos.size()))));
+            } else {
+                rutas.add("POST /coleccion?usuario=u" + azar.nextInt(1000) + "&nombre=" + nombre);
+            }
+        }
+        return rutas;
+    }
+
+    private static String codificar(String valor) {
+        return URLEncoder.encode(valor, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ejecuta la carga y espera a que termine.
+     *
+     * @param conexiones La cantidad de conexiones simultáneas.
+     * @param segundos   La duración total, incluido el calentamiento.
+     * @param lote       La cantidad de solicitudes por envío.
+     * @return los nanosegundos medidos (sin el calentamiento).
+     */
+    long ejecutar(int conexiones, int segundos, int lote) throws InterruptedException {
+        List<Thread> hilos = new ArrayList<>();
+        for (int c = 0; c < conexiones; c++) {
+            final int semilla = c;
+            Thread t = new Thread(() -> conexion(semilla, lote), "carga-" + c);
+            t.setDaemon(true);
+            hilos.add(t);
+            t.start();
+        }
+        long total = segundos * 1_000_000_000L;
+        Thread.sleep(total / 5 / 1_000_000);
+        if (servidorLocal != null) {
+            servidorLocal.getLatencias().reiniciar();
+        }
+        midiendo = true;
+        long inicio = System.nanoTime();
+        Thread.sleep((total - total / 5) / 1_000_000);
+        midiendo = false;
+        long medido = System.nanoTime() - inicio;
+        terminado = true;
+        for (Thread t : hilos) {
+            t.join(5000);
+        }
+        return medido;
+    }
+
+    private void conexion(int semilla, int lote) {
+        SplittableRandom azar = new SplittableRandom(semilla);
+        byte[] buffer = new byte[1 << 16];
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), puerto)) {
+            socket.setTcpNoDelay(true);
+            OutputStream salida = socket.getOutputStream();
+            InputStream entrada = new BufferedInputStream(socket.getInputStream(), 1 << 16);
+            StringBuilder cuerpo = new StringBuilder();
+            while (!terminado) {
+                byte[] solicitud;
+                if (lote <= 1) {
+                    String ruta = rutas.get(azar.nextInt(rutas.size()));
+                    solicitud = (ruta + " HTTP/1.1\r\nHost: localhost\r\nContent-Length: 0\r\n\r\n")
+                            .getBytes(StandardCharsets.UTF_8);
+                } else {
+                    cuerpo.setLength(0);
+                    for (int i = 0; i < lote; i++) {
+                        cuerpo.append(rutas.get(azar.nextInt(rutas.size()))).append('\n');
+                    }
+                    byte[] bytes = cuerpo.toString().getBytes(StandardCharsets.UTF_8);
+                    byte[] encabezado = ("POST /lote HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + bytes.length
+                            + "\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+                    solicitud = new byte[encabezado.length + bytes.length];
+                    System.arraycopy(encabezado, 0, solicitud, 0, encabezado.length);
+                    System.arraycopy(bytes, 0, solicitud, encabezado.length, bytes.length);
+                }
+                long inicio = System.nanoTime();
+                salida.write(solicitud);
+                salida.flush();
+                int estado = leerRespuesta(entrada, buffer);
+                long duracion = System.nanoTime() - inicio;
+                if (midiendo) {
+                    latencias.registrar(duracion);
+                    solicitudes.add(Math.max(1, lote));
+                    if (estado >= 500) {
+                        errores.increment();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (!terminado) {
+                errores.increment();
+                System.out.println("Conexión " + semilla + " interrumpida: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lee una respuesta completa (encabezados y cuerpo según Content-Length) y retorna su estado.
+     */
+    private static int leerRespuesta(InputStream entrada, byte[] buffer) throws IOException {
+        String lineaEstado = leerLinea(entrada, buffer);
+        int estado = Integer.parseInt(lineaEstado.substring(9, 12));
+        long longitud = 0;
+        String linea;
+        while (!(linea = leerLinea(entrada, buffer)).isEmpty()) {
+            if (linea.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                longitud = Long.parseLong(linea.substring(15).trim());
+            }
+        }
+        while (longitud > 0) {
+            int leidos = entrada.read(buffer, 0, (int) Math.min(buffer.length, longitud));
+            if (leidos < 0) {
+                throw new IOException("Respuesta incompleta");
+            }
+            longitud -= leidos;
+        }
+        return estado;
+    }
+
+    private static String leerLinea(InputStream entrada, byte[] buffer) throws IOException {
+        int n = 0;
+        int b;
+        while ((b = entrada.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("Conexión cerrada por el servidor");
+            }
+            if (b != '\r' && n < buffer.length) {
+                buffer[n++] = (byte) b;
+            }
+        }
+        return new String(buffer, 0, n, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Ejecuta la carga e informa el resultado.
+     *
+     * @param args archivo.csv [conexiones] [segundos] [lote] [puerto]
+     * @throws Exception si no se puede leer el archivo o iniciar el servidor.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: java HttpLoadGenerator archivo.csv [conexiones] [segundos] [lote] [puerto]");
+            return;
+        }
+        int conexiones = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int lote = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        PokemonHttpServer servidor = null;
+        int puerto;
+        if (args.length > 4) {
+            puerto = Integer.parseInt(args[4]);
+        } else {
+            ConcurrentPokemonApp app = new ConcurrentPokemonApp(1);
+            app.recargar(args[0]);
+            servidor = new PokemonHttpServer(app, 0);
+            servidor.iniciar();
+            puerto = servidor.getPuerto();
+        }
+        HttpLoadGenerator generador = new HttpLoadGenerator(puerto, rutasDesde(args[0]), servidor);
+        long nanos = generador.ejecutar(conexiones, segundos, lote);
+        double segundosMedidos = nanos / 1e9;
+        LatencyHistogram l = generador.latencias;
+        System.out.printf(Locale.ROOT, "%d conexiones, lote %d, %.1f s medidos%n", conexiones, lote, segundosMedidos);
+        System.out.printf(Locale.ROOT, "%d solicitudes (%.0f solicitudes/s), %d errores%n",
+                generador.solicitudes.sum(), generador.solicitudes.sum() / segundosMedidos, generador.errores.sum());
+        System.out.printf(Locale.ROOT, "Latencia en el cliente por envío (us): p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, máx %.1f%n",
+                l.getPercentil(50) / 1e3, l.getPercentil(90) / 1e3, l.getPercentil(99) / 1e3,
+                l.getPercentil(99.9) / 1e3, l.getMaximo() / 1e3);
+        if (servidor != null) {
+            LatencyHistogram s = servidor.getLatencias();
+            System.out.printf(Locale.ROOT, "Latencia en el servidor (us): p50 %.1f, p99 %.1f, p99.9 %.1f (%s)%n",
+                    s.getPercentil(50) / 1e3, s.getPercentil(99) / 1e3, s.getPercentil(99.9) / 1e3,
+                    servidor.usaHilosVirtuales() ? "hilos virtuales" : "pool de hilos");
+            servidor.detener();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mapa de Pokémon que mantiene sincronizados sus índices secundarios.
+ * Envuelve la implementación de Map elegida con {@link MapFactory} y notifica a cada
+ * {@link PokemonIndex} registrado cuando se agrega, reemplaza o elimina un Pokémon,
+ * incluso si la modificación se hace a través de {@code entrySet()} o sus iteradores.
+ */
+public class IndexedPokemonMap extends AbstractMap<String, Pokemon> implements MemoryReporting {
+    private final Map<String, Pokemon> delegate;
+    private final List<PokemonIndex> indices = new ArrayList<>();
+    private Set<Map.Entry<String, Pokemon>> entrySet;
+    private Collection<Pokemon> values;
+    private Set<String> keySet;
+
+    /**
+     * Construye un mapa indexado sobre la implementación indicada.
+     *
+     * @param delegate El mapa donde se guardan los Pokémon.
+     */
+    public IndexedPokemonMap(Map<String, Pokemon> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Registra un índice y le agrega los Pokémon que ya existen en el mapa.
+     *
+     * @param indice El índice a registrar.
+     */
+    public void registrarIndice(PokemonIndex indice) {
+        for (Map.Entry<String, Pokemon> e : delegate.entrySet()) {
+            indice.agregar(e.getKey(), e.getValue());
+        }
+        indices.add(indice);
+    }
+
+    /**
+     * Estima la memoria del mapa interno según su implementación.
+     *
+     * @return la cantidad aproximada de bytes.
+     */
+    @Override
+    public long estimarMemoriaBytes() {
+        return MapFactory.estimarMemoriaBytes(delegate);
+    }
+
+    @Override
+    public Pokemon get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public Pokemon put(String key, Pokemon value) {
+        Pokemon anterior = delegate.put(key, value);
+        if (anterior != null) {
+            notificarEliminacion(key, anterior);
+        }
+        for (PokemonIndex indice : indices) {
+            indice.agregar(key, value);
+        }
+        return anterior;
+    }
+
+    @Override
+    public Pokemon remove(Object key) {
+        Pokemon anterior = delegate.remove(key);
+        if (anterior != null) {
+            notificarEliminacion((String) key, anterior);
+        }
+        return anterior;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        for (PokemonIndex indice : indices) {
+            indice.limpiar();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Pokemon>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    @Override
+    public Collection<Pokemon> values() {
+        // Se recorre el mapa interno directamente para no crear una entrada envoltorio por elemento
+        if (values == null) {
+            values = new AbstractCollection<Pokemon>() {
+                @Override
+                public int size() {
+                    return delegate.size();
+                }
+
+                @Override
+                public void clear() {
+                    IndexedPokemonMap.this.clear();
+                }
+
+                @Override
+                public Iterator<Pokemon> iterator() {
+                    Iterator<Map.Entry<String, Pokemon>> it = new IteradorEntradas();
+                    return new Iterator<Pokemon>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Pokemon next() {
+                            return it.next().getValue();
+                        }
+
+                        @Override
+                        public void remove() {
+                            it.remove();
+                        }
+                    };
+                }
+            };
+        }
+        return values;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<String>() {
+                @Override
+                public int size() {
+                    return delegate.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return delegate.containsKey(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    return IndexedPokemonMap.this.remove(o) != null;
+                }
+
+                @Override
+                public void clear() {
+                    IndexedPokemonMap.this.clear();
+                }
+
+                @Override
+                public Iterator<String> iterator() {
+                    Iterator<Map.Entry<String, Pokemon>> it = new IteradorEntradas();
+                    return new Iterator<String>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public String next() {
+                            return it.next().getKey();
+                        }
+
+                        @Override
+                        public void remove() {
+                            it.remove();
+                        }
+                    };
+                }
+            };
+        }
+        return keySet;
+    }
+
+    private void notificarEliminacion(String clave, Pokemon p) {
+        for (PokemonIndex indice : indices) {
+            indice.eliminar(clave, p);
+        }
+    }
+
+    /**
+     * Vista de las entradas que notifica a los índices las eliminaciones hechas con el iterador
+     * y los reemplazos hechos con {@code setValue}.
+     */
+    private class EntrySet extends AbstractSet<Map.Entry<String, Pokemon>> {
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public void clear() {
+            IndexedPokemonMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, Pokemon>> iterator() {
+            IteradorEntradas it = new IteradorEntradas();
+            return new Iterator<Map.Entry<String, Pokemon>>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Map.Entry<String, Pokemon> next() {
+                    return new Entrada(it.next());
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+    }
+
+    /**
+     * Iterador sobre las entradas del mapa interno que notifica a los índices las eliminaciones.
+     */
+    private class IteradorEntradas implements Iterator<Map.Entry<String, Pokemon>> {
+        private final Iterator<Map.Entry<String, Pokemon>> it = delegate.entrySet().iterator();
+        private Map.Entry<String, Pokemon> actual;
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, Pokemon> next() {
+            actual = it.next();
+            return actual;
+        }
+
+        @Override
+        public void remove() {
+            // Se guardan clave y valor antes de eliminar, pues algunas entradas se invalidan al quitarlas
+            String clave = actual.getKey();
+            Pokemon valor = actual.getValue();
+            it.remove();
+            notificarEliminacion(clave, valor);
+        }
+    }
+
+    /**
+     * Entrada que notifica a los índices cuando su valor se reemplaza.
+     */
+    private class Entrada implements Map.Entry<String, Pokemon> {
+        private final Map.Entry<String, Pokemon> entrada;
+
+        Entrada(Map.Entry<String, Pokemon> entrada) {
+            this.entrada = entrada;
+        }
+
+        @Override
+        public String getKey() {
+            return entrada.getKey();
+        }
+
+        @Override
+        public Pokemon getValue() {
+            return entrada.getValue();
+        }
+
+        @Override
+        public Pokemon setValue(Pokemon value) {
+            Pokemon anterior = entrada.setValue(value);
+            notificarEliminacion(entrada.getKey(), anterior);
+            for (PokemonIndex indice : indices) {
+                indice.agregar(entrada.getKey(), value);
+            }
+            return anterior;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return entrada.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return entrada.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return entrada.toString();
+        }
+    }
+}
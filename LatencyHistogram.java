@@ -0,0 +1,128 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas logarítmico-lineales, al estilo de HdrHistogram.
+ *
+ * Los valores menores que 128 tienen una cubeta cada uno; a partir de ahí cada potencia de dos
+ * se divide en 64 cubetas iguales, por lo que cualquier percentil se informa con un error
+ * relativo menor al 1,6 % usando un arreglo fijo de contadores. Registrar un valor es un
+ * incremento atómico sin bloqueos y sin crear objetos, y puede hacerse desde varios hilos.
+ */
+public class LatencyHistogram {
+    // Cantidad de cubetas por potencia de dos (2^6) y valores con cubeta propia (2^7)
+    private static final int BITS_SUBCUBETA = 6;
+    private static final int LINEALES = 1 << (BITS_SUBCUBETA + 1);
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA) << BITS_SUBCUBETA;
+
+    // La cantidad de valores no se cuenta aparte: se suma de las cubetas al leerla, para que
+    // registrar haga un incremento atómico menos
+    private final AtomicLongArray cuentas = new AtomicLongArray(CUBETAS);
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra un valor.
+     *
+     * @param valor El valor a registrar (los negativos se cuentan como 0).
+     */
+    public void registrar(long valor) {
+        long v = Math.max(0, valor);
+        cuentas.incrementAndGet(indice(v));
+        suma.add(v);
+        maximo.accumulate(v);
+    }
+
+    static int indice(long v) {
+        if (v < LINEALES) {
+            return (int) v;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(v);
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        // (v >>> desplazamiento) está entre 64 y 127
+        return (desplazamiento << BITS_SUBCUBETA) + (int) (v >>> desplazamiento);
+    }
+
+    /**
+     * Retorna el mayor valor que cae en la cubeta indicada.
+     */
+    static long limiteSuperior(int indice) {
+        if (indice < LINEALES) {
+            return indice;
+        }
+        int desplazamiento = (indice >>> BITS_SUBCUBETA) - 1;
+        long base = (long) ((indice & ((1 << BITS_SUBCUBETA) - 1)) | (1 << BITS_SUBCUBETA)) << desplazamiento;
+        return base + (1L << desplazamiento) - 1;
+    }
+
+    /**
+     * Retorna la cantidad de valores registrados.
+     *
+     * @return la cantidad de valores.
+     */
+    public long getCantidad() {
+        long n = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            n += cuentas.get(i);
+        }
+        return n;
+    }
+
+    /**
+     * Retorna el promedio de los valores registrados.
+     *
+     * @return el promedio, o 0 si no hay valores.
+     */
+    public double getPromedio() {
+        long n = getCantidad();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Retorna el mayor valor registrado.
+     *
+     * @return el máximo, o 0 si no hay valores.
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Retorna el valor por debajo del cual está el porcentaje indicado de los valores registrados.
+     *
+     * @param percentil El percentil, entre 0 y 100 (por ejemplo 99.9).
+     * @return el límite superior de la cubeta que contiene el percentil, o 0 si no hay valores.
+     */
+    public long getPercentil(double percentil) {
+        long n = 0;
+        long[] copia = new long[CUBETAS];
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cuentas.get(i);
+            n += copia[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100.0 * n));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+    /**
+     * Descarta todos los valores registrados.
+     */
+    public void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) {
+            cuentas.set(i, 0);
+        }
+        suma.reset();
+        maximo.reset();
+    }
+}
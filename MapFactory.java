@@ -2,24 +2,33 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Clase fábrica para crear una instancia de Map que almacene objetos Pokemon.
  * Permite seleccionar entre diferentes implementaciones de Map en tiempo de ejecución.
  */
 public class MapFactory {
-    
+
     /**
      * Retorna una implementación de Map<String, Pokemon> según la opción proporcionada.
      * <ul>
      *   <li>1 - HashMap</li>
      *   <li>2 - TreeMap</li>
      *   <li>3 - LinkedHashMap</li>
+     *   <li>4 - Direccionamiento abierto (sin nodos por entrada)</li>
+     *   <li>5 - ConcurrentHashMap</li>
+     *   <li>6 - Registros fuera del heap (ByteBuffer directo)</li>
      * </ul>
+     * La opción solo elige el mapa de respaldo. PokemonApp lo envuelve en un
+     * {@link IndexedPokemonMap} cuyos índices no son seguros entre hilos, por lo que la opción 5
+     * no permite escrituras concurrentes; para eso está {@link ConcurrentPokemonApp}. Por la misma
+     * razón la opción 6 solo ahorra la estructura del mapa: los índices siguen guardando los
+     * Pokémon en el heap (ver {@link OffHeapPokemonMap}).
      *
      * @param opcion La opción de implementación a utilizar.
      * @return un objeto Map con la implementación seleccionada.
-     * @throws IllegalArgumentException si la opción no es 1, 2 o 3.
+     * @throws IllegalArgumentException si la opción no está entre 1 y 6.
      */
     public static Map<String, Pokemon> getMap(int opcion) {
         switch(opcion) {
@@ -29,8 +38,39 @@ public class MapFactory {
                 return new TreeMap<>();
             case 3:
                 return new LinkedHashMap<>();
+            case 4:
+                return new OpenAddressingPokemonMap();
+            case 5:
+                return new ConcurrentHashMap<>();
+            case 6:
+                return new OffHeapPokemonMap();
             default:
-                throw new IllegalArgumentException("Opción no válida. Debe seleccionar 1, 2 o 3.");
+                throw new IllegalArgumentException("Opción no válida. Debe seleccionar un número del 1 al 6.");
+        }
+    }
+
+    /**
+     * Estima la memoria que ocupa la estructura del mapa, sin contar los objetos Pokemon ni las claves.
+     * Las implementaciones propias informan su tamaño exacto; para las del JDK se usa el tamaño
+     * típico de sus nodos con punteros comprimidos.
+     *
+     * @param mapa El mapa a medir.
+     * @return la cantidad aproximada de bytes.
+     */
+    public static long estimarMemoriaBytes(Map<String, Pokemon> mapa) {
+        if (mapa instanceof MemoryReporting) {
+            return ((MemoryReporting) mapa).estimarMemoriaBytes();
+        }
+        long entradas = mapa.size();
+        // Tabla de buckets con factor de carga 0.75, redondeada a potencia de dos
+        long tabla = Long.highestOneBit(Math.max(1, (long) (entradas / 0.75f)) * 2 - 1) * 4;
+        if (mapa instanceof LinkedHashMap) {
+            return tabla + entradas * 40;
+        }
+        if (mapa instanceof HashMap || mapa instanceof ConcurrentHashMap) {
+            return tabla + entradas * 32;
         }
+        // TreeMap y otras implementaciones con un nodo por entrada
+        return entradas * 40;
     }
 }
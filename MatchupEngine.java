@@ -0,0 +1,962 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Motor de enfrentamientos por tipo: efectividad de los ataques, mejores rivales contra un
+ * Pokémon y análisis de equipos.
+ *
+ * La tabla de efectividad de los 18 tipos se guarda como un arreglo denso de bytes con el
+ * exponente en base 2 del multiplicador (1 para x2, 0 para x1, -1 para x0.5) e
+ * {@link #INMUNE} para x0. Al agregar cada Pokémon se precalculan sus vectores:
+ * <ul>
+ *   <li>defensivo: el exponente que recibe de cada tipo atacante, combinando sus dos tipos
+ *       (x4 es 2 y x0.25 es -2; con una inmunidad el resultado es {@link #INMUNE});</li>
+ *   <li>ofensivo: el mejor exponente que causan sus tipos (los ataques del mismo tipo que el
+ *       Pokémon) a cada tipo defensor, y como máscara de bits los tipos a los que hace x2.</li>
+ * </ul>
+ * Todo se guarda en columnas primitivas por fila, como en {@link PokemonQueryEngine}, por lo
+ * que los recorridos de las consultas no crean objetos.
+ *
+ * Puntajes:
+ * <ul>
+ *   <li>rival: exponente del mejor ataque contra el objetivo menos el exponente del mejor
+ *       ataque que recibe de él (una inmunidad cuenta como cuatro resistencias);</li>
+ *   <li>equipo: {@value #PESO_COBERTURA} por cada tipo al que algún miembro hace x2, menos
+ *       {@value #PESO_DEBILIDAD} por cada miembro débil a un tipo atacante que ningún otro
+ *       compensa con una resistencia.</li>
+ * </ul>
+ *
+ * Se registra como {@link PokemonIndex} en un {@link IndexedPokemonMap}. Las consultas pueden
+ * ejecutarse desde varios hilos mientras no haya modificaciones simultáneas.
+ */
+public class MatchupEngine implements PokemonIndex {
+    /** Los 18 tipos, en el orden de sus códigos. */
+    public static final List<String> TIPOS = Collections.unmodifiableList(Arrays.asList(
+            "Normal", "Fire", "Water", "Electric", "Grass", "Ice", "Fighting", "Poison", "Ground",
+            "Flying", "Psychic", "Bug", "Rock", "Ghost", "Dragon", "Dark", "Steel", "Fairy"));
+    static final int CANTIDAD_TIPOS = 18;
+    /** Exponente que representa un multiplicador x0. */
+    public static final byte INMUNE = -4;
+
+    static final int PESO_COBERTURA = 2;
+    static final int PESO_DEBILIDAD = 3;
+    // Candidatos que se combinan por defecto en la búsqueda de equipos
+    static final int MAX_CANDIDATOS = 40;
+    // Combinaciones a partir de las cuales la búsqueda se reparte entre hilos
+    private static final long UMBRAL_PARALELO = 1 << 16;
+
+    private static final Map<String, Integer> CODIGOS = new HashMap<>();
+    // TABLA[atacante * 18 + defensor]
+    private static final byte[] TABLA = new byte[CANTIDAD_TIPOS * CANTIDAD_TIPOS];
+
+    static {
+        for (int i = 0; i < CANTIDAD_TIPOS; i++) {
+            CODIGOS.put(TIPOS.get(i).toLowerCase(Locale.ROOT), i);
+        }
+        // Atacante: tipos a los que hace x2 | tipos a los que hace x0.5 | tipos a los que hace x0
+        efectividad("Normal", "", "Rock Steel", "Ghost");
+        efectividad("Fire", "Grass Ice Bug Steel", "Fire Water Rock Dragon", "");
+        efectividad("Water", "Fire Ground Rock", "Water Grass Dragon", "");
+        efectividad("Electric", "Water Flying", "Electric Grass Dragon", "Ground");
+        efectividad("Grass", "Water Ground Rock", "Fire Grass Poison Flying Bug Dragon Steel", "");
+        efectividad("Ice", "Grass Ground Flying Dragon", "Fire Water Ice Steel", "");
+        efectividad("Fighting", "Normal Ice Rock Dark Steel", "Poison Flying Psychic Bug Fairy", "Ghost");
+        efectividad("Poison", "Grass Fairy", "Poison Ground Rock Ghost", "Steel");
+        efectividad("Ground", "Fire Electric Poison Rock Steel", "Grass Bug", "Flying");
+        efectividad("Flying", "Grass Fighting Bug", "Electric Rock Steel", "");
+        efectividad("Psychic", "Fighting Poison", "Psychic Steel", "Dark");
+        efectividad("Bug", "Grass Psychic Dark", "Fire Fighting Poison Flying Ghost Steel Fairy", "");
+        efectividad("Rock", "Fire Ice Flying Bug", "Fighting Ground Steel", "");
+        efectividad("Ghost", "Psychic Ghost", "Dark", "Normal");
+        efectividad("Dragon", "Dragon", "Steel", "Fairy");
+        efectividad("Dark", "Psychic Ghost", "Fighting Dark Fairy", "");
+        efectividad("Steel", "Ice Rock Fairy", "Fire Water Electric Steel", "");
+        efectividad("Fairy", "Fighting Dragon Dark", "Fire Poison Steel", "");
+    }
+
+    private static void efectividad(String atacante, String doble, String mitad, String nulo) {
+        int a = CODIGOS.get(atacante.toLowerCase(Locale.ROOT)) * CANTIDAD_TIPOS;
+        marcar(a, doble, (byte) 1);
+        marcar(a, mitad, (byte) -1);
+        marcar(a, nulo, INMUNE);
+    }
+
+    private static void marcar(int fila, String tipos, byte exponente) {
+        for (String t : tipos.split(" ")) {
+            if (!t.isEmpty()) {
+                TABLA[fila + CODIGOS.get(t.toLowerCase(Locale.ROOT))] = exponente;
+            }
+        }
+    }
+
+    /**
+     * Retorna el código de un tipo, sin distinguir mayúsculas.
+     *
+     * @param tipo El nombre del tipo en inglés, como en el CSV.
+     * @return el código entre 0 y 17, o -1 si el tipo no existe o está vacío.
+     */
+    public static int codigoTipo(String tipo) {
+        if (tipo == null) {
+            return -1;
+        }
+        Integer codigo = CODIGOS.get(tipo.trim().toLowerCase(Locale.ROOT));
+        return codigo == null ? -1 : codigo;
+    }
+
+    /**
+     * Retorna el exponente del multiplicador de un ataque del primer tipo contra el segundo.
+     *
+     * @param atacante El código del tipo atacante.
+     * @param defensor El código del tipo defensor.
+     * @return 1 (x2), 0 (x1), -1 (x0.5) o {@link #INMUNE} (x0).
+     */
+    public static byte efectividad(int atacante, int defensor) {
+        return TABLA[atacante * CANTIDAD_TIPOS + defensor];
+    }
+
+    /**
+     * Convierte un exponente de la tabla o de un vector en su multiplicador.
+     *
+     * @param exponente El exponente.
+     * @return el multiplicador (0 para {@link #INMUNE}).
+     */
+    public static double multiplicador(int exponente) {
+        return exponente == INMUNE ? 0 : Math.scalb(1.0, exponente);
+    }
+
+    /**
+     * Un Pokémon propuesto contra un objetivo, con el resultado del enfrentamiento.
+     */
+    public static class Enfrentamiento {
+        private final Pokemon pokemon;
+        private final int ataque;
+        private final int recibido;
+
+        Enfrentamiento(Pokemon pokemon, int ataque, int recibido) {
+            this.pokemon = pokemon;
+            this.ataque = ataque;
+            this.recibido = recibido;
+        }
+
+        public Pokemon getPokemon() {
+            return pokemon;
+        }
+
+        /**
+         * Retorna el multiplicador del mejor ataque de este Pokémon contra el objetivo.
+         *
+         * @return el multiplicador (0, 0.25, 0.5, 1, 2 o 4).
+         */
+        public double getMultiplicadorAtaque() {
+            return multiplicador(ataque);
+        }
+
+        /**
+         * Retorna el multiplicador del mejor ataque del objetivo contra este Pokémon.
+         *
+         * @return el multiplicador (0, 0.25, 0.5, 1, 2 o 4).
+         */
+        public double getMultiplicadorRecibido() {
+            return multiplicador(recibido);
+        }
+
+        /**
+         * Retorna el puntaje: exponente del ataque menos exponente del daño recibido.
+         *
+         * @return el puntaje; mayor es mejor.
+         */
+        public int getPuntaje() {
+            return ataque - recibido;
+        }
+    }
+
+    /**
+     * Análisis de un equipo: debilidades y resistencias por tipo atacante, tipos cubiertos por
+     * sus ataques y puntaje.
+     */
+    public static class Analisis {
+        private final List<Pokemon> miembros;
+        private final int[] debiles;
+        private final int[] resistentes;
+        private final int cobertura;
+        private final int puntaje;
+
+        Analisis(List<Pokemon> miembros, int[] debiles, int[] resistentes, int cobertura, int puntaje) {
+            this.miembros = Collections.unmodifiableList(miembros);
+            this.debiles = debiles;
+            this.resistentes = resistentes;
+            this.cobertura = cobertura;
+            this.puntaje = puntaje;
+        }
+
+        public List<Pokemon> getMiembros() {
+            return miembros;
+        }
+
+        public int getPuntaje() {
+            return puntaje;
+        }
+
+        /**
+         * Retorna cuántos miembros reciben x2 o más del tipo atacante indicado.
+         *
+         * @param tipo El tipo atacante.
+         * @return la cantidad de miembros débiles, 0 si el tipo no existe.
+         */
+        public int getDebiles(String tipo) {
+            int codigo = codigoTipo(tipo);
+            return codigo < 0 ? 0 : debiles[codigo];
+        }
+
+        /**
+         * Retorna cuántos miembros reciben x0.5 o menos (incluida la inmunidad) del tipo indicado.
+         *
+         * @param tipo El tipo atacante.
+         * @return la cantidad de miembros que lo resisten, 0 si el tipo no existe.
+         */
+        public int getResistentes(String tipo) {
+            int codigo = codigoTipo(tipo);
+            return codigo < 0 ? 0 : resistentes[codigo];
+        }
+
+        /**
+         * Retorna el tipo atacante con más miembros débiles no compensados por resistencias;
+         * ante un empate, el que tiene más miembros débiles y luego el primero de {@link #TIPOS}.
+         *
+         * @return el tipo más peligroso para el equipo, o null si ninguno supera a las resistencias.
+         */
+        public String getTipoMasDebil() {
+            int peor = -1;
+            for (int a = 0; a < CANTIDAD_TIPOS; a++) {
+                int neto = debiles[a] - resistentes[a];
+                if (neto > 0 && (peor < 0 || neto > debiles[peor] - resistentes[peor]
+                        || neto == debiles[peor] - resistentes[peor] && debiles[a] > debiles[peor])) {
+                    peor = a;
+                }
+            }
+            return peor < 0 ? null : TIPOS.get(peor);
+        }
+
+        /**
+         * Retorna los tipos a los que algún miembro hace x2 con un ataque de su propio tipo.
+         *
+         * @return los tipos cubiertos, en el orden de {@link #TIPOS}.
+         */
+        public List<String> getTiposCubiertos() {
+            List<String> tipos = new ArrayList<>();
+            for (int t = 0; t < CANTIDAD_TIPOS; t++) {
+                if ((cobertura & (1 << t)) != 0) {
+                    tipos.add(TIPOS.get(t));
+                }
+            }
+            return tipos;
+        }
+
+        /**
+         * Escribe los miembros, el puntaje, la cobertura y las debilidades por tipo.
+         *
+         * @param salida El destino del análisis.
+         */
+        public void escribir(OutputSink salida) {
+            salida.append("Equipo:");
+            for (Pokemon p : miembros) {
+                salida.append(' ').append(p.getName());
+            }
+            salida.nuevaLinea();
+            salida.append("Puntaje: ").append(puntaje).append(" - Cobertura (x2): ")
+                    .append(String.join(", ", getTiposCubiertos())).nuevaLinea();
+            for (int a = 0; a < CANTIDAD_TIPOS; a++) {
+                if (debiles[a] > 0) {
+                    salida.append("  ").append(TIPOS.get(a)).append(": ").append(debiles[a])
+                            .append(" débiles, ").append(resistentes[a]).append(" resisten").nuevaLinea();
+                }
+            }
+            String peor = getTipoMasDebil();
+            salida.linea(peor == null ? "Ningún tipo supera a las resistencias del equipo." : "Tipo más peligroso: " + peor);
+            salida.flush();
+        }
+    }
+
+    /**
+     * El mejor equipo encontrado por {@link #mejorEquipo}, con su análisis y la cantidad de
+     * combinaciones evaluadas.
+     */
+    public static class Equipo {
+        private final Analisis analisis;
+        private final long combinaciones;
+        private final int candidatos;
+
+        Equipo(Analisis analisis, long combinaciones, int candidatos) {
+            this.analisis = analisis;
+            this.combinaciones = combinaciones;
+            this.candidatos = candidatos;
+        }
+
+        public Analisis getAnalisis() {
+            return analisis;
+        }
+
+        public List<Pokemon> getMiembros() {
+            return analisis.getMiembros();
+        }
+
+        public long getCombinaciones() {
+            return combinaciones;
+        }
+
+        public int getCandidatos() {
+            return candidatos;
+        }
+    }
+
+    /**
+     * Restricciones de la búsqueda de equipos. Se construye con {@link #builder()}.
+     */
+    public static class Restricciones {
+        private final int tamano;
+        private final int maxLegendarios;
+        private final boolean sinTiposRepetidos;
+        private final Set<String> obligatorios;
+        private final int maxCandidatos;
+
+        private Restricciones(Builder b) {
+            tamano = b.tamano;
+            maxLegendarios = b.maxLegendarios;
+            sinTiposRepetidos = b.sinTiposRepetidos;
+            obligatorios = Collections.unmodifiableSet(new LinkedHashSet<>(b.obligatorios));
+            maxCandidatos = b.maxCandidatos;
+        }
+
+        /**
+         * Retorna un constructor con equipos de 6, sin límite de legendarios ni de tipos.
+         *
+         * @return un nuevo Builder.
+         */
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        /**
+         * Constructor de {@link Restricciones}.
+         */
+        public static class Builder {
+            private int tamano = 6;
+            private int maxLegendarios = Integer.MAX_VALUE;
+            private boolean sinTiposRepetidos;
+            private final Set<String> obligatorios = new LinkedHashSet<>();
+            private int maxCandidatos = MAX_CANDIDATOS;
+
+            /**
+             * Indica la cantidad de miembros del equipo, entre 1 y 6.
+             */
+            public Builder tamano(int tamano) {
+                if (tamano < 1 || tamano > 6) {
+                    throw new IllegalArgumentException("El equipo debe tener entre 1 y 6 miembros: " + tamano);
+                }
+                this.tamano = tamano;
+                return this;
+            }
+
+            /**
+             * Indica la cantidad máxima de legendarios en el equipo.
+             */
+            public Builder maxLegendarios(int maxLegendarios) {
+                this.maxLegendarios = Math.max(0, maxLegendarios);
+                return this;
+            }
+
+            /**
+             * Indica si dos miembros no pueden compartir un tipo.
+             */
+            public Builder sinTiposRepetidos(boolean sinTiposRepetidos) {
+                this.sinTiposRepetidos = sinTiposRepetidos;
+                return this;
+            }
+
+            /**
+             * Agrega un Pokémon que debe formar parte del equipo.
+             */
+            public Builder incluir(String clave) {
+                obligatorios.add(clave);
+                return this;
+            }
+
+            /**
+             * Indica cuántos candidatos se combinan como máximo; si hay más, se conservan los
+             * de mejor puntaje individual.
+             */
+            public Builder maxCandidatos(int maxCandidatos) {
+                this.maxCandidatos = Math.max(1, maxCandidatos);
+                return this;
+            }
+
+            public Restricciones build() {
+                return new Restricciones(this);
+            }
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final Map<String, Integer> filaPorClave = new HashMap<>();
+    private Pokemon[] pokemons = new Pokemon[64];
+    private byte[] tipos1 = new byte[64];
+    private byte[] tipos2 = new byte[64];
+    // Vectores por fila, de 18 posiciones cada uno
+    private byte[] defensa = new byte[64 * CANTIDAD_TIPOS];
+    private byte[] ataque = new byte[64 * CANTIDAD_TIPOS];
+    // +1 si la fila es débil al tipo atacante, -1 si lo resiste y 0 si no
+    private byte[] aporte = new byte[64 * CANTIDAD_TIPOS];
+    // Tipos a los que la fila hace x2, y tipos de la fila, como máscaras de 18 bits
+    private int[] cobertura = new int[64];
+    private int[] mascaraTipos = new int[64];
+    private boolean[] legendarios = new boolean[64];
+    private int[] filasLibres = new int[16];
+    private int cantidadLibres;
+    private int totalFilas;
+
+    /**
+     * Construye un motor que reparte la búsqueda de equipos en el pool común de fork-join.
+     */
+    public MatchupEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construye un motor que reparte la búsqueda de equipos en el pool indicado.
+     *
+     * @param pool El pool de fork-join de la búsqueda de equipos.
+     */
+    public MatchupEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void agregar(String clave, Pokemon p) {
+        int fila = cantidadLibres > 0 ? filasLibres[--cantidadLibres] : nuevaFila();
+        filaPorClave.put(clave, fila);
+        pokemons[fila] = p;
+        int t1 = codigoTipo(p.getType1());
+        int t2 = codigoTipo(p.getType2());
+        if (t2 == t1) {
+            t2 = -1;
+        }
+        tipos1[fila] = (byte) t1;
+        tipos2[fila] = (byte) t2;
+        legendarios[fila] = p.isLegendaryStatus();
+        mascaraTipos[fila] = (t1 < 0 ? 0 : 1 << t1) | (t2 < 0 ? 0 : 1 << t2);
+        int base = fila * CANTIDAD_TIPOS;
+        int mascara = 0;
+        for (int t = 0; t < CANTIDAD_TIPOS; t++) {
+            // Daño recibido de t: producto de los multiplicadores contra cada tipo propio
+            byte d1 = t1 < 0 ? 0 : TABLA[t * CANTIDAD_TIPOS + t1];
+            byte d2 = t2 < 0 ? 0 : TABLA[t * CANTIDAD_TIPOS + t2];
+            byte recibido = d1 == INMUNE || d2 == INMUNE ? INMUNE : (byte) (d1 + d2);
+            defensa[base + t] = recibido;
+            aporte[base + t] = (byte) Integer.signum(recibido);
+            // Mejor daño causado a t con los tipos propios (sin tipos conocidos, neutro)
+            byte a1 = t1 < 0 ? 0 : TABLA[t1 * CANTIDAD_TIPOS + t];
+            byte a2 = t2 < 0 ? a1 : TABLA[t2 * CANTIDAD_TIPOS + t];
+            byte causado = (byte) Math.max(a1, a2);
+            ataque[base + t] = causado;
+            if (causado > 0) {
+                mascara |= 1 << t;
+            }
+        }
+        cobertura[fila] = mascara;
+    }
+
+    @Override
+    public void eliminar(String clave, Pokemon p) {
+        Integer fila = filaPorClave.remove(clave);
+        if (fila == null) {
+            return;
+        }
+        pokemons[fila] = null;
+        if (cantidadLibres == filasLibres.length) {
+            filasLibres = Arrays.copyOf(filasLibres, cantidadLibres * 2);
+        }
+        filasLibres[cantidadLibres++] = fila;
+    }
+
+    @Override
+    public void limpiar() {
+        filaPorClave.clear();
+        Arrays.fill(pokemons, null);
+        cantidadLibres = 0;
+        totalFilas = 0;
+    }
+
+    private int nuevaFila() {
+        if (totalFilas == pokemons.length) {
+            int capacidad = pokemons.length * 2;
+            pokemons = Arrays.copyOf(pokemons, capacidad);
+            tipos1 = Arrays.copyOf(tipos1, capacidad);
+            tipos2 = Arrays.copyOf(tipos2, capacidad);
+            defensa = Arrays.copyOf(defensa, capacidad * CANTIDAD_TIPOS);
+            ataque = Arrays.copyOf(ataque, capacidad * CANTIDAD_TIPOS);
+            aporte = Arrays.copyOf(aporte, capacidad * CANTIDAD_TIPOS);
+            cobertura = Arrays.copyOf(cobertura, capacidad);
+            mascaraTipos = Arrays.copyOf(mascaraTipos, capacidad);
+            legendarios = Arrays.copyOf(legendarios, capacidad);
+        }
+        return totalFilas++;
+    }
+
+    /**
+     * Retorna el multiplicador que recibe el Pokémon de un ataque del tipo indicado.
+     *
+     * @param clave El nombre del Pokémon.
+     * @param tipo  El tipo del ataque.
+     * @return el multiplicador (0, 0.25, 0.5, 1, 2 o 4), o NaN si el Pokémon o el tipo no existen.
+     */
+    public double getMultiplicadorRecibido(String clave, String tipo) {
+        Integer fila = filaPorClave.get(clave);
+        int t = codigoTipo(tipo);
+        return fila == null || t < 0 ? Double.NaN : multiplicador(defensa[fila * CANTIDAD_TIPOS + t]);
+    }
+
+    /**
+     * Retorna los k Pokémon que mejor enfrentan al objetivo: los que más daño le causan con un
+     * ataque de su propio tipo y menos reciben de los suyos. Ante un empate se prefiere el de
+     * mejor ataque y luego el que se agregó primero.
+     *
+     * @param objetivo   El nombre del Pokémon a enfrentar.
+     * @param k          La cantidad de Pokémon a retornar.
+     * @param candidatos Los nombres de los Pokémon entre los que se elige, o null para todo el catálogo.
+     * @return los mejores rivales, del mejor al peor; vacío si el objetivo no existe.
+     */
+    public List<Enfrentamiento> mejoresContra(String objetivo, int k, Collection<String> candidatos) {
+        Integer filaObjetivo = filaPorClave.get(objetivo);
+        if (filaObjetivo == null || k <= 0) {
+            return new ArrayList<>();
+        }
+        int o = filaObjetivo;
+        // El objetivo existe, así que hay al menos una fila y no se reserva más de lo necesario
+        long[] mejores = new long[Math.min(k, filaPorClave.size())];
+        int cantidad = 0;
+        if (candidatos == null) {
+            for (int f = 0; f < totalFilas; f++) {
+                if (pokemons[f] != null && f != o) {
+                    cantidad = insertar(mejores, cantidad, clave(f, o));
+                }
+            }
+        } else {
+            for (String c : candidatos) {
+                Integer f = filaPorClave.get(c);
+                if (f != null && f != o) {
+                    cantidad = insertar(mejores, cantidad, clave(f, o));
+                }
+            }
+        }
+        List<Enfrentamiento> resultado = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            int f = Integer.MAX_VALUE - (int) mejores[i];
+            resultado.add(new Enfrentamiento(pokemons[f], ataqueContra(f, o), ataqueContra(o, f)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Mejor exponente de daño de la fila atacante contra la defensora, con los tipos propios.
+     */
+    private int ataqueContra(int atacante, int defensor) {
+        int t1 = tipos1[atacante];
+        int t2 = tipos2[atacante];
+        int base = defensor * CANTIDAD_TIPOS;
+        if (t1 < 0) {
+            return t2 < 0 ? 0 : defensa[base + t2];
+        }
+        return t2 < 0 ? defensa[base + t1] : Math.max(defensa[base + t1], defensa[base + t2]);
+    }
+
+    /**
+     * Codifica un enfrentamiento como un long que ordena por puntaje, luego por ataque y luego
+     * por fila ascendente; la fila se recupera de los 32 bits bajos.
+     */
+    private long clave(int fila, int objetivo) {
+        int causado = ataqueContra(fila, objetivo);
+        int recibido = ataqueContra(objetivo, fila);
+        return (long) (causado - recibido + 64) << 40 | (long) (causado + 64) << 32 | (Integer.MAX_VALUE - fila);
+    }
+
+    /**
+     * Inserta la clave en el arreglo ordenado de mayor a menor, si entra entre los mejores.
+     */
+    private static int insertar(long[] mejores, int cantidad, long clave) {
+        if (cantidad == mejores.length && clave <= mejores[cantidad - 1]) {
+            return cantidad;
+        }
+        int i = cantidad == mejores.length ? cantidad - 1 : cantidad++;
+        while (i > 0 && mejores[i - 1] < clave) {
+            mejores[i] = mejores[i - 1];
+            i--;
+        }
+        mejores[i] = clave;
+        return cantidad;
+    }
+
+    /**
+     * Analiza un equipo formado por los Pokémon indicados (se omiten los que no existen).
+     *
+     * @param claves Los nombres de los miembros.
+     * @return el análisis del equipo.
+     */
+    public Analisis analizar(Collection<String> claves) {
+        int[] filas = resolver(claves);
+        return analisis(filas, filas.length);
+    }
+
+    private int[] resolver(Collection<String> claves) {
+        int[] filas = new int[claves.size()];
+        int n = 0;
+        for (String c : claves) {
+            Integer f = filaPorClave.get(c);
+            if (f != null) {
+                filas[n++] = f;
+            }
+        }
+        return Arrays.copyOf(filas, n);
+    }
+
+    private Analisis analisis(int[] filas, int cantidad) {
+        int[] debiles = new int[CANTIDAD_TIPOS];
+        int[] resistentes = new int[CANTIDAD_TIPOS];
+        int cubiertos = 0;
+        int netoPositivo = 0;
+        List<Pokemon> miembros = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            int f = filas[i];
+            miembros.add(pokemons[f]);
+            cubiertos |= cobertura[f];
+            for (int a = 0; a < CANTIDAD_TIPOS; a++) {
+                byte d = defensa[f * CANTIDAD_TIPOS + a];
+                if (d > 0) {
+                    debiles[a]++;
+                } else if (d < 0) {
+                    resistentes[a]++;
+                }
+            }
+        }
+        for (int a = 0; a < CANTIDAD_TIPOS; a++) {
+            netoPositivo += Math.max(0, debiles[a] - resistentes[a]);
+        }
+        int puntaje = PESO_COBERTURA * Integer.bitCount(cubiertos) - PESO_DEBILIDAD * netoPositivo;
+        return new Analisis(miembros, debiles, resistentes, cubiertos, puntaje);
+    }
+
+    /**
+     * Busca el equipo de mayor puntaje entre los candidatos que cumple las restricciones,
+     * evaluando todas las combinaciones. Si hay más candidatos que
+     * {@link Restricciones.Builder#maxCandidatos}, se conservan los de mejor puntaje individual.
+     *
+     * Las combinaciones se recorren en orden lexicográfico, acumulando por nivel los vectores
+     * del equipo parcial en arreglos reservados al inicio, por lo que evaluar una combinación
+     * no crea objetos. Con muchas combinaciones se reparten entre los hilos del pool según los
+     * dos primeros miembros elegidos; entre equipos de igual puntaje gana el primero en ese
+     * orden, así que el resultado no depende de la cantidad de hilos.
+     *
+     * @param claves       Los nombres de los candidatos.
+     * @param restricciones Las restricciones del equipo.
+     * @return el mejor equipo, o null si ninguna combinación cumple las restricciones.
+     * @throws IllegalArgumentException si algún obligatorio no existe o los obligatorios no
+     *                                  cumplen las restricciones entre sí.
+     */
+    public Equipo mejorEquipo(Collection<String> claves, Restricciones restricciones) {
+        int[] fijas = new int[restricciones.obligatorios.size()];
+        int n = 0;
+        for (String c : restricciones.obligatorios) {
+            Integer f = filaPorClave.get(c);
+            if (f == null) {
+                throw new IllegalArgumentException("Pokémon obligatorio desconocido: " + c);
+            }
+            fijas[n++] = f;
+        }
+        if (fijas.length > restricciones.tamano) {
+            throw new IllegalArgumentException("Hay más obligatorios que miembros del equipo");
+        }
+        // Estado inicial con los obligatorios
+        int[] netoBase = new int[CANTIDAD_TIPOS];
+        int coberturaBase = 0;
+        int legendariosBase = 0;
+        int tiposBase = 0;
+        for (int f : fijas) {
+            if (restricciones.sinTiposRepetidos && (tiposBase & mascaraTipos[f]) != 0) {
+                throw new IllegalArgumentException("Los obligatorios repiten un tipo");
+            }
+            tiposBase |= mascaraTipos[f];
+            coberturaBase |= cobertura[f];
+            legendariosBase += legendarios[f] ? 1 : 0;
+            for (int a = 0; a < CANTIDAD_TIPOS; a++) {
+                netoBase[a] += aporte[f * CANTIDAD_TIPOS + a];
+            }
+        }
+        if (legendariosBase > restricciones.maxLegendarios) {
+            throw new IllegalArgumentException("Los obligatorios superan el máximo de legendarios");
+        }
+
+        int[] libres = candidatosLibres(claves, fijas, restricciones.maxCandidatos);
+        int faltan = restricciones.tamano - fijas.length;
+        if (faltan == 0) {
+            return new Equipo(analisis(fijas, fijas.length), 1, libres.length);
+        }
+        if (faltan > libres.length) {
+            return null;
+        }
+        Busqueda busqueda = new Busqueda(libres, faltan, restricciones, netoBase, coberturaBase,
+                legendariosBase, tiposBase);
+        List<Tramo> tramos = busqueda.tramos();
+        if (pool.getParallelism() > 1 && combinaciones(libres.length, faltan) >= UMBRAL_PARALELO) {
+            pool.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tramos);
+                }
+            });
+        } else {
+            for (Tramo t : tramos) {
+                t.compute();
+            }
+        }
+        // Se combinan en el orden de los tramos: ante un empate queda el primero
+        Tramo mejor = null;
+        long evaluadas = 0;
+        for (Tramo t : tramos) {
+            evaluadas += t.evaluadas;
+            if (t.encontrado && (mejor == null || t.mejorPuntaje > mejor.mejorPuntaje)) {
+                mejor = t;
+            }
+        }
+        if (mejor == null) {
+            return null;
+        }
+        int[] equipo = Arrays.copyOf(fijas, restricciones.tamano);
+        for (int i = 0; i < faltan; i++) {
+            equipo[fijas.length + i] = libres[mejor.mejor[i]];
+        }
+        return new Equipo(analisis(equipo, equipo.length), evaluadas, libres.length);
+    }
+
+    /**
+     * Retorna las filas de los candidatos sin los obligatorios ni repetidos, limitadas a los
+     * de mejor puntaje individual (conservando su orden) si son demasiados.
+     */
+    private int[] candidatosLibres(Collection<String> claves, int[] fijas, int maximo) {
+        int[] filas = resolver(claves);
+        boolean[] vistas = new boolean[totalFilas];
+        for (int f : fijas) {
+            vistas[f] = true;
+        }
+        int n = 0;
+        for (int f : filas) {
+            if (!vistas[f]) {
+                vistas[f] = true;
+                filas[n++] = f;
+            }
+        }
+        if (n <= maximo) {
+            return Arrays.copyOf(filas, n);
+        }
+        long[] orden = new long[n];
+        for (int i = 0; i < n; i++) {
+            int f = filas[i];
+            int debilidades = 0;
+            for (int a = 0; a < CANTIDAD_TIPOS; a++) {
+                debilidades += Math.max(0, aporte[f * CANTIDAD_TIPOS + a]);
+            }
+            int individual = PESO_COBERTURA * Integer.bitCount(cobertura[f]) - PESO_DEBILIDAD * debilidades;
+            orden[i] = (long) (individual + 1024) << 32 | (Integer.MAX_VALUE - i);
+        }
+        Arrays.sort(orden);
+        int[] posiciones = new int[maximo];
+        for (int i = 0; i < maximo; i++) {
+            posiciones[i] = Integer.MAX_VALUE - (int) orden[n - 1 - i];
+        }
+        Arrays.sort(posiciones);
+        int[] elegidas = new int[maximo];
+        for (int i = 0; i < maximo; i++) {
+            elegidas[i] = filas[posiciones[i]];
+        }
+        return elegidas;
+    }
+
+    private static long combinaciones(int n, int k) {
+        long c = 1;
+        for (int i = 0; i < k; i++) {
+            c = c * (n - i) / (i + 1);
+        }
+        return c;
+    }
+
+    /**
+     * Datos compactos de los candidatos de una búsqueda, compartidos (solo lectura) por sus tramos.
+     */
+    private final class Busqueda {
+        private final int m;
+        private final int faltan;
+        private final Restricciones restricciones;
+        private final int[] netoBase;
+        private final int coberturaBase;
+        private final int legendariosBase;
+        private final int tiposBase;
+        // Columnas de los candidatos, copiadas en orden para recorrerlas de forma contigua
+        private final byte[] aportes;
+        private final int[] coberturas;
+        private final int[] tipos;
+        private final int[] esLegendario;
+
+        Busqueda(int[] libres, int faltan, Restricciones restricciones, int[] netoBase, int coberturaBase,
+                 int legendariosBase, int tiposBase) {
+            this.m = libres.length;
+            this.faltan = faltan;
+            this.restricciones = restricciones;
+            this.netoBase = netoBase;
+            this.coberturaBase = coberturaBase;
+            this.legendariosBase = legendariosBase;
+            this.tiposBase = tiposBase;
+            aportes = new byte[m * CANTIDAD_TIPOS];
+            coberturas = new int[m];
+            tipos = new int[m];
+            esLegendario = new int[m];
+            for (int i = 0; i < m; i++) {
+                int f = libres[i];
+                System.arraycopy(aporte, f * CANTIDAD_TIPOS, aportes, i * CANTIDAD_TIPOS, CANTIDAD_TIPOS);
+                coberturas[i] = cobertura[f];
+                tipos[i] = mascaraTipos[f];
+                esLegendario[i] = legendarios[f] ? 1 : 0;
+            }
+        }
+
+        /**
+         * Un tramo por cada primer miembro, o por cada par de primeros miembros si faltan dos o más.
+         */
+        List<Tramo> tramos() {
+            List<Tramo> tramos = new ArrayList<>();
+            for (int i = 0; i <= m - faltan; i++) {
+                if (faltan == 1) {
+                    tramos.add(new Tramo(this, i, -1));
+                    continue;
+                }
+                for (int j = i + 1; j <= m - faltan + 1; j++) {
+                    tramos.add(new Tramo(this, i, j));
+                }
+            }
+            return tramos;
+        }
+    }
+
+    /**
+     * Recorrido de todas las combinaciones que empiezan con uno o dos miembros fijos.
+     */
+    private static final class Tramo extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Busqueda b;
+        private final int primero;
+        private final int segundo;
+        // Estado por nivel: el nivel d tiene el equipo parcial con d miembros elegidos
+        private final int[] neto;
+        private final int[] coberturaNivel;
+        private final int[] legendariosNivel;
+        private final int[] tiposNivel;
+        private final int[] elegidos;
+        final int[] mejor;
+        int mejorPuntaje = Integer.MIN_VALUE;
+        boolean encontrado;
+        long evaluadas;
+
+        Tramo(Busqueda b, int primero, int segundo) {
+            this.b = b;
+            this.primero = primero;
+            this.segundo = segundo;
+            neto = new int[(b.faltan + 1) * CANTIDAD_TIPOS];
+            coberturaNivel = new int[b.faltan + 1];
+            legendariosNivel = new int[b.faltan + 1];
+            tiposNivel = new int[b.faltan + 1];
+            elegidos = new int[b.faltan];
+            mejor = new int[b.faltan];
+        }
+
+        @Override
+        protected void compute() {
+            System.arraycopy(b.netoBase, 0, neto, 0, CANTIDAD_TIPOS);
+            coberturaNivel[0] = b.coberturaBase;
+            legendariosNivel[0] = b.legendariosBase;
+            tiposNivel[0] = b.tiposBase;
+            if (!elegir(0, primero)) {
+                return;
+            }
+            if (segundo < 0) {
+                return;
+            }
+            if (!elegir(1, segundo)) {
+                return;
+            }
+            buscar(2, segundo + 1);
+        }
+
+        /**
+         * Agrega el candidato c como miembro número d y calcula el nivel d + 1. Si completa el
+         * equipo, lo evalúa. Retorna false si el candidato no cumple las restricciones.
+         */
+        private boolean elegir(int d, int c) {
+            int legendariosHasta = legendariosNivel[d] + b.esLegendario[c];
+            if (legendariosHasta > b.restricciones.maxLegendarios
+                    || b.restricciones.sinTiposRepetidos && (tiposNivel[d] & b.tipos[c]) != 0) {
+                return false;
+            }
+            elegidos[d] = c;
+            int cubiertos = coberturaNivel[d] | b.coberturas[c];
+            int desde = d * CANTIDAD_TIPOS;
+            int origen = c * CANTIDAD_TIPOS;
+            if (d + 1 == b.faltan) {
+                // Último miembro: se evalúa sin guardar el nivel
+                int debilidades = 0;
+                for (int a = 0; a < CANTIDAD_TIPOS; a++) {
+                    debilidades += Math.max(0, neto[desde + a] + b.aportes[origen + a]);
+                }
+                evaluadas++;
+                int puntaje = PESO_COBERTURA * Integer.bitCount(cubiertos) - PESO_DEBILIDAD * debilidades;
+                if (puntaje > mejorPuntaje) {
+                    mejorPuntaje = puntaje;
+                    encontrado = true;
+                    System.arraycopy(elegidos, 0, mejor, 0, b.faltan);
+                }
+                return true;
+            }
+            int hasta = desde + CANTIDAD_TIPOS;
+            for (int a = 0; a < CANTIDAD_TIPOS; a++) {
+                neto[hasta + a] = neto[desde + a] + b.aportes[origen + a];
+            }
+            coberturaNivel[d + 1] = cubiertos;
+            legendariosNivel[d + 1] = legendariosHasta;
+            tiposNivel[d + 1] = tiposNivel[d] | b.tipos[c];
+            return true;
+        }
+
+        private void buscar(int d, int desde) {
+            if (d == b.faltan) {
+                return;
+            }
+            // Deben quedar candidatos suficientes para completar el equipo
+            int ultimo = b.m - (b.faltan - d);
+            for (int c = desde; c <= ultimo; c++) {
+                if (elegir(d, c) && d + 1 < b.faltan) {
+                    buscar(d + 1, c + 1);
+                }
+            }
+        }
+    }
+}
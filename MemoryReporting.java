@@ -0,0 +1,12 @@
+/**
+ * Implementado por las estructuras que pueden estimar la memoria que ocupan.
+ */
+public interface MemoryReporting {
+
+    /**
+     * Estima la memoria ocupada por la estructura, sin contar los objetos Pokemon que referencia.
+     *
+     * @return la cantidad aproximada de bytes.
+     */
+    long estimarMemoriaBytes();
+}
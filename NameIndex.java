@@ -0,0 +1,321 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Índice de nombres de Pokémon para búsquedas sin distinguir mayúsculas, autocompletado por
+ * prefijo y búsqueda aproximada con una distancia de edición acotada.
+ *
+ * Los nombres se normalizan a minúsculas, sin acentos y sin espacios, puntos, guiones ni
+ * apóstrofos, de modo que "Mr. Mime", "mr mime" y "Mr-mime" son el mismo nombre. Los nombres
+ * normalizados se guardan en un TreeMap, que resuelve la búsqueda exacta y por prefijo en tiempo
+ * logarítmico.
+ *
+ * La búsqueda aproximada recorre los nombres en orden como si fueran un trie: cada carácter del
+ * nombre agrega una fila a la tabla de Levenshtein, los nombres consecutivos reutilizan las filas
+ * de su prefijo común y, en cuanto una fila supera la distancia máxima, se saltan todos los
+ * nombres con ese prefijo siguiendo punteros precalculados, sin recorrerlos. De cada fila solo se
+ * calcula la banda de columnas que puede quedar dentro de la distancia. El costo depende de la
+ * cantidad de prefijos que quedan dentro de la distancia, no de la cantidad de nombres.
+ *
+ * Se registra como {@link PokemonIndex} en un {@link IndexedPokemonMap}.
+ */
+public class NameIndex implements PokemonIndex {
+    // Distancia de edición máxima que se tolera al resolver un nombre mal escrito
+    private static final int DISTANCIA_MAXIMA = 2;
+
+    // Nombre normalizado -> clave en la colección
+    private final TreeMap<String, String> porNombre = new TreeMap<>();
+    // Copia en arreglos de porNombre para la búsqueda aproximada; null cuando hay cambios pendientes
+    private volatile Orden orden;
+
+    @Override
+    public void agregar(String clave, Pokemon p) {
+        porNombre.put(normalizar(clave), clave);
+        orden = null;
+    }
+
+    @Override
+    public void eliminar(String clave, Pokemon p) {
+        porNombre.remove(normalizar(clave), clave);
+        orden = null;
+    }
+
+    @Override
+    public void limpiar() {
+        porNombre.clear();
+        orden = null;
+    }
+
+    /**
+     * Normaliza un nombre: minúsculas, sin acentos y sin espacios ni signos de puntuación.
+     *
+     * @param nombre El nombre a normalizar.
+     * @return el nombre normalizado.
+     */
+    public static String normalizar(String nombre) {
+        String descompuesto = Normalizer.normalize(nombre, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(descompuesto.length());
+        for (int i = 0; i < descompuesto.length(); i++) {
+            char c = descompuesto.charAt(i);
+            int tipo = Character.getType(c);
+            if (tipo == Character.NON_SPACING_MARK || tipo == Character.SPACE_SEPARATOR
+                    || Character.isWhitespace(c) || c == '.' || c == '-' || c == '_' || c == '\'' || c == '’' || c == ':') {
+                continue;
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Busca la clave exacta de un nombre, sin distinguir mayúsculas ni puntuación.
+     *
+     * @param nombre El nombre a buscar.
+     * @return la clave con la que está guardado el Pokémon, o null si no existe.
+     */
+    public String buscarExacto(String nombre) {
+        return porNombre.get(normalizar(nombre));
+    }
+
+    /**
+     * Resuelve un nombre escrito por el usuario: primero por coincidencia exacta normalizada y,
+     * si no la hay, por el único nombre más cercano dentro de la distancia de edición tolerada.
+     *
+     * @param nombre El nombre a resolver.
+     * @return la clave del Pokémon, o null si no hay coincidencia exacta ni una única más cercana.
+     */
+    public String resolver(String nombre) {
+        String exacto = buscarExacto(nombre);
+        if (exacto != null) {
+            return exacto;
+        }
+        List<Coincidencia> cercanos = buscarAproximado(nombre, DISTANCIA_MAXIMA);
+        if (cercanos.isEmpty()
+                || (cercanos.size() > 1 && cercanos.get(1).distancia == cercanos.get(0).distancia)) {
+            return null;
+        }
+        return cercanos.get(0).clave;
+    }
+
+    /**
+     * Retorna, en orden alfabético, las claves cuyo nombre normalizado empieza con el prefijo.
+     *
+     * @param prefijo El prefijo a completar.
+     * @param limite  La cantidad máxima de resultados.
+     * @return la lista de claves.
+     */
+    public List<String> autocompletar(String prefijo, int limite) {
+        String p = normalizar(prefijo);
+        List<String> resultado = new ArrayList<>();
+        for (String clave : porNombre.subMap(p, true, p + Character.MAX_VALUE, false).values()) {
+            if (resultado.size() == limite) {
+                break;
+            }
+            resultado.add(clave);
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca los nombres a una distancia de edición de a lo sumo maxDistancia del indicado.
+     *
+     * @param nombre       El nombre a buscar.
+     * @param maxDistancia La distancia de Levenshtein máxima.
+     * @return las coincidencias ordenadas por distancia y luego por nombre.
+     */
+    public List<Coincidencia> buscarAproximado(String nombre, int maxDistancia) {
+        char[] objetivo = normalizar(nombre).toCharArray();
+        int n = objetivo.length;
+        int ancho = n + 1;
+        List<Coincidencia> resultado = new ArrayList<>();
+        Orden orden = orden();
+        // Fila i de la tabla (para los primeros i caracteres del nombre anterior) en [i * ancho, (i + 1) * ancho)
+        int[] tabla = new int[(orden.largoMaximo + 1) * ancho];
+        for (int j = 0; j <= n; j++) {
+            tabla[j] = Math.min(j, maxDistancia + 1);
+        }
+        char[] texto = orden.texto;
+        int validas = 0;
+        int k = 0;
+        while (k < orden.claves.length) {
+            int inicio = orden.inicio[k];
+            int largo = orden.inicio[k + 1] - inicio;
+            int i = Math.min(validas, orden.comun[k]);
+            int minimo = 0;
+            while (i < largo) {
+                minimo = siguienteFila(tabla, i + 1, objetivo, texto[inicio + i], maxDistancia);
+                i++;
+                if (minimo > maxDistancia) {
+                    break;
+                }
+            }
+            if (minimo > maxDistancia) {
+                // Ningún nombre que empiece con estos i caracteres puede estar lo bastante cerca:
+                // se salta el subárbol siguiendo los punteros al siguiente prefijo común menor
+                validas = i - 1;
+                int siguiente = k + 1;
+                while (siguiente < orden.claves.length && orden.comun[siguiente] >= i) {
+                    siguiente = orden.menorSiguiente[siguiente];
+                }
+                k = siguiente;
+                continue;
+            }
+            validas = i;
+            // Fuera de la banda |largo - n| <= maxDistancia la celda no se calculó
+            if (Math.abs(largo - n) <= maxDistancia && tabla[i * ancho + n] <= maxDistancia) {
+                resultado.add(new Coincidencia(orden.claves[k], tabla[i * ancho + n]));
+            }
+            k++;
+        }
+        resultado.sort(Comparator.comparingInt((Coincidencia c) -> c.distancia).thenComparing(c -> c.clave));
+        return resultado;
+    }
+
+    private Orden orden() {
+        Orden o = orden;
+        if (o == null) {
+            synchronized (this) {
+                o = orden;
+                if (o == null) {
+                    o = new Orden(porNombre);
+                    orden = o;
+                }
+            }
+        }
+        return o;
+    }
+
+    /**
+     * Calcula la fila i de la tabla de Levenshtein, que agrega el carácter c a partir de la
+     * anterior. Solo se calcula la banda de columnas |i - j| <= maxDistancia; las celdas que la
+     * rodean se marcan con maxDistancia + 1 para que la fila siguiente no lea valores viejos.
+     *
+     * @return el menor valor de la banda, o maxDistancia + 1 si la banda queda vacía.
+     */
+    private static int siguienteFila(int[] tabla, int i, char[] objetivo, char c, int maxDistancia) {
+        int infinito = maxDistancia + 1;
+        int n = objetivo.length;
+        int fila = i * (n + 1);
+        int anterior = fila - (n + 1);
+        int desde = Math.max(0, i - maxDistancia);
+        int hasta = Math.min(n, i + maxDistancia);
+        if (desde > hasta) {
+            return infinito;
+        }
+        int minimo;
+        if (desde == 0) {
+            minimo = Math.min(i, infinito);
+            tabla[fila] = minimo;
+            desde = 1;
+        } else {
+            tabla[fila + desde - 1] = infinito;
+            minimo = infinito;
+        }
+        int izquierda = tabla[fila + desde - 1];
+        for (int j = desde; j <= hasta; j++) {
+            int costo = objetivo[j - 1] == c ? 0 : 1;
+            int valor = Math.min(Math.min(izquierda, tabla[anterior + j]) + 1, tabla[anterior + j - 1] + costo);
+            tabla[fila + j] = valor;
+            izquierda = valor;
+            minimo = Math.min(minimo, valor);
+        }
+        if (hasta < n) {
+            tabla[fila + hasta + 1] = infinito;
+        }
+        return minimo;
+    }
+
+    /**
+     * Nombre encontrado por la búsqueda aproximada junto con su distancia al buscado.
+     */
+    public static class Coincidencia {
+        private final String clave;
+        private final int distancia;
+
+        Coincidencia(String clave, int distancia) {
+            this.clave = clave;
+            this.distancia = distancia;
+        }
+
+        /**
+         * Retorna la clave con la que está guardado el Pokémon en la colección.
+         *
+         * @return la clave.
+         */
+        public String getClave() {
+            return clave;
+        }
+
+        /**
+         * Retorna la distancia de Levenshtein entre los nombres normalizados.
+         *
+         * @return la distancia de edición.
+         */
+        public int getDistancia() {
+            return distancia;
+        }
+    }
+
+    /**
+     * Nombres normalizados en orden, guardados uno detrás de otro en un solo arreglo para que el
+     * recorrido lea la memoria en forma secuencial, con la clave de cada uno y dos arreglos
+     * auxiliares para saltar subárboles:
+     * <ul>
+     *   <li>comun[k]: largo del prefijo común entre el nombre k y el k - 1;</li>
+     *   <li>menorSiguiente[k]: la primera posición después de k con un prefijo común menor que
+     *       comun[k]. Entre ambas todos los nombres comparten al menos comun[k] caracteres con
+     *       el nombre k - 1, por lo que saltar hasta el final de un subárbol toma a lo sumo tantos
+     *       pasos como el largo del prefijo.</li>
+     * </ul>
+     */
+    private static final class Orden {
+        final String[] claves;
+        final char[] texto;
+        final int largoMaximo;
+        final int[] inicio;
+        final int[] comun;
+        final int[] menorSiguiente;
+
+        Orden(TreeMap<String, String> porNombre) {
+            int cantidad = porNombre.size();
+            claves = porNombre.values().toArray(new String[0]);
+            inicio = new int[cantidad + 1];
+            comun = new int[cantidad];
+            int total = 0;
+            int maximo = 0;
+            for (String nombre : porNombre.keySet()) {
+                total += nombre.length();
+                maximo = Math.max(maximo, nombre.length());
+            }
+            texto = new char[total];
+            largoMaximo = maximo;
+            String previo = "";
+            int k = 0;
+            for (String nombre : porNombre.keySet()) {
+                nombre.getChars(0, nombre.length(), texto, inicio[k]);
+                inicio[k + 1] = inicio[k] + nombre.length();
+                int c = 0;
+                int max = Math.min(previo.length(), nombre.length());
+                while (c < max && previo.charAt(c) == nombre.charAt(c)) {
+                    c++;
+                }
+                comun[k] = c;
+                previo = nombre;
+                k++;
+            }
+            menorSiguiente = new int[cantidad];
+            int[] pila = new int[cantidad];
+            int tope = 0;
+            for (k = cantidad - 1; k >= 0; k--) {
+                while (tope > 0 && comun[pila[tope - 1]] >= comun[k]) {
+                    tope--;
+                }
+                menorSiguiente[k] = tope == 0 ? cantidad : pila[tope - 1];
+                pila[tope++] = k;
+            }
+        }
+    }
+}
@@ -0,0 +1,424 @@
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Mapa de Pokémon que guarda los registros fuera del heap, en un ByteBuffer directo.
+ * Cada Pokémon se codifica como un registro binario dentro de un arena; en el heap solo quedan
+ * dos arreglos de enteros (posición del registro y hash de la clave) que forman una tabla de
+ * direccionamiento abierto. Las claves se comparan directamente contra la clave guardada en
+ * el registro, por lo que tampoco se conservan objetos String por entrada. El registro guarda
+ * también el nombre del Pokémon solo si difiere de la clave.
+ *
+ * {@link #get(Object)} decodifica el registro y retorna un Pokémon nuevo cada vez.
+ *
+ * Este mapa solo quita del heap su propia estructura (entradas, claves y valores), no los
+ * Pokémon: dentro de un {@link IndexedPokemonMap} los índices secundarios (habilidades, tipos,
+ * facetas, nombres) siguen guardando referencias a los objetos originales, que por eso quedan
+ * en el heap además de su copia en el arena. En {@link PokemonApp}, con 100000 filas, el heap
+ * retenido baja de 114 MB con HashMap a 111 MB con este mapa. Para reducir también el heap de
+ * los Pokémon los índices tendrían que guardar números de fila en lugar de objetos.
+ * No admite claves ni valores null.
+ */
+public class OffHeapPokemonMap extends AbstractMap<String, Pokemon> implements MemoryReporting {
+    private static final int CAPACIDAD_INICIAL = 16;
+    private static final float FACTOR_CARGA = 0.6f;
+    private static final int ARENA_INICIAL = 64 * 1024;
+    // Valores especiales de la tabla de posiciones
+    private static final int VACIO = -1;
+    private static final int BORRADO = -2;
+
+    private ByteBuffer arena = ByteBuffer.allocateDirect(ARENA_INICIAL);
+    private int[] posiciones;
+    private int[] hashes;
+    private int tamano;
+    private int borrados;
+    // Bytes del arena ocupados por registros eliminados o reemplazados
+    private long bytesLibres;
+    private int modificaciones;
+    private Set<Map.Entry<String, Pokemon>> entrySet;
+
+    /**
+     * Construye un mapa vacío.
+     */
+    public OffHeapPokemonMap() {
+        posiciones = new int[CAPACIDAD_INICIAL];
+        hashes = new int[CAPACIDAD_INICIAL];
+        Arrays.fill(posiciones, VACIO);
+    }
+
+    private static int hash(Object clave) {
+        int h = clave.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public Pokemon get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int i = buscar((String) key);
+        return i < 0 ? null : leer(posiciones[i]);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && buscar((String) key) >= 0;
+    }
+
+    @Override
+    public Pokemon put(String key, Pokemon value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("OffHeapPokemonMap no admite claves ni valores null.");
+        }
+        int posicionRegistro = escribir(key, value);
+        int h = hash(key);
+        int mascara = posiciones.length - 1;
+        int i = h & mascara;
+        int primerBorrado = -1;
+        int actual;
+        while ((actual = posiciones[i]) != VACIO) {
+            if (actual == BORRADO) {
+                if (primerBorrado < 0) {
+                    primerBorrado = i;
+                }
+            } else if (hashes[i] == h && claveIgual(actual, key)) {
+                Pokemon anterior = leer(actual);
+                bytesLibres += longitudRegistro(actual);
+                posiciones[i] = posicionRegistro;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        if (primerBorrado >= 0) {
+            i = primerBorrado;
+            borrados--;
+        }
+        posiciones[i] = posicionRegistro;
+        hashes[i] = h;
+        tamano++;
+        modificaciones++;
+        if (tamano + borrados > posiciones.length * FACTOR_CARGA) {
+            redimensionar(tamano * 2 > posiciones.length * FACTOR_CARGA ? posiciones.length * 2 : posiciones.length);
+        }
+        return null;
+    }
+
+    @Override
+    public Pokemon remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int i = buscar((String) key);
+        if (i < 0) {
+            return null;
+        }
+        Pokemon anterior = leer(posiciones[i]);
+        eliminarEn(i);
+        return anterior;
+    }
+
+    private void eliminarEn(int i) {
+        bytesLibres += longitudRegistro(posiciones[i]);
+        posiciones[i] = BORRADO;
+        tamano--;
+        borrados++;
+        modificaciones++;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(posiciones, VACIO);
+        arena.clear();
+        tamano = 0;
+        borrados = 0;
+        bytesLibres = 0;
+        modificaciones++;
+    }
+
+    @Override
+    public int size() {
+        return tamano;
+    }
+
+    @Override
+    public long estimarMemoriaBytes() {
+        // Arena fuera del heap más los dos arreglos de enteros de la tabla
+        return arena.capacity() + 32L + posiciones.length * 8L;
+    }
+
+    /**
+     * Retorna la cantidad de bytes reservados fuera del heap.
+     *
+     * @return la capacidad del arena.
+     */
+    public long getBytesFueraDelHeap() {
+        return arena.capacity();
+    }
+
+    private int buscar(String clave) {
+        int h = hash(clave);
+        int mascara = posiciones.length - 1;
+        int i = h & mascara;
+        int actual;
+        while ((actual = posiciones[i]) != VACIO) {
+            if (actual != BORRADO && hashes[i] == h && claveIgual(actual, clave)) {
+                return i;
+            }
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    private void redimensionar(int nuevaCapacidad) {
+        int[] viejasPosiciones = posiciones;
+        int[] viejosHashes = hashes;
+        posiciones = new int[nuevaCapacidad];
+        hashes = new int[nuevaCapacidad];
+        Arrays.fill(posiciones, VACIO);
+        borrados = 0;
+        int mascara = nuevaCapacidad - 1;
+        for (int j = 0; j < viejasPosiciones.length; j++) {
+            if (viejasPosiciones[j] >= 0) {
+                int i = viejosHashes[j] & mascara;
+                while (posiciones[i] != VACIO) {
+                    i = (i + 1) & mascara;
+                }
+                posiciones[i] = viejasPosiciones[j];
+                hashes[i] = viejosHashes[j];
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------
+    // Formato del registro:
+    //   int longitud total | int pokedexNumber | double height | double weight | int generation |
+    //   byte legendary | cadenas (short longitud + chars): clave, name, type1, type2,
+    //   classification, y las habilidades como short cantidad seguido de cada cadena.
+    //   Si name es igual a la clave se guarda solo la longitud MISMO_NOMBRE.
+    // ---------------------------------------------------------------------------------------
+
+    private static final int DESPLAZAMIENTO_CLAVE = 4 + 4 + 8 + 8 + 4 + 1;
+    private static final short MISMO_NOMBRE = -1;
+
+    private int escribir(String clave, Pokemon p) {
+        List<String> habilidades = p.getAbilities();
+        String nombre = p.getName();
+        boolean mismoNombre = clave.equals(nombre);
+        int longitud = DESPLAZAMIENTO_CLAVE
+                + longitudCadena(clave) + (mismoNombre ? 2 : longitudCadena(nombre))
+                + longitudCadena(p.getType1()) + longitudCadena(p.getType2())
+                + longitudCadena(p.getClassification()) + 2;
+        for (String habilidad : habilidades) {
+            longitud += longitudCadena(habilidad);
+        }
+        asegurarEspacio(longitud);
+        int inicio = arena.position();
+        arena.putInt(longitud);
+        arena.putInt(p.getPokedexNumber());
+        arena.putDouble(p.getHeight());
+        arena.putDouble(p.getWeight());
+        arena.putInt(p.getGeneration());
+        arena.put((byte) (p.isLegendaryStatus() ? 1 : 0));
+        escribirCadena(clave);
+        if (mismoNombre) {
+            arena.putShort(MISMO_NOMBRE);
+        } else {
+            escribirCadena(nombre);
+        }
+        escribirCadena(p.getType1());
+        escribirCadena(p.getType2());
+        escribirCadena(p.getClassification());
+        arena.putShort((short) habilidades.size());
+        for (String habilidad : habilidades) {
+            escribirCadena(habilidad);
+        }
+        return inicio;
+    }
+
+    private static int longitudCadena(String s) {
+        return 2 + (s == null ? 0 : s.length() * 2);
+    }
+
+    private void escribirCadena(String s) {
+        if (s == null) {
+            arena.putShort((short) 0);
+            return;
+        }
+        arena.putShort((short) s.length());
+        for (int i = 0; i < s.length(); i++) {
+            arena.putChar(s.charAt(i));
+        }
+    }
+
+    private int longitudRegistro(int posicion) {
+        return arena.getInt(posicion);
+    }
+
+    private boolean claveIgual(int posicion, String clave) {
+        int p = posicion + DESPLAZAMIENTO_CLAVE;
+        int longitud = arena.getShort(p);
+        if (longitud != clave.length()) {
+            return false;
+        }
+        p += 2;
+        for (int i = 0; i < longitud; i++, p += 2) {
+            if (arena.getChar(p) != clave.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Pokemon leer(int posicion) {
+        int p = posicion + 4;
+        int pokedexNumber = arena.getInt(p);
+        double height = arena.getDouble(p + 4);
+        double weight = arena.getDouble(p + 12);
+        int generation = arena.getInt(p + 20);
+        boolean legendary = arena.get(p + 24) != 0;
+        int[] cursor = {posicion + DESPLAZAMIENTO_CLAVE};
+        String clave = leerCadena(cursor);
+        String name;
+        if (arena.getShort(cursor[0]) == MISMO_NOMBRE) {
+            name = clave;
+            cursor[0] += 2;
+        } else {
+            name = leerCadena(cursor);
+        }
+        String type1 = leerCadena(cursor);
+        String type2 = leerCadena(cursor);
+        String classification = leerCadena(cursor);
+        int cantidad = arena.getShort(cursor[0]);
+        cursor[0] += 2;
+        String[] habilidades = new String[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            habilidades[i] = leerCadena(cursor);
+        }
+        return new Pokemon(name, pokedexNumber, type1, type2, classification, height, weight,
+                Arrays.asList(habilidades), generation, legendary);
+    }
+
+    private String leerCadena(int[] cursor) {
+        int p = cursor[0];
+        int longitud = arena.getShort(p);
+        p += 2;
+        char[] chars = new char[longitud];
+        for (int i = 0; i < longitud; i++, p += 2) {
+            chars[i] = arena.getChar(p);
+        }
+        cursor[0] = p;
+        return new String(chars);
+    }
+
+    /**
+     * Garantiza espacio para un registro. Si la mitad del arena son registros eliminados se
+     * compacta copiando solo los registros vivos; si no, se duplica la capacidad.
+     */
+    private void asegurarEspacio(int longitud) {
+        if (arena.remaining() >= longitud) {
+            return;
+        }
+        long vivos = arena.position() - bytesLibres;
+        long necesario = vivos + longitud;
+        long capacidad = arena.capacity();
+        while (capacidad < necesario * 2) {
+            capacidad *= 2;
+        }
+        if (capacidad > Integer.MAX_VALUE) {
+            throw new IllegalStateException("El arena fuera del heap superó los 2 GB.");
+        }
+        ByteBuffer nueva = ByteBuffer.allocateDirect((int) capacidad);
+        for (int i = 0; i < posiciones.length; i++) {
+            int posicion = posiciones[i];
+            if (posicion >= 0) {
+                int largo = arena.getInt(posicion);
+                posiciones[i] = nueva.position();
+                ByteBuffer registro = arena.duplicate();
+                registro.limit(posicion + largo).position(posicion);
+                nueva.put(registro);
+            }
+        }
+        arena = nueva;
+        bytesLibres = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Pokemon>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, Pokemon>>() {
+                @Override
+                public int size() {
+                    return tamano;
+                }
+
+                @Override
+                public void clear() {
+                    OffHeapPokemonMap.this.clear();
+                }
+
+                @Override
+                public Iterator<Map.Entry<String, Pokemon>> iterator() {
+                    return new Iterador();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Iterador que decodifica cada registro al visitarlo.
+     */
+    private class Iterador implements Iterator<Map.Entry<String, Pokemon>> {
+        private int siguiente = avanzar(0);
+        private int actual = -1;
+        private int modificacionesEsperadas = modificaciones;
+
+        private int avanzar(int desde) {
+            while (desde < posiciones.length && posiciones[desde] < 0) {
+                desde++;
+            }
+            return desde;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return siguiente < posiciones.length;
+        }
+
+        @Override
+        public Map.Entry<String, Pokemon> next() {
+            if (modificaciones != modificacionesEsperadas) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            actual = siguiente;
+            siguiente = avanzar(siguiente + 1);
+            int posicion = posiciones[actual];
+            String clave = leerCadena(new int[] {posicion + DESPLAZAMIENTO_CLAVE});
+            return new AbstractMap.SimpleImmutableEntry<>(clave, leer(posicion));
+        }
+
+        @Override
+        public void remove() {
+            if (actual < 0) {
+                throw new IllegalStateException();
+            }
+            if (modificaciones != modificacionesEsperadas) {
+                throw new ConcurrentModificationException();
+            }
+            eliminarEn(actual);
+            modificacionesEsperadas = modificaciones;
+            actual = -1;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Mapa de Pokémon con claves String basado en direccionamiento abierto (sondeo lineal).
+ * Las claves, los valores y los hashes se guardan en tres arreglos paralelos, por lo que no
+ * se crea un nodo por entrada como en HashMap. Las eliminaciones dejan una marca de borrado
+ * que se descarta en el siguiente redimensionamiento.
+ * No admite claves ni valores null.
+ */
+public class OpenAddressingPokemonMap extends AbstractMap<String, Pokemon> implements MemoryReporting {
+    private static final int CAPACIDAD_INICIAL = 16;
+    // Se redimensiona cuando las posiciones ocupadas (incluidas las borradas) superan este factor
+    private static final float FACTOR_CARGA = 0.6f;
+    // Marca de posición borrada; se compara por identidad
+    private static final String BORRADO = new String("<borrado>");
+
+    private String[] claves;
+    private Pokemon[] valores;
+    private int[] hashes;
+    private int tamano;
+    private int borrados;
+    private int modificaciones;
+    private Set<Map.Entry<String, Pokemon>> entrySet;
+
+    /**
+     * Construye un mapa vacío.
+     */
+    public OpenAddressingPokemonMap() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Construye un mapa vacío con espacio para la cantidad de entradas indicada.
+     *
+     * @param capacidadEsperada La cantidad de entradas que se espera guardar.
+     */
+    public OpenAddressingPokemonMap(int capacidadEsperada) {
+        int capacidad = CAPACIDAD_INICIAL;
+        while (capacidad * FACTOR_CARGA < capacidadEsperada) {
+            capacidad <<= 1;
+        }
+        claves = new String[capacidad];
+        valores = new Pokemon[capacidad];
+        hashes = new int[capacidad];
+    }
+
+    private static int hash(Object clave) {
+        int h = clave.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Retorna la posición de la clave, o -1 si no está en el mapa.
+     */
+    private int buscar(Object clave) {
+        int h = hash(clave);
+        int mascara = claves.length - 1;
+        int i = h & mascara;
+        String actual;
+        while ((actual = claves[i]) != null) {
+            if (actual != BORRADO && hashes[i] == h && actual.equals(clave)) {
+                return i;
+            }
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    @Override
+    public Pokemon get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int i = buscar(key);
+        return i < 0 ? null : valores[i];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && buscar(key) >= 0;
+    }
+
+    @Override
+    public Pokemon put(String key, Pokemon value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("OpenAddressingPokemonMap no admite claves ni valores null.");
+        }
+        int h = hash(key);
+        int mascara = claves.length - 1;
+        int i = h & mascara;
+        int primerBorrado = -1;
+        String actual;
+        while ((actual = claves[i]) != null) {
+            if (actual == BORRADO) {
+                if (primerBorrado < 0) {
+                    primerBorrado = i;
+                }
+            } else if (hashes[i] == h && actual.equals(key)) {
+                Pokemon anterior = valores[i];
+                valores[i] = value;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        if (primerBorrado >= 0) {
+            i = primerBorrado;
+            borrados--;
+        }
+        claves[i] = key;
+        valores[i] = value;
+        hashes[i] = h;
+        tamano++;
+        modificaciones++;
+        if (tamano + borrados > claves.length * FACTOR_CARGA) {
+            // Si la mayoría de las posiciones ocupadas son borrados basta con reconstruir la tabla
+            redimensionar(tamano * 2 > claves.length * FACTOR_CARGA ? claves.length * 2 : claves.length);
+        }
+        return null;
+    }
+
+    @Override
+    public Pokemon remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int i = buscar(key);
+        if (i < 0) {
+            return null;
+        }
+        return eliminarEn(i);
+    }
+
+    private Pokemon eliminarEn(int i) {
+        Pokemon anterior = valores[i];
+        claves[i] = BORRADO;
+        valores[i] = null;
+        tamano--;
+        borrados++;
+        modificaciones++;
+        return anterior;
+    }
+
+    @Override
+    public void clear() {
+        java.util.Arrays.fill(claves, null);
+        java.util.Arrays.fill(valores, null);
+        tamano = 0;
+        borrados = 0;
+        modificaciones++;
+    }
+
+    @Override
+    public int size() {
+        return tamano;
+    }
+
+    private void redimensionar(int nuevaCapacidad) {
+        String[] viejasClaves = claves;
+        Pokemon[] viejosValores = valores;
+        int[] viejosHashes = hashes;
+        claves = new String[nuevaCapacidad];
+        valores = new Pokemon[nuevaCapacidad];
+        hashes = new int[nuevaCapacidad];
+        borrados = 0;
+        int mascara = nuevaCapacidad - 1;
+        for (int j = 0; j < viejasClaves.length; j++) {
+            String clave = viejasClaves[j];
+            if (clave != null && clave != BORRADO) {
+                int i = viejosHashes[j] & mascara;
+                while (claves[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                claves[i] = clave;
+                valores[i] = viejosValores[j];
+                hashes[i] = viejosHashes[j];
+            }
+        }
+    }
+
+    @Override
+    public long estimarMemoriaBytes() {
+        // Tres arreglos: referencias a claves y valores (4 bytes con punteros comprimidos) y hashes
+        return 48L + claves.length * 12L;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Pokemon>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, Pokemon>>() {
+                @Override
+                public int size() {
+                    return tamano;
+                }
+
+                @Override
+                public void clear() {
+                    OpenAddressingPokemonMap.this.clear();
+                }
+
+                @Override
+                public Iterator<Map.Entry<String, Pokemon>> iterator() {
+                    return new Iterador();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Iterador sobre las posiciones ocupadas de la tabla.
+     */
+    private class Iterador implements Iterator<Map.Entry<String, Pokemon>> {
+        private int siguiente = avanzar(0);
+        private int actual = -1;
+        private int modificacionesEsperadas = modificaciones;
+
+        private int avanzar(int desde) {
+            while (desde < claves.length && (claves[desde] == null || claves[desde] == BORRADO)) {
+                desde++;
+            }
+            return desde;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return siguiente < claves.length;
+        }
+
+        @Override
+        public Map.Entry<String, Pokemon> next() {
+            if (modificaciones != modificacionesEsperadas) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            actual = siguiente;
+            siguiente = avanzar(siguiente + 1);
+            return new Entrada(actual);
+        }
+
+        @Override
+        public void remove() {
+            if (actual < 0) {
+                throw new IllegalStateException();
+            }
+            if (modificaciones != modificacionesEsperadas) {
+                throw new ConcurrentModificationException();
+            }
+            // Marcar como borrado no mueve otras entradas, así que el recorrido sigue siendo válido
+            eliminarEn(actual);
+            modificacionesEsperadas = modificaciones;
+            actual = -1;
+        }
+    }
+
+    /**
+     * Entrada que lee y escribe directamente en la posición de la tabla.
+     */
+    private class Entrada extends AbstractMap.SimpleEntry<String, Pokemon> {
+        private static final long serialVersionUID = 1L;
+        private final int posicion;
+
+        Entrada(int posicion) {
+            super(claves[posicion], valores[posicion]);
+            this.posicion = posicion;
+        }
+
+        @Override
+        public Pokemon setValue(Pokemon value) {
+            if (value == null) {
+                throw new NullPointerException();
+            }
+            if (posicion < claves.length && claves[posicion] == getKey()) {
+                valores[posicion] = value;
+            } else {
+                // La tabla se redimensionó después de obtener la entrada
+                put(getKey(), value);
+            }
+            return super.setValue(value);
+        }
+    }
+}
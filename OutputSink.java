@@ -0,0 +1,233 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Destino de la salida de los listados y búsquedas de {@link PokemonApp}.
+ *
+ * Las líneas se arman en un único StringBuilder que se reutiliza y se escribe al destino en
+ * bloques, de modo que un listado grande no hace una llamada al sistema por línea ni crea un
+ * String por cada concatenación. Además, se acumula el tiempo empleado en escribir los bloques,
+ * lo que permite separar el tiempo de cálculo del tiempo de salida.
+ *
+ * Las implementaciones se obtienen con {@link #consola()}, {@link #archivo(Path)} y {@link #nulo()}.
+ * No es seguro usar un mismo destino desde varios hilos.
+ */
+public abstract class OutputSink implements AutoCloseable {
+    // Cantidad de caracteres a partir de la cual se escribe el bloque acumulado
+    private static final int TAMANO_BLOQUE = 64 * 1024;
+
+    private final StringBuilder buffer = new StringBuilder(TAMANO_BLOQUE + 256);
+    private long nanosSalida;
+
+    /**
+     * Retorna un destino que escribe en la salida estándar. Se usa el System.out vigente al
+     * momento de escribir cada bloque, por lo que respeta las redirecciones con System.setOut.
+     *
+     * @return el destino de consola.
+     */
+    public static OutputSink consola() {
+        return new OutputSink() {
+            @Override
+            protected void escribir(CharSequence bloque) {
+                System.out.append(bloque);
+                System.out.flush();
+            }
+        };
+    }
+
+    /**
+     * Retorna un destino que escribe en un archivo (en UTF-8) a través de un FileChannel. El
+     * archivo se crea o se trunca; el destino debe cerrarse al terminar.
+     *
+     * @param ruta La ruta del archivo.
+     * @return el destino de archivo.
+     * @throws IOException si el archivo no se puede abrir.
+     */
+    public static OutputSink archivo(Path ruta) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new OutputSink() {
+            private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder();
+            private final ByteBuffer bytes = ByteBuffer.allocateDirect(TAMANO_BLOQUE * 3 + 1024);
+
+            @Override
+            protected void escribir(CharSequence bloque) throws IOException {
+                CharBuffer caracteres = CharBuffer.wrap(bloque);
+                codificador.reset();
+                CoderResult r;
+                do {
+                    // Si el bloque no entra en el buffer de bytes, se codifica en varias pasadas
+                    r = codificador.encode(caracteres, bytes, true);
+                    if (r.isError()) {
+                        r.throwException();
+                    }
+                    escribirBytes();
+                } while (r.isOverflow());
+                codificador.flush(bytes);
+                escribirBytes();
+            }
+
+            private void escribirBytes() throws IOException {
+                bytes.flip();
+                while (bytes.hasRemaining()) {
+                    canal.write(bytes);
+                }
+                bytes.clear();
+            }
+
+            @Override
+            protected void cerrar() throws IOException {
+                canal.close();
+            }
+        };
+    }
+
+    /**
+     * Retorna un destino que descarta todo lo que recibe. Sirve para medir el costo de calcular
+     * y formatear un listado sin el de la escritura.
+     *
+     * @return el destino nulo.
+     */
+    public static OutputSink nulo() {
+        return new OutputSink() {
+            @Override
+            protected void escribir(CharSequence bloque) {
+            }
+        };
+    }
+
+    /**
+     * Escribe un bloque de texto en el destino.
+     *
+     * @param bloque El texto acumulado desde la última escritura.
+     * @throws IOException si ocurre un error de escritura.
+     */
+    protected abstract void escribir(CharSequence bloque) throws IOException;
+
+    /**
+     * Libera los recursos del destino. Por defecto no hace nada.
+     *
+     * @throws IOException si ocurre un error al cerrar.
+     */
+    protected void cerrar() throws IOException {
+    }
+
+    /**
+     * Agrega texto a la línea actual. No se escribe en el destino hasta terminar la línea con
+     * {@link #nuevaLinea()} o llamar a {@link #flush()}.
+     *
+     * @param texto El texto a agregar.
+     * @return este destino.
+     */
+    public OutputSink append(CharSequence texto) {
+        buffer.append(texto);
+        return this;
+    }
+
+    /**
+     * Agrega un carácter a la línea actual.
+     *
+     * @param c El carácter a agregar.
+     * @return este destino.
+     */
+    public OutputSink append(char c) {
+        buffer.append(c);
+        return this;
+    }
+
+    /**
+     * Agrega un entero en decimal a la línea actual, sin crear un String intermedio.
+     *
+     * @param valor El entero a agregar.
+     * @return este destino.
+     */
+    public OutputSink append(int valor) {
+        buffer.append(valor);
+        return this;
+    }
+
+    /**
+     * Agrega un double a la línea actual, con el mismo formato que {@link String#valueOf(double)}.
+     *
+     * @param valor El valor a agregar.
+     * @return este destino.
+     */
+    public OutputSink append(double valor) {
+        buffer.append(valor);
+        return this;
+    }
+
+    /**
+     * Termina la línea actual y, si el bloque acumulado es grande, lo escribe en el destino.
+     *
+     * @return este destino.
+     */
+    public OutputSink nuevaLinea() {
+        buffer.append('\n');
+        if (buffer.length() >= TAMANO_BLOQUE) {
+            vaciarBuffer();
+        }
+        return this;
+    }
+
+    /**
+     * Agrega el texto seguido de un salto de línea.
+     *
+     * @param texto El texto de la línea.
+     * @return este destino.
+     */
+    public OutputSink linea(CharSequence texto) {
+        return append(texto).nuevaLinea();
+    }
+
+    /**
+     * Escribe en el destino todo lo acumulado.
+     */
+    public void flush() {
+        if (buffer.length() > 0) {
+            vaciarBuffer();
+        }
+    }
+
+    private void vaciarBuffer() {
+        long inicio = System.nanoTime();
+        try {
+            escribir(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.setLength(0);
+            nanosSalida += System.nanoTime() - inicio;
+        }
+    }
+
+    /**
+     * Retorna el tiempo total empleado en escribir bloques en el destino.
+     *
+     * @return el tiempo en nanosegundos.
+     */
+    public long getNanosSalida() {
+        return nanosSalida;
+    }
+
+    /**
+     * Escribe lo acumulado y libera los recursos del destino.
+     */
+    @Override
+    public void close() {
+        flush();
+        try {
+            cerrar();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
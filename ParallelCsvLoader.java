@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Cargador masivo de archivos CSV de Pokémon.
+ * Mapea el archivo en memoria con {@link FileChannel#map}, lo divide en bloques que terminan
+ * en un salto de línea y procesa los bloques en paralelo sobre un {@link ForkJoinPool}.
+ * Cada bloque produce un mapa parcial; los mapas parciales se devuelven en el orden del
+ * archivo para que quien los combine obtenga el mismo resultado que una carga secuencial.
+ */
+public class ParallelCsvLoader {
+    // Tamaño mínimo de un bloque; por debajo de esto no compensa dividir el trabajo
+    private static final long TAMANO_BLOQUE_MIN = 1L << 20;
+    // Tamaño máximo de un bloque (un MappedByteBuffer no puede superar Integer.MAX_VALUE bytes)
+    private static final long TAMANO_BLOQUE_MAX = 16L << 20;
+
+    /**
+     * Resultado del procesamiento de un bloque del archivo.
+     */
+    public static class Bloque {
+        final Map<String, Pokemon> pokemons = new LinkedHashMap<>();
+        final List<String> errores = new ArrayList<>();
+        long filas;
+
+        /**
+         * Retorna los Pokémon leídos en el bloque, en el orden del archivo.
+         *
+         * @return el mapa parcial del bloque.
+         */
+        public Map<String, Pokemon> getPokemons() {
+            return pokemons;
+        }
+
+        /**
+         * Retorna los mensajes de error de las líneas inválidas del bloque.
+         *
+         * @return la lista de mensajes.
+         */
+        public List<String> getErrores() {
+            return errores;
+        }
+
+        /**
+         * Retorna la cantidad de filas leídas en el bloque.
+         *
+         * @return la cantidad de filas.
+         */
+        public long getFilas() {
+            return filas;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final long tamanoBloqueMin;
+    private final long tamanoBloqueMax;
+
+    /**
+     * Construye un cargador que utiliza el pool común de fork-join.
+     */
+    public ParallelCsvLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construye un cargador que utiliza el pool indicado.
+     *
+     * @param pool El pool de fork-join donde se procesan los bloques.
+     */
+    public ParallelCsvLoader(ForkJoinPool pool) {
+        this(pool, TAMANO_BLOQUE_MIN, TAMANO_BLOQUE_MAX);
+    }
+
+    /**
+     * Construye un cargador con bloques de tamaño fijo (aproximado: cada bloque se extiende
+     * hasta el siguiente salto de línea). Permite probar los límites entre bloques con
+     * archivos pequeños.
+     *
+     * @param pool         El pool de fork-join donde se procesan los bloques.
+     * @param tamanoBloque El tamaño de cada bloque en bytes.
+     */
+    ParallelCsvLoader(ForkJoinPool pool, long tamanoBloque) {
+        this(pool, tamanoBloque, tamanoBloque);
+    }
+
+    private ParallelCsvLoader(ForkJoinPool pool, long tamanoBloqueMin, long tamanoBloqueMax) {
+        this.pool = pool;
+        this.tamanoBloqueMin = Math.max(1, tamanoBloqueMin);
+        this.tamanoBloqueMax = Math.min(TAMANO_BLOQUE_MAX, Math.max(this.tamanoBloqueMin, tamanoBloqueMax));
+    }
+
+    /**
+     * Lee el archivo completo y retorna los bloques procesados en el orden del archivo.
+     * La primera línea se considera encabezado y se omite.
+     *
+     * @param archivo La ruta del archivo CSV.
+     * @return la lista de bloques procesados.
+     * @throws IOException si ocurre un error al leer el archivo.
+     */
+    public List<Bloque> cargar(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            long inicioDatos = buscarFinDeLinea(canal, 0, tamano);
+            if (inicioDatos >= tamano) {
+                return new ArrayList<>();
+            }
+            List<long[]> limites = dividir(canal, inicioDatos, tamano);
+            return pool.invoke(new TareaBloques(canal, limites, 0, limites.size()));
+        }
+    }
+
+    /**
+     * Divide la región [inicio, tamano) en bloques que terminan justo después de un salto de línea.
+     */
+    private List<long[]> dividir(FileChannel canal, long inicio, long tamano) throws IOException {
+        long restante = tamano - inicio;
+        // Se buscan varios bloques por hilo para repartir mejor la carga entre ellos
+        long objetivo = restante / (pool.getParallelism() * 4L);
+        objetivo = Math.max(tamanoBloqueMin, Math.min(tamanoBloqueMax, objetivo));
+        List<long[]> limites = new ArrayList<>();
+        long posicion = inicio;
+        while (posicion < tamano) {
+            long fin = posicion + objetivo >= tamano
+                    ? tamano
+                    : buscarFinDeLinea(canal, posicion + objetivo, tamano);
+            limites.add(new long[] {posicion, fin});
+            posicion = fin;
+        }
+        return limites;
+    }
+
+    /**
+     * Retorna la posición siguiente al primer salto de línea a partir de la posición indicada,
+     * o el tamaño del archivo si no hay más saltos de línea.
+     */
+    private static long buscarFinDeLinea(FileChannel canal, long desde, long tamano) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long posicion = desde;
+        while (posicion < tamano) {
+            buffer.clear();
+            int leidos = canal.read(buffer, posicion);
+            if (leidos <= 0) {
+                break;
+            }
+            for (int i = 0; i < leidos; i++) {
+                if (buffer.get(i) == '\n') {
+                    return posicion + i + 1;
+                }
+            }
+            posicion += leidos;
+        }
+        return tamano;
+    }
+
+    /**
+     * Tarea que divide recursivamente la lista de bloques hasta procesar uno solo.
+     */
+    private static class TareaBloques extends RecursiveTask<List<Bloque>> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel canal;
+        private final List<long[]> limites;
+        private final int desde;
+        private final int hasta;
+
+        TareaBloques(FileChannel canal, List<long[]> limites, int desde, int hasta) {
+            this.canal = canal;
+            this.limites = limites;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected List<Bloque> compute() {
+            if (hasta - desde == 1) {
+                List<Bloque> resultado = new ArrayList<>(1);
+                long[] limite = limites.get(desde);
+                try {
+                    resultado.add(procesar(canal, limite[0], limite[1] - limite[0]));
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+                return resultado;
+            }
+            int medio = (desde + hasta) >>> 1;
+            TareaBloques izquierda = new TareaBloques(canal, limites, desde, medio);
+            TareaBloques derecha = new TareaBloques(canal, limites, medio, hasta);
+            izquierda.fork();
+            List<Bloque> resultado = new ArrayList<>(derecha.compute());
+            resultado.addAll(0, izquierda.join());
+            return resultado;
+        }
+    }
+
+    /**
+     * Decodifica y procesa un bloque del archivo.
+     */
+    private static Bloque procesar(FileChannel canal, long inicio, long longitud) throws IOException {
+        MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_ONLY, inicio, longitud);
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer texto = decoder.decode(mapeo);
+
+        Bloque bloque = new Bloque();
+        CsvTokenizer tokenizer = new CsvTokenizer();
+        int fin = texto.limit();
+        int inicioLinea = 0;
+        while (inicioLinea < fin) {
+            int finLinea = inicioLinea;
+            while (finLinea < fin && texto.get(finLinea) != '\n') {
+                finLinea++;
+            }
+            procesarLinea(bloque, tokenizer, texto, inicioLinea, finLinea);
+            inicioLinea = finLinea + 1;
+        }
+        return bloque;
+    }
+
+    private static void procesarLinea(Bloque bloque, CsvTokenizer tokenizer, CharBuffer texto, int inicio, int fin) {
+        bloque.filas++;
+        if (tokenizer.split(texto, inicio, fin) < 10) {
+            bloque.errores.add("Línea inválida (menos de 10 campos): " + texto.subSequence(inicio, fin));
+            return;
+        }
+        try {
+            Pokemon p = PokemonApp.crearPokemon(tokenizer);
+            bloque.pokemons.put(p.getName(), p);
+        } catch (NumberFormatException e) {
+            bloque.errores.add("Error al parsear la línea: " + texto.subSequence(inicio, fin)
+                    + System.lineSeparator() + "Detalle: " + e.getMessage());
+        }
+    }
+}
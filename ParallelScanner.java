@@ -0,0 +1,244 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * Recorridos completos de la colección de Pokémon en paralelo sobre un {@link ForkJoinPool}.
+ *
+ * Sirve para las búsquedas que ningún índice resuelve (una condición arbitraria, o una
+ * habilidad buscada en el orden del catálogo) y para ordenar la colección completa con
+ * {@link Arrays#parallelSort}. Los valores del mapa se copian a un arreglo que se reutiliza
+ * mientras la colección no cambie; el arreglo se divide en tramos contiguos y cada tramo
+ * acumula sus resultados en una lista propia, sin sincronización entre hilos. Al final las
+ * listas se concatenan en el orden de los tramos, por lo que el resultado es el mismo que el
+ * de un recorrido secuencial.
+ *
+ * El umbral es adaptativo: con colecciones pequeñas (como el archivo incluido, de unas 900
+ * filas) o con un pool de un solo hilo el recorrido se hace en el hilo que llama, porque
+ * repartir el trabajo costaría más que hacerlo.
+ *
+ * Se registra como {@link PokemonIndex} en el mismo {@link IndexedPokemonMap} que recorre,
+ * solo para enterarse de los cambios. Los recorridos pueden ejecutarse desde varios hilos
+ * mientras no haya modificaciones simultáneas.
+ */
+public class ParallelScanner implements PokemonIndex {
+    // Cantidad de Pokémon a partir de la cual conviene repartir el recorrido entre hilos
+    static final int UMBRAL_PARALELO = 1 << 15;
+    // Tamaño mínimo de un tramo, para que cada tarea compense su costo de creación
+    private static final int TAMANO_TRAMO_MIN = 4096;
+
+    private static final Comparator<Pokemon> POR_TIPO1 = Comparator.comparing(
+            (Pokemon p) -> p.getType1() == null ? "" : p.getType1(), String.CASE_INSENSITIVE_ORDER);
+
+    private final Map<String, Pokemon> origen;
+    private final ForkJoinPool pool;
+    private final int umbral;
+
+    // null cuando la colección cambió; se vuelve a copiar en el siguiente recorrido
+    private volatile Pokemon[] instantanea;
+
+    /**
+     * Construye un recorredor de la colección indicada que utiliza el pool común de fork-join.
+     *
+     * @param origen El mapa a recorrer; el recorredor debe registrarse como índice de ese mapa.
+     */
+    public ParallelScanner(Map<String, Pokemon> origen) {
+        this(origen, ForkJoinPool.commonPool(), UMBRAL_PARALELO);
+    }
+
+    /**
+     * Construye un recorredor que utiliza el pool y el umbral indicados.
+     *
+     * @param origen El mapa a recorrer; el recorredor debe registrarse como índice de ese mapa.
+     * @param pool   El pool de fork-join donde se procesan los tramos.
+     * @param umbral La cantidad de Pokémon a partir de la cual se recorre en paralelo.
+     */
+    public ParallelScanner(Map<String, Pokemon> origen, ForkJoinPool pool, int umbral) {
+        this.origen = origen;
+        this.pool = pool;
+        this.umbral = umbral;
+    }
+
+    @Override
+    public void agregar(String clave, Pokemon p) {
+        instantanea = null;
+    }
+
+    @Override
+    public void eliminar(String clave, Pokemon p) {
+        instantanea = null;
+    }
+
+    @Override
+    public void limpiar() {
+        instantanea = null;
+    }
+
+    private Pokemon[] instantanea() {
+        Pokemon[] datos = instantanea;
+        if (datos == null) {
+            synchronized (this) {
+                datos = instantanea;
+                if (datos == null) {
+                    datos = origen.values().toArray(new Pokemon[0]);
+                    instantanea = datos;
+                }
+            }
+        }
+        return datos;
+    }
+
+    /**
+     * Indica si un recorrido de la cantidad de Pokémon indicada se reparte entre hilos.
+     *
+     * @param cantidad La cantidad de Pokémon a recorrer.
+     * @return true si el recorrido se hace en paralelo.
+     */
+    public boolean esParalelo(int cantidad) {
+        return cantidad >= umbral && pool.getParallelism() > 1;
+    }
+
+    /**
+     * Retorna los Pokémon que cumplen la condición, en el orden de la colección.
+     *
+     * @param condicion La condición a evaluar sobre cada Pokémon; debe poder evaluarse desde varios hilos.
+     * @return la lista de Pokémon que la cumplen.
+     */
+    public List<Pokemon> filtrar(Predicate<? super Pokemon> condicion) {
+        return recorrer((p, resultado) -> {
+            if (condicion.test(p)) {
+                resultado.add(p);
+            }
+        });
+    }
+
+    /**
+     * Busca los Pokémon que poseen alguna habilidad que contiene el texto indicado (sin distinguir
+     * mayúsculas), revisando cada Pokémon. Cada uno aparece una sola vez, con la primera de sus
+     * habilidades que coincide, y en el orden de la colección.
+     *
+     * @param consulta El texto a buscar dentro de las habilidades.
+     * @return la lista de coincidencias, vacía si no hay ninguna.
+     */
+    public List<AbilityIndex.Coincidencia> buscarPorHabilidad(String consulta) {
+        String buscada = consulta.trim();
+        return recorrer((p, resultado) -> {
+            for (String habilidad : p.getAbilities()) {
+                if (contieneSinMayusculas(habilidad, buscada)) {
+                    resultado.add(new AbilityIndex.Coincidencia(p, habilidad));
+                    return;
+                }
+            }
+        });
+    }
+
+    private static boolean contieneSinMayusculas(String texto, String buscado) {
+        int ultimo = texto.length() - buscado.length();
+        for (int i = 0; i <= ultimo; i++) {
+            if (texto.regionMatches(true, i, buscado, 0, buscado.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retorna una copia de la colección ordenada por tipo primario (sin distinguir mayúsculas).
+     * El ordenamiento es estable, por lo que dentro de un mismo tipo se conserva el orden de la
+     * colección. Por encima del umbral se usa {@link Arrays#parallelSort}.
+     *
+     * @return un arreglo nuevo con los Pokémon ordenados por Type1.
+     */
+    public Pokemon[] ordenarPorTipo1() {
+        Pokemon[] copia = instantanea().clone();
+        if (esParalelo(copia.length)) {
+            // parallelSort usa el pool común, sea cual sea el pool de este recorredor
+            Arrays.parallelSort(copia, POR_TIPO1);
+        } else {
+            Arrays.sort(copia, POR_TIPO1);
+        }
+        return copia;
+    }
+
+    /**
+     * Acción que se aplica a cada Pokémon y agrega lo que corresponda a la lista de su tramo.
+     */
+    private interface Recolector<R> {
+        void aceptar(Pokemon p, List<R> resultado);
+    }
+
+    private <R> List<R> recorrer(Recolector<R> recolector) {
+        Pokemon[] datos = instantanea();
+        if (datos.length == 0 || !esParalelo(datos.length)) {
+            List<R> resultado = new ArrayList<>();
+            for (Pokemon p : datos) {
+                recolector.aceptar(p, resultado);
+            }
+            return resultado;
+        }
+        // Varios tramos por hilo para repartir mejor la carga entre ellos
+        int tamanoTramo = Math.max(Math.min(TAMANO_TRAMO_MIN, umbral), datos.length / (pool.getParallelism() * 4));
+        int tramos = (datos.length + tamanoTramo - 1) / tamanoTramo;
+        List<List<R>> parciales = new ArrayList<>(tramos);
+        for (int i = 0; i < tramos; i++) {
+            parciales.add(null);
+        }
+        pool.invoke(new TareaTramos<>(datos, recolector, parciales, tamanoTramo, 0, tramos));
+        int total = 0;
+        for (List<R> parcial : parciales) {
+            total += parcial.size();
+        }
+        List<R> resultado = new ArrayList<>(total);
+        for (List<R> parcial : parciales) {
+            resultado.addAll(parcial);
+        }
+        return resultado;
+    }
+
+    /**
+     * Tarea que divide recursivamente los tramos hasta procesar uno solo. Cada tramo escribe su
+     * lista en una posición distinta de parciales, por lo que no hace falta sincronizar.
+     */
+    private static class TareaTramos<R> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Pokemon[] datos;
+        private final Recolector<R> recolector;
+        private final List<List<R>> parciales;
+        private final int tamanoTramo;
+        private final int desde;
+        private final int hasta;
+
+        TareaTramos(Pokemon[] datos, Recolector<R> recolector, List<List<R>> parciales, int tamanoTramo,
+                    int desde, int hasta) {
+            this.datos = datos;
+            this.recolector = recolector;
+            this.parciales = parciales;
+            this.tamanoTramo = tamanoTramo;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde == 1) {
+                int inicio = desde * tamanoTramo;
+                int fin = Math.min(datos.length, inicio + tamanoTramo);
+                List<R> resultado = new ArrayList<>();
+                for (int i = inicio; i < fin; i++) {
+                    recolector.aceptar(datos[i], resultado);
+                }
+                parciales.set(desde, resultado);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaTramos<>(datos, recolector, parciales, tamanoTramo, desde, medio),
+                    new TareaTramos<>(datos, recolector, parciales, tamanoTramo, medio, hasta));
+        }
+    }
+}
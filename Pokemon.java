@@ -4,25 +4,53 @@
  * y estado legendario.
  * 
  * Se implementa la interfaz Serializable para permitir la serialización del objeto.
+ *
+ * Los atributos se guardan en un objeto aparte y Pokemon solo tiene la referencia a él, de modo
+ * que las subclases que leen los atributos de otra fuente (como las vistas de
+ * {@link ColumnarPokemonStore}) no cargan con un campo por atributo: ocupan solo esa referencia
+ * nula y sus propios campos.
  */
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 public class Pokemon implements Serializable {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     
-    private String name;
-    private int pokedexNumber;
-    private String type1;
-    private String type2;
-    private String classification;
-    private double height;
-    private double weight;
-    private List<String> abilities;
-    private int generation;
-    private boolean legendaryStatus;
+    // null en las subclases que sobrescriben los getters
+    private final Atributos atributos;
+    
+    /**
+     * Atributos de un Pokémon construido con sus valores.
+     */
+    private static final class Atributos implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private final String name;
+        private final int pokedexNumber;
+        private final String type1;
+        private final String type2;
+        private final String classification;
+        private final double height;
+        private final double weight;
+        private final List<String> abilities;
+        private final int generation;
+        private final boolean legendaryStatus;
+        
+        Atributos(String name, int pokedexNumber, String type1, String type2, String classification,
+                  double height, double weight, List<String> abilities, int generation, boolean legendaryStatus) {
+            this.name = name;
+            this.pokedexNumber = pokedexNumber;
+            this.type1 = type1;
+            this.type2 = type2;
+            this.classification = classification;
+            this.height = height;
+            this.weight = weight;
+            this.abilities = abilities;
+            this.generation = generation;
+            this.legendaryStatus = legendaryStatus;
+        }
+    }
     
     /**
      * Construye un nuevo objeto Pokemon con los atributos especificados.
@@ -34,24 +62,67 @@ public class Pokemon implements Serializable {
      * @param classification  La clasificación del Pokémon.
      * @param height          La altura (en metros) del Pokémon.
      * @param weight          El peso (en kilogramos) del Pokémon.
-     * @param abilitiesStr    Una cadena con las habilidades separadas por punto y coma.
+     * @param abilitiesStr    Una cadena con las habilidades separadas por punto y coma o por comas.
      * @param generation      La generación en la que el Pokémon fue introducido.
      * @param legendaryStatus Verdadero si el Pokémon es legendario, falso en caso contrario.
      */
     public Pokemon(String name, int pokedexNumber, String type1, String type2,
                    String classification, double height, double weight,
                    String abilitiesStr, int generation, boolean legendaryStatus) {
-        this.name = name;
-        this.pokedexNumber = pokedexNumber;
-        this.type1 = type1;
-        this.type2 = type2;
-        this.classification = classification;
-        this.height = height;
-        this.weight = weight;
-        // Se asume que las habilidades están separadas por punto y coma (";")
-        this.abilities = new ArrayList<>(Arrays.asList(abilitiesStr.split(";")));
-        this.generation = generation;
-        this.legendaryStatus = legendaryStatus;
+        this.atributos = new Atributos(name, pokedexNumber, type1, type2, classification, height, weight,
+                separarHabilidades(abilitiesStr), generation, legendaryStatus);
+    }
+    
+    /**
+     * Construye un nuevo objeto Pokemon con las habilidades ya separadas en una lista.
+     *
+     * @param name            El nombre del Pokémon.
+     * @param pokedexNumber   El número de Pokédex del Pokémon.
+     * @param type1           El tipo primario del Pokémon.
+     * @param type2           El tipo secundario del Pokémon.
+     * @param classification  La clasificación del Pokémon.
+     * @param height          La altura (en metros) del Pokémon.
+     * @param weight          El peso (en kilogramos) del Pokémon.
+     * @param abilities       La lista de habilidades; se copia.
+     * @param generation      La generación en la que el Pokémon fue introducido.
+     * @param legendaryStatus Verdadero si el Pokémon es legendario, falso en caso contrario.
+     */
+    public Pokemon(String name, int pokedexNumber, String type1, String type2,
+                   String classification, double height, double weight,
+                   List<String> abilities, int generation, boolean legendaryStatus) {
+        this.atributos = new Atributos(name, pokedexNumber, type1, type2, classification, height, weight,
+                new ArrayList<>(abilities), generation, legendaryStatus);
+    }
+    
+    /**
+     * Constructor para subclases que obtienen los atributos de otra fuente (por ejemplo, las
+     * vistas de {@link ColumnarPokemonStore}). Las subclases deben sobrescribir todos los getters.
+     */
+    protected Pokemon() {
+        this.atributos = null;
+    }
+    
+    /**
+     * Separa la cadena de habilidades. Se aceptan como separadores el punto y coma (";") y la
+     * coma (","), que es el formato del archivo CSV; se eliminan los espacios de cada habilidad.
+     *
+     * @param abilitiesStr La cadena con las habilidades.
+     * @return la lista de habilidades.
+     */
+    private static List<String> separarHabilidades(String abilitiesStr) {
+        List<String> lista = new ArrayList<>(4);
+        int inicio = 0;
+        int longitud = abilitiesStr.length();
+        for (int i = 0; i <= longitud; i++) {
+            if (i == longitud || abilitiesStr.charAt(i) == ';' || abilitiesStr.charAt(i) == ',') {
+                String habilidad = abilitiesStr.substring(inicio, i).trim();
+                if (!habilidad.isEmpty()) {
+                    lista.add(habilidad);
+                }
+                inicio = i + 1;
+            }
+        }
+        return lista;
     }
     
     /**
@@ -60,7 +131,7 @@ public class Pokemon implements Serializable {
      * @return el nombre.
      */
     public String getName() {
-        return name;
+        return atributos.name;
     }
     
     /**
@@ -69,7 +140,7 @@ public class Pokemon implements Serializable {
      * @return el número de Pokédex.
      */
     public int getPokedexNumber() {
-        return pokedexNumber;
+        return atributos.pokedexNumber;
     }
     
     /**
@@ -78,7 +149,7 @@ public class Pokemon implements Serializable {
      * @return el tipo primario.
      */
     public String getType1() {
-        return type1;
+        return atributos.type1;
     }
     
     /**
@@ -87,7 +158,7 @@ public class Pokemon implements Serializable {
      * @return el tipo secundario.
      */
     public String getType2() {
-        return type2;
+        return atributos.type2;
     }
     
     /**
@@ -96,7 +167,7 @@ public class Pokemon implements Serializable {
      * @return la clasificación.
      */
     public String getClassification() {
-        return classification;
+        return atributos.classification;
     }
     
     /**
@@ -105,7 +176,7 @@ public class Pokemon implements Serializable {
      * @return la altura en metros.
      */
     public double getHeight() {
-        return height;
+        return atributos.height;
     }
     
     /**
@@ -114,7 +185,7 @@ public class Pokemon implements Serializable {
      * @return el peso en kilogramos.
      */
     public double getWeight() {
-        return weight;
+        return atributos.weight;
     }
     
     /**
@@ -123,7 +194,7 @@ public class Pokemon implements Serializable {
      * @return una lista de habilidades.
      */
     public List<String> getAbilities() {
-        return abilities;
+        return atributos.abilities;
     }
     
     /**
@@ -132,7 +203,7 @@ public class Pokemon implements Serializable {
      * @return la generación.
      */
     public int getGeneration() {
-        return generation;
+        return atributos.generation;
     }
     
     /**
@@ -141,7 +212,7 @@ public class Pokemon implements Serializable {
      * @return verdadero si es legendario, falso en caso contrario.
      */
     public boolean isLegendaryStatus() {
-        return legendaryStatus;
+        return atributos.legendaryStatus;
     }
     
     /**
@@ -151,7 +222,7 @@ public class Pokemon implements Serializable {
      * @return verdadero si el Pokémon tiene la habilidad, falso en caso contrario.
      */
     public boolean hasAbility(String ability) {
-        for (String a : abilities) {
+        for (String a : getAbilities()) {
             if (a.trim().equalsIgnoreCase(ability.trim())) {
                 return true;
             }
@@ -168,16 +239,16 @@ public class Pokemon implements Serializable {
     @Override
     public String toString() {
         return "Pokemon{" +
-               "Name='" + name + '\'' +
-               ", PokedexNumber=" + pokedexNumber +
-               ", Type1='" + type1 + '\'' +
-               ", Type2='" + type2 + '\'' +
-               ", Classification='" + classification + '\'' +
-               ", Height(m)=" + height +
-               ", Weight(kg)=" + weight +
-               ", Abilities=" + abilities +
-               ", Generation=" + generation +
-               ", LegendaryStatus=" + legendaryStatus +
+               "Name='" + getName() + '\'' +
+               ", PokedexNumber=" + getPokedexNumber() +
+               ", Type1='" + getType1() + '\'' +
+               ", Type2='" + getType2() + '\'' +
+               ", Classification='" + getClassification() + '\'' +
+               ", Height(m)=" + getHeight() +
+               ", Weight(kg)=" + getWeight() +
+               ", Abilities=" + getAbilities() +
+               ", Generation=" + getGeneration() +
+               ", LegendaryStatus=" + isLegendaryStatus() +
                '}';
     }
 }
@@ -1,5 +1,7 @@
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Clase principal que administra la aplicación de Pokémon.
@@ -9,32 +11,113 @@ import java.util.*;
  */
 public class PokemonApp {
     // Colección completa de Pokémon (clave: nombre)
-    private Map<String, Pokemon> pokemonMap;
+    private IndexedPokemonMap pokemonMap;
+    // Índice invertido de habilidades, sincronizado con pokemonMap
+    private AbilityIndex abilityIndex;
     // Colección personalizada del usuario (se utiliza LinkedHashMap para mantener el orden de inserción)
-    private Map<String, Pokemon> userCollection;
+    private IndexedPokemonMap userCollection;
+    // Índices por tipo de la colección completa y de la colección del usuario
+    private TypeIndex typeIndex;
+    private TypeIndex userTypeIndex;
+    // Motor de consultas por varios atributos, sincronizado con pokemonMap
+    private PokemonQueryEngine queryEngine;
+    // Mapas de bits comprimidos para conteos por tipo, generación, legendario y clasificación
+    private FacetIndex facetIndex;
+    // Índice de nombres normalizados para búsqueda exacta, por prefijo y aproximada
+    private NameIndex nameIndex;
+    // Recorridos completos en paralelo (búsquedas sin índice y ordenamiento con parallelSort)
+    private ParallelScanner escaner;
+    // Resultados de las consultas repetidas; se descartan con cualquier cambio de pokemonMap
+    private QueryCache cache;
+    // Tabla de efectividad por tipo y vectores de enfrentamiento precalculados por Pokémon
+    private MatchupEngine enfrentamientos;
+    // Destino de los listados y búsquedas (por defecto, la consola con escritura por bloques)
+    private OutputSink salida = OutputSink.consola();
+    // Recarga incremental: versión recordada del CSV y diferencias detectadas pendientes de aplicar
+    private CsvReloader recargador;
+    private final Queue<CsvReloader.Diferencias> recargasPendientes = new ConcurrentLinkedQueue<>();
+    // Registro durable de la colección del usuario; null si la colección solo vive en memoria
+    private CollectionJournal registroColeccion;
+    // Usuario con el que se guarda la colección en el registro
+    static final String USUARIO_LOCAL = "local";
+    // Pokémon de la colección que no están en los datos cargados (recuperados del registro o
+    // eliminados por una recarga); se conservan en el registro y vuelven a la colección si
+    // aparecen en una recarga
+    private final Set<String> pendientesColeccion = new LinkedHashSet<>();
+    // Latencias, contadores de carga y asignación de memoria de las operaciones
+    private final PokemonMetrics metricas = new PokemonMetrics();
+    // Tamaño de archivo (en bytes) a partir del cual main usa la carga en paralelo
+    private static final long UMBRAL_CARGA_PARALELA = 64L << 20;
     
     /**
      * Construye una nueva instancia de PokemonApp utilizando la implementación de Map especificada.
      *
-     * @param mapOption La opción de implementación a utilizar (1: HashMap, 2: TreeMap, 3: LinkedHashMap).
+     * @param mapOption La opción de implementación a utilizar (1: HashMap, 2: TreeMap, 3: LinkedHashMap,
+     *                  4: direccionamiento abierto, 5: ConcurrentHashMap, 6: fuera del heap).
      */
     public PokemonApp(int mapOption) {
         // Se selecciona la implementación del Map para la colección completa usando el patrón Factory
-        pokemonMap = MapFactory.getMap(mapOption);
+        pokemonMap = new IndexedPokemonMap(MapFactory.getMap(mapOption));
+        abilityIndex = new AbilityIndex();
+        pokemonMap.registrarIndice(abilityIndex);
+        typeIndex = new TypeIndex();
+        pokemonMap.registrarIndice(typeIndex);
+        // El motor mantiene el índice de facetas: ambos usan los mismos mapas de bits
+        queryEngine = new PokemonQueryEngine();
+        pokemonMap.registrarIndice(queryEngine);
+        facetIndex = queryEngine.getFacetIndex();
+        nameIndex = new NameIndex();
+        pokemonMap.registrarIndice(nameIndex);
+        escaner = new ParallelScanner(pokemonMap);
+        pokemonMap.registrarIndice(escaner);
+        cache = new QueryCache(1024, 32L << 20);
+        pokemonMap.registrarIndice(cache);
+        enfrentamientos = new MatchupEngine();
+        pokemonMap.registrarIndice(enfrentamientos);
         // La colección del usuario se guarda en un LinkedHashMap para preservar el orden de inserción
-        userCollection = new LinkedHashMap<>();
+        userCollection = new IndexedPokemonMap(new LinkedHashMap<>());
+        userTypeIndex = new TypeIndex();
+        userCollection.registrarIndice(userTypeIndex);
     }
     
     /**
      * Carga los datos desde un archivo CSV. Se asume que el archivo tiene la siguiente estructura:
      * Nombre,Pokedex number,Type1,Type2,Classification,Height(m),Weight(kg),Abilities,Generation,Legendary Status.
      * 
-     * Se utiliza una expresión regular para separar correctamente las comas que no están dentro de comillas.
+     * Cada línea se separa en una sola pasada con {@link CsvTokenizer}, que respeta las comas
+     * dentro de comillas. Al terminar se muestra la cantidad de filas procesadas por segundo.
      *
      * @param filePath La ruta completa del archivo CSV.
      */
     public void loadData(String filePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+        cargarCsv(filePath, null);
+    }
+    
+    /**
+     * Carga los datos desde un archivo CSV usando el almacenamiento columnar.
+     * Los atributos se guardan en arreglos primitivos y diccionarios compartidos, y el mapa
+     * recibe vistas ligeras en lugar de objetos Pokemon completos. Al terminar se muestra una
+     * estimación de la memoria ocupada por el almacenamiento.
+     *
+     * @param filePath La ruta completa del archivo CSV.
+     */
+    public void loadDataColumnar(String filePath) {
+        ColumnarPokemonStore store = new ColumnarPokemonStore();
+        cargarCsv(filePath, store);
+        System.out.println("Memoria estimada del almacenamiento columnar: "
+                + (store.estimarMemoriaBytes() / 1024) + " KB (" + store.getTipos().size() + " tipos, "
+                + store.getHabilidades().size() + " habilidades distintas)");
+    }
+    
+    /**
+     * Lee el archivo CSV fila por fila y agrega cada Pokémon al mapa.
+     *
+     * @param filePath La ruta completa del archivo CSV.
+     * @param store    El almacenamiento columnar donde guardar las filas, o null para crear objetos Pokemon.
+     */
+    private void cargarCsv(String filePath, ColumnarPokemonStore store) {
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8), 1 << 16)) {
             String line;
             // Leer la línea de encabezado
             String header = br.readLine();
@@ -43,63 +126,505 @@ public class PokemonApp {
                 return;
             }
             
+            long startTime = System.nanoTime();
+            long asignados = metricas.asignados();
+            long filas = 0;
+            long errores = 0;
+            // El separador se reutiliza para todas las filas
+            CsvTokenizer tokenizer = new CsvTokenizer();
+            
             // Leer cada línea del archivo
             while ((line = br.readLine()) != null) {
-                // Utiliza regex para separar comas que no estén dentro de comillas
-                String[] datos = line.split(",(?=([^\"]*\"[^\"]*\")*[^\"]*$)");
-                
-                if (datos.length < 10) {
+                filas++;
+                if (tokenizer.split(line) < 10) {
                     System.out.println("Línea inválida (menos de 10 campos): " + line);
+                    errores++;
                     continue;
                 }
                 
-                // Limpiar posibles comillas en cada campo
-                for (int i = 0; i < datos.length; i++) {
-                    datos[i] = datos[i].trim().replaceAll("^\"|\"$", "");
-                }
-                
                 try {
-                    String name = datos[0];
-                    int pokedexNumber = Integer.parseInt(datos[1]);
-                    String type1 = datos[2];
-                    String type2 = datos[3];
-                    String classification = datos[4];
-                    double height = Double.parseDouble(datos[5]);
-                    double weight = Double.parseDouble(datos[6]);
-                    String abilitiesStr = datos[7];
-                    int generation = Integer.parseInt(datos[8]);
-                    // Se asume que "Legendary Status" es "True" o "False"
-                    boolean legendaryStatus = Boolean.parseBoolean(datos[9]);
-                    
-                    Pokemon p = new Pokemon(name, pokedexNumber, type1, type2, classification, height, weight, abilitiesStr, generation, legendaryStatus);
-                    pokemonMap.put(name, p);
+                    Pokemon p = store == null ? crearPokemon(tokenizer) : store.getPokemon(store.agregar(tokenizer));
+                    pokemonMap.put(p.getName(), p);
                 } catch (NumberFormatException e) {
+                    errores++;
                     System.out.println("Error al parsear la línea: " + line);
                     System.out.println("Detalle: " + e.getMessage());
                 }
             }
             System.out.println("Datos cargados exitosamente. Total de Pokémon: " + pokemonMap.size());
+            reportarVelocidadCarga(filas, System.nanoTime() - startTime);
+            metricas.registrar(PokemonMetrics.Operacion.CARGA, startTime, asignados);
+            metricas.registrarCarga(filas, errores, new File(filePath).length(), System.nanoTime() - startTime);
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Carga los datos desde un archivo CSV usando el cargador masivo en paralelo.
+     * El archivo se mapea en memoria, se divide en bloques por saltos de línea y cada bloque
+     * se procesa en un hilo del pool de fork-join. Los mapas parciales se combinan en el
+     * Map elegido con {@link MapFactory} respetando el orden del archivo.
+     *
+     * @param filePath La ruta completa del archivo CSV.
+     */
+    public void loadDataParalelo(String filePath) {
+        long startTime = System.nanoTime();
+        List<ParallelCsvLoader.Bloque> bloques;
+        try {
+            bloques = new ParallelCsvLoader().cargar(new File(filePath).toPath());
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+            return;
+        }
+        if (bloques.isEmpty()) {
+            System.out.println("El archivo está vacío.");
+            return;
+        }
+        long filas = 0;
+        long errores = 0;
+        for (ParallelCsvLoader.Bloque bloque : bloques) {
+            for (String error : bloque.getErrores()) {
+                System.out.println(error);
+            }
+            errores += bloque.getErrores().size();
+            pokemonMap.putAll(bloque.getPokemons());
+            filas += bloque.getFilas();
+        }
+        System.out.println("Datos cargados exitosamente. Total de Pokémon: " + pokemonMap.size());
+        reportarVelocidadCarga(filas, System.nanoTime() - startTime);
+        // La asignación se hace en los hilos del pool, por lo que aquí solo se mide la duración
+        metricas.registrar(PokemonMetrics.Operacion.CARGA, startTime, 0);
+        metricas.registrarCarga(filas, errores, new File(filePath).length(), System.nanoTime() - startTime);
+    }
+    
+    /**
+     * Agrega a la colección completa los Pokémon generados por el generador sintético, sin pasar
+     * por un archivo. Las filas que en el CSV serían inválidas se cuentan como errores de parseo.
+     *
+     * @param generador El generador, con la semilla y las tasas deseadas.
+     * @param filas     La cantidad de filas a generar.
+     */
+    public void cargarSinteticos(SyntheticDataGenerator generador, long filas) {
+        long startTime = System.nanoTime();
+        long asignados = metricas.asignados();
+        long errores = generador.generar(filas, p -> pokemonMap.put(p.getName(), p));
+        System.out.println("Datos generados exitosamente. Total de Pokémon: " + pokemonMap.size());
+        reportarVelocidadCarga(filas, System.nanoTime() - startTime);
+        metricas.registrar(PokemonMetrics.Operacion.CARGA, startTime, asignados);
+        metricas.registrarCarga(filas, errores, 0, System.nanoTime() - startTime);
+    }
+    
+    /**
+     * Calcula las estadísticas del archivo CSV (peso promedio por tipo, habilidades más
+     * frecuentes y proporción de legendarios por generación) recorriéndolo en streaming, sin
+     * cargarlo en la colección. La memoria usada no depende del tamaño del archivo.
+     *
+     * @param filePath La ruta completa del archivo CSV.
+     * @return las estadísticas calculadas, o null si no se pudo leer el archivo.
+     */
+    public CatalogStatistics analizarCsv(String filePath) {
+        long startTime = System.nanoTime();
+        CatalogStatistics estadisticas = new CatalogStatistics();
+        CsvStreamReader lector = new CsvStreamReader();
+        try {
+            lector.recorrer(new File(filePath).toPath(), estadisticas);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+            return null;
+        }
+        estadisticas.escribir(salida, 10);
+        reportarVelocidadCarga(lector.getFilas() + lector.getErrores(), System.nanoTime() - startTime);
+        return estadisticas;
+    }
+    
+    /**
+     * Carga los datos del archivo CSV usando su instantánea binaria cuando está vigente.
+     * Si la instantánea no existe o no corresponde al CSV actual, se lee el CSV (en paralelo si
+     * supera {@link #UMBRAL_CARGA_PARALELA}) y se vuelve a generar la instantánea para el
+     * siguiente inicio. Los índices se reconstruyen a medida que se agregan los registros.
+     *
+     * @param filePath La ruta completa del archivo CSV.
+     */
+    public void cargarDatos(String filePath) {
+        File archivo = new File(filePath);
+        java.nio.file.Path snapshot = PokemonSnapshot.rutaPara(archivo.toPath());
+        long startTime = System.nanoTime();
+        try {
+            if (PokemonSnapshot.cargar(snapshot, archivo.toPath(), pokemonMap)) {
+                System.out.println("Datos cargados desde la instantánea. Total de Pokémon: " + pokemonMap.size());
+                reportarVelocidadCarga(pokemonMap.size(), System.nanoTime() - startTime);
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("No se pudo leer la instantánea, se carga el CSV: " + e.getMessage());
+            pokemonMap.clear();
+        }
+        
+        if (archivo.length() > UMBRAL_CARGA_PARALELA) {
+            loadDataParalelo(filePath);
+        } else {
+            loadData(filePath);
+        }
+        if (pokemonMap.isEmpty()) {
+            return;
+        }
+        try {
+            PokemonSnapshot.escribir(snapshot, archivo.toPath(), pokemonMap.values());
+        } catch (IOException e) {
+            System.out.println("No se pudo guardar la instantánea: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Recuerda el contenido actual del archivo como base de las recargas incrementales.
+     * Debe llamarse después de cargar los datos de ese mismo archivo.
+     *
+     * @param filePath La ruta completa del archivo CSV.
+     */
+    public void iniciarRecargaIncremental(String filePath) {
+        recargador = new CsvReloader();
+        try {
+            recargador.registrar(new File(filePath).toPath());
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Relee el archivo CSV y aplica solo las filas agregadas, modificadas o eliminadas desde la
+     * lectura anterior. Las diferencias se calculan completas antes de modificar la colección,
+     * por lo que el mapa nunca queda vacío ni a medias. Si no se llamó antes a
+     * {@link #iniciarRecargaIncremental}, todas las filas se consideran agregadas.
+     *
+     * @param filePath La ruta completa del archivo CSV.
+     * @return las diferencias aplicadas, o null si el archivo no se pudo leer.
+     */
+    public CsvReloader.Diferencias recargarIncremental(String filePath) {
+        if (recargador == null) {
+            recargador = new CsvReloader();
+        }
+        CsvReloader.Diferencias d;
+        try {
+            d = recargador.comparar(new File(filePath).toPath());
         } catch (IOException e) {
             System.out.println("Error al leer el archivo: " + e.getMessage());
+            return null;
+        }
+        aplicarDiferencias(d);
+        return d;
+    }
+    
+    /**
+     * Vigila el archivo CSV y prepara una recarga incremental cada vez que cambia en disco.
+     * Las diferencias se calculan en segundo plano y se aplican en el hilo del menú, antes de la
+     * siguiente operación, con {@link #aplicarRecargasPendientes()}.
+     *
+     * @param filePath La ruta completa del archivo CSV, ya cargado.
+     * @return un objeto que detiene la vigilancia al cerrarse, o null si no se pudo iniciar.
+     */
+    public Closeable vigilarArchivo(String filePath) {
+        iniciarRecargaIncremental(filePath);
+        try {
+            return recargador.vigilar(new File(filePath).toPath(), recargasPendientes::add);
+        } catch (IOException e) {
+            System.out.println("No se pudo vigilar el archivo: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Aplica, en orden, las recargas detectadas por la vigilancia del archivo.
+     */
+    public void aplicarRecargasPendientes() {
+        CsvReloader.Diferencias d;
+        while ((d = recargasPendientes.poll()) != null) {
+            aplicarDiferencias(d);
+            System.out.println("Datos actualizados desde el archivo: " + d);
         }
     }
     
+    /**
+     * Aplica las diferencias a la colección completa (los índices se actualizan a través de
+     * pokemonMap) y a la colección del usuario: los Pokémon modificados se reemplazan por su
+     * versión nueva y los eliminados del archivo dejan de mostrarse en la colección del usuario,
+     * pero quedan pendientes sin escribir nada en el registro, igual que al abrirlo con un
+     * catálogo que no los incluye. Así, un archivo que queda parcial por un momento no borra la
+     * colección guardada: cuando una recarga vuelve a incluirlos, reaparecen. El registro solo
+     * guarda como quitados los nombres anteriores de los renombrados, porque el Pokémon sigue en
+     * la colección con su nombre nuevo y el anterior podría pasar a otra fila.
+     *
+     * Primero se quitan todos los nombres eliminados o renombrados y después se agregan las
+     * versiones nuevas, para que un nombre que pasa de un Pokémon a otro (por ejemplo, dos filas
+     * que intercambian sus nombres) no borre la versión nueva de otra fila.
+     */
+    private void aplicarDiferencias(CsvReloader.Diferencias d) {
+        for (String error : d.getErrores()) {
+            System.out.println(error);
+        }
+        for (String name : d.getEliminados()) {
+            pokemonMap.remove(name);
+            if (userCollection.remove(name) != null) {
+                pendientesColeccion.add(name);
+            }
+        }
+        // Nombres anteriores de los renombrados que estaban en la colección del usuario
+        Set<String> renombradosDelUsuario = new HashSet<>();
+        for (Map.Entry<String, Pokemon> e : d.getModificados().entrySet()) {
+            String anterior = e.getKey();
+            if (!anterior.equals(e.getValue().getName())) {
+                pokemonMap.remove(anterior);
+                if (userCollection.remove(anterior) != null) {
+                    renombradosDelUsuario.add(anterior);
+                    registrarCambioColeccion(CollectionJournal.QUITAR, anterior);
+                }
+            }
+        }
+        for (Map.Entry<String, Pokemon> e : d.getModificados().entrySet()) {
+            Pokemon p = e.getValue();
+            pokemonMap.put(p.getName(), p);
+            if (renombradosDelUsuario.contains(e.getKey())) {
+                userCollection.put(p.getName(), p);
+                registrarCambioColeccion(CollectionJournal.AGREGAR, p.getName());
+            } else if (e.getKey().equals(p.getName()) && userCollection.containsKey(p.getName())) {
+                userCollection.put(p.getName(), p);
+            }
+        }
+        for (Pokemon p : d.getAgregados()) {
+            pokemonMap.put(p.getName(), p);
+        }
+        // Los pendientes del registro que ahora están en los datos vuelven a la colección
+        for (Iterator<String> it = pendientesColeccion.iterator(); it.hasNext(); ) {
+            String name = it.next();
+            Pokemon p = pokemonMap.get(name);
+            if (p != null) {
+                userCollection.putIfAbsent(name, p);
+                it.remove();
+            }
+        }
+    }
+    
+    /**
+     * Construye un Pokémon a partir de la fila separada por el tokenizer.
+     *
+     * @param tokenizer El tokenizer con una fila de al menos 10 campos.
+     * @return el Pokémon correspondiente a la fila.
+     * @throws NumberFormatException si algún campo numérico no es válido.
+     */
+    static Pokemon crearPokemon(CsvTokenizer tokenizer) {
+        String name = tokenizer.getField(0);
+        int pokedexNumber = tokenizer.getInt(1);
+        String type1 = tokenizer.getField(2);
+        String type2 = tokenizer.getField(3);
+        String classification = tokenizer.getField(4);
+        double height = tokenizer.getDouble(5);
+        double weight = tokenizer.getDouble(6);
+        String abilitiesStr = tokenizer.getField(7);
+        int generation = tokenizer.getInt(8);
+        // "Legendary Status" puede venir como "True"/"False" o "Yes"/"No"
+        boolean legendaryStatus = tokenizer.getBoolean(9);
+        return new Pokemon(name, pokedexNumber, type1, type2, classification, height, weight, abilitiesStr, generation, legendaryStatus);
+    }
+    
+    /**
+     * Muestra la cantidad de filas procesadas y la velocidad de carga en filas por segundo.
+     *
+     * @param filas       La cantidad de filas leídas.
+     * @param nanosegundos El tiempo empleado en nanosegundos.
+     */
+    private static void reportarVelocidadCarga(long filas, long nanosegundos) {
+        double segundos = nanosegundos / 1_000_000_000.0;
+        long filasPorSegundo = segundos > 0 ? (long) (filas / segundos) : filas;
+        System.out.println("Filas procesadas: " + filas + " en " + (nanosegundos / 1_000_000.0)
+                + " ms (" + filasPorSegundo + " filas/seg)");
+    }
+    
     /**
      * Agrega un Pokémon a la colección personalizada del usuario, si existe en la colección completa.
+     * El nombre se resuelve con el índice de nombres, sin distinguir mayúsculas ni puntuación y
+     * tolerando errores de escritura menores.
      *
      * @param name El nombre del Pokémon a agregar.
      */
     public void agregarPokemonAUsuario(String name) {
-        if (userCollection.containsKey(name)) {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        String clave = resolverNombre(name);
+        if (clave != null) {
+            name = clave;
+        }
+        // Una sola búsqueda en cada mapa; putIfAbsent evita el "consultar y luego insertar"
+        Pokemon p = pokemonMap.get(name);
+        if (p == null && !userCollection.containsKey(name)) {
+            System.out.println("Error: Pokémon no encontrado en los datos.");
+            mostrarSugerencias(name);
+        } else if (p == null || userCollection.putIfAbsent(name, p) != null) {
             System.out.println("El Pokémon ya se encuentra en la colección del usuario.");
-        } else if (pokemonMap.containsKey(name)) {
-            userCollection.put(name, pokemonMap.get(name));
-            System.out.println("Pokémon agregado a la colección del usuario.");
         } else {
-            System.out.println("Error: Pokémon no encontrado en los datos.");
+            registrarCambioColeccion(CollectionJournal.AGREGAR, name);
+            System.out.println("Pokémon agregado a la colección del usuario.");
+        }
+        metricas.registrar(PokemonMetrics.Operacion.AGREGAR_USUARIO, inicio, asignados);
+    }
+
+    /**
+     * Abre el registro de la colección del usuario en el directorio indicado y recupera la
+     * colección guardada en las sesiones anteriores, en su orden de inserción. Debe llamarse
+     * después de cargar los datos. Los Pokémon que no están en el catálogo quedan pendientes:
+     * no se muestran, pero los checkpoints los conservan (al final de la colección), de modo que
+     * abrir el registro con un CSV anterior o parcial no los pierde.
+     *
+     * La colección no se comparte entre hilos, así que el checkpoint no se escribe en segundo
+     * plano: se escribe al abrir (dejando el registro compactado) y al cerrar.
+     *
+     * @param directorio El directorio del registro.
+     */
+    public void abrirRegistroColeccion(String directorio) {
+        if (pokemonMap.isEmpty()) {
+            // Sin datos se omitirían todos los Pokémon guardados y el checkpoint los perdería
+            System.out.println("No hay datos cargados; la colección del usuario no se guardará.");
+            return;
         }
+        try {
+            registroColeccion = new CollectionJournal(new File(directorio).toPath(), (operacion, usuario, name) -> {
+                if (!USUARIO_LOCAL.equals(usuario)) {
+                    return;
+                }
+                if (operacion == CollectionJournal.QUITAR) {
+                    userCollection.remove(name);
+                    pendientesColeccion.remove(name);
+                } else if (pokemonMap.containsKey(name)) {
+                    userCollection.putIfAbsent(name, pokemonMap.get(name));
+                } else {
+                    pendientesColeccion.add(name);
+                }
+            }, destino -> {
+                for (String name : userCollection.keySet()) {
+                    destino.aplicar(CollectionJournal.AGREGAR, USUARIO_LOCAL, name);
+                }
+                for (String name : pendientesColeccion) {
+                    destino.aplicar(CollectionJournal.AGREGAR, USUARIO_LOCAL, name);
+                }
+            }, Long.MAX_VALUE);
+            registroColeccion.checkpoint();
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("No se pudo abrir el registro de la colección: " + e.getMessage());
+            registroColeccion = null;
+            return;
+        }
+        System.out.println("Colección del usuario recuperada: " + userCollection.size() + " Pokémon"
+                + (pendientesColeccion.isEmpty() ? ""
+                : " (" + pendientesColeccion.size() + " pendientes por no estar en los datos)"));
     }
 
+    /**
+     * Escribe un checkpoint de la colección del usuario y cierra su registro.
+     */
+    public void cerrarRegistroColeccion() {
+        if (registroColeccion == null) {
+            return;
+        }
+        try {
+            registroColeccion.checkpoint();
+            registroColeccion.close();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("No se pudo cerrar el registro de la colección: " + e.getMessage());
+        }
+        registroColeccion = null;
+        pendientesColeccion.clear();
+    }
+
+    /**
+     * Guarda un cambio de la colección del usuario en el registro, si está abierto, y espera a
+     * que quede sincronizado en el disco.
+     */
+    private void registrarCambioColeccion(byte operacion, String name) {
+        if (registroColeccion == null) {
+            return;
+        }
+        try {
+            registroColeccion.esperar(registroColeccion.registrar(operacion, USUARIO_LOCAL, name));
+        } catch (UncheckedIOException | IllegalStateException e) {
+            System.out.println("No se pudo guardar el cambio de la colección: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Resuelve un nombre escrito por el usuario a la clave con la que el Pokémon está guardado.
+     * Si el nombre se corrigió por aproximación, se informa el nombre usado.
+     *
+     * @param name El nombre escrito por el usuario.
+     * @return la clave del Pokémon, o null si no se pudo resolver.
+     */
+    private String resolverNombre(String name) {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        String clave = nameIndex.resolver(name);
+        metricas.registrar(PokemonMetrics.Operacion.BUSQUEDA_NOMBRE, inicio, asignados);
+        if (clave != null && !NameIndex.normalizar(clave).equals(NameIndex.normalizar(name))) {
+            System.out.println("Se usará el Pokémon: " + clave);
+        }
+        return clave;
+    }
+    
+    /**
+     * Muestra los nombres más parecidos al indicado, si los hay.
+     */
+    private void mostrarSugerencias(String name) {
+        List<String> sugerencias = new ArrayList<>();
+        for (NameIndex.Coincidencia c : nameIndex.buscarAproximado(name, 3)) {
+            if (sugerencias.size() == 5) {
+                break;
+            }
+            sugerencias.add(c.getClave());
+        }
+        for (String clave : nameIndex.autocompletar(name, 5)) {
+            if (sugerencias.size() < 5 && !sugerencias.contains(clave)) {
+                sugerencias.add(clave);
+            }
+        }
+        if (!sugerencias.isEmpty()) {
+            System.out.println("¿Quiso decir?: " + String.join(", ", sugerencias));
+        }
+    }
+    
+    /**
+     * Cambia el destino de los listados y búsquedas, por ejemplo a {@link OutputSink#archivo} para
+     * volcar el catálogo a un archivo o a {@link OutputSink#nulo()} para medir sin escribir.
+     *
+     * @param salida El nuevo destino.
+     */
+    public void setSalida(OutputSink salida) {
+        this.salida = salida;
+    }
+    
+    /**
+     * Retorna el destino actual de los listados y búsquedas.
+     *
+     * @return el destino de salida.
+     */
+    public OutputSink getSalida() {
+        return salida;
+    }
+    
+    /**
+     * Retorna las métricas de las operaciones de esta instancia.
+     *
+     * @return las métricas.
+     */
+    public PokemonMetrics getMetricas() {
+        return metricas;
+    }
+    
+    /**
+     * Retorna el índice de nombres de la colección completa.
+     *
+     * @return el índice de nombres.
+     */
+    public NameIndex getNameIndex() {
+        return nameIndex;
+    }
+    
         /**
      * Retorna la colección completa de Pokémon.
      *
@@ -109,6 +634,16 @@ public class PokemonApp {
         return pokemonMap;
     }
 
+    /**
+     * Estima la memoria que ocupa la estructura del mapa de la colección completa,
+     * según la implementación elegida con {@link MapFactory}.
+     *
+     * @return la cantidad aproximada de bytes.
+     */
+    public long estimarMemoriaMapa() {
+        return pokemonMap.estimarMemoriaBytes();
+    }
+
     /**
      * Retorna la colección personalizada del usuario.
      *
@@ -119,40 +654,291 @@ public class PokemonApp {
     }
 
     
+    /**
+     * Retorna todos los Pokémon de la colección completa ordenados por su tipo primario,
+     * sin mostrarlos. El recorrido se hace sobre el índice por tipo y no copia la colección.
+     *
+     * @return un Iterable sobre los Pokémon ordenados por Type1.
+     */
+    public Iterable<Pokemon> getPokemonsOrdenadosPorTipo1() {
+        return typeIndex.ordenadosPorTipo1();
+    }
+    
+    /**
+     * Retorna el motor de enfrentamientos por tipo de la colección completa.
+     *
+     * @return el motor de enfrentamientos.
+     */
+    public MatchupEngine getEnfrentamientos() {
+        return enfrentamientos;
+    }
+    
+    /**
+     * Retorna la caché de resultados de las búsquedas por habilidad y del orden por Type1.
+     *
+     * @return la caché de consultas.
+     */
+    public QueryCache getCache() {
+        return cache;
+    }
+    
+    /**
+     * Retorna el índice por tipo de la colección completa.
+     *
+     * @return el índice por tipo.
+     */
+    TypeIndex getTypeIndex() {
+        return typeIndex;
+    }
+    
+    /**
+     * Busca, sin mostrarlos, los Pokémon que poseen alguna habilidad que contiene el texto indicado.
+     * Las búsquedas repetidas se responden desde la caché de consultas mientras la colección no cambie.
+     *
+     * @param habilidad El texto a buscar dentro de las habilidades (sin distinguir mayúsculas).
+     * @return la lista no modificable de coincidencias, vacía si no hay ninguna.
+     */
+    public List<AbilityIndex.Coincidencia> buscarPorHabilidad(String habilidad) {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        String normalizada = AbilityIndex.normalizar(habilidad);
+        // Las coincidencias son las del índice; la lista solo guarda referencias
+        List<AbilityIndex.Coincidencia> coincidencias = cache.obtener("habilidad:" + normalizada,
+                () -> Collections.unmodifiableList(abilityIndex.buscarPorSubcadena(normalizada)),
+                lista -> 16L + 8L * lista.size());
+        metricas.registrar(PokemonMetrics.Operacion.BUSQUEDA_HABILIDAD, inicio, asignados);
+        return coincidencias;
+    }
+    
+    /**
+     * Busca, sin mostrarlos, los Pokémon que poseen alguna habilidad que contiene el texto indicado,
+     * revisando toda la colección en lugar de usar el índice de habilidades. El recorrido se
+     * reparte entre los hilos del pool común cuando la colección es grande (ver {@link ParallelScanner}).
+     * A diferencia de {@link #buscarPorHabilidad}, las coincidencias quedan en el orden de la colección.
+     *
+     * @param habilidad El texto a buscar dentro de las habilidades (sin distinguir mayúsculas).
+     * @return la lista no modificable de coincidencias, vacía si no hay ninguna.
+     */
+    public List<AbilityIndex.Coincidencia> buscarPorHabilidadEnParalelo(String habilidad) {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        String normalizada = AbilityIndex.normalizar(habilidad);
+        // Cada coincidencia del recorrido es un objeto nuevo (unos 32 bytes con su referencia)
+        List<AbilityIndex.Coincidencia> coincidencias = cache.obtener("habilidad-recorrido:" + normalizada,
+                () -> Collections.unmodifiableList(escaner.buscarPorHabilidad(normalizada)),
+                lista -> 16L + 32L * lista.size());
+        metricas.registrar(PokemonMetrics.Operacion.BUSQUEDA_HABILIDAD, inicio, asignados);
+        return coincidencias;
+    }
+    
+    /**
+     * Retorna los Pokémon de la colección completa que cumplen una condición cualquiera, en el
+     * orden de la colección. Sirve para las condiciones que el motor de consultas no indexa; la
+     * colección se recorre en paralelo cuando es grande.
+     *
+     * @param condicion La condición; debe poder evaluarse desde varios hilos a la vez.
+     * @return la lista de Pokémon que la cumplen.
+     */
+    public List<Pokemon> filtrar(java.util.function.Predicate<? super Pokemon> condicion) {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        List<Pokemon> resultado = escaner.filtrar(condicion);
+        metricas.registrar(PokemonMetrics.Operacion.CONSULTA, inicio, asignados);
+        return resultado;
+    }
+    
+    /**
+     * Retorna una copia de la colección completa ordenada por tipo primario, ordenada con
+     * Arrays.parallelSort cuando la colección es grande. Dentro de un mismo tipo se conserva el
+     * orden en que el Map elegido entrega los Pokémon. El orden se guarda en la caché de
+     * consultas, por lo que mientras la colección no cambie solo se copia el arreglo.
+     *
+     * @return un arreglo nuevo con los Pokémon ordenados por Type1.
+     */
+    public Pokemon[] ordenarPorTipo1() {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        Pokemon[] ordenados = cache.obtener("orden:tipo1", escaner::ordenarPorTipo1, arreglo -> 16L + 8L * arreglo.length).clone();
+        metricas.registrar(PokemonMetrics.Operacion.LISTADO_TIPO1, inicio, asignados);
+        return ordenados;
+    }
+    
+    /**
+     * Ejecuta una consulta por varios atributos sobre la colección completa, sin mostrar los resultados.
+     *
+     * @param consulta La consulta a ejecutar.
+     * @return el resultado con los Pokémon, la cantidad, el plan elegido y los tiempos.
+     */
+    public QueryResult consultar(PokemonQuery consulta) {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        QueryResult resultado = queryEngine.consultar(consulta);
+        metricas.registrar(PokemonMetrics.Operacion.CONSULTA, inicio, asignados);
+        return resultado;
+    }
+    
+    /**
+     * Cuenta los Pokémon que cumplen una consulta, sin construir la lista de resultados.
+     *
+     * @param consulta La consulta a ejecutar.
+     * @return el resultado con la cantidad, el plan elegido y los tiempos.
+     */
+    public QueryResult contar(PokemonQuery consulta) {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        QueryResult resultado = queryEngine.contar(consulta);
+        metricas.registrar(PokemonMetrics.Operacion.CONSULTA, inicio, asignados);
+        return resultado;
+    }
+    
+    /**
+     * Entrega al consumidor, de menor a mayor, los Pokémon cuya altura o peso está en el rango
+     * indicado, en O(log N + k) sobre la columna ordenada del motor de consultas.
+     *
+     * @param atributo El atributo (altura o peso).
+     * @param min      El valor mínimo (incluido).
+     * @param max      El valor máximo (incluido).
+     * @param destino  Quien recibe cada Pokémon junto con el valor de su atributo.
+     * @return la cantidad de Pokémon entregados.
+     */
+    public int recorrerRango(PokemonQueryEngine.Atributo atributo, double min, double max,
+                             java.util.function.ObjDoubleConsumer<Pokemon> destino) {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        int cantidad = queryEngine.recorrerRango(atributo, min, max, destino);
+        metricas.registrar(PokemonMetrics.Operacion.CONSULTA, inicio, asignados);
+        return cantidad;
+    }
+    
+    /**
+     * Entrega al consumidor los k Pokémon de mayor (o menor) altura o peso, del más extremo al
+     * menos extremo, sin ordenar la colección completa.
+     *
+     * @param atributo El atributo (altura o peso).
+     * @param k        La cantidad de Pokémon.
+     * @param mayores  true para los de mayor valor; false para los de menor valor.
+     * @param destino  Quien recibe cada Pokémon junto con el valor de su atributo.
+     * @return la cantidad de Pokémon entregados.
+     */
+    public int extremos(PokemonQueryEngine.Atributo atributo, int k, boolean mayores,
+                        java.util.function.ObjDoubleConsumer<Pokemon> destino) {
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        int cantidad = queryEngine.extremos(atributo, k, mayores, destino);
+        metricas.registrar(PokemonMetrics.Operacion.CONSULTA, inicio, asignados);
+        return cantidad;
+    }
+    
+    /**
+     * Muestra los k Pokémon de mayor (o menor) altura o peso, con su valor.
+     *
+     * @param atributo El atributo (altura o peso).
+     * @param k        La cantidad de Pokémon.
+     * @param mayores  true para los de mayor valor; false para los de menor valor.
+     */
+    public void mostrarExtremos(PokemonQueryEngine.Atributo atributo, int k, boolean mayores) {
+        String etiqueta = atributo == PokemonQueryEngine.Atributo.ALTURA ? " - Altura: " : " - Peso: ";
+        int cantidad = extremos(atributo, k, mayores,
+                (p, valor) -> salida.append("Nombre: ").append(p.getName()).append(etiqueta).append(valor).nuevaLinea());
+        salida.flush();
+        if (cantidad == 0) {
+            System.out.println("No hay datos de Pokémon cargados.");
+        }
+    }
+    
+    /**
+     * Muestra los Pokémon que cumplen la consulta escrita en texto (ver {@link PokemonQuery#parse(String)}),
+     * seguidos de la cantidad, el plan elegido y los tiempos.
+     *
+     * @param texto La consulta, por ejemplo "tipo=Water, generacion=3, peso>100".
+     */
+    public void mostrarConsulta(String texto) {
+        PokemonQuery consulta;
+        try {
+            consulta = PokemonQuery.parse(texto);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+        QueryResult resultado = consultar(consulta);
+        for (Pokemon p : resultado.getPokemons()) {
+            salida.append("Nombre: ").append(p.getName()).append(" - Type1: ").append(p.getType1())
+                    .append(" - Type2: ").append(p.getType2()).append(" - Generación: ").append(p.getGeneration())
+                    .append(" - Peso: ").append(p.getWeight()).nuevaLinea();
+        }
+        salida.linea(resultado.toString());
+        salida.flush();
+    }
+    
+    /**
+     * Retorna los índices de mapas de bits de la colección completa, para combinar conjuntos
+     * y contar por faceta.
+     *
+     * @return el índice de facetas.
+     */
+    public FacetIndex getFacetIndex() {
+        return facetIndex;
+    }
+    
+    /**
+     * Muestra cuántos Pokémon hay por generación, por legendario y por tipo primario, entre los
+     * que tienen el tipo indicado (como Type1 o Type2) o entre todos si el tipo está vacío.
+     *
+     * @param tipo El tipo por el que se filtra, o una cadena vacía para no filtrar.
+     */
+    public void mostrarFacetas(String tipo) {
+        CompressedBitmap filtro = tipo.isEmpty() ? facetIndex.todos() : facetIndex.tipo(tipo);
+        if (filtro.isEmpty()) {
+            System.out.println("No se encontraron Pokémon del tipo: " + tipo);
+            return;
+        }
+        FacetIndex.Facetas facetas = facetIndex.facetar(filtro);
+        System.out.println("Total: " + filtro.cardinality());
+        System.out.println("Por generación: " + facetas.getPorGeneracion());
+        System.out.println("Legendarios: " + facetas.getPorLegendario().get(true)
+                + " - No legendarios: " + facetas.getPorLegendario().get(false));
+        System.out.println("Por Type1: " + facetas.getPorTipo1());
+    }
+    
     /**
      * Muestra los datos completos de un Pokémon buscado por nombre.
      *
      * @param name El nombre del Pokémon.
      */
     public void mostrarDatosPokemon(String name) {
-        Pokemon p = pokemonMap.get(name);
+        String clave = resolverNombre(name);
+        Pokemon p = clave == null ? null : pokemonMap.get(clave);
         if (p != null) {
             System.out.println(p);
         } else {
             System.out.println("Error: Pokémon no encontrado.");
+            mostrarSugerencias(name);
         }
     }
     
     /**
      * Muestra el nombre y el tipo primario (Type1) de los Pokémon en la colección personalizada del usuario,
-     * ordenados por su tipo primario.
+     * ordenados por su tipo primario. El orden se obtiene del índice por tipo de la colección.
      */
     public void mostrarColeccionUsuarioOrdenadaPorTipo1() {
         if (userCollection.isEmpty()) {
             System.out.println("La colección del usuario está vacía.");
             return;
         }
-        List<Pokemon> lista = new ArrayList<>(userCollection.values());
-        lista.sort(Comparator.comparing(Pokemon::getType1));
-        System.out.println("Pokémon en la colección del usuario (ordenados por Type1):");
-        for (Pokemon p : lista) {
-            System.out.println("Nombre: " + p.getName() + " - Type1: " + p.getType1());
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        salida.linea("Pokémon en la colección del usuario (ordenados por Type1):");
+        for (Pokemon p : userTypeIndex.ordenadosPorTipo1()) {
+            salida.append("Nombre: ").append(p.getName()).append(" - Type1: ").append(p.getType1()).nuevaLinea();
         }
+        salida.flush();
+        metricas.registrar(PokemonMetrics.Operacion.LISTADO_TIPO1, inicio, asignados);
     }
     
     /**
      * Muestra el nombre y el tipo primario (Type1) de todos los Pokémon (de la colección completa)
      * ordenados por su tipo primario. Además, mide y muestra el tiempo de ejecución de la operación.
+     * Los Pokémon se recorren desde el índice por tipo, que ya está ordenado, en lugar de ordenarlos en cada llamada.
      */
     public void mostrarTodosPokemonsOrdenadosPorTipo1() {
         if (pokemonMap.isEmpty()) {
@@ -160,44 +946,130 @@ public class PokemonApp {
             return;
         }
         
-        // Medir el tiempo de ejecución en nanosegundos
+        // Medir el tiempo de ejecución en nanosegundos; el tiempo de escritura lo acumula el destino
         long startTime = System.nanoTime();
+        long asignados = metricas.asignados();
+        long salidaAntes = salida.getNanosSalida();
         
-        List<Pokemon> lista = new ArrayList<>(pokemonMap.values());
-        lista.sort(Comparator.comparing(Pokemon::getType1));
-        
-        System.out.println("Todos los Pokémon (ordenados por Type1):");
-        for (Pokemon p : lista) {
-            System.out.println("Nombre: " + p.getName() + " - Type1: " + p.getType1());
+        salida.linea("Todos los Pokémon (ordenados por Type1):");
+        for (Pokemon p : getPokemonsOrdenadosPorTipo1()) {
+            salida.append("Nombre: ").append(p.getName()).append(" - Type1: ").append(p.getType1()).nuevaLinea();
         }
+        salida.flush();
         
         long endTime = System.nanoTime();
+        metricas.registrar(PokemonMetrics.Operacion.LISTADO_TIPO1, startTime, asignados);
         long tiempo = endTime - startTime;
-        System.out.println("Tiempo de ejecución: " + (tiempo / 1_000_000.0) + " ms");
+        long tiempoSalida = salida.getNanosSalida() - salidaAntes;
+        System.out.println("Tiempo de ejecución: " + (tiempo / 1_000_000.0) + " ms (cálculo: "
+                + ((tiempo - tiempoSalida) / 1_000_000.0) + " ms, salida: " + (tiempoSalida / 1_000_000.0) + " ms)");
+    }
+    
+    /**
+     * Muestra el nombre de los Pokémon cuyo tipo primario o secundario es el indicado.
+     * Se consulta el índice por tipo, por lo que el costo es proporcional a la cantidad de resultados.
+     *
+     * @param tipo El tipo a buscar (sin distinguir mayúsculas o minúsculas).
+     */
+    public void mostrarPokemonsPorTipo(String tipo) {
+        Collection<Pokemon> primarios = typeIndex.getPorTipo1(tipo);
+        Collection<Pokemon> secundarios = typeIndex.getPorTipo2(tipo);
+        if (primarios.isEmpty() && secundarios.isEmpty()) {
+            System.out.println("No se encontraron Pokémon del tipo: " + tipo);
+            return;
+        }
+        salida.append("Pokémon con Type1 ").append(tipo).append(": ").append(primarios.size()).nuevaLinea();
+        for (Pokemon p : primarios) {
+            salida.append("Nombre: ").append(p.getName()).append(" - Type2: ").append(p.getType2()).nuevaLinea();
+        }
+        salida.append("Pokémon con Type2 ").append(tipo).append(": ").append(secundarios.size()).nuevaLinea();
+        for (Pokemon p : secundarios) {
+            salida.append("Nombre: ").append(p.getName()).append(" - Type1: ").append(p.getType1()).nuevaLinea();
+        }
+        salida.flush();
     }
     
     /**
      * Muestra los nombres de los Pokémon que poseen la habilidad indicada.
      * Se busca la habilidad en cada una de las habilidades del Pokémon sin distinguir mayúsculas o minúsculas.
+     * La búsqueda se resuelve con el índice de habilidades, sin recorrer toda la colección.
      *
      * @param habilidad La habilidad a buscar.
      */
     public void mostrarPokemonsPorHabilidad(String habilidad) {
-        boolean encontrado = false;
-        for (Pokemon p : pokemonMap.values()) {
-            for (String abil : p.getAbilities()) {
-                if (abil.toLowerCase().contains(habilidad.toLowerCase())) {
-                    System.out.println("Nombre: " + p.getName() + " - Habilidad: " + abil);
-                    encontrado = true;
-                    break;
-                }
-            }
+        List<AbilityIndex.Coincidencia> coincidencias = buscarPorHabilidad(habilidad);
+        for (AbilityIndex.Coincidencia c : coincidencias) {
+            salida.append("Nombre: ").append(c.getPokemon().getName()).append(" - Habilidad: ").append(c.getHabilidad()).nuevaLinea();
         }
-        if (!encontrado) {
+        salida.flush();
+        if (coincidencias.isEmpty()) {
             System.out.println("No se encontraron Pokémon con la habilidad: " + habilidad);
         }
     }
     
+    /**
+     * Muestra los Pokémon que mejor enfrentan al indicado según sus tipos, entre todos los
+     * cargados y entre los de la colección del usuario.
+     *
+     * @param name El nombre del Pokémon rival.
+     * @param k    La cantidad de Pokémon a mostrar en cada lista.
+     */
+    public void mostrarMejoresContra(String name, int k) {
+        String clave = resolverNombre(name);
+        if (clave == null) {
+            System.out.println("Error: Pokémon no encontrado.");
+            mostrarSugerencias(name);
+            return;
+        }
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        salida.linea("Mejores Pokémon contra " + clave + ":");
+        escribirEnfrentamientos(enfrentamientos.mejoresContra(clave, k, null));
+        if (!userCollection.isEmpty()) {
+            salida.linea("Mejores de la colección del usuario:");
+            escribirEnfrentamientos(enfrentamientos.mejoresContra(clave, k, userCollection.keySet()));
+        }
+        salida.flush();
+        metricas.registrar(PokemonMetrics.Operacion.ENFRENTAMIENTOS, inicio, asignados);
+    }
+    
+    private void escribirEnfrentamientos(List<MatchupEngine.Enfrentamiento> lista) {
+        for (MatchupEngine.Enfrentamiento e : lista) {
+            salida.append("Nombre: ").append(e.getPokemon().getName())
+                    .append(" - Ataque: x").append(e.getMultiplicadorAtaque())
+                    .append(" - Recibe: x").append(e.getMultiplicadorRecibido())
+                    .append(" - Puntaje: ").append(e.getPuntaje()).nuevaLinea();
+        }
+    }
+    
+    /**
+     * Analiza la colección del usuario como equipo (debilidades por tipo y cobertura) y muestra
+     * el mejor equipo de 6 que se puede formar con ella.
+     *
+     * @param maxLegendarios La cantidad máxima de legendarios del equipo propuesto.
+     */
+    public void mostrarAnalisisEquipo(int maxLegendarios) {
+        if (userCollection.isEmpty()) {
+            System.out.println("La colección del usuario está vacía.");
+            return;
+        }
+        long inicio = metricas.inicio();
+        long asignados = metricas.asignados();
+        enfrentamientos.analizar(userCollection.keySet()).escribir(salida);
+        int tamano = Math.min(6, userCollection.size());
+        MatchupEngine.Equipo equipo = enfrentamientos.mejorEquipo(userCollection.keySet(),
+                MatchupEngine.Restricciones.builder().tamano(tamano).maxLegendarios(maxLegendarios).build());
+        if (equipo == null) {
+            salida.linea("No se puede formar un equipo de " + tamano + " con esas restricciones.");
+        } else {
+            salida.linea("Mejor equipo de " + tamano + " (" + equipo.getCombinaciones()
+                    + " combinaciones de " + equipo.getCandidatos() + " candidatos):");
+            equipo.getAnalisis().escribir(salida);
+        }
+        salida.flush();
+        metricas.registrar(PokemonMetrics.Operacion.ENFRENTAMIENTOS, inicio, asignados);
+    }
+    
     /**
      * Inicia el menú interactivo que permite al usuario ejecutar las diferentes operaciones.
      *
@@ -205,14 +1077,22 @@ public class PokemonApp {
      */
     public void iniciarMenu(Scanner sc) {
         int opcion = 0;
-        while (opcion != 7) {
+        while (opcion != 13) {
+            aplicarRecargasPendientes();
             System.out.println("\nMenú de Opciones:");
             System.out.println("1. Agregar Pokémon a la colección del usuario");
             System.out.println("2. Mostrar los datos de un Pokémon");
             System.out.println("3. Mostrar la colección del usuario (nombre y Type1) ordenados por Type1");
             System.out.println("4. Mostrar todos los Pokémon (nombre y Type1) ordenados por Type1");
             System.out.println("5. Mostrar Pokémon por habilidad");
-            System.out.println("7. Salir");
+            System.out.println("6. Mostrar Pokémon de un tipo");
+            System.out.println("7. Consulta por varios atributos");
+            System.out.println("8. Resumen por generación, legendario y tipo");
+            System.out.println("9. Mostrar métricas de las operaciones");
+            System.out.println("10. Estadísticas de un archivo CSV sin cargarlo");
+            System.out.println("11. Mejores Pokémon contra un rival");
+            System.out.println("12. Analizar la colección del usuario como equipo");
+            System.out.println("13. Salir");
             System.out.print("Ingrese una opción: ");
             try {
                 opcion = Integer.parseInt(sc.nextLine());
@@ -224,19 +1104,13 @@ public class PokemonApp {
             switch(opcion) {
                 case 1:
                     System.out.print("Ingrese el nombre del Pokémon a agregar: ");
-                    String nameAgregar = sc.nextLine();
-                    if (!nameAgregar.isEmpty()) {
-                        // Forzar formato: primera letra mayúscula y el resto en minúsculas
-                        nameAgregar = nameAgregar.substring(0, 1).toUpperCase() + nameAgregar.substring(1).toLowerCase();
-                    }
+                    // El índice de nombres ignora mayúsculas, espacios y puntuación
+                    String nameAgregar = sc.nextLine().trim();
                     agregarPokemonAUsuario(nameAgregar);
                     break;
                 case 2:
                     System.out.print("Ingrese el nombre del Pokémon para mostrar sus datos: ");
-                    String nameMostrar = sc.nextLine();
-                    if (!nameMostrar.isEmpty()) {
-                        nameMostrar = nameMostrar.substring(0, 1).toUpperCase() + nameMostrar.substring(1).toLowerCase();
-                    }
+                    String nameMostrar = sc.nextLine().trim();
                     mostrarDatosPokemon(nameMostrar);
                     break;
                 case 3:
@@ -250,7 +1124,43 @@ public class PokemonApp {
                     String habilidad = sc.nextLine().trim();
                     mostrarPokemonsPorHabilidad(habilidad);
                     break;
+                case 6:
+                    System.out.print("Ingrese el tipo a buscar: ");
+                    String tipo = sc.nextLine().trim();
+                    mostrarPokemonsPorTipo(tipo);
+                    break;
                 case 7:
+                    System.out.println("Campos: nombre, tipo, tipo1, tipo2, clasificacion, habilidad, generacion, legendario, altura, peso, pokedex");
+                    System.out.print("Ingrese la consulta (por ejemplo: tipo=Water, generacion=3, peso>100): ");
+                    mostrarConsulta(sc.nextLine());
+                    break;
+                case 8:
+                    System.out.print("Ingrese un tipo para filtrar (vacío para todos): ");
+                    mostrarFacetas(sc.nextLine().trim());
+                    break;
+                case 9:
+                    System.out.print(metricas.getResumenTexto());
+                    System.out.println(cache);
+                    break;
+                case 10:
+                    System.out.print("Ingrese la ruta del archivo CSV: ");
+                    analizarCsv(sc.nextLine().trim());
+                    break;
+                case 11:
+                    System.out.print("Ingrese el nombre del Pokémon rival: ");
+                    mostrarMejoresContra(sc.nextLine().trim(), 5);
+                    break;
+                case 12:
+                    System.out.print("Máximo de legendarios en el equipo (vacío para sin límite): ");
+                    String limite = sc.nextLine().trim();
+                    try {
+                        mostrarAnalisisEquipo(limite.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(limite));
+                    } catch (NumberFormatException e) {
+                        System.out.println("Límite inválido. Ingrese un número.");
+                    }
+                    break;
+                case 13:
+                    cerrarRegistroColeccion();
                     break;
                 default:
                     System.out.println("Opción no reconocida.");
@@ -271,10 +1181,16 @@ public class PokemonApp {
         System.out.println("1. HashMap");
         System.out.println("2. TreeMap");
         System.out.println("3. LinkedHashMap");
+        System.out.println("4. Direccionamiento abierto (sin nodos por entrada)");
+        System.out.println("5. ConcurrentHashMap");
+        System.out.println("6. Fuera del heap (ByteBuffer directo)");
         int opcionMap;
         try {
             opcionMap = Integer.parseInt(sc.nextLine());
         } catch (NumberFormatException e) {
+            opcionMap = 0;
+        }
+        if (opcionMap < 1 || opcionMap > 6) {
             System.out.println("Opción inválida. Se selecciona por defecto HashMap.");
             opcionMap = 1;
         }
@@ -282,7 +1198,18 @@ public class PokemonApp {
         
         // Definir la ruta completa del archivo CSV (ajustar según la ubicación)
         String filePath = "C:\\Users\\dquan\\OneDrive\\Documentos\\Diego Quan\\UVG\\Ciclo 3\\Algoritmos y Estructura de datos\\Hoja de trabajo 6\\HDT-6\\pokemon_data_pokeapi.csv";
-        app.loadData(filePath);
+        // Se usa la instantánea binaria si está vigente; si no, se lee el CSV y se genera la instantánea
+        app.cargarDatos(filePath);
+        // La colección del usuario se recupera de las sesiones anteriores
+        app.abrirRegistroColeccion(CollectionJournal.rutaPara(new File(filePath).toPath()).toString());
+        // Los cambios posteriores del CSV se aplican de forma incremental
+        app.vigilarArchivo(filePath);
+        try {
+            app.getMetricas().registrarJmx("principal");
+        } catch (javax.management.JMException e) {
+            System.out.println("No se pudieron publicar las métricas por JMX: " + e.getMessage());
+        }
+        System.out.println("Memoria estimada del mapa: " + (app.estimarMemoriaMapa() / 1024) + " KB");
         
         // Iniciar el menú interactivo pasando el Scanner
         app.iniciarMenu(sc);
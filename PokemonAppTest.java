@@ -1,3 +1,4 @@
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -56,14 +57,14 @@ public class PokemonAppTest {
         // Redirigir la salida estándar para capturarla.
         ByteArrayOutputStream outContent = new ByteArrayOutputStream();
         PrintStream originalOut = System.out;
-        System.setOut(new PrintStream(outContent));
+        System.setOut(new PrintStream(outContent, true, UTF_8));
         
         // Invocar la operación para mostrar los datos de "Squirtle".
         app.mostrarDatosPokemon("Squirtle");
         
         // Restaurar la salida estándar.
         System.setOut(originalOut);
-        String salida = outContent.toString();
+        String salida = outContent.toString(UTF_8);
         
         // Verificar que la salida contenga el nombre "Squirtle" y alguna de sus habilidades.
         assertTrue(salida.contains("Squirtle"));
@@ -79,17 +80,945 @@ public class PokemonAppTest {
         // Redirigir la salida estándar para capturarla.
         ByteArrayOutputStream outContent = new ByteArrayOutputStream();
         PrintStream originalOut = System.out;
-        System.setOut(new PrintStream(outContent));
+        System.setOut(new PrintStream(outContent, true, UTF_8));
         
         // Buscar por la habilidad "Blaze" (se espera encontrar a Charmander).
         app.mostrarPokemonsPorHabilidad("Blaze");
         
         // Restaurar la salida estándar.
         System.setOut(originalOut);
-        String salida = outContent.toString();
+        String salida = outContent.toString(UTF_8);
         
         // Verificar que la salida contenga "Charmander" y "Blaze".
         assertTrue(salida.contains("Charmander"));
         assertTrue(salida.contains("Blaze"));
     }
+    
+    /**
+     * Prueba que el índice de habilidades se mantenga sincronizado con el mapa.
+     * Los Pokémon agregados o eliminados directamente en getPokemonMap() deben reflejarse en la búsqueda.
+     */
+    @Test
+    public void testIndiceHabilidadesSincronizado() {
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent, true, UTF_8));
+        
+        // Búsqueda por subcadena sin distinguir mayúsculas ("LAZ" está en "Blaze").
+        app.mostrarPokemonsPorHabilidad("LAZ");
+        // Al eliminar a Charmander del mapa ya no debe encontrarse.
+        app.getPokemonMap().remove("Charmander");
+        app.mostrarPokemonsPorHabilidad("Blaze");
+        
+        System.setOut(originalOut);
+        String[] lineas = outContent.toString(UTF_8).split(System.lineSeparator());
+        
+        assertTrue(lineas[0].contains("Charmander"));
+        assertTrue(lineas[1].contains("No se encontraron Pokémon con la habilidad: Blaze"));
+    }
+    
+    /**
+     * Prueba que la colección del usuario se muestre ordenada por Type1 sin importar el orden de inserción.
+     */
+    @Test
+    public void testColeccionUsuarioOrdenadaPorTipo1() {
+        app.agregarPokemonAUsuario("Squirtle");
+        app.agregarPokemonAUsuario("Charmander");
+        
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent, true, UTF_8));
+        
+        app.mostrarColeccionUsuarioOrdenadaPorTipo1();
+        
+        System.setOut(originalOut);
+        String salida = outContent.toString(UTF_8);
+        
+        // "Fire" va antes que "Water", por lo que Charmander debe aparecer primero.
+        assertTrue(salida.indexOf("Charmander") < salida.indexOf("Squirtle"));
+    }
+    
+    /**
+     * Prueba que las implementaciones adicionales de MapFactory (4, 5 y 6) funcionen con la aplicación.
+     */
+    @Test
+    public void testImplementacionesAdicionalesDeMap() {
+        for (int opcion = 4; opcion <= 6; opcion++) {
+            PokemonApp otraApp = new PokemonApp(opcion);
+            Pokemon pikachu = new Pokemon("Pikachu", 25, "Electric", "", "Mouse", 0.4, 6.0, "Static;Lightning Rod", 1, false);
+            otraApp.getPokemonMap().put(pikachu.getName(), pikachu);
+            
+            assertEquals(1, otraApp.getPokemonMap().size());
+            assertEquals(25, otraApp.getPokemonMap().get("Pikachu").getPokedexNumber());
+            assertEquals(2, otraApp.getPokemonMap().get("Pikachu").getAbilities().size());
+            assertTrue(otraApp.estimarMemoriaMapa() > 0);
+            
+            otraApp.agregarPokemonAUsuario("Pikachu");
+            assertTrue(otraApp.getUserCollection().containsKey("Pikachu"));
+            
+            otraApp.getPokemonMap().remove("Pikachu");
+            assertFalse(otraApp.getPokemonMap().containsKey("Pikachu"));
+            
+            // La clave puede diferir del nombre del Pokémon; ambos se conservan
+            java.util.Map<String, Pokemon> mapa = MapFactory.getMap(opcion);
+            mapa.put("mr-mime", new Pokemon("Mr. Mime", 122, "Psychic", "Fairy", "Barrier", 1.3, 54.5, "Soundproof", 1, false));
+            mapa.put("Pikachu", pikachu);
+            assertEquals("Mr. Mime", mapa.get("mr-mime").getName());
+            java.util.Map<String, String> nombres = new java.util.TreeMap<>();
+            for (java.util.Map.Entry<String, Pokemon> e : mapa.entrySet()) {
+                nombres.put(e.getKey(), e.getValue().getName());
+            }
+            assertEquals("{Pikachu=Pikachu, mr-mime=Mr. Mime}", nombres.toString());
+        }
+    }
+    
+    /**
+     * Prueba que la instantánea binaria conserve todos los atributos y se descarte si el CSV cambia.
+     */
+    @Test
+    public void testInstantaneaBinaria() throws Exception {
+        java.nio.file.Path csv = java.nio.file.Files.createTempFile("pokemon", ".csv");
+        java.nio.file.Path snapshot = PokemonSnapshot.rutaPara(csv);
+        try {
+            java.nio.file.Files.write(csv, "Name,Pokedex\n".getBytes("UTF-8"));
+            // Una generación mayor que 127 no debe truncarse
+            app.getPokemonMap().put("Nuevo", new Pokemon("Nuevo", 2000, "Normal", "", "Test", 1.0, 1.0, "Run Away", 200, false));
+            PokemonSnapshot.escribir(snapshot, csv, app.getPokemonMap().values());
+            
+            PokemonApp otraApp = new PokemonApp(1);
+            assertTrue(PokemonSnapshot.cargar(snapshot, csv, otraApp.getPokemonMap()));
+            Pokemon charmander = otraApp.getPokemonMap().get("Charmander");
+            assertEquals(app.getPokemonMap().get("Charmander").toString(), charmander.toString());
+            assertEquals(1, otraApp.buscarPorHabilidad("Blaze").size());
+            assertEquals(200, otraApp.getPokemonMap().get("Nuevo").getGeneration());
+            
+            // CSV tocado sin cambios: se acepta por el CRC y el encabezado guarda la fecha nueva
+            java.nio.file.attribute.FileTime tocado = java.nio.file.attribute.FileTime.fromMillis(
+                    java.nio.file.Files.getLastModifiedTime(csv).toMillis() + 60_000);
+            java.nio.file.Files.setLastModifiedTime(csv, tocado);
+            assertTrue(PokemonSnapshot.cargar(snapshot, csv, new PokemonApp(1).getPokemonMap()));
+            try (java.io.DataInputStream in = new java.io.DataInputStream(java.nio.file.Files.newInputStream(snapshot))) {
+                in.skipBytes(8);
+                assertEquals(tocado.toMillis(), in.readLong());
+            }
+            
+            java.nio.file.Files.write(csv, "Name,Pokedex,Type1\n".getBytes("UTF-8"));
+            assertFalse(PokemonSnapshot.cargar(snapshot, csv, new PokemonApp(1).getPokemonMap()));
+        } finally {
+            java.nio.file.Files.deleteIfExists(snapshot);
+            java.nio.file.Files.deleteIfExists(csv);
+        }
+    }
+    
+    /**
+     * Prueba que el motor de consultas combine condiciones y se mantenga sincronizado con pokemonMap.
+     */
+    @Test
+    public void testConsultaPorVariosAtributos() {
+        QueryResult agua = app.consultar(PokemonQuery.parse("tipo=water, generacion=1, peso>=9"));
+        assertEquals(1, agua.getCantidad());
+        assertEquals("Squirtle", agua.getPokemons().get(0).getName());
+        
+        PokemonQuery livianos = PokemonQuery.builder().alturaEntre(0, 0.6).legendario(false).build();
+        assertEquals(2, app.contar(livianos).getCantidad());
+        assertTrue(app.contar(livianos).getPokemons().isEmpty());
+        
+        app.getPokemonMap().remove("Charmander");
+        assertEquals(1, app.contar(livianos).getCantidad());
+        assertEquals(0, app.contar(PokemonQuery.parse("tipo1=Fire")).getCantidad());
+        assertThrows(IllegalArgumentException.class, () -> PokemonQuery.parse("peso=pesado"));
+    }
+    
+    /**
+     * Prueba la composición de mapas de bits y los conteos por faceta del índice de facetas.
+     */
+    @Test
+    public void testFacetasConMapasDeBits() {
+        Pokemon moltres = new Pokemon("Moltres", 146, "Fire", "Flying", "Flame", 2.0, 60.0, "Pressure;Flame Body", 1, true);
+        app.getPokemonMap().put(moltres.getName(), moltres);
+        FacetIndex facetas = app.getFacetIndex();
+        
+        CompressedBitmap fuego = facetas.tipo1("fire");
+        assertEquals(2, fuego.cardinality());
+        assertEquals(1, fuego.andCardinality(facetas.legendario(true)));
+        assertEquals(1, facetas.negar(fuego).cardinality());
+        assertEquals(3, fuego.or(facetas.tipo1("Water")).cardinality());
+        assertEquals("Charmander", facetas.pokemons(fuego.andNot(facetas.tipo2("Flying"))).get(0).getName());
+        
+        FacetIndex.Facetas conteos = facetas.facetar(facetas.generacion(1));
+        assertEquals(Integer.valueOf(2), conteos.getPorTipo1().get("Fire"));
+        assertEquals(Integer.valueOf(1), conteos.getPorLegendario().get(true));
+        assertEquals(Integer.valueOf(3), conteos.getPorGeneracion().get(1));
+        
+        app.getPokemonMap().remove("Moltres");
+        assertEquals(1, facetas.tipo1("Fire").cardinality());
+        assertTrue(facetas.legendario(true).isEmpty());
+    }
+    
+    /**
+     * Prueba que los contenedores de los mapas de bits pasen de arreglo a mapa de bits y de vuelta
+     * al cruzar los 4096 elementos, en agregar, quitar y las operaciones entre conjuntos, y que el
+     * planificador de consultas dé el mismo resultado que el recorrido con conjuntos así de grandes.
+     */
+    @Test
+    public void testMapasDeBitsCruzanUmbralDeContenedor() {
+        java.util.Random azar = new java.util.Random(11);
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        java.util.BitSet esperadoA = new java.util.BitSet();
+        java.util.BitSet esperadoB = new java.util.BitSet();
+        // Dos grupos de 65536: en el primero se superan los 4096 elementos, el segundo queda disperso
+        for (int i = 0; i < 6000; i++) {
+            int x = azar.nextInt(20000);
+            a.add(x);
+            esperadoA.set(x);
+            int y = azar.nextInt(20000);
+            b.add(y);
+            esperadoB.set(y);
+        }
+        a.add(70000);
+        esperadoA.set(70000);
+        assertTrue(esperadoA.cardinality() > 4096);
+        assertEquals(esperadoA.cardinality(), a.cardinality());
+        assertArrayEquals(esperadoA.toLongArray(), a.toLongArray());
+        
+        // and y andNot de dos contenedores grandes dejan menos de 4096 y vuelven a ser arreglos
+        java.util.BitSet interseccion = (java.util.BitSet) esperadoA.clone();
+        interseccion.and(esperadoB);
+        assertTrue(interseccion.cardinality() < 4096);
+        assertArrayEquals(interseccion.stream().toArray(), a.and(b).toArray());
+        assertEquals(interseccion.cardinality(), a.andCardinality(b));
+        java.util.BitSet diferencia = (java.util.BitSet) esperadoA.clone();
+        diferencia.andNot(esperadoB);
+        assertArrayEquals(diferencia.stream().toArray(), a.andNot(b).toArray());
+        java.util.BitSet union = (java.util.BitSet) esperadoA.clone();
+        union.or(esperadoB);
+        assertArrayEquals(union.stream().toArray(), a.or(b).toArray());
+        
+        // Al quitar elementos el contenedor vuelve a arreglo sin perder ninguno
+        for (int x = 0; x < 15000; x++) {
+            a.remove(x);
+            esperadoA.clear(x);
+        }
+        assertTrue(esperadoA.cardinality() < 4096);
+        assertArrayEquals(esperadoA.stream().toArray(), a.toArray());
+        assertTrue(a.contains(70000));
+        
+        // El planificador usa los mismos mapas de bits que las facetas
+        app.getPokemonMap().clear();
+        int hielo = 0;
+        for (int i = 0; i < 6000; i++) {
+            String tipo = i % 8 == 0 ? "Ice" : "Normal";
+            boolean legendario = i % 3 == 0;
+            app.getPokemonMap().put("P" + i, new Pokemon("P" + i, i, tipo, "", "Test", 1.0, i % 100, "Run Away", 1, legendario));
+            if (tipo.equals("Ice") && !legendario && i % 100 < 50) {
+                hielo++;
+            }
+        }
+        QueryResult r = app.contar(PokemonQuery.parse("tipo1=ice, legendario=no, peso<50"));
+        assertTrue(r.getPlan().startsWith("índices:"), r.getPlan());
+        assertEquals(hielo, r.getCantidad());
+        assertEquals(6000 - 750, app.getFacetIndex().facetar(app.getFacetIndex().todos()).getPorTipo1().get("Normal").intValue());
+        assertEquals(4000, app.contar(PokemonQuery.parse("legendario=no")).getCantidad());
+    }
+    
+    /**
+     * Prueba que los nombres se resuelvan sin distinguir mayúsculas ni puntuación y con errores de escritura.
+     */
+    @Test
+    public void testIndiceDeNombres() {
+        Pokemon mrMime = new Pokemon("Mr-mime", 122, "Psychic", "Fairy", "Barrier", 1.3, 54.5, "Soundproof;Filter", 1, false);
+        app.getPokemonMap().put(mrMime.getName(), mrMime);
+        NameIndex nombres = app.getNameIndex();
+        
+        assertEquals("Mr-mime", nombres.resolver("Mr. Mime"));
+        assertEquals("Squirtle", nombres.resolver("SQUIRTLE"));
+        assertEquals("Charmander", nombres.resolver("charmandr"));
+        assertNull(nombres.resolver("Pikachu"));
+        assertEquals(java.util.Arrays.asList("Charmander"), nombres.autocompletar("char", 10));
+        assertEquals(2, nombres.buscarAproximado("squirtel", 2).get(0).getDistancia());
+        
+        app.agregarPokemonAUsuario("mr mime");
+        assertTrue(app.getUserCollection().containsKey("Mr-mime"));
+        
+        app.getPokemonMap().remove("Charmander");
+        assertNull(nombres.resolver("Charmander"));
+    }
+    
+    /**
+     * Prueba que la búsqueda aproximada, que salta los subárboles de prefijos lejanos y calcula
+     * solo una banda de la tabla, encuentre lo mismo que comparar contra todos los nombres.
+     */
+    @Test
+    public void testBusquedaAproximadaConMuchosNombres() {
+        NameIndex nombres = new NameIndex();
+        String[] bases = {"Eevee", "Espeon", "Abra", "Mew", "Mewtwo", "Muk", "Pikachu", "Pichu"};
+        java.util.List<String> todos = new java.util.ArrayList<>();
+        java.util.Random random = new java.util.Random(3);
+        for (int i = 0; i < 3000; i++) {
+            String nombre = bases[i % bases.length] + (i < bases.length ? "" : Integer.toString(random.nextInt(100000)));
+            if (nombres.buscarExacto(nombre) == null) {
+                nombres.agregar(nombre, null);
+                todos.add(nombre);
+            }
+        }
+        for (String consulta : new String[]{"", "m", "mwe", "eeve", "pikachu1234", "pichu99", "abra5", "xyz"}) {
+            for (int distancia = 0; distancia <= 3; distancia++) {
+                java.util.Map<String, Integer> esperado = new java.util.TreeMap<>();
+                for (String nombre : todos) {
+                    int d = levenshtein(NameIndex.normalizar(nombre), consulta);
+                    if (d <= distancia) {
+                        esperado.put(nombre, d);
+                    }
+                }
+                java.util.Map<String, Integer> obtenido = new java.util.TreeMap<>();
+                for (NameIndex.Coincidencia c : nombres.buscarAproximado(consulta, distancia)) {
+                    obtenido.put(c.getClave(), c.getDistancia());
+                }
+                assertEquals(esperado, obtenido);
+            }
+        }
+    }
+    
+    private static int levenshtein(String a, String b) {
+        int[] anterior = new int[b.length() + 1];
+        int[] fila = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            fila[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                fila[j] = Math.min(Math.min(fila[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+            }
+            int[] t = anterior;
+            anterior = fila;
+            fila = t;
+        }
+        return anterior[b.length()];
+    }
+    
+    /**
+     * Prueba que los listados se escriban completos en un archivo a través del destino de salida.
+     */
+    @Test
+    public void testListadoEnArchivo() throws Exception {
+        java.nio.file.Path archivo = java.nio.file.Files.createTempFile("listado", ".txt");
+        try {
+            try (OutputSink salida = OutputSink.archivo(archivo)) {
+                app.setSalida(salida);
+                app.mostrarTodosPokemonsOrdenadosPorTipo1();
+                app.mostrarPokemonsPorHabilidad("Torrent");
+            }
+            java.util.List<String> lineas = java.nio.file.Files.readAllLines(archivo, java.nio.charset.StandardCharsets.UTF_8);
+            assertEquals("Todos los Pokémon (ordenados por Type1):", lineas.get(0));
+            assertEquals("Nombre: Charmander - Type1: Fire", lineas.get(1));
+            assertEquals("Nombre: Squirtle - Type1: Water", lineas.get(2));
+            assertEquals("Nombre: Squirtle - Habilidad: Torrent", lineas.get(3));
+            
+            OutputSink nulo = OutputSink.nulo();
+            app.setSalida(nulo);
+            app.mostrarTodosPokemonsOrdenadosPorTipo1();
+            assertTrue(nulo.getNanosSalida() >= 0);
+        } finally {
+            java.nio.file.Files.deleteIfExists(archivo);
+        }
+    }
+    
+    /**
+     * Prueba que la recarga incremental aplique solo las filas agregadas, modificadas y eliminadas.
+     */
+    @Test
+    public void testRecargaIncremental() throws Exception {
+        java.nio.file.Path csv = java.nio.file.Files.createTempFile("pokemon", ".csv");
+        try {
+            String encabezado = "Name,Pokedex Number,Type1,Type2,Classification,Height (m),Weight (kg),Abilities,Generation,Legendary Status\n";
+            java.nio.file.Files.write(csv, (encabezado
+                    + "Charmander,4,Fire,,Lizard,0.6,8.5,\"Blaze, Solar Power\",1,No\n"
+                    + "Squirtle,7,Water,,Tiny Turtle,0.5,9,\"Torrent, Rain Dish\",1,No\n").getBytes("UTF-8"));
+            PokemonApp otraApp = new PokemonApp(1);
+            otraApp.loadData(csv.toString());
+            otraApp.iniciarRecargaIncremental(csv.toString());
+            otraApp.agregarPokemonAUsuario("Squirtle");
+            Pokemon charmander = otraApp.getPokemonMap().get("Charmander");
+            
+            java.nio.file.Files.write(csv, (encabezado
+                    + "Charmander,4,Fire,,Lizard,0.6,8.5,\"Blaze, Solar Power\",1,No\n"
+                    + "Squirtle,7,Water,,Tiny Turtle,0.5,9.5,\"Torrent, Rain Dish\",1,No\n"
+                    + "Pikachu,25,Electric,,Mouse,0.4,6,\"Static, Lightning Rod\",1,No\n").getBytes("UTF-8"));
+            CsvReloader.Diferencias d = otraApp.recargarIncremental(csv.toString());
+            assertEquals(1, d.getAgregados().size());
+            assertEquals(1, d.getModificados().size());
+            assertTrue(d.getEliminados().isEmpty());
+            assertSame(charmander, otraApp.getPokemonMap().get("Charmander"));
+            assertEquals(9.5, otraApp.getUserCollection().get("Squirtle").getWeight());
+            assertEquals(1, otraApp.buscarPorHabilidad("Static").size());
+            
+            // Dos filas que intercambian sus nombres no deben perder ningún Pokémon
+            java.nio.file.Files.write(csv, (encabezado
+                    + "Squirtle,4,Fire,,Lizard,0.6,8.5,\"Blaze, Solar Power\",1,No\n"
+                    + "Charmander,7,Water,,Tiny Turtle,0.5,9.5,\"Torrent, Rain Dish\",1,No\n"
+                    + "Pikachu,25,Electric,,Mouse,0.4,6,\"Static, Lightning Rod\",1,No\n").getBytes("UTF-8"));
+            d = otraApp.recargarIncremental(csv.toString());
+            assertEquals(2, d.getModificados().size());
+            assertEquals(3, otraApp.getPokemonMap().size());
+            assertEquals("Fire", otraApp.getPokemonMap().get("Squirtle").getType1());
+            assertEquals("Water", otraApp.getPokemonMap().get("Charmander").getType1());
+            assertEquals(1, otraApp.buscarPorHabilidad("Blaze").size());
+            assertEquals(java.util.Collections.singleton("Charmander"), otraApp.getUserCollection().keySet());
+            
+            java.nio.file.Files.write(csv, (encabezado
+                    + "Pikachu,25,Electric,,Mouse,0.4,6,\"Static, Lightning Rod\",1,No\n").getBytes("UTF-8"));
+            d = otraApp.recargarIncremental(csv.toString());
+            assertEquals(2, d.getEliminados().size());
+            assertEquals(1, otraApp.getPokemonMap().size());
+            assertTrue(otraApp.getUserCollection().isEmpty());
+        } finally {
+            java.nio.file.Files.deleteIfExists(csv);
+        }
+    }
+    
+    /**
+     * Prueba que la comparación de la vigilancia descarte un archivo a medio escribir (última línea
+     * sin salto de línea o inválida) sin olvidar la versión anterior.
+     */
+    @Test
+    public void testVigilanciaDescartaEscrituraIncompleta() throws Exception {
+        java.nio.file.Path csv = java.nio.file.Files.createTempFile("pokemon", ".csv");
+        try {
+            String encabezado = "Name,Pokedex Number,Type1,Type2,Classification,Height (m),Weight (kg),Abilities,Generation,Legendary Status\n";
+            String charmander = "Charmander,4,Fire,,Lizard,0.6,8.5,\"Blaze, Solar Power\",1,No\n";
+            String squirtle = "Squirtle,7,Water,,Tiny Turtle,0.5,9,\"Torrent, Rain Dish\",1,No\n";
+            java.nio.file.Files.write(csv, (encabezado + charmander + squirtle).getBytes("UTF-8"));
+            CsvReloader recargador = new CsvReloader();
+            recargador.registrar(csv);
+            
+            // Escritura cortada en medio de la primera fila: la segunda todavía no existe
+            java.nio.file.Files.write(csv, (encabezado + charmander.substring(0, 30)).getBytes("UTF-8"));
+            assertNull(recargador.comparar(csv, true));
+            // Cortada justo en un salto de línea pero con una última fila que no se puede interpretar
+            java.nio.file.Files.write(csv, (encabezado + charmander + "Squirtle,7,Water\n").getBytes("UTF-8"));
+            assertNull(recargador.comparar(csv, true));
+            
+            // Al terminar la escritura solo aparece la fila nueva; nada se informa como eliminado
+            java.nio.file.Files.write(csv, (encabezado + charmander + squirtle
+                    + "Pikachu,25,Electric,,Mouse,0.4,6,\"Static, Lightning Rod\",1,No\n").getBytes("UTF-8"));
+            CsvReloader.Diferencias d = recargador.comparar(csv, true);
+            assertEquals(1, d.getAgregados().size());
+            assertTrue(d.getModificados().isEmpty());
+            assertTrue(d.getEliminados().isEmpty());
+            
+            // Sin exigir el archivo completo (recarga manual) la lectura parcial sí se acepta
+            java.nio.file.Files.write(csv, (encabezado + charmander.substring(0, charmander.length() - 1)).getBytes("UTF-8"));
+            assertEquals(2, recargador.comparar(csv).getEliminados().size());
+        } finally {
+            java.nio.file.Files.deleteIfExists(csv);
+        }
+    }
+    
+    /**
+     * Prueba que las operaciones queden registradas en las métricas y que al desactivarlas no se mida nada.
+     */
+    @Test
+    public void testMetricasDeOperaciones() {
+        PokemonMetrics metricas = app.getMetricas();
+        app.buscarPorHabilidad("Blaze");
+        app.agregarPokemonAUsuario("Squirtle");
+        assertEquals(1, metricas.getEjecuciones(PokemonMetrics.Operacion.BUSQUEDA_HABILIDAD));
+        assertEquals(1, metricas.getEjecuciones(PokemonMetrics.Operacion.AGREGAR_USUARIO));
+        assertTrue(metricas.getResumenJson().contains("\"busqueda_habilidad\":{\"cantidad\":1"));
+        
+        // La duración se mide en una muestra de las ejecuciones
+        for (int i = 0; i < 800; i++) {
+            app.buscarPorHabilidad("Blaze");
+        }
+        LatencyHistogram h = metricas.getLatencias(PokemonMetrics.Operacion.BUSQUEDA_HABILIDAD);
+        assertEquals(801, metricas.getEjecuciones(PokemonMetrics.Operacion.BUSQUEDA_HABILIDAD));
+        assertTrue(h.getCantidad() > 0 && h.getCantidad() < 801);
+        assertTrue(h.getPercentil(99) <= h.getMaximo());
+        
+        metricas.setHabilitado(false);
+        app.buscarPorHabilidad("Torrent");
+        assertEquals(801, metricas.getEjecuciones(PokemonMetrics.Operacion.BUSQUEDA_HABILIDAD));
+        
+        metricas.reiniciar();
+        assertEquals(0, metricas.getEjecuciones(PokemonMetrics.Operacion.AGREGAR_USUARIO));
+        assertEquals(0, metricas.getLatencias(PokemonMetrics.Operacion.BUSQUEDA_HABILIDAD).getCantidad());
+    }
+    
+    /**
+     * Prueba que los recorridos en paralelo entreguen lo mismo y en el mismo orden que los secuenciales.
+     */
+    @Test
+    public void testRecorridoEnParalelo() {
+        for (int i = 0; i < 50; i++) {
+            app.getPokemonMap().put("Charmander_" + i, new Pokemon("Charmander_" + i, 4, "Fire", "", "Lizard", 0.6, 8.5 + i, "Blaze;Solar Power", 1, false));
+            app.getPokemonMap().put("Squirtle_" + i, new Pokemon("Squirtle_" + i, 7, "Water", "", "Tiny Turtle", 0.5, 9.0 + i, "Torrent;Rain Dish", 1, false));
+        }
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+        try {
+            // Con umbral 1 todo recorrido se reparte en tramos; con el umbral máximo nunca
+            ParallelScanner paralelo = new ParallelScanner(app.getPokemonMap(), pool, 1);
+            ParallelScanner secuencial = new ParallelScanner(app.getPokemonMap(), pool, Integer.MAX_VALUE);
+            
+            java.util.List<AbilityIndex.Coincidencia> coincidencias = paralelo.buscarPorHabilidad("solar");
+            assertEquals(51, coincidencias.size());
+            assertEquals(app.buscarPorHabilidad("solar").size(), app.buscarPorHabilidadEnParalelo("solar").size());
+            for (int i = 0; i < coincidencias.size(); i++) {
+                assertSame(secuencial.buscarPorHabilidad("solar").get(i).getPokemon(), coincidencias.get(i).getPokemon());
+            }
+            assertEquals(secuencial.filtrar(p -> p.getWeight() > 40), paralelo.filtrar(p -> p.getWeight() > 40));
+            
+            Pokemon[] ordenados = app.ordenarPorTipo1();
+            assertArrayEquals(ordenados, paralelo.ordenarPorTipo1());
+            assertEquals("Fire", ordenados[0].getType1());
+            assertEquals("Water", ordenados[ordenados.length - 1].getType1());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Prueba que el generador sintético sea determinista y que el archivo generado y la carga
+     * directa produzcan los mismos Pokémon.
+     */
+    @Test
+    public void testGeneradorSintetico() throws Exception {
+        java.util.List<Pokemon> plantillas = new java.util.ArrayList<>(app.getPokemonMap().values());
+        java.nio.file.Path uno = java.nio.file.Files.createTempFile("sintetico", ".csv");
+        java.nio.file.Path varios = java.nio.file.Files.createTempFile("sintetico", ".csv");
+        try {
+            new SyntheticDataGenerator(plantillas, 7).conTasaErrores(0.01).conHilos(1).escribirCsv(uno, 20_000);
+            new SyntheticDataGenerator(plantillas, 7).conTasaErrores(0.01).conHilos(4).escribirCsv(varios, 20_000);
+            assertArrayEquals(java.nio.file.Files.readAllBytes(uno), java.nio.file.Files.readAllBytes(varios));
+            
+            PokemonApp desdeArchivo = new PokemonApp(1);
+            desdeArchivo.loadData(uno.toString());
+            PokemonApp directa = new PokemonApp(1);
+            directa.cargarSinteticos(new SyntheticDataGenerator(plantillas, 7).conTasaErrores(0.01), 20_000);
+            assertEquals(directa.getPokemonMap().size(), desdeArchivo.getPokemonMap().size());
+            assertEquals(desdeArchivo.getMetricas().getErroresParseo(), directa.getMetricas().getErroresParseo());
+            assertTrue(directa.getMetricas().getErroresParseo() > 0);
+            Pokemon p = directa.getPokemonMap().values().iterator().next();
+            assertEquals(p.toString(), desdeArchivo.getPokemonMap().get(p.getName()).toString());
+        } finally {
+            java.nio.file.Files.deleteIfExists(uno);
+            java.nio.file.Files.deleteIfExists(varios);
+        }
+    }
+    
+    /**
+     * Prueba los K más pesados y el rango de alturas, antes y después de modificar la colección.
+     */
+    @Test
+    public void testExtremosYRangos() {
+        app.getPokemonMap().put("Snorlax", new Pokemon("Snorlax", 143, "Normal", "", "Sleeping", 2.1, 460.0, "Immunity;Thick Fat", 1, false));
+        app.getPokemonMap().put("Pikachu", new Pokemon("Pikachu", 25, "Electric", "", "Mouse", 0.4, 6.0, "Static", 1, false));
+        java.util.List<String> nombres = new java.util.ArrayList<>();
+        
+        assertEquals(2, app.extremos(PokemonQueryEngine.Atributo.PESO, 2, true, (p, peso) -> nombres.add(p.getName())));
+        assertEquals(java.util.Arrays.asList("Snorlax", "Squirtle"), nombres);
+        
+        nombres.clear();
+        assertEquals(2, app.recorrerRango(PokemonQueryEngine.Atributo.ALTURA, 0.5, 0.6, (p, altura) -> nombres.add(p.getName())));
+        assertEquals(java.util.Arrays.asList("Squirtle", "Charmander"), nombres);
+        
+        // Con la columna de pesos ya ordenada, un k negativo no entrega nada
+        app.recorrerRango(PokemonQueryEngine.Atributo.PESO, 0, 1000, (p, peso) -> { });
+        assertEquals(0, app.extremos(PokemonQueryEngine.Atributo.PESO, -1, true, (p, peso) -> nombres.add(p.getName())));
+        
+        // Tras un cambio, los extremos se calculan sin reordenar la columna y deben coincidir
+        app.getPokemonMap().remove("Snorlax");
+        nombres.clear();
+        assertEquals(3, app.extremos(PokemonQueryEngine.Atributo.PESO, 5, false, (p, peso) -> nombres.add(p.getName())));
+        assertEquals(java.util.Arrays.asList("Pikachu", "Charmander", "Squirtle"), nombres);
+        assertEquals(0, app.extremos(PokemonQueryEngine.Atributo.PESO, -1, false, (p, peso) -> nombres.add(p.getName())));
+    }
+    
+    /**
+     * Prueba que las búsquedas repetidas se respondan desde la caché y que un cambio de la
+     * colección la invalide.
+     */
+    @Test
+    public void testCacheDeConsultas() {
+        QueryCache cache = app.getCache();
+        java.util.List<AbilityIndex.Coincidencia> primera = app.buscarPorHabilidad("Blaze");
+        assertSame(primera, app.buscarPorHabilidad("  blaze "));
+        assertEquals(1, cache.getAciertos());
+        assertEquals(1, cache.getFallos());
+        
+        app.getPokemonMap().put("Charizard", new Pokemon("Charizard", 6, "Fire", "Flying", "Flame", 1.7, 90.5, "Blaze;Solar Power", 1, false));
+        assertEquals(2, app.buscarPorHabilidad("Blaze").size());
+        assertEquals(1, cache.getInvalidaciones());
+        
+        // Con capacidad para dos entradas, la consulta repetida sobrevive a una serie de consultas nuevas
+        QueryCache chica = new QueryCache(2, 1 << 20);
+        chica.obtener("repetida", () -> "a", v -> 1);
+        chica.obtener("repetida", () -> "a", v -> 1);
+        for (int i = 0; i < 10; i++) {
+            chica.obtener("nueva" + i, () -> "b", v -> 1);
+        }
+        long aciertos = chica.getAciertos();
+        chica.obtener("repetida", () -> "a", v -> 1);
+        assertEquals(aciertos + 1, chica.getAciertos());
+        assertEquals(9, chica.getExpulsiones());
+        
+        // Desactivada, cada consulta se calcula de nuevo y no cuenta aciertos
+        cache.setHabilitada(false);
+        long aciertosAntes = cache.getAciertos();
+        assertNotSame(app.buscarPorHabilidad("Blaze"), app.buscarPorHabilidad("Blaze"));
+        assertEquals(aciertosAntes, cache.getAciertos());
+        cache.setHabilitada(true);
+    }
+    
+    /**
+     * Prueba que los filtros de columnas (vectoriales o escalares, según el módulo disponible)
+     * coincidan con la evaluación fila por fila, incluido el último bloque incompleto.
+     */
+    @Test
+    public void testFiltroDeColumnas() {
+        int filas = 1000;
+        java.util.Random azar = new java.util.Random(3);
+        double[] alturas = new double[filas];
+        int[] tipos1 = new int[filas];
+        int[] tipos2 = new int[filas];
+        for (int i = 0; i < filas; i++) {
+            alturas[i] = azar.nextDouble() * 3;
+            tipos1[i] = azar.nextInt(18);
+            tipos2[i] = azar.nextInt(18);
+        }
+        long[] mascara = new long[(filas + 63) >>> 6];
+        java.util.Arrays.fill(mascara, -1L);
+        ColumnScanKernel.filtrarRango(alturas, 0.5, 2.0, mascara, filas);
+        ColumnScanKernel.filtrarRango(tipos1, 2, 9, mascara, filas);
+        ColumnScanKernel.filtrarCualquiera(tipos1, tipos2, 4, mascara, filas);
+        java.util.BitSet esperado = new java.util.BitSet();
+        for (int i = 0; i < filas; i++) {
+            if (alturas[i] >= 0.5 && alturas[i] <= 2.0 && tipos1[i] >= 2 && tipos1[i] <= 9
+                    && (tipos1[i] == 4 || tipos2[i] == 4)) {
+                esperado.set(i);
+            }
+        }
+        assertEquals(esperado, java.util.BitSet.valueOf(mascara));
+        
+        // El rango de Pokédex se resuelve sobre su columna
+        QueryResult r = app.consultar(PokemonQuery.parse("pokedex>=4, pokedex<=7"));
+        assertEquals(2, r.getCantidad());
+        assertTrue(r.getPlan().startsWith("recorrido de columnas"));
+    }
+    
+    /**
+     * Prueba que las estadísticas en streaming coincidan con las del archivo, aun cuando las
+     * líneas quedan partidas entre bloques de lectura.
+     */
+    @Test
+    public void testAgregacionEnStreaming() throws Exception {
+        java.nio.file.Path csv = java.nio.file.Files.createTempFile("pokemon", ".csv");
+        try {
+            String contenido = "Name,Pokedex Number,Type1,Type2,Classification,Height (m),Weight (kg),Abilities,Generation,Legendary Status\r\n"
+                    + "Bulbasaur,1,Grass,Poison,Seed Pokémon,0.7,6.9,\"Overgrow, Chlorophyll\",1,No\r\n"
+                    + "Charmander,4,Fire,,\"Lizard \"\"Pokémon\"\"\",0.6,8.5,Blaze;Solar Power,1,No\r\n"
+                    + "Roto,x,Fire,,Lizard,0.6,8.5,Blaze,1,No\r\n"
+                    + "Mewtwo,150,Psychic,,Genetic Pokémon,2,122,\"Pressure, Unnerve\",1,Yes\r\n"
+                    + "Oddish,43,Grass,Poison,Weed Pokémon,0.5,5.4,Chlorophyll,1,No";
+            java.nio.file.Files.write(csv, contenido.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            
+            java.util.List<String> clasificaciones = new java.util.ArrayList<>();
+            CsvStreamReader lector = new CsvStreamReader(16);
+            assertEquals(4, lector.recorrer(csv, fila -> clasificaciones.add(fila.getClassification().toString())));
+            assertEquals(1, lector.getErrores());
+            assertEquals("Lizard \"Pokémon\"", clasificaciones.get(1));
+            
+            CatalogStatistics estadisticas = new CatalogStatistics();
+            new CsvStreamReader().recorrer(csv, estadisticas);
+            assertEquals(4, estadisticas.getFilas());
+            assertEquals(1, estadisticas.getErrores());
+            assertEquals((6.9 + 5.4) / 2, estadisticas.getPesoPromedio("Grass"), 1e-9);
+            assertEquals((6.9 + 5.4) / 2, estadisticas.getPesoPromedio("Poison"), 1e-9);
+            assertEquals(2, estadisticas.getFrecuencia("Chlorophyll"));
+            assertEquals(1, estadisticas.getFrecuencia("Solar Power"));
+            assertEquals(0.25, estadisticas.getProporcionLegendarios(1), 1e-9);
+            assertTrue(Double.isNaN(estadisticas.getPesoPromedio("Dragon")));
+        } finally {
+            java.nio.file.Files.deleteIfExists(csv);
+        }
+    }
+    
+    /**
+     * Prueba la tabla de efectividad, los mejores rivales contra un Pokémon y la búsqueda del
+     * mejor equipo, comparándola con todas las combinaciones.
+     */
+    @Test
+    public void testEnfrentamientos() {
+        app.getPokemonMap().put("Charizard", new Pokemon("Charizard", 6, "Fire", "Flying", "Flame", 1.7, 90.5, "Blaze", 1, false));
+        app.getPokemonMap().put("Geodude", new Pokemon("Geodude", 74, "Rock", "Ground", "Rock", 0.4, 20.0, "Sturdy", 1, false));
+        app.getPokemonMap().put("Pikachu", new Pokemon("Pikachu", 25, "Electric", "", "Mouse", 0.4, 6.0, "Static", 1, false));
+        app.getPokemonMap().put("Gyarados", new Pokemon("Gyarados", 130, "Water", "Flying", "Atrocious", 6.5, 235.0, "Intimidate", 1, false));
+        app.getPokemonMap().put("Bulbasaur", new Pokemon("Bulbasaur", 1, "Grass", "Poison", "Seed", 0.7, 6.9, "Overgrow", 1, false));
+        app.getPokemonMap().put("Mewtwo", new Pokemon("Mewtwo", 150, "Psychic", "", "Genetic", 2.0, 122.0, "Pressure", 1, true));
+        MatchupEngine motor = app.getEnfrentamientos();
+        
+        assertEquals(1, MatchupEngine.efectividad(MatchupEngine.codigoTipo("Water"), MatchupEngine.codigoTipo("Fire")));
+        assertEquals(4.0, motor.getMultiplicadorRecibido("Charizard", "Rock"));
+        assertEquals(0.0, motor.getMultiplicadorRecibido("Geodude", "Electric"));
+        assertEquals(0.25, motor.getMultiplicadorRecibido("Bulbasaur", "grass"));
+        
+        // Geodude hace x4 y recibe x0.5; entre los empatados con x2 gana el primero agregado
+        java.util.List<MatchupEngine.Enfrentamiento> rivales = motor.mejoresContra("Charizard", 2, null);
+        assertEquals("Geodude", rivales.get(0).getPokemon().getName());
+        assertEquals(3, rivales.get(0).getPuntaje());
+        assertEquals("Squirtle", rivales.get(1).getPokemon().getName());
+        assertTrue(motor.mejoresContra("MissingNo", 2, null).isEmpty());
+        assertEquals(7, motor.mejoresContra("Charizard", Integer.MAX_VALUE, null).size());
+        
+        MatchupEngine.Analisis analisis = motor.analizar(java.util.Arrays.asList("Charmander", "Charizard", "Bulbasaur"));
+        assertEquals(2, analisis.getDebiles("Rock"));
+        assertEquals("Rock", analisis.getTipoMasDebil());
+        
+        java.util.List<String> nombres = new java.util.ArrayList<>(app.getPokemonMap().keySet());
+        int mejor = Integer.MIN_VALUE;
+        for (int i = 0; i < nombres.size(); i++) {
+            for (int j = i + 1; j < nombres.size(); j++) {
+                for (int k = j + 1; k < nombres.size(); k++) {
+                    java.util.List<String> equipo = java.util.Arrays.asList(nombres.get(i), nombres.get(j), nombres.get(k));
+                    if (!equipo.contains("Mewtwo")) {
+                        mejor = Math.max(mejor, motor.analizar(equipo).getPuntaje());
+                    }
+                }
+            }
+        }
+        MatchupEngine.Equipo equipo = motor.mejorEquipo(nombres,
+                MatchupEngine.Restricciones.builder().tamano(3).maxLegendarios(0).build());
+        assertEquals(mejor, equipo.getAnalisis().getPuntaje());
+        // De las 56 combinaciones de 8, no se evalúan las 21 que incluyen a Mewtwo
+        assertEquals(35, equipo.getCombinaciones());
+        assertFalse(equipo.getMiembros().contains(app.getPokemonMap().get("Mewtwo")));
+        MatchupEngine.Equipo conObligatorio = motor.mejorEquipo(nombres,
+                MatchupEngine.Restricciones.builder().tamano(3).incluir("Mewtwo").sinTiposRepetidos(true).build());
+        assertTrue(conObligatorio.getMiembros().contains(app.getPokemonMap().get("Mewtwo")));
+    }
+    
+    /**
+     * Prueba que el almacenamiento columnar devuelva los mismos atributos que se guardaron,
+     * incluso con generaciones mayores que 127 y más de 32767 clasificaciones distintas.
+     */
+    @Test
+    public void testAlmacenamientoColumnar() throws Exception {
+        ColumnarPokemonStore store = new ColumnarPokemonStore();
+        for (int i = 0; i < 40_000; i++) {
+            store.agregar(new Pokemon("P" + i, i, i % 2 == 0 ? "Fire" : "Water", i % 3 == 0 ? "Flying" : "",
+                    "Clase " + i, 1.5, 20.0, "Blaze;Overgrow", 200, i == 7));
+        }
+        assertEquals(40_000, store.size());
+        assertEquals(2, store.getHabilidades().size());
+        Pokemon ultimo = store.getPokemon(39_999);
+        assertEquals("Clase 39999", ultimo.getClassification());
+        assertEquals("Water", ultimo.getType1());
+        assertEquals("Flying", ultimo.getType2());
+        assertEquals(200, ultimo.getGeneration());
+        assertEquals(java.util.Arrays.asList("Blaze", "Overgrow"), ultimo.getAbilities());
+        assertTrue(store.getPokemon(7).isLegendaryStatus());
+        assertThrows(NumberFormatException.class, () -> store.agregar(
+                new Pokemon("Roto", 1, "Fire", "", "Lizard", 0.6, 8.5, "Blaze", 40_000, false)));
+        assertEquals(40_000, store.size());
+        
+        java.nio.file.Path csv = java.nio.file.Files.createTempFile("pokemon", ".csv");
+        try {
+            java.nio.file.Files.write(csv, ("Name,Pokedex Number,Type1,Type2,Classification,Height (m),Weight (kg),Abilities,Generation,Legendary Status\n"
+                    + "Bulbasaur,1,Grass,Poison,Seed,0.7,6.9,\"Overgrow, Chlorophyll\",200,No\n"
+                    + "Roto,2,Fire,,Lizard,0.6,8.5,Blaze,40000,No\n").getBytes("UTF-8"));
+            PokemonApp otraApp = new PokemonApp(1);
+            otraApp.loadDataColumnar(csv.toString());
+            assertEquals(1, otraApp.getPokemonMap().size());
+            Pokemon bulbasaur = otraApp.getPokemonMap().get("Bulbasaur");
+            assertEquals(200, bulbasaur.getGeneration());
+            assertEquals("Poison", bulbasaur.getType2());
+            assertEquals(java.util.Arrays.asList("Overgrow", "Chlorophyll"), bulbasaur.getAbilities());
+        } finally {
+            java.nio.file.Files.deleteIfExists(csv);
+        }
+    }
+    
+    /**
+     * Prueba que la colección se recupere del registro y que los Pokémon que no están en los
+     * datos cargados se conserven hasta que vuelvan a aparecer.
+     */
+    @Test
+    public void testRegistroColeccionConservaDesconocidos() throws Exception {
+        java.nio.file.Path directorio = java.nio.file.Files.createTempDirectory("coleccion");
+        app.abrirRegistroColeccion(directorio.toString());
+        app.agregarPokemonAUsuario("Charmander");
+        app.agregarPokemonAUsuario("Squirtle");
+        app.cerrarRegistroColeccion();
+        
+        // Con un catálogo parcial, Charmander queda pendiente y el checkpoint no lo borra
+        PokemonApp parcial = new PokemonApp(1);
+        parcial.getPokemonMap().put("Squirtle", app.getPokemonMap().get("Squirtle"));
+        parcial.abrirRegistroColeccion(directorio.toString());
+        assertEquals(java.util.Collections.singleton("Squirtle"), parcial.getUserCollection().keySet());
+        parcial.cerrarRegistroColeccion();
+        
+        PokemonApp completa = new PokemonApp(1);
+        completa.getPokemonMap().putAll(app.getPokemonMap());
+        completa.abrirRegistroColeccion(directorio.toString());
+        assertEquals(2, completa.getUserCollection().size());
+        assertTrue(completa.getUserCollection().containsKey("Charmander"));
+        completa.cerrarRegistroColeccion();
+    }
+    
+    /**
+     * Prueba que una recarga con el archivo parcial no borre del registro la colección del
+     * usuario: los Pokémon que faltan dejan de mostrarse y vuelven con el archivo completo,
+     * también al abrir el registro otra vez.
+     */
+    @Test
+    public void testRecargaParcialConservaColeccion() throws Exception {
+        java.nio.file.Path csv = java.nio.file.Files.createTempFile("pokemon", ".csv");
+        java.nio.file.Path directorio = java.nio.file.Files.createTempDirectory("coleccion");
+        try {
+            String encabezado = "Name,Pokedex Number,Type1,Type2,Classification,Height (m),Weight (kg),Abilities,Generation,Legendary Status\n";
+            String pikachu = "Pikachu,25,Electric,,Mouse,0.4,6,\"Static, Lightning Rod\",1,No\n";
+            String completo = encabezado + pikachu
+                    + "Mewtwo,150,Psychic,,Genetic,2,122,\"Pressure, Unnerve\",1,Yes\n"
+                    + "Squirtle,7,Water,,Tiny Turtle,0.5,9,\"Torrent, Rain Dish\",1,No\n";
+            java.nio.file.Files.write(csv, completo.getBytes("UTF-8"));
+            PokemonApp otraApp = new PokemonApp(3);
+            otraApp.loadData(csv.toString());
+            otraApp.iniciarRecargaIncremental(csv.toString());
+            otraApp.abrirRegistroColeccion(directorio.toString());
+            otraApp.agregarPokemonAUsuario("Pikachu");
+            otraApp.agregarPokemonAUsuario("Mewtwo");
+            
+            java.nio.file.Files.write(csv, (encabezado + pikachu).getBytes("UTF-8"));
+            otraApp.recargarIncremental(csv.toString());
+            assertEquals(java.util.Collections.singleton("Pikachu"), otraApp.getUserCollection().keySet());
+            
+            java.nio.file.Files.write(csv, completo.getBytes("UTF-8"));
+            otraApp.recargarIncremental(csv.toString());
+            assertEquals(java.util.Arrays.asList("Pikachu", "Mewtwo"),
+                    new java.util.ArrayList<>(otraApp.getUserCollection().keySet()));
+            assertSame(otraApp.getPokemonMap().get("Mewtwo"), otraApp.getUserCollection().get("Mewtwo"));
+            otraApp.cerrarRegistroColeccion();
+            
+            PokemonApp reabierta = new PokemonApp(3);
+            reabierta.loadData(csv.toString());
+            reabierta.abrirRegistroColeccion(directorio.toString());
+            assertEquals(java.util.Arrays.asList("Pikachu", "Mewtwo"),
+                    new java.util.ArrayList<>(reabierta.getUserCollection().keySet()));
+            reabierta.cerrarRegistroColeccion();
+        } finally {
+            java.nio.file.Files.deleteIfExists(csv);
+        }
+    }
+    
+    /**
+     * Prueba que el tokenizer respete las comas entre comillas, las comillas escapadas, los
+     * campos vacíos y el retorno de carro, y que las conversiones rápidas den lo mismo que las
+     * del JDK.
+     */
+    @Test
+    public void testCsvTokenizer() {
+        CsvTokenizer t = new CsvTokenizer();
+        assertEquals(10, t.split("Mr. Mime,122,Psychic,Fairy,\"Barrier \"\"Pokémon\"\"\",1.3,54.5,\"Soundproof, Filter\",1,Yes\r"));
+        assertEquals("Mr. Mime", t.getField(0));
+        assertEquals("Barrier \"Pokémon\"", t.getField(4));
+        assertTrue(t.isFieldEscaped(4));
+        assertEquals("Soundproof, Filter", t.getField(7));
+        assertFalse(t.isFieldEscaped(7));
+        assertEquals(122, t.getInt(1));
+        assertEquals(1.3, t.getDouble(5));
+        assertEquals(54.5, t.getDouble(6));
+        assertTrue(t.getBoolean(9));
+        
+        assertEquals(4, t.split("a,\"\",  c ,"));
+        assertEquals("", t.getField(1));
+        assertEquals("c", t.getField(2));
+        assertEquals("", t.getField(3));
+        
+        // Separación de una porción de un bloque, sin copiar la línea
+        String bloque = "1,2\n-3,+4,TRUE,no";
+        assertEquals(4, t.split(bloque, 4, bloque.length()));
+        assertEquals(-3, t.getInt(0));
+        assertEquals(4, t.getInt(1));
+        assertTrue(t.getBoolean(2));
+        assertFalse(t.getBoolean(3));
+        
+        t.split("2147483647,2147483648,,1x,-0.25,1e3,12345678901234567.5,abc");
+        assertEquals(Integer.MAX_VALUE, t.getInt(0));
+        assertThrows(NumberFormatException.class, () -> t.getInt(1));
+        assertThrows(NumberFormatException.class, () -> t.getInt(2));
+        assertThrows(NumberFormatException.class, () -> t.getInt(3));
+        assertEquals(-0.25, t.getDouble(4));
+        assertEquals(1000.0, t.getDouble(5));
+        assertEquals(Double.parseDouble("12345678901234567.5"), t.getDouble(6));
+        assertThrows(NumberFormatException.class, () -> t.getDouble(7));
+    }
+    
+    /**
+     * Prueba que la carga en paralelo, con bloques diminutos que cortan el archivo en muchos
+     * puntos, entregue los mismos Pokémon y en el mismo orden que la carga secuencial.
+     */
+    @Test
+    public void testCargaParalelaPorBloques() throws Exception {
+        java.nio.file.Path csv = java.nio.file.Files.createTempFile("pokemon", ".csv");
+        try {
+            StringBuilder contenido = new StringBuilder("Name,Pokedex Number,Type1,Type2,Classification,Height (m),Weight (kg),Abilities,Generation,Legendary Status\r\n");
+            for (int i = 0; i < 60; i++) {
+                contenido.append("Pokémon ").append(i).append(',').append(i).append(",Fire,,\"Clase, ").append(i)
+                        .append("\",0.").append(i % 10).append(",1").append(i).append(".5,\"Blaze, Solar Power\",")
+                        .append(1 + i % 8).append(i % 7 == 0 ? ",Yes" : ",No").append("\r\n");
+                if (i == 30) {
+                    contenido.append("Línea,rota\r\n");
+                }
+            }
+            contenido.append("Último,999,Water,,Tortuga,1,2,Torrent,1,No");
+            java.nio.file.Files.write(csv, contenido.toString().getBytes("UTF-8"));
+            
+            // LinkedHashMap (opción 3) para comparar también el orden del archivo
+            PokemonApp secuencial = new PokemonApp(3);
+            secuencial.loadData(csv.toString());
+            assertEquals(61, secuencial.getPokemonMap().size());
+            
+            java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+            try {
+                for (int tamano : new int[] {1, 37, 64, 500}) {
+                    java.util.List<ParallelCsvLoader.Bloque> bloques = new ParallelCsvLoader(pool, tamano).cargar(csv);
+                    assertTrue(tamano > 100 || bloques.size() > 10);
+                    java.util.List<String> nombres = new java.util.ArrayList<>();
+                    long filas = 0;
+                    int errores = 0;
+                    for (ParallelCsvLoader.Bloque b : bloques) {
+                        for (Pokemon p : b.getPokemons().values()) {
+                            nombres.add(p.getName());
+                            assertEquals(secuencial.getPokemonMap().get(p.getName()).toString(), p.toString());
+                        }
+                        filas += b.getFilas();
+                        errores += b.getErrores().size();
+                    }
+                    assertEquals(new java.util.ArrayList<>(secuencial.getPokemonMap().keySet()), nombres);
+                    assertEquals(62, filas);
+                    assertEquals(1, errores);
+                }
+            } finally {
+                pool.shutdown();
+            }
+            
+            PokemonApp paralela = new PokemonApp(3);
+            paralela.loadDataParalelo(csv.toString());
+            assertEquals(new java.util.ArrayList<>(secuencial.getPokemonMap().keySet()),
+                    new java.util.ArrayList<>(paralela.getPokemonMap().keySet()));
+            
+            // Un archivo con solo el encabezado, con y sin salto de línea final
+            for (String encabezado : new String[] {"Name,Pokedex\n", "Name,Pokedex"}) {
+                java.nio.file.Files.write(csv, encabezado.getBytes("UTF-8"));
+                assertTrue(new ParallelCsvLoader(java.util.concurrent.ForkJoinPool.commonPool(), 1).cargar(csv).isEmpty());
+                PokemonApp vacia = new PokemonApp(1);
+                vacia.loadDataParalelo(csv.toString());
+                assertTrue(vacia.getPokemonMap().isEmpty());
+            }
+        } finally {
+            java.nio.file.Files.deleteIfExists(csv);
+        }
+    }
 }
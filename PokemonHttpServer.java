@@ -0,0 +1,429 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio HTTP/JSON local sobre {@link ConcurrentPokemonApp}, para que varios clientes consulten
+ * el catálogo a la vez en lugar de usar el menú de consola.
+ *
+ * Rutas:
+ * <ul>
+ *   <li>GET /pokemon?nombre=X: los datos de un Pokémon (404 si no existe).</li>
+ *   <li>GET /habilidad?q=X: los Pokémon con alguna habilidad que contiene el texto.</li>
+ *   <li>GET /tipo?tipo=X: los Pokémon cuyo Type1 es el indicado.</li>
+ *   <li>GET /coleccion?usuario=U: la colección del usuario.</li>
+ *   <li>POST /coleccion?usuario=U&amp;nombre=X: agrega un Pokémon a la colección del usuario.</li>
+ *   <li>POST /lote: varias de las solicitudes anteriores en una, una por línea del cuerpo con
+ *       la forma "GET /pokemon?nombre=X"; responde un arreglo con el estado y la respuesta de
+ *       cada una, en el mismo orden.</li>
+ * </ul>
+ *
+ * Cada solicitud se atiende en un hilo virtual cuando la JVM los tiene (JDK 21 o posterior);
+ * si no, en un pool fijo de hilos de plataforma. El JSON de cada Pokémon se genera una sola
+ * vez por versión del catálogo y se guarda en una {@link QueryCache}, de modo que los Pokémon
+ * más consultados se responden copiando bytes ya serializados, también dentro de los listados.
+ * El servidor escucha solo en la interfaz local.
+ */
+public class PokemonHttpServer {
+    // Tamaño máximo del cuerpo de una solicitud por lotes
+    private static final int MAX_CUERPO = 1 << 20;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    static {
+        // Sin TCP_NODELAY, los encabezados y el cuerpo viajan en segmentos separados y el
+        // algoritmo de Nagle espera el ACK retardado del cliente (unos 40 ms por respuesta)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Estado y cuerpo JSON de una respuesta.
+     */
+    private static final class Respuesta {
+        final int estado;
+        final byte[] cuerpo;
+
+        Respuesta(int estado, byte[] cuerpo) {
+            this.estado = estado;
+            this.cuerpo = cuerpo;
+        }
+    }
+
+    private final ConcurrentPokemonApp app;
+    private final InetSocketAddress direccion;
+    // JSON de los Pokémon consultados, por versión del catálogo y nombre
+    private final QueryCache registros = new QueryCache(16384, 16L << 20);
+    // Tiempo de atención de cada solicitud, en nanosegundos
+    private final LatencyHistogram latencias = new LatencyHistogram();
+    private HttpServer servidor;
+    private ExecutorService ejecutor;
+    private boolean hilosVirtuales;
+
+    /**
+     * Construye un servicio sobre la aplicación indicada, en el puerto indicado de la interfaz local.
+     *
+     * @param app    La aplicación con el catálogo y las colecciones de los usuarios.
+     * @param puerto El puerto, o 0 para elegir uno libre.
+     */
+    public PokemonHttpServer(ConcurrentPokemonApp app, int puerto) {
+        this.app = app;
+        this.direccion = new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto);
+    }
+
+    /**
+     * Abre el puerto y empieza a atender solicitudes.
+     *
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public synchronized void iniciar() throws IOException {
+        servidor = HttpServer.create(direccion, 1024);
+        ejecutor = crearEjecutor();
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/", this::atender);
+        servidor.start();
+    }
+
+    /**
+     * Deja de atender solicitudes y cierra el puerto.
+     */
+    public synchronized void detener() {
+        if (servidor != null) {
+            servidor.stop(0);
+            ejecutor.shutdownNow();
+            servidor = null;
+        }
+    }
+
+    /**
+     * Retorna el puerto en que escucha el servidor.
+     *
+     * @return el puerto.
+     */
+    public synchronized int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Indica si las solicitudes se atienden en hilos virtuales.
+     *
+     * @return true con hilos virtuales, false con un pool de hilos de plataforma.
+     */
+    public synchronized boolean usaHilosVirtuales() {
+        return hilosVirtuales;
+    }
+
+    /**
+     * Retorna el histograma del tiempo de atención de las solicitudes, en nanosegundos.
+     *
+     * @return el histograma de latencias.
+     */
+    public LatencyHistogram getLatencias() {
+        return latencias;
+    }
+
+    /**
+     * Crea un hilo virtual por solicitud si la JVM lo permite; la búsqueda es por reflexión para
+     * que la clase compile y funcione también en la JDK 17.
+     */
+    private ExecutorService crearEjecutor() {
+        try {
+            ExecutorService virtual = (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+            hilosVirtuales = true;
+            return virtual;
+        } catch (Throwable e) {
+            hilosVirtuales = false;
+        }
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = r -> {
+            Thread t = new Thread(r, "pokemon-http-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return Executors.newFixedThreadPool(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()), fabrica);
+    }
+
+    private void atender(HttpExchange intercambio) throws IOException {
+        long inicio = System.nanoTime();
+        Respuesta respuesta;
+        try {
+            String metodo = intercambio.getRequestMethod();
+            String ruta = intercambio.getRequestURI().getRawPath();
+            String consulta = intercambio.getRequestURI().getRawQuery();
+            if ("/lote".equals(ruta)) {
+                respuesta = "POST".equals(metodo) ? atenderLote(intercambio.getRequestBody())
+                        : error(405, "El lote se envía con POST");
+            } else {
+                respuesta = atender(metodo, ruta, consulta);
+            }
+        } catch (UnsupportedOperationException e) {
+            respuesta = error(405, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            respuesta = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            respuesta = error(500, e.toString());
+        }
+        try (OutputStream cuerpo = intercambio.getResponseBody()) {
+            intercambio.getResponseHeaders().set("Content-Type", JSON);
+            intercambio.sendResponseHeaders(respuesta.estado, respuesta.cuerpo.length);
+            cuerpo.write(respuesta.cuerpo);
+        }
+        latencias.registrar(System.nanoTime() - inicio);
+    }
+
+    /**
+     * Resuelve una solicitud a partir del método, la ruta y la consulta sin decodificar.
+     */
+    private Respuesta atender(String metodo, String ruta, String consulta) {
+        switch (ruta) {
+            case "/pokemon": {
+                exigirMetodo(metodo, "GET");
+                ConcurrentPokemonApp.Catalogo catalogo = app.getCatalogo();
+                Pokemon p = catalogo.get(parametro(consulta, "nombre"));
+                return p == null ? error(404, "Pokémon no encontrado") : new Respuesta(200, json(catalogo, p));
+            }
+            case "/habilidad": {
+                exigirMetodo(metodo, "GET");
+                ConcurrentPokemonApp.Catalogo catalogo = app.getCatalogo();
+                List<AbilityIndex.Coincidencia> coincidencias = catalogo.buscarPorHabilidad(parametro(consulta, "q"));
+                ByteArrayOutputStream salida = new ByteArrayOutputStream(64 + coincidencias.size() * 256);
+                salida.write('[');
+                for (int i = 0; i < coincidencias.size(); i++) {
+                    AbilityIndex.Coincidencia c = coincidencias.get(i);
+                    escribir(salida, i == 0 ? "{\"habilidad\":" : ",{\"habilidad\":");
+                    escribir(salida, texto(new StringBuilder(), c.getHabilidad()));
+                    escribir(salida, ",\"pokemon\":");
+                    salida.writeBytes(json(catalogo, c.getPokemon()));
+                    salida.write('}');
+                }
+                salida.write(']');
+                return new Respuesta(200, salida.toByteArray());
+            }
+            case "/tipo": {
+                exigirMetodo(metodo, "GET");
+                ConcurrentPokemonApp.Catalogo catalogo = app.getCatalogo();
+                return new Respuesta(200, lista(catalogo, catalogo.getPorTipo1(parametro(consulta, "tipo"))));
+            }
+            case "/coleccion": {
+                String usuario = parametro(consulta, "usuario");
+                if ("POST".equals(metodo)) {
+                    ConcurrentPokemonApp.Resultado r = app.agregarPokemonAUsuario(usuario, parametro(consulta, "nombre"));
+                    int estado = r == ConcurrentPokemonApp.Resultado.AGREGADO ? 201
+                            : r == ConcurrentPokemonApp.Resultado.YA_EXISTE ? 200 : 404;
+                    return new Respuesta(estado, ("{\"resultado\":\"" + r + "\"}").getBytes(StandardCharsets.UTF_8));
+                }
+                exigirMetodo(metodo, "GET");
+                return new Respuesta(200, lista(app.getCatalogo(), app.getColeccionUsuario(usuario)));
+            }
+            default:
+                return error(404, "Ruta desconocida: " + ruta);
+        }
+    }
+
+    /**
+     * Atiende cada línea del cuerpo como una solicitud y combina las respuestas en un arreglo.
+     */
+    private Respuesta atenderLote(InputStream entrada) {
+        byte[] bytes;
+        try {
+            bytes = entrada.readNBytes(MAX_CUERPO + 1);
+        } catch (IOException e) {
+            return error(400, "No se pudo leer el lote: " + e.getMessage());
+        }
+        if (bytes.length > MAX_CUERPO) {
+            return error(413, "El lote supera " + MAX_CUERPO + " bytes");
+        }
+        String[] lineas = new String(bytes, StandardCharsets.UTF_8).split("\r?\n");
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(lineas.length * 256);
+        salida.write('[');
+        boolean primera = true;
+        for (String linea : lineas) {
+            if (linea.isBlank()) {
+                continue;
+            }
+            Respuesta r;
+            try {
+                int espacio = linea.indexOf(' ');
+                if (espacio < 0) {
+                    throw new IllegalArgumentException("Se esperaba \"MÉTODO /ruta?consulta\": " + linea);
+                }
+                String destino = linea.substring(espacio + 1).trim();
+                int signo = destino.indexOf('?');
+                r = "/lote".equals(signo < 0 ? destino : destino.substring(0, signo))
+                        ? error(400, "Un lote no puede contener otro lote")
+                        : atender(linea.substring(0, espacio), signo < 0 ? destino : destino.substring(0, signo),
+                                signo < 0 ? null : destino.substring(signo + 1));
+            } catch (UnsupportedOperationException e) {
+                r = error(405, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                r = error(400, e.getMessage());
+            }
+            escribir(salida, primera ? "{\"estado\":" : ",{\"estado\":");
+            escribir(salida, Integer.toString(r.estado));
+            escribir(salida, ",\"respuesta\":");
+            salida.writeBytes(r.cuerpo);
+            salida.write('}');
+            primera = false;
+        }
+        salida.write(']');
+        return new Respuesta(200, salida.toByteArray());
+    }
+
+    private byte[] lista(ConcurrentPokemonApp.Catalogo catalogo, Collection<Pokemon> pokemons) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(16 + pokemons.size() * 256);
+        salida.write('[');
+        boolean primero = true;
+        for (Pokemon p : pokemons) {
+            if (!primero) {
+                salida.write(',');
+            }
+            salida.writeBytes(json(catalogo, p));
+            primero = false;
+        }
+        salida.write(']');
+        return salida.toByteArray();
+    }
+
+    /**
+     * Retorna el JSON del Pokémon, generándolo solo la primera vez en cada versión del catálogo.
+     */
+    private byte[] json(ConcurrentPokemonApp.Catalogo catalogo, Pokemon p) {
+        return registros.obtener(catalogo.getVersion() + ":" + p.getName(), () -> serializar(p),
+                bytes -> bytes.length + 16L);
+    }
+
+    static byte[] serializar(Pokemon p) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"nombre\":");
+        texto(sb, p.getName());
+        sb.append(",\"pokedex\":").append(p.getPokedexNumber());
+        sb.append(",\"tipo1\":");
+        texto(sb, p.getType1());
+        sb.append(",\"tipo2\":");
+        texto(sb, p.getType2());
+        sb.append(",\"clasificacion\":");
+        texto(sb, p.getClassification());
+        sb.append(",\"altura\":");
+        numero(sb, p.getHeight());
+        sb.append(",\"peso\":");
+        numero(sb, p.getWeight());
+        sb.append(",\"habilidades\":[");
+        List<String> habilidades = p.getAbilities();
+        for (int i = 0; i < habilidades.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            texto(sb, habilidades.get(i));
+        }
+        sb.append("],\"generacion\":").append(p.getGeneration());
+        sb.append(",\"legendario\":").append(p.isLegendaryStatus());
+        sb.append('}');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder texto(StringBuilder sb, String s) {
+        if (s == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+
+    private static void numero(StringBuilder sb, double valor) {
+        // JSON no admite NaN ni infinitos
+        if (Double.isNaN(valor) || Double.isInfinite(valor)) {
+            sb.append("null");
+        } else {
+            sb.append(valor);
+        }
+    }
+
+    private static void escribir(ByteArrayOutputStream salida, CharSequence texto) {
+        salida.writeBytes(texto.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Respuesta error(int estado, String mensaje) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        texto(sb, mensaje).append('}');
+        return new Respuesta(estado, sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void exigirMetodo(String metodo, String esperado) {
+        if (!esperado.equals(metodo)) {
+            throw new UnsupportedOperationException("Método no admitido: " + metodo);
+        }
+    }
+
+    /**
+     * Retorna el valor decodificado del parámetro de la consulta.
+     *
+     * @throws IllegalArgumentException si el parámetro no está.
+     */
+    static String parametro(String consulta, String nombre) {
+        if (consulta != null) {
+            int inicio = 0;
+            while (inicio <= consulta.length()) {
+                int fin = consulta.indexOf('&', inicio);
+                if (fin < 0) {
+                    fin = consulta.length();
+                }
+                int igual = consulta.indexOf('=', inicio);
+                if (igual > inicio && igual < fin && consulta.regionMatches(inicio, nombre, 0, nombre.length())
+                        && igual - inicio == nombre.length()) {
+                    return URLDecoder.decode(consulta.substring(igual + 1, fin), StandardCharsets.UTF_8);
+                }
+                inicio = fin + 1;
+            }
+        }
+        throw new IllegalArgumentException("Falta el parámetro " + nombre);
+    }
+
+    /**
+     * Carga el catálogo del archivo CSV y atiende solicitudes hasta que se detiene el proceso.
+     *
+     * Uso: java PokemonHttpServer archivo.csv [puerto]
+     *
+     * @param args El archivo CSV y, opcionalmente, el puerto (8080 por defecto).
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: java PokemonHttpServer archivo.csv [puerto]");
+            return;
+        }
+        ConcurrentPokemonApp app = new ConcurrentPokemonApp(1);
+        app.recargar(args[0]);
+        PokemonHttpServer servidor = new PokemonHttpServer(app, args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+        servidor.iniciar();
+        System.out.println("Atendiendo en http://localhost:" + servidor.getPuerto() + " ("
+                + (servidor.usaHilosVirtuales() ? "hilos virtuales" : "pool de hilos") + ")");
+    }
+}
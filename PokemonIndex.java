@@ -0,0 +1,28 @@
+/**
+ * Índice secundario sobre una colección de Pokémon.
+ * Las implementaciones se registran en un {@link IndexedPokemonMap}, que les notifica cada
+ * inserción y eliminación para que el índice se mantenga sincronizado con el mapa.
+ */
+public interface PokemonIndex {
+
+    /**
+     * Notifica que un Pokémon fue agregado a la colección.
+     *
+     * @param clave La clave con la que se guardó el Pokémon.
+     * @param p     El Pokémon agregado.
+     */
+    void agregar(String clave, Pokemon p);
+
+    /**
+     * Notifica que un Pokémon fue eliminado (o reemplazado) en la colección.
+     *
+     * @param clave La clave con la que estaba guardado el Pokémon.
+     * @param p     El Pokémon eliminado.
+     */
+    void eliminar(String clave, Pokemon p);
+
+    /**
+     * Notifica que la colección fue vaciada por completo.
+     */
+    void limpiar();
+}
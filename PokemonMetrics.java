@@ -0,0 +1,338 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métricas de las operaciones de {@link PokemonApp}.
+ *
+ * Por cada {@link Operacion} se cuentan todas las ejecuciones y se guarda un
+ * {@link LatencyHistogram} con la duración en nanosegundos y, si la JVM lo permite, los bytes
+ * asignados por el hilo durante la operación. Las operaciones indexadas duran menos de un
+ * microsegundo y leer el reloj dos veces y actualizar el histograma costaría un 10 a 20 % de
+ * eso, así que la duración se mide en una de cada {@value #MUESTREO_LATENCIA} operaciones
+ * elegidas al azar (los percentiles salen de esa muestra) y la asignación en una de cada
+ * {@value #MUESTREO_ASIGNACION}. Las cargas de datos se miden siempre.
+ * Para la carga de datos se cuentan además las filas leídas, los errores de parseo y los bytes
+ * leídos por segundo.
+ *
+ * El código medido sigue el patrón:
+ * <pre>
+ *   long inicio = metricas.inicio();
+ *   long asignados = metricas.asignados();
+ *   ... operación ...
+ *   metricas.registrar(Operacion.X, inicio, asignados);
+ * </pre>
+ * Con la medición desactivada, inicio() retorna 0 y registrar no hace nada. Quien necesita la
+ * duración en todas las ejecuciones (como la carga) pasa System.nanoTime() en lugar de inicio().
+ * Cuánto agregan las métricas se mide en benchmarks/MetricsBenchmark. Las métricas se
+ * pueden consultar por JMX ({@link #registrarJmx}) o volcar periódicamente a un archivo JSON
+ * ({@link #volcarPeriodicamente}).
+ */
+public class PokemonMetrics implements PokemonMetricsMXBean {
+
+    /**
+     * Operaciones medidas.
+     */
+    public enum Operacion {
+        CARGA,
+        BUSQUEDA_NOMBRE,
+        BUSQUEDA_HABILIDAD,
+        LISTADO_TIPO1,
+        AGREGAR_USUARIO,
+        CONSULTA,
+        ENFRENTAMIENTOS
+    }
+
+    private static final Operacion[] OPERACIONES = Operacion.values();
+    // Se mide la duración en una de cada tantas operaciones
+    static final int MUESTREO_LATENCIA = 8;
+    // Se mide la asignación de memoria en una de cada tantas operaciones
+    static final int MUESTREO_ASIGNACION = 1024;
+    // Valor de inicio() para una operación que se cuenta pero cuya duración no se mide
+    private static final long SIN_MUESTRA = Long.MIN_VALUE;
+
+    // Medición de bytes asignados por hilo (solo en JVMs que la implementan, como HotSpot)
+    private static final com.sun.management.ThreadMXBean HILOS = hilosConAsignacion();
+
+    private volatile boolean habilitado = true;
+    private final LongAdder[] ejecuciones = new LongAdder[OPERACIONES.length];
+    private final LatencyHistogram[] latencias = new LatencyHistogram[OPERACIONES.length];
+    private final LongAdder[] bytesAsignados = new LongAdder[OPERACIONES.length];
+    private final LongAdder[] muestrasAsignacion = new LongAdder[OPERACIONES.length];
+    private final LongAdder filasLeidas = new LongAdder();
+    private final LongAdder erroresParseo = new LongAdder();
+    private final LongAdder bytesLeidos = new LongAdder();
+    private volatile double bytesPorSegundoUltimaCarga;
+
+    /**
+     * Construye las métricas, activadas y con todos los contadores en cero.
+     */
+    public PokemonMetrics() {
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            ejecuciones[i] = new LongAdder();
+            latencias[i] = new LatencyHistogram();
+            bytesAsignados[i] = new LongAdder();
+            muestrasAsignacion[i] = new LongAdder();
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean hilosConAsignacion() {
+        try {
+            ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+            if (hilos instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean h = (com.sun.management.ThreadMXBean) hilos;
+                if (h.isThreadAllocatedMemorySupported() && h.isThreadAllocatedMemoryEnabled()) {
+                    return h;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // JVM sin la extensión de HotSpot: no se mide la asignación
+        }
+        return null;
+    }
+
+    /**
+     * Retorna el instante de inicio de una operación medida, si su duración entra en la muestra.
+     *
+     * @return System.nanoTime() si la operación se muestrea, un valor que solo la cuenta si no,
+     *         o 0 si la medición está desactivada.
+     */
+    public long inicio() {
+        if (!habilitado) {
+            return 0;
+        }
+        return ThreadLocalRandom.current().nextInt(MUESTREO_LATENCIA) == 0 ? System.nanoTime() : SIN_MUESTRA;
+    }
+
+    /**
+     * Retorna los bytes asignados hasta ahora por el hilo actual, si esta operación entra en la
+     * muestra de asignación.
+     *
+     * @return la cantidad de bytes, o 0 si la operación no se muestrea o la medición no es posible.
+     */
+    public long asignados() {
+        if (!habilitado || HILOS == null || ThreadLocalRandom.current().nextInt(MUESTREO_ASIGNACION) != 0) {
+            return 0;
+        }
+        return bytesDelHilo();
+    }
+
+    private static long bytesDelHilo() {
+        return HILOS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Registra la duración y la asignación de una operación que empezó en inicio.
+     *
+     * @param operacion La operación medida.
+     * @param inicio    El valor retornado por {@link #inicio()} al empezar.
+     * @param asignados El valor retornado por {@link #asignados()} al empezar.
+     */
+    public void registrar(Operacion operacion, long inicio, long asignados) {
+        if (inicio == 0 || !habilitado) {
+            return;
+        }
+        ejecuciones[operacion.ordinal()].increment();
+        if (inicio != SIN_MUESTRA) {
+            latencias[operacion.ordinal()].registrar(System.nanoTime() - inicio);
+        }
+        if (asignados != 0) {
+            bytesAsignados[operacion.ordinal()].add(bytesDelHilo() - asignados);
+            muestrasAsignacion[operacion.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Registra el resultado de una carga de datos.
+     *
+     * @param filas   Las filas leídas.
+     * @param errores Las filas que no se pudieron interpretar.
+     * @param bytes   Los bytes leídos del archivo.
+     * @param nanos   La duración de la carga.
+     */
+    public void registrarCarga(long filas, long errores, long bytes, long nanos) {
+        if (!habilitado) {
+            return;
+        }
+        filasLeidas.add(filas);
+        erroresParseo.add(errores);
+        bytesLeidos.add(bytes);
+        bytesPorSegundoUltimaCarga = nanos > 0 ? bytes * 1_000_000_000.0 / nanos : 0;
+    }
+
+    /**
+     * Retorna la cantidad de ejecuciones registradas de la operación, incluidas las que no
+     * entraron en la muestra de latencias.
+     *
+     * @param operacion La operación.
+     * @return la cantidad de ejecuciones.
+     */
+    public long getEjecuciones(Operacion operacion) {
+        return ejecuciones[operacion.ordinal()].sum();
+    }
+
+    /**
+     * Retorna el histograma de latencias (en nanosegundos) de la muestra de la operación.
+     *
+     * @param operacion La operación.
+     * @return el histograma.
+     */
+    public LatencyHistogram getLatencias(Operacion operacion) {
+        return latencias[operacion.ordinal()];
+    }
+
+    /**
+     * Retorna el promedio de bytes asignados por ejecución de la operación, según la muestra.
+     *
+     * @param operacion La operación.
+     * @return los bytes por operación, o 0 si no se midieron.
+     */
+    public double getBytesAsignadosPorOperacion(Operacion operacion) {
+        long n = muestrasAsignacion[operacion.ordinal()].sum();
+        return n == 0 ? 0 : (double) bytesAsignados[operacion.ordinal()].sum() / n;
+    }
+
+    @Override
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    @Override
+    public void setHabilitado(boolean habilitado) {
+        this.habilitado = habilitado;
+    }
+
+    @Override
+    public long getFilasLeidas() {
+        return filasLeidas.sum();
+    }
+
+    @Override
+    public long getErroresParseo() {
+        return erroresParseo.sum();
+    }
+
+    @Override
+    public long getBytesLeidos() {
+        return bytesLeidos.sum();
+    }
+
+    @Override
+    public double getBytesPorSegundoUltimaCarga() {
+        return bytesPorSegundoUltimaCarga;
+    }
+
+    @Override
+    public String getResumenTexto() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "carga: %d filas, %d errores, %d bytes (%.1f MB/s)%n",
+                getFilasLeidas(), getErroresParseo(), getBytesLeidos(), bytesPorSegundoUltimaCarga / 1e6));
+        for (Operacion op : OPERACIONES) {
+            LatencyHistogram h = latencias[op.ordinal()];
+            if (getEjecuciones(op) == 0 && h.getCantidad() == 0) {
+                continue;
+            }
+            sb.append(String.format(Locale.ROOT,
+                    "%s: n=%d muestra=%d promedio=%.1f us p50=%.1f us p90=%.1f us p99=%.1f us p99.9=%.1f us max=%.1f us asignado=%.0f B/op%n",
+                    op.name().toLowerCase(Locale.ROOT), getEjecuciones(op), h.getCantidad(), h.getPromedio() / 1e3,
+                    h.getPercentil(50) / 1e3, h.getPercentil(90) / 1e3, h.getPercentil(99) / 1e3,
+                    h.getPercentil(99.9) / 1e3, h.getMaximo() / 1e3, getBytesAsignadosPorOperacion(op)));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getResumenJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"carga\":{\"filas\":").append(getFilasLeidas())
+                .append(",\"errores\":").append(getErroresParseo())
+                .append(",\"bytes\":").append(getBytesLeidos())
+                .append(",\"bytesPorSegundo\":").append((long) bytesPorSegundoUltimaCarga)
+                .append("},\"operaciones\":{");
+        boolean primera = true;
+        for (Operacion op : OPERACIONES) {
+            LatencyHistogram h = latencias[op.ordinal()];
+            if (!primera) {
+                sb.append(',');
+            }
+            primera = false;
+            sb.append('"').append(op.name().toLowerCase(Locale.ROOT)).append("\":{\"cantidad\":").append(getEjecuciones(op))
+                    .append(",\"muestra\":").append(h.getCantidad())
+                    .append(",\"promedioNs\":").append((long) h.getPromedio())
+                    .append(",\"p50Ns\":").append(h.getPercentil(50))
+                    .append(",\"p90Ns\":").append(h.getPercentil(90))
+                    .append(",\"p99Ns\":").append(h.getPercentil(99))
+                    .append(",\"p999Ns\":").append(h.getPercentil(99.9))
+                    .append(",\"maxNs\":").append(h.getMaximo())
+                    .append(",\"bytesPorOperacion\":").append((long) getBytesAsignadosPorOperacion(op))
+                    .append('}');
+        }
+        return sb.append("}}").toString();
+    }
+
+    @Override
+    public void reiniciar() {
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            ejecuciones[i].reset();
+            latencias[i].reiniciar();
+            bytesAsignados[i].reset();
+            muestrasAsignacion[i].reset();
+        }
+        filasLeidas.reset();
+        erroresParseo.reset();
+        bytesLeidos.reset();
+        bytesPorSegundoUltimaCarga = 0;
+    }
+
+    /**
+     * Registra estas métricas en el servidor de MBeans de la plataforma.
+     *
+     * @param nombre El nombre que distingue a esta instancia, por ejemplo "principal".
+     * @throws JMException si el nombre no es válido o ya está registrado.
+     */
+    public void registrarJmx(String nombre) throws JMException {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        servidor.registerMBean(this, new ObjectName("hdt6:type=PokemonMetrics,name=" + ObjectName.quote(nombre)));
+    }
+
+    /**
+     * Escribe el resumen JSON en el archivo indicado cada cierto tiempo, desde un hilo daemon.
+     * Cada volcado reemplaza el anterior de forma atómica (se escribe un archivo temporal y se
+     * mueve), por lo que quien lea el archivo nunca ve un JSON incompleto.
+     *
+     * @param archivo    El archivo JSON.
+     * @param periodoSeg El periodo entre volcados, en segundos.
+     * @return un objeto que detiene los volcados al cerrarse.
+     */
+    public Closeable volcarPeriodicamente(Path archivo, long periodoSeg) {
+        ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "volcado-metricas");
+            t.setDaemon(true);
+            return t;
+        });
+        ejecutor.scheduleAtFixedRate(() -> {
+            try {
+                Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+                Files.write(temporal, getResumenJson().getBytes(StandardCharsets.UTF_8));
+                Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.println("No se pudieron volcar las métricas: " + e.getMessage());
+            }
+        }, periodoSeg, periodoSeg, TimeUnit.SECONDS);
+        return ejecutor::shutdownNow;
+    }
+}
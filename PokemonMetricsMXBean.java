@@ -0,0 +1,37 @@
+/**
+ * Interfaz de administración (JMX) de {@link PokemonMetrics}.
+ * Expone los contadores de carga y los resúmenes en texto y JSON, y permite activar, desactivar
+ * y reiniciar la medición desde una consola JMX como JConsole o VisualVM.
+ */
+public interface PokemonMetricsMXBean {
+
+    boolean isHabilitado();
+
+    void setHabilitado(boolean habilitado);
+
+    long getFilasLeidas();
+
+    long getErroresParseo();
+
+    long getBytesLeidos();
+
+    /**
+     * Bytes leídos por segundo en la última carga.
+     */
+    double getBytesPorSegundoUltimaCarga();
+
+    /**
+     * Resumen de todas las operaciones en texto, una línea por operación.
+     */
+    String getResumenTexto();
+
+    /**
+     * Resumen de todas las operaciones en JSON.
+     */
+    String getResumenJson();
+
+    /**
+     * Descarta los valores medidos hasta ahora.
+     */
+    void reiniciar();
+}
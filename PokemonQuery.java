@@ -0,0 +1,461 @@
+import java.util.Locale;
+
+/**
+ * Consulta inmutable sobre los atributos de los Pokémon.
+ * Cada condición es opcional y todas deben cumplirse a la vez. Se construye con
+ * {@link #builder()} o a partir de un texto con {@link #parse(String)}, por ejemplo:
+ * <pre>
+ *   PokemonQuery.builder().tipo("Water").generacion(3).legendario(true).pesoEntre(100, Double.POSITIVE_INFINITY).build();
+ *   PokemonQuery.parse("tipo=Water, generacion=3, legendario=si, peso&gt;100");
+ * </pre>
+ * Las comparaciones de texto no distinguen mayúsculas de minúsculas y los rangos numéricos
+ * incluyen sus extremos.
+ */
+public class PokemonQuery {
+    private final String nombre;
+    private final String tipo;
+    private final String tipo1;
+    private final String tipo2;
+    private final String clasificacion;
+    private final String habilidad;
+    private final int generacion;
+    private final Boolean legendario;
+    private final double alturaMin;
+    private final double alturaMax;
+    private final double pesoMin;
+    private final double pesoMax;
+    private final int pokedexMin;
+    private final int pokedexMax;
+
+    private PokemonQuery(Builder b) {
+        nombre = b.nombre;
+        tipo = b.tipo;
+        tipo1 = b.tipo1;
+        tipo2 = b.tipo2;
+        clasificacion = b.clasificacion;
+        habilidad = b.habilidad;
+        generacion = b.generacion;
+        legendario = b.legendario;
+        alturaMin = b.alturaMin;
+        alturaMax = b.alturaMax;
+        pesoMin = b.pesoMin;
+        pesoMax = b.pesoMax;
+        pokedexMin = b.pokedexMin;
+        pokedexMax = b.pokedexMax;
+    }
+
+    /**
+     * Retorna un constructor de consultas sin condiciones (coincide con todos los Pokémon).
+     *
+     * @return un nuevo Builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Construye una consulta a partir de un texto con condiciones separadas por comas.
+     * Cada condición tiene la forma {@code campo operador valor}, con los operadores
+     * =, &lt;, &gt;, &lt;= y &gt;=. Los campos válidos son nombre, tipo (Type1 o Type2), tipo1,
+     * tipo2, clasificacion, habilidad, generacion, legendario, altura, peso y pokedex.
+     *
+     * @param texto El texto de la consulta.
+     * @return la consulta correspondiente.
+     * @throws IllegalArgumentException si alguna condición no es válida.
+     */
+    public static PokemonQuery parse(String texto) {
+        Builder b = new Builder();
+        for (String parte : texto.split(",")) {
+            String condicion = parte.trim();
+            if (condicion.isEmpty()) {
+                continue;
+            }
+            int i = 0;
+            while (i < condicion.length() && "=<>".indexOf(condicion.charAt(i)) < 0) {
+                i++;
+            }
+            int j = i;
+            while (j < condicion.length() && "=<>".indexOf(condicion.charAt(j)) >= 0) {
+                j++;
+            }
+            if (i == 0 || i == condicion.length()) {
+                throw new IllegalArgumentException("Condición no válida: " + condicion);
+            }
+            String campo = condicion.substring(0, i).trim().toLowerCase(Locale.ROOT);
+            String operador = condicion.substring(i, j);
+            String valor = condicion.substring(j).trim();
+            try {
+                aplicar(b, campo, operador, valor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor no válido en la condición: " + condicion);
+            }
+        }
+        return b.build();
+    }
+
+    private static void aplicar(Builder b, String campo, String operador, String valor) {
+        switch (campo) {
+            case "altura":
+            case "peso": {
+                double v = Double.parseDouble(valor);
+                double min = Double.NEGATIVE_INFINITY;
+                double max = Double.POSITIVE_INFINITY;
+                switch (operador) {
+                    case "=": min = v; max = v; break;
+                    case ">": min = Math.nextUp(v); break;
+                    case ">=": min = v; break;
+                    case "<": max = Math.nextDown(v); break;
+                    case "<=": max = v; break;
+                    default: throw new IllegalArgumentException("Operador no válido: " + operador);
+                }
+                if (campo.equals("altura")) {
+                    b.alturaEntre(Math.max(min, b.alturaMin), Math.min(max, b.alturaMax));
+                } else {
+                    b.pesoEntre(Math.max(min, b.pesoMin), Math.min(max, b.pesoMax));
+                }
+                return;
+            }
+            case "pokedex": {
+                int v = Integer.parseInt(valor);
+                int min = Integer.MIN_VALUE;
+                int max = Integer.MAX_VALUE;
+                switch (operador) {
+                    case "=": min = v; max = v; break;
+                    case ">": min = v + 1; break;
+                    case ">=": min = v; break;
+                    case "<": max = v - 1; break;
+                    case "<=": max = v; break;
+                    default: throw new IllegalArgumentException("Operador no válido: " + operador);
+                }
+                b.pokedexEntre(Math.max(min, b.pokedexMin), Math.min(max, b.pokedexMax));
+                return;
+            }
+            default:
+                break;
+        }
+        if (!operador.equals("=")) {
+            throw new IllegalArgumentException("El campo " + campo + " solo admite el operador =");
+        }
+        switch (campo) {
+            case "nombre": b.nombre(valor); break;
+            case "tipo": b.tipo(valor); break;
+            case "tipo1": b.tipo1(valor); break;
+            case "tipo2": b.tipo2(valor); break;
+            case "clasificacion": b.clasificacion(valor); break;
+            case "habilidad": b.habilidad(valor); break;
+            case "generacion": b.generacion(Integer.parseInt(valor)); break;
+            case "legendario": {
+                String v = valor.toLowerCase(Locale.ROOT);
+                if (v.equals("si") || v.equals("sí") || v.equals("true") || v.equals("yes")) {
+                    b.legendario(true);
+                } else if (v.equals("no") || v.equals("false")) {
+                    b.legendario(false);
+                } else {
+                    throw new IllegalArgumentException("Valor no válido para legendario: " + valor);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Campo no válido: " + campo);
+        }
+    }
+
+    /**
+     * Indica si el Pokémon cumple todas las condiciones de la consulta.
+     *
+     * @param p El Pokémon a evaluar.
+     * @return verdadero si cumple la consulta.
+     */
+    public boolean coincide(Pokemon p) {
+        return coincideNumericos(p.getHeight(), p.getWeight(), p.getGeneration(), p.isLegendaryStatus())
+                && coincideTipos(p) && coincideResto(p);
+    }
+
+    /**
+     * Evalúa solo las condiciones sobre atributos numéricos y legendario.
+     */
+    boolean coincideNumericos(double altura, double peso, int gen, boolean legendary) {
+        return altura >= alturaMin && altura <= alturaMax
+                && peso >= pesoMin && peso <= pesoMax
+                && (generacion < 0 || gen == generacion)
+                && (legendario == null || legendary == legendario);
+    }
+
+    /**
+     * Evalúa solo las condiciones sobre Type1 y Type2.
+     */
+    boolean coincideTipos(Pokemon p) {
+        return (tipo1 == null || tipo1.equalsIgnoreCase(texto(p.getType1())))
+                && (tipo2 == null || tipo2.equalsIgnoreCase(texto(p.getType2())))
+                && (tipo == null || tipo.equalsIgnoreCase(texto(p.getType1())) || tipo.equalsIgnoreCase(texto(p.getType2())));
+    }
+
+    /**
+     * Evalúa las condiciones que ningún índice resuelve: nombre, clasificación, habilidad y número de Pokédex.
+     */
+    boolean coincideResto(Pokemon p) {
+        return (nombre == null || nombre.equalsIgnoreCase(p.getName()))
+                && (clasificacion == null || clasificacion.equalsIgnoreCase(texto(p.getClassification())))
+                && (habilidad == null || p.hasAbility(habilidad))
+                && p.getPokedexNumber() >= pokedexMin && p.getPokedexNumber() <= pokedexMax;
+    }
+
+    /**
+     * Indica si la consulta tiene condiciones que solo se pueden evaluar sobre el objeto Pokemon.
+     */
+    boolean tieneCondicionesResiduales() {
+        return nombre != null || clasificacion != null || habilidad != null
+                || pokedexMin != Integer.MIN_VALUE || pokedexMax != Integer.MAX_VALUE;
+    }
+
+    private static String texto(String s) {
+        return s == null ? "" : s;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getTipo1() {
+        return tipo1;
+    }
+
+    public String getTipo2() {
+        return tipo2;
+    }
+
+    public String getClasificacion() {
+        return clasificacion;
+    }
+
+    public String getHabilidad() {
+        return habilidad;
+    }
+
+    /**
+     * Retorna la generación buscada, o -1 si no hay condición sobre la generación.
+     */
+    public int getGeneracion() {
+        return generacion;
+    }
+
+    /**
+     * Retorna el valor de legendario buscado, o null si no hay condición.
+     */
+    public Boolean getLegendario() {
+        return legendario;
+    }
+
+    public double getAlturaMin() {
+        return alturaMin;
+    }
+
+    public double getAlturaMax() {
+        return alturaMax;
+    }
+
+    public double getPesoMin() {
+        return pesoMin;
+    }
+
+    public double getPesoMax() {
+        return pesoMax;
+    }
+
+    public int getPokedexMin() {
+        return pokedexMin;
+    }
+
+    public int getPokedexMax() {
+        return pokedexMax;
+    }
+
+    /**
+     * Indica si hay condición sobre la altura.
+     */
+    public boolean tieneRangoAltura() {
+        return alturaMin != Double.NEGATIVE_INFINITY || alturaMax != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Indica si hay condición sobre el peso.
+     */
+    public boolean tieneRangoPeso() {
+        return pesoMin != Double.NEGATIVE_INFINITY || pesoMax != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Indica si hay condición sobre el número de Pokédex.
+     */
+    public boolean tieneRangoPokedex() {
+        return pokedexMin != Integer.MIN_VALUE || pokedexMax != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Retorna la consulta en forma normalizada: las condiciones siempre en el mismo orden y los
+     * textos en minúsculas, de modo que dos consultas equivalentes producen el mismo texto.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        agregar(sb, "nombre", nombre);
+        agregar(sb, "tipo", tipo);
+        agregar(sb, "tipo1", tipo1);
+        agregar(sb, "tipo2", tipo2);
+        agregar(sb, "clasificacion", clasificacion);
+        agregar(sb, "habilidad", habilidad);
+        if (generacion >= 0) {
+            agregar(sb, "generacion", String.valueOf(generacion));
+        }
+        if (legendario != null) {
+            agregar(sb, "legendario", legendario ? "si" : "no");
+        }
+        if (alturaMin != Double.NEGATIVE_INFINITY) {
+            sb.append(sb.length() > 0 ? ", " : "").append("altura>=").append(alturaMin);
+        }
+        if (alturaMax != Double.POSITIVE_INFINITY) {
+            sb.append(sb.length() > 0 ? ", " : "").append("altura<=").append(alturaMax);
+        }
+        if (pesoMin != Double.NEGATIVE_INFINITY) {
+            sb.append(sb.length() > 0 ? ", " : "").append("peso>=").append(pesoMin);
+        }
+        if (pesoMax != Double.POSITIVE_INFINITY) {
+            sb.append(sb.length() > 0 ? ", " : "").append("peso<=").append(pesoMax);
+        }
+        if (pokedexMin != Integer.MIN_VALUE) {
+            sb.append(sb.length() > 0 ? ", " : "").append("pokedex>=").append(pokedexMin);
+        }
+        if (pokedexMax != Integer.MAX_VALUE) {
+            sb.append(sb.length() > 0 ? ", " : "").append("pokedex<=").append(pokedexMax);
+        }
+        return sb.toString();
+    }
+
+    private static void agregar(StringBuilder sb, String campo, String valor) {
+        if (valor != null) {
+            sb.append(sb.length() > 0 ? ", " : "").append(campo).append('=').append(valor.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PokemonQuery && toString().equals(o.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    /**
+     * Constructor de consultas. Cada método agrega una condición y retorna el mismo Builder.
+     */
+    public static class Builder {
+        private String nombre;
+        private String tipo;
+        private String tipo1;
+        private String tipo2;
+        private String clasificacion;
+        private String habilidad;
+        private int generacion = -1;
+        private Boolean legendario;
+        private double alturaMin = Double.NEGATIVE_INFINITY;
+        private double alturaMax = Double.POSITIVE_INFINITY;
+        private double pesoMin = Double.NEGATIVE_INFINITY;
+        private double pesoMax = Double.POSITIVE_INFINITY;
+        private int pokedexMin = Integer.MIN_VALUE;
+        private int pokedexMax = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        public Builder nombre(String nombre) {
+            this.nombre = nombre.trim();
+            return this;
+        }
+
+        /**
+         * Condición sobre el tipo primario o el secundario (cualquiera de los dos).
+         */
+        public Builder tipo(String tipo) {
+            this.tipo = tipo.trim();
+            return this;
+        }
+
+        public Builder tipo1(String tipo1) {
+            this.tipo1 = tipo1.trim();
+            return this;
+        }
+
+        public Builder tipo2(String tipo2) {
+            this.tipo2 = tipo2.trim();
+            return this;
+        }
+
+        public Builder clasificacion(String clasificacion) {
+            this.clasificacion = clasificacion.trim();
+            return this;
+        }
+
+        /**
+         * Condición sobre una habilidad exacta (sin distinguir mayúsculas).
+         */
+        public Builder habilidad(String habilidad) {
+            this.habilidad = habilidad.trim();
+            return this;
+        }
+
+        public Builder generacion(int generacion) {
+            if (generacion < 0) {
+                throw new IllegalArgumentException("La generación no puede ser negativa.");
+            }
+            this.generacion = generacion;
+            return this;
+        }
+
+        public Builder legendario(boolean legendario) {
+            this.legendario = legendario;
+            return this;
+        }
+
+        /**
+         * Condición de altura entre min y max (incluidos).
+         */
+        public Builder alturaEntre(double min, double max) {
+            this.alturaMin = min;
+            this.alturaMax = max;
+            return this;
+        }
+
+        /**
+         * Condición de peso entre min y max (incluidos).
+         */
+        public Builder pesoEntre(double min, double max) {
+            this.pesoMin = min;
+            this.pesoMax = max;
+            return this;
+        }
+
+        /**
+         * Condición de número de Pokédex entre min y max (incluidos).
+         */
+        public Builder pokedexEntre(int min, int max) {
+            this.pokedexMin = min;
+            this.pokedexMax = max;
+            return this;
+        }
+
+        /**
+         * Construye la consulta.
+         *
+         * @return la consulta con las condiciones indicadas.
+         */
+        public PokemonQuery build() {
+            return new PokemonQuery(this);
+        }
+    }
+}
@@ -0,0 +1,625 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Motor de consultas por varios atributos sobre la colección de Pokémon.
+ *
+ * Las filas y los mapas de bits por generación, legendario y tipo son los de un
+ * {@link FacetIndex} que el motor contiene ({@link #getFacetIndex}), de modo que las facetas y el
+ * planificador comparten un único juego de {@link CompressedBitmap}. En esas filas el motor guarda
+ * columnas primitivas (altura, peso, generación, número de Pokédex y códigos de tipo) y mantiene
+ * columnas ordenadas de altura y peso para las consultas por rango. Las columnas ordenadas se
+ * reconstruyen recién cuando una consulta las necesita después de un cambio.
+ *
+ * Al ejecutar una consulta, el planificador estima cuántas filas deja pasar cada índice
+ * aplicable, los intersecta empezando por el más selectivo y evalúa el resto de las
+ * condiciones solo sobre los candidatos. Si ningún índice reduce lo suficiente, recorre las
+ * columnas completas en bloques de 64 filas.
+ *
+ * Las columnas ordenadas también responden directamente los rangos y los K mayores o menores
+ * de altura y peso ({@link #recorrerRango}, {@link #extremos}), entregando cada Pokémon con su
+ * valor a un consumidor sin construir listas intermedias.
+ *
+ * Se registra como {@link PokemonIndex} en un {@link IndexedPokemonMap} y mantiene también el
+ * FacetIndex, que no debe registrarse aparte. Las consultas pueden ejecutarse desde varios hilos
+ * mientras no haya modificaciones simultáneas.
+ */
+public class PokemonQueryEngine implements PokemonIndex {
+    /**
+     * Atributos numéricos que tienen columna ordenada.
+     */
+    public enum Atributo {
+        ALTURA,
+        PESO
+    }
+
+    // Si el índice más selectivo deja pasar más que esta fracción de filas, se recorren las columnas
+    private static final double UMBRAL_RECORRIDO = 0.25;
+
+    // Asigna las filas y guarda los mapas de bits que usa el planificador
+    private final FacetIndex facetas = new FacetIndex();
+    private double[] alturas = new double[64];
+    private double[] pesos = new double[64];
+    private int[] generaciones = new int[64];
+    private int[] numeros = new int[64];
+    private int[] tipos1 = new int[64];
+    private int[] tipos2 = new int[64];
+    private boolean[] legendarios = new boolean[64];
+
+    // Tipos en minúsculas codificados como enteros para el recorrido de columnas
+    private final StringDictionary diccionarioTipos = new StringDictionary();
+
+    // null cuando hay cambios pendientes; se reconstruyen en la siguiente consulta por rango
+    private volatile ColumnaOrdenada alturasOrdenadas;
+    private volatile ColumnaOrdenada pesosOrdenados;
+
+    @Override
+    public void agregar(String clave, Pokemon p) {
+        facetas.agregar(clave, p);
+        int fila = facetas.fila(clave);
+        asegurarCapacidad(fila);
+        alturas[fila] = p.getHeight();
+        pesos[fila] = p.getWeight();
+        generaciones[fila] = p.getGeneration();
+        numeros[fila] = p.getPokedexNumber();
+        tipos1[fila] = codigoTipo(p.getType1());
+        tipos2[fila] = codigoTipo(p.getType2());
+        legendarios[fila] = p.isLegendaryStatus();
+        invalidarOrden();
+    }
+
+    @Override
+    public void eliminar(String clave, Pokemon p) {
+        // La fila queda libre en el FacetIndex; sus columnas se sobrescriben al reutilizarla
+        facetas.eliminar(clave, p);
+        invalidarOrden();
+    }
+
+    @Override
+    public void limpiar() {
+        facetas.limpiar();
+        invalidarOrden();
+    }
+
+    private void asegurarCapacidad(int fila) {
+        if (fila >= alturas.length) {
+            int capacidad = Math.max(alturas.length * 2, fila + 1);
+            alturas = Arrays.copyOf(alturas, capacidad);
+            pesos = Arrays.copyOf(pesos, capacidad);
+            generaciones = Arrays.copyOf(generaciones, capacidad);
+            numeros = Arrays.copyOf(numeros, capacidad);
+            tipos1 = Arrays.copyOf(tipos1, capacidad);
+            tipos2 = Arrays.copyOf(tipos2, capacidad);
+            legendarios = Arrays.copyOf(legendarios, capacidad);
+        }
+    }
+
+    private int codigoTipo(String tipo) {
+        return diccionarioTipos.codificar(normalizarTipo(tipo));
+    }
+
+    private static String normalizarTipo(String tipo) {
+        return tipo == null ? "" : tipo.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void invalidarOrden() {
+        alturasOrdenadas = null;
+        pesosOrdenados = null;
+    }
+
+    /**
+     * Retorna la cantidad de Pokémon indexados.
+     *
+     * @return la cantidad de filas ocupadas.
+     */
+    public int size() {
+        return facetas.size();
+    }
+
+    /**
+     * Retorna el índice de facetas cuyas filas y mapas de bits usa el motor.
+     *
+     * @return el FacetIndex que mantiene el motor.
+     */
+    public FacetIndex getFacetIndex() {
+        return facetas;
+    }
+
+    /**
+     * Ejecuta la consulta y retorna los Pokémon que la cumplen.
+     *
+     * @param consulta La consulta a ejecutar.
+     * @return el resultado con los Pokémon, la cantidad, el plan y los tiempos.
+     */
+    public QueryResult consultar(PokemonQuery consulta) {
+        return ejecutar(consulta, false);
+    }
+
+    /**
+     * Ejecuta la consulta y retorna solo la cantidad de Pokémon que la cumplen, sin
+     * construir la lista de resultados.
+     *
+     * @param consulta La consulta a ejecutar.
+     * @return el resultado con la cantidad, el plan y los tiempos (sin Pokémon).
+     */
+    public QueryResult contar(PokemonQuery consulta) {
+        return ejecutar(consulta, true);
+    }
+
+    /**
+     * Entrega al consumidor, de menor a mayor valor, los Pokémon cuyo atributo está entre min y
+     * max (incluidos). Los extremos del rango se ubican con búsqueda binaria en la columna
+     * ordenada, por lo que el costo es O(log N + k) para k resultados.
+     *
+     * @param atributo El atributo por el que se filtra.
+     * @param min      El valor mínimo.
+     * @param max      El valor máximo.
+     * @param destino  Quien recibe cada Pokémon junto con el valor de su atributo.
+     * @return la cantidad de Pokémon entregados.
+     */
+    public int recorrerRango(Atributo atributo, double min, double max, ObjDoubleConsumer<Pokemon> destino) {
+        ColumnaOrdenada c = orden(atributo);
+        int[] rango = c.rango(min, max);
+        for (int i = rango[0]; i < rango[1]; i++) {
+            destino.accept(facetas.pokemon(c.filas[i]), c.valores[i]);
+        }
+        return rango[1] - rango[0];
+    }
+
+    /**
+     * Entrega al consumidor los k Pokémon con mayor (o menor) valor del atributo, empezando por
+     * el más extremo. Si la columna ordenada está vigente se toman sus k últimos (o primeros)
+     * elementos en O(k); si hubo cambios desde que se ordenó, en lugar de volver a ordenar se
+     * recorre la columna con un montículo de tamaño k, en O(N log k). En ambos casos los empates
+     * se resuelven igual, por lo que el resultado no depende del camino.
+     *
+     * @param atributo El atributo por el que se ordena.
+     * @param k        La cantidad de Pokémon a entregar (o todos, si hay menos).
+     * @param mayores  true para los de mayor valor; false para los de menor valor.
+     * @param destino  Quien recibe cada Pokémon junto con el valor de su atributo.
+     * @return la cantidad de Pokémon entregados.
+     */
+    public int extremos(Atributo atributo, int k, boolean mayores, ObjDoubleConsumer<Pokemon> destino) {
+        if (k <= 0) {
+            return 0;
+        }
+        ColumnaOrdenada c = atributo == Atributo.ALTURA ? alturasOrdenadas : pesosOrdenados;
+        if (c != null) {
+            int n = Math.min(k, c.valores.length);
+            for (int i = 0; i < n; i++) {
+                int posicion = mayores ? c.valores.length - 1 - i : i;
+                destino.accept(facetas.pokemon(c.filas[posicion]), c.valores[posicion]);
+            }
+            return n;
+        }
+        double[] columna = atributo == Atributo.ALTURA ? alturas : pesos;
+        MonticuloExtremos monticulo = new MonticuloExtremos(Math.min(k, size()), mayores);
+        int totalFilas = facetas.totalFilas();
+        for (int f = 0; f < totalFilas; f++) {
+            if (facetas.pokemon(f) != null) {
+                monticulo.ofrecer(columna[f], f);
+            }
+        }
+        int n = monticulo.ordenar();
+        for (int i = 0; i < n; i++) {
+            destino.accept(facetas.pokemon(monticulo.filas[i]), monticulo.valores[i]);
+        }
+        return n;
+    }
+
+    private ColumnaOrdenada orden(Atributo atributo) {
+        return atributo == Atributo.ALTURA ? ordenAlturas() : ordenPesos();
+    }
+
+    /**
+     * Montículo acotado con los k elementos más extremos vistos, en arreglos primitivos.
+     * La raíz es el menos extremo de los guardados, que es el que se reemplaza.
+     */
+    private static final class MonticuloExtremos {
+        final double[] valores;
+        final int[] filas;
+        private final boolean mayores;
+        private int tamano;
+
+        MonticuloExtremos(int capacidad, boolean mayores) {
+            valores = new double[capacidad];
+            filas = new int[capacidad];
+            this.mayores = mayores;
+        }
+
+        /**
+         * Indica si (va, fa) es más extremo que (vb, fb); a igual valor, decide la fila, igual
+         * que en la columna ordenada.
+         */
+        private boolean masExtremo(double va, int fa, double vb, int fb) {
+            int c = va != vb ? Double.compare(va, vb) : Integer.compare(fa, fb);
+            return mayores ? c > 0 : c < 0;
+        }
+
+        void ofrecer(double valor, int fila) {
+            if (valores.length == 0) {
+                return;
+            }
+            if (tamano < valores.length) {
+                // Subir el nuevo elemento mientras sea menos extremo que su padre
+                int i = tamano++;
+                while (i > 0) {
+                    int padre = (i - 1) >>> 1;
+                    if (!masExtremo(valores[padre], filas[padre], valor, fila)) {
+                        break;
+                    }
+                    valores[i] = valores[padre];
+                    filas[i] = filas[padre];
+                    i = padre;
+                }
+                valores[i] = valor;
+                filas[i] = fila;
+            } else if (masExtremo(valor, fila, valores[0], filas[0])) {
+                bajar(valor, fila, tamano);
+            }
+        }
+
+        /**
+         * Coloca el elemento en la raíz y lo baja mientras algún hijo sea menos extremo.
+         */
+        private void bajar(double valor, int fila, int limite) {
+            int i = 0;
+            while (true) {
+                int hijo = 2 * i + 1;
+                if (hijo >= limite) {
+                    break;
+                }
+                if (hijo + 1 < limite && masExtremo(valores[hijo], filas[hijo], valores[hijo + 1], filas[hijo + 1])) {
+                    hijo++;
+                }
+                if (!masExtremo(valor, fila, valores[hijo], filas[hijo])) {
+                    break;
+                }
+                valores[i] = valores[hijo];
+                filas[i] = filas[hijo];
+                i = hijo;
+            }
+            valores[i] = valor;
+            filas[i] = fila;
+        }
+
+        /**
+         * Deja los elementos ordenados del más extremo al menos extremo y retorna su cantidad.
+         */
+        int ordenar() {
+            // Se extrae la raíz (el menos extremo) y se coloca al final, como en heapsort
+            for (int fin = tamano - 1; fin > 0; fin--) {
+                double valor = valores[0];
+                int fila = filas[0];
+                bajar(valores[fin], filas[fin], fin);
+                valores[fin] = valor;
+                filas[fin] = fila;
+            }
+            return tamano;
+        }
+    }
+
+    /**
+     * Condición que puede resolverse con un índice, con la cantidad exacta de filas que deja pasar.
+     */
+    private static final class Candidato {
+        final String descripcion;
+        final CompressedBitmap filas;
+        final int estimacion;
+
+        Candidato(String descripcion, CompressedBitmap filas, int estimacion) {
+            this.descripcion = descripcion;
+            this.filas = filas;
+            this.estimacion = estimacion;
+        }
+    }
+
+    private QueryResult ejecutar(PokemonQuery q, boolean soloContar) {
+        long inicio = System.nanoTime();
+        int total = size();
+        List<Candidato> candidatos = new ArrayList<>();
+        boolean vacio = false;
+
+        if (q.getGeneracion() >= 0) {
+            CompressedBitmap b = facetas.generacion(q.getGeneracion());
+            vacio |= b.isEmpty();
+            candidatos.add(new Candidato("generacion", b, b.cardinality()));
+        }
+        if (q.getLegendario() != null) {
+            CompressedBitmap legendarios = facetas.legendario(true);
+            if (q.getLegendario()) {
+                candidatos.add(new Candidato("legendario", legendarios, legendarios.cardinality()));
+            } else {
+                candidatos.add(new Candidato("no legendario", null, total - legendarios.cardinality()));
+            }
+        }
+        int tipo1 = -1;
+        int tipo2 = -1;
+        int tipo = -1;
+        if (q.getTipo1() != null) {
+            CompressedBitmap b = facetas.tipo1(q.getTipo1());
+            tipo1 = diccionarioTipos.buscar(normalizarTipo(q.getTipo1()));
+            vacio |= b.isEmpty();
+            candidatos.add(new Candidato("tipo1", b, b.cardinality()));
+        }
+        if (q.getTipo2() != null) {
+            CompressedBitmap b = facetas.tipo2(q.getTipo2());
+            tipo2 = diccionarioTipos.buscar(normalizarTipo(q.getTipo2()));
+            vacio |= b.isEmpty();
+            candidatos.add(new Candidato("tipo2", b, b.cardinality()));
+        }
+        if (q.getTipo() != null) {
+            int conTipo1 = facetas.tipo1(q.getTipo()).cardinality();
+            int conTipo2 = facetas.tipo2(q.getTipo()).cardinality();
+            tipo = diccionarioTipos.buscar(normalizarTipo(q.getTipo()));
+            vacio |= conTipo1 + conTipo2 == 0;
+            candidatos.add(new Candidato("tipo", null, conTipo1 + conTipo2));
+        }
+        int[] rangoAltura = null;
+        int[] rangoPeso = null;
+        if (q.tieneRangoAltura()) {
+            rangoAltura = ordenAlturas().rango(q.getAlturaMin(), q.getAlturaMax());
+            candidatos.add(new Candidato("altura", null, rangoAltura[1] - rangoAltura[0]));
+        }
+        if (q.tieneRangoPeso()) {
+            rangoPeso = ordenPesos().rango(q.getPesoMin(), q.getPesoMax());
+            candidatos.add(new Candidato("peso", null, rangoPeso[1] - rangoPeso[0]));
+        }
+        candidatos.sort(Comparator.comparingInt(c -> c.estimacion));
+
+        StringBuilder plan = new StringBuilder();
+        boolean recorrer = candidatos.isEmpty() || candidatos.get(0).estimacion > total * UMBRAL_RECORRIDO;
+        long finPlan = System.nanoTime();
+
+        List<Pokemon> resultado = new ArrayList<>();
+        int cantidad = 0;
+        if (vacio || total == 0) {
+            plan.append("sin resultados (valor inexistente en el índice)");
+        } else if (recorrer) {
+            plan.append("recorrido de columnas (").append(facetas.totalFilas()).append(" filas)");
+            long[] mascara = recorrerColumnas(q, tipo1, tipo2, tipo);
+            cantidad = recolectar(mascara, q, q.tieneCondicionesResiduales(), soloContar, resultado);
+        } else {
+            // Se intersectan los índices más selectivos; los que dejan pasar más filas que los
+            // candidatos acumulados se evalúan directamente sobre cada candidato
+            CompressedBitmap filas = null;
+            boolean tiposResueltos = true;
+            plan.append("índices:");
+            for (Candidato c : candidatos) {
+                if (filas != null && c.estimacion > filas.cardinality() * 4L) {
+                    if (c.descripcion.startsWith("tipo")) {
+                        tiposResueltos = false;
+                    }
+                    continue;
+                }
+                CompressedBitmap bits = materializar(c, rangoAltura, rangoPeso, q.getTipo());
+                plan.append(' ').append(c.descripcion).append('(').append(c.estimacion).append(')');
+                filas = filas == null ? bits : filas.and(bits);
+            }
+            plan.append(" -> ").append(filas.cardinality()).append(" candidatos");
+            cantidad = recolectar(filas.toArray(), q, !tiposResueltos || q.tieneCondicionesResiduales(), soloContar, resultado);
+        }
+        long fin = System.nanoTime();
+        return new QueryResult(resultado, cantidad, plan.toString(), finPlan - inicio, fin - finPlan);
+    }
+
+    private CompressedBitmap materializar(Candidato c, int[] rangoAltura, int[] rangoPeso, String tipo) {
+        switch (c.descripcion) {
+            case "no legendario":
+                return facetas.legendario(false);
+            case "tipo":
+                return facetas.tipo(tipo);
+            case "altura":
+                return ordenAlturas().filas(rangoAltura[0], rangoAltura[1]);
+            case "peso":
+                return ordenPesos().filas(rangoPeso[0], rangoPeso[1]);
+            default:
+                return c.filas;
+        }
+    }
+
+    /**
+     * Recorre las filas candidatas evaluando las condiciones numéricas sobre las columnas y,
+     * si hace falta, las condiciones que necesitan el objeto Pokemon.
+     */
+    private int recolectar(int[] filas, PokemonQuery q, boolean evaluarPokemon, boolean soloContar, List<Pokemon> resultado) {
+        int cantidad = 0;
+        for (int f : filas) {
+            Pokemon p = coincidencia(f, q, evaluarPokemon);
+            if (p != null) {
+                cantidad++;
+                if (!soloContar) {
+                    resultado.add(p);
+                }
+            }
+        }
+        return cantidad;
+    }
+
+    /**
+     * Igual que {@link #recolectar(int[], PokemonQuery, boolean, boolean, List)} para las filas
+     * marcadas en una máscara de palabras de 64 filas.
+     */
+    private int recolectar(long[] mascara, PokemonQuery q, boolean evaluarPokemon, boolean soloContar, List<Pokemon> resultado) {
+        int cantidad = 0;
+        for (int w = 0; w < mascara.length; w++) {
+            for (long palabra = mascara[w]; palabra != 0; palabra &= palabra - 1) {
+                Pokemon p = coincidencia((w << 6) | Long.numberOfTrailingZeros(palabra), q, evaluarPokemon);
+                if (p != null) {
+                    cantidad++;
+                    if (!soloContar) {
+                        resultado.add(p);
+                    }
+                }
+            }
+        }
+        return cantidad;
+    }
+
+    /**
+     * Retorna el Pokémon de la fila si cumple la consulta, o null si no la cumple o la fila está libre.
+     */
+    private Pokemon coincidencia(int f, PokemonQuery q, boolean evaluarPokemon) {
+        if (!q.coincideNumericos(alturas[f], pesos[f], generaciones[f], legendarios[f])) {
+            return null;
+        }
+        Pokemon p = facetas.pokemon(f);
+        if (p == null || (evaluarPokemon && !(q.coincideTipos(p) && q.coincideResto(p)))) {
+            return null;
+        }
+        return p;
+    }
+
+    /**
+     * Evalúa las condiciones indexables recorriendo las columnas primitivas completas. Cada
+     * condición se aplica a toda la columna antes de pasar a la siguiente, y las filas se
+     * procesan en bloques de 64 que producen una palabra de la máscara (ver
+     * {@link ColumnScanKernel}). El rango de Pokédex también se aplica aquí, aunque vuelva a
+     * evaluarse sobre los Pokémon que quedan.
+     */
+    private long[] recorrerColumnas(PokemonQuery q, int tipo1, int tipo2, int tipo) {
+        int totalFilas = facetas.totalFilas();
+        long[] mascara = Arrays.copyOf(facetas.todos().toLongArray(), (totalFilas + 63) >>> 6);
+        if (q.tieneRangoAltura()) {
+            ColumnScanKernel.filtrarRango(alturas, q.getAlturaMin(), q.getAlturaMax(), mascara, totalFilas);
+        }
+        if (q.tieneRangoPeso()) {
+            ColumnScanKernel.filtrarRango(pesos, q.getPesoMin(), q.getPesoMax(), mascara, totalFilas);
+        }
+        if (q.tieneRangoPokedex()) {
+            ColumnScanKernel.filtrarRango(numeros, q.getPokedexMin(), q.getPokedexMax(), mascara, totalFilas);
+        }
+        if (q.getGeneracion() >= 0) {
+            ColumnScanKernel.filtrarRango(generaciones, q.getGeneracion(), q.getGeneracion(), mascara, totalFilas);
+        }
+        if (tipo1 >= 0) {
+            ColumnScanKernel.filtrarRango(tipos1, tipo1, tipo1, mascara, totalFilas);
+        }
+        if (tipo2 >= 0) {
+            ColumnScanKernel.filtrarRango(tipos2, tipo2, tipo2, mascara, totalFilas);
+        }
+        if (tipo >= 0) {
+            ColumnScanKernel.filtrarCualquiera(tipos1, tipos2, tipo, mascara, totalFilas);
+        }
+        if (q.getLegendario() != null) {
+            long[] bits = facetas.legendario(true).toLongArray();
+            for (int w = 0; w < mascara.length; w++) {
+                long palabra = w < bits.length ? bits[w] : 0L;
+                mascara[w] &= q.getLegendario() ? palabra : ~palabra;
+            }
+        }
+        return mascara;
+    }
+
+    private ColumnaOrdenada ordenAlturas() {
+        ColumnaOrdenada c = alturasOrdenadas;
+        if (c == null) {
+            synchronized (this) {
+                c = alturasOrdenadas;
+                if (c == null) {
+                    c = new ColumnaOrdenada(alturas, facetas.todos());
+                    alturasOrdenadas = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    private ColumnaOrdenada ordenPesos() {
+        ColumnaOrdenada c = pesosOrdenados;
+        if (c == null) {
+            synchronized (this) {
+                c = pesosOrdenados;
+                if (c == null) {
+                    c = new ColumnaOrdenada(pesos, facetas.todos());
+                    pesosOrdenados = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Valores de una columna ordenados de menor a mayor junto con la fila de cada uno.
+     */
+    private static final class ColumnaOrdenada {
+        private final double[] valores;
+        private final int[] filas;
+
+        ColumnaOrdenada(double[] columna, CompressedBitmap vivas) {
+            int[] filasVivas = vivas.toArray();
+            int n = filasVivas.length;
+            // Se ordena por el valor convertido a float (32 bits altos) y la fila (32 bits bajos)
+            // con un único Arrays.sort de long; luego se corrigen los empates de float con el double
+            long[] claves = new long[n];
+            for (int k = 0; k < n; k++) {
+                int f = filasVivas[k];
+                claves[k] = ((long) floatOrdenable((float) columna[f]) << 32) | f;
+            }
+            Arrays.sort(claves);
+            valores = new double[n];
+            filas = new int[n];
+            for (int i = 0; i < n; i++) {
+                filas[i] = (int) claves[i];
+                valores[i] = columna[filas[i]];
+            }
+            for (int i = 1; i < n; i++) {
+                // Solo puede haber desorden entre valores que comparten el mismo float
+                double v = valores[i];
+                int f = filas[i];
+                int j = i - 1;
+                while (j >= 0 && valores[j] > v) {
+                    valores[j + 1] = valores[j];
+                    filas[j + 1] = filas[j];
+                    j--;
+                }
+                valores[j + 1] = v;
+                filas[j + 1] = f;
+            }
+        }
+
+        private static int floatOrdenable(float v) {
+            int bits = Float.floatToIntBits(v);
+            return bits ^ ((bits >> 31) & 0x7fffffff);
+        }
+
+        /**
+         * Retorna las posiciones [desde, hasta) de los valores entre min y max (incluidos).
+         */
+        int[] rango(double min, double max) {
+            return new int[] {primeraPosicion(min, false), primeraPosicion(max, true)};
+        }
+
+        /**
+         * Primera posición cuyo valor es mayor o igual (o mayor, si estricto) que el indicado.
+         */
+        private int primeraPosicion(double valor, boolean estricto) {
+            int lo = 0;
+            int hi = valores.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (valores[mid] < valor || (estricto && valores[mid] == valor)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        CompressedBitmap filas(int desde, int hasta) {
+            // Se agregan en orden de fila para que cada inserción sea al final de su contenedor
+            int[] orden = Arrays.copyOfRange(filas, desde, hasta);
+            Arrays.sort(orden);
+            CompressedBitmap b = new CompressedBitmap();
+            for (int f : orden) {
+                b.add(f);
+            }
+            return b;
+        }
+    }
+}
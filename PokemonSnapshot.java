@@ -0,0 +1,281 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Instantánea binaria y versionada de un catálogo de Pokémon.
+ * Permite arrancar la aplicación sin volver a interpretar el CSV: el archivo se mapea en
+ * memoria y los registros se leen directamente, por lo que el costo de inicio es
+ * aproximadamente el de leer las páginas del archivo.
+ *
+ * Formato (todos los enteros en orden big-endian):
+ * <pre>
+ *   encabezado: magia, versión, mtime del CSV, tamaño del CSV, CRC32C del CSV,
+ *               cantidad de cadenas, cantidad de habilidades, cantidad de registros
+ *   tabla de cadenas: posiciones (int por cadena + 1) y bytes UTF-8 concatenados
+ *   habilidades: códigos de cadena (int) de todas las habilidades, registro tras registro
+ *   registros de ancho fijo: ver {@link #TAMANO_REGISTRO}
+ * </pre>
+ * Cada cadena distinta (tipos, clasificaciones, habilidades) se guarda una sola vez, y al
+ * cargar se comparte la misma instancia entre todos los Pokémon que la usan.
+ */
+public class PokemonSnapshot {
+    private static final int MAGIA = 0x504B534E; // "PKSN"
+    // Versión 2: la generación ocupa un int (en la versión 1 era un byte y se truncaba)
+    private static final int VERSION = 2;
+    private static final int TAMANO_ENCABEZADO = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 4;
+    /**
+     * Tamaño de un registro: nombre, pokedex, type1, type2, clasificación (int cada uno),
+     * altura y peso (double), inicio de habilidades (int), cantidad de habilidades (short),
+     * generación (int) y legendario (byte).
+     */
+    private static final int TAMANO_REGISTRO = 4 * 5 + 8 * 2 + 4 + 2 + 4 + 1;
+    // Tamaño de cada ventana al mapear los registros (múltiplo del tamaño de registro)
+    private static final long VENTANA = (1L << 30) / TAMANO_REGISTRO * TAMANO_REGISTRO;
+
+    private PokemonSnapshot() {
+    }
+
+    /**
+     * Retorna la ruta de la instantánea asociada a un archivo CSV.
+     *
+     * @param csv La ruta del archivo CSV.
+     * @return la ruta de la instantánea (mismo nombre con la extensión ".snap").
+     */
+    public static Path rutaPara(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".snap");
+    }
+
+    /**
+     * Escribe la instantánea de los Pokémon indicados, asociada al archivo CSV de origen.
+     * Se escribe primero en un archivo temporal que luego reemplaza al anterior, de modo que
+     * una instantánea a medio escribir nunca se confunde con una válida.
+     *
+     * @param destino  La ruta de la instantánea.
+     * @param fuente   El archivo CSV del que provienen los datos.
+     * @param pokemons Los Pokémon a guardar.
+     * @throws IOException si ocurre un error al leer el CSV o escribir la instantánea.
+     */
+    public static void escribir(Path destino, Path fuente, Collection<Pokemon> pokemons) throws IOException {
+        // Primera pasada: tabla de cadenas y cantidad de habilidades
+        StringDictionary cadenas = new StringDictionary();
+        int totalHabilidades = 0;
+        for (Pokemon p : pokemons) {
+            cadenas.codificar(p.getName());
+            cadenas.codificar(texto(p.getType1()));
+            cadenas.codificar(texto(p.getType2()));
+            cadenas.codificar(texto(p.getClassification()));
+            for (String habilidad : p.getAbilities()) {
+                cadenas.codificar(habilidad);
+            }
+            totalHabilidades += p.getAbilities().size();
+        }
+
+        Path temporal = Files.createTempFile(destino.toAbsolutePath().getParent(), "pokemon", ".snap.tmp");
+        try {
+            try (OutputStream archivo = Files.newOutputStream(temporal);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(archivo, 1 << 16))) {
+                out.writeInt(MAGIA);
+                out.writeInt(VERSION);
+                out.writeLong(Files.getLastModifiedTime(fuente).toMillis());
+                out.writeLong(Files.size(fuente));
+                out.writeLong(crc(fuente));
+                out.writeInt(cadenas.size());
+                out.writeInt(totalHabilidades);
+                out.writeInt(pokemons.size());
+
+                byte[][] bytes = new byte[cadenas.size()][];
+                int posicion = 0;
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = cadenas.decodificar(i).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(posicion);
+                    posicion += bytes[i].length;
+                }
+                out.writeInt(posicion);
+                for (byte[] b : bytes) {
+                    out.write(b);
+                }
+
+                for (Pokemon p : pokemons) {
+                    for (String habilidad : p.getAbilities()) {
+                        out.writeInt(cadenas.buscar(habilidad));
+                    }
+                }
+
+                int inicioHabilidades = 0;
+                for (Pokemon p : pokemons) {
+                    out.writeInt(cadenas.buscar(p.getName()));
+                    out.writeInt(p.getPokedexNumber());
+                    out.writeInt(cadenas.buscar(texto(p.getType1())));
+                    out.writeInt(cadenas.buscar(texto(p.getType2())));
+                    out.writeInt(cadenas.buscar(texto(p.getClassification())));
+                    out.writeDouble(p.getHeight());
+                    out.writeDouble(p.getWeight());
+                    out.writeInt(inicioHabilidades);
+                    out.writeShort(p.getAbilities().size());
+                    out.writeInt(p.getGeneration());
+                    out.writeByte(p.isLegendaryStatus() ? 1 : 0);
+                    inicioHabilidades += p.getAbilities().size();
+                }
+            }
+            try {
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Carga la instantánea en el mapa indicado si corresponde al archivo CSV actual.
+     * La instantánea se considera vigente si el tamaño del CSV coincide y, además, coincide su
+     * fecha de modificación o, si la fecha cambió, su CRC32C (archivo tocado pero sin cambios).
+     * En ese último caso se guarda la fecha nueva en el encabezado, para que las cargas
+     * siguientes no vuelvan a recorrer el CSV para calcular el CRC.
+     *
+     * @param snapshot La ruta de la instantánea.
+     * @param fuente   El archivo CSV de origen.
+     * @param destino  El mapa donde se agregan los Pokémon (clave: nombre).
+     * @return verdadero si se cargó la instantánea; falso si no existe, está desactualizada o no es válida.
+     * @throws IOException si ocurre un error al leer los archivos.
+     */
+    public static boolean cargar(Path snapshot, Path fuente, Map<String, Pokemon> destino) throws IOException {
+        if (!Files.exists(snapshot) || !Files.exists(fuente)) {
+            return false;
+        }
+        try (FileChannel canal = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (canal.size() < TAMANO_ENCABEZADO) {
+                return false;
+            }
+            ByteBuffer encabezado = ByteBuffer.allocate(TAMANO_ENCABEZADO);
+            canal.read(encabezado, 0);
+            encabezado.flip();
+            if (encabezado.getInt() != MAGIA || encabezado.getInt() != VERSION) {
+                return false;
+            }
+            long mtime = encabezado.getLong();
+            long tamano = encabezado.getLong();
+            long hash = encabezado.getLong();
+            if (tamano != Files.size(fuente)) {
+                return false;
+            }
+            long mtimeFuente = Files.getLastModifiedTime(fuente).toMillis();
+            boolean mtimeCambiado = mtime != mtimeFuente;
+            if (mtimeCambiado && hash != crc(fuente)) {
+                return false;
+            }
+            int numCadenas = encabezado.getInt();
+            int numHabilidades = encabezado.getInt();
+            int numRegistros = encabezado.getInt();
+
+            // Tabla de cadenas y habilidades: se leen completas, son pequeñas frente a los registros
+            long posicion = TAMANO_ENCABEZADO;
+            MappedByteBuffer tabla = canal.map(FileChannel.MapMode.READ_ONLY, posicion, (numCadenas + 1) * 4L);
+            int[] inicios = new int[numCadenas + 1];
+            tabla.asIntBuffer().get(inicios);
+            posicion += (numCadenas + 1) * 4L;
+            byte[] bytes = new byte[inicios[numCadenas]];
+            canal.map(FileChannel.MapMode.READ_ONLY, posicion, bytes.length).get(bytes);
+            posicion += bytes.length;
+            String[] cadenas = new String[numCadenas];
+            for (int i = 0; i < numCadenas; i++) {
+                cadenas[i] = new String(bytes, inicios[i], inicios[i + 1] - inicios[i], StandardCharsets.UTF_8);
+            }
+            int[] habilidades = new int[numHabilidades];
+            canal.map(FileChannel.MapMode.READ_ONLY, posicion, numHabilidades * 4L).asIntBuffer().get(habilidades);
+            posicion += numHabilidades * 4L;
+
+            if (canal.size() != posicion + (long) numRegistros * TAMANO_REGISTRO) {
+                return false;
+            }
+            leerRegistros(canal, posicion, numRegistros, cadenas, habilidades, destino);
+            if (mtimeCambiado) {
+                actualizarMtime(snapshot, mtimeFuente);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Reemplaza la fecha de modificación del CSV guardada en el encabezado. Si no se puede
+     * escribir (por ejemplo, la instantánea es de solo lectura), la instantánea sigue siendo
+     * válida y la próxima carga vuelve a comparar el CRC32C.
+     */
+    private static void actualizarMtime(Path snapshot, long mtime) {
+        ByteBuffer valor = ByteBuffer.allocate(8).putLong(mtime);
+        valor.flip();
+        try (FileChannel canal = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            // La fecha va después de la magia y la versión
+            canal.write(valor, 8);
+        } catch (IOException e) {
+            // Se conserva la fecha anterior
+        }
+    }
+
+    private static void leerRegistros(FileChannel canal, long inicio, int numRegistros, String[] cadenas,
+                                      int[] habilidades, Map<String, Pokemon> destino) throws IOException {
+        long total = (long) numRegistros * TAMANO_REGISTRO;
+        String[] buffer = new String[16];
+        for (long desplazamiento = 0; desplazamiento < total; desplazamiento += VENTANA) {
+            long largo = Math.min(VENTANA, total - desplazamiento);
+            MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY, inicio + desplazamiento, largo);
+            while (ventana.hasRemaining()) {
+                String name = cadenas[ventana.getInt()];
+                int pokedexNumber = ventana.getInt();
+                String type1 = cadenas[ventana.getInt()];
+                String type2 = cadenas[ventana.getInt()];
+                String classification = cadenas[ventana.getInt()];
+                double height = ventana.getDouble();
+                double weight = ventana.getDouble();
+                int inicioHabilidades = ventana.getInt();
+                int cantidad = ventana.getShort() & 0xFFFF;
+                int generation = ventana.getInt();
+                boolean legendary = ventana.get() != 0;
+                if (cantidad > buffer.length) {
+                    buffer = new String[cantidad];
+                }
+                for (int i = 0; i < cantidad; i++) {
+                    buffer[i] = cadenas[habilidades[inicioHabilidades + i]];
+                }
+                List<String> lista = Arrays.asList(buffer).subList(0, cantidad);
+                destino.put(name, new Pokemon(name, pokedexNumber, type1, type2, classification,
+                        height, weight, lista, generation, legendary));
+            }
+        }
+    }
+
+    private static String texto(String s) {
+        return s == null ? "" : s;
+    }
+
+    /**
+     * Calcula el CRC32C del archivo recorriéndolo en ventanas mapeadas en memoria.
+     */
+    private static long crc(Path archivo) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            for (long posicion = 0; posicion < tamano; posicion += 1L << 30) {
+                crc.update(canal.map(FileChannel.MapMode.READ_ONLY, posicion, Math.min(1L << 30, tamano - posicion)));
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,246 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caché acotada de resultados de consultas, con política LRU segmentada.
+ *
+ * Las entradas nuevas entran al segmento de prueba; si se vuelven a pedir pasan al segmento
+ * protegido, que ocupa hasta el 80 % de la capacidad. Cuando el protegido se llena, su entrada
+ * menos reciente vuelve al de prueba, y las expulsiones salen del de prueba. Así, una ráfaga de
+ * consultas distintas que se piden una sola vez no desplaza a las consultas repetidas.
+ *
+ * La caché está acotada por cantidad de entradas y por una estimación de los bytes de los
+ * resultados. Se registra como {@link PokemonIndex} en la colección cuyos resultados guarda:
+ * cualquier cambio de la colección incrementa la versión de los datos, y la siguiente consulta
+ * descarta todas las entradas anteriores. Puede usarse desde varios hilos.
+ *
+ * Se puede desactivar ({@link #setHabilitada}) para medir o depurar las consultas sin ella: las
+ * consultas se calculan siempre y no se guarda nada.
+ */
+public class QueryCache implements PokemonIndex {
+    // Fracción de la capacidad reservada para las entradas pedidas más de una vez
+    private static final double FRACCION_PROTEGIDA = 0.8;
+
+    /**
+     * Resultado guardado junto con su tamaño estimado.
+     */
+    private static final class Entrada {
+        final Object valor;
+        final long bytes;
+
+        Entrada(Object valor, long bytes) {
+            this.valor = valor;
+            this.bytes = bytes;
+        }
+    }
+
+    // Ambos segmentos en orden de acceso: la primera entrada es la menos reciente
+    private final LinkedHashMap<String, Entrada> prueba = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Entrada> protegida = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntradas;
+    private final int maxProtegidas;
+    private final long maxBytes;
+    private long bytes;
+    private volatile boolean habilitada = true;
+
+    private final AtomicLong version = new AtomicLong();
+    // Versión de los datos a la que corresponden las entradas guardadas
+    private long versionEntradas;
+
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+    private long invalidaciones;
+
+    /**
+     * Construye una caché con los límites indicados.
+     *
+     * @param maxEntradas La cantidad máxima de resultados guardados.
+     * @param maxBytes    El tamaño estimado máximo de los resultados guardados, en bytes.
+     */
+    public QueryCache(int maxEntradas, long maxBytes) {
+        this.maxEntradas = Math.max(1, maxEntradas);
+        this.maxProtegidas = (int) (this.maxEntradas * FRACCION_PROTEGIDA);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void agregar(String clave, Pokemon p) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void eliminar(String clave, Pokemon p) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void limpiar() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Retorna el resultado guardado para la clave o, si no está, lo calcula y lo guarda.
+     * El cálculo se hace fuera del bloqueo, de modo que una consulta lenta no detiene a las
+     * que encuentran su resultado en la caché. El resultado se comparte entre quienes piden la
+     * misma clave, por lo que no debe modificarse.
+     *
+     * @param clave   La consulta normalizada, con un prefijo que distinga el tipo de consulta.
+     * @param calculo Calcula el resultado cuando no está en la caché.
+     * @param tamano  Estima el tamaño del resultado en bytes.
+     * @param <V>     El tipo del resultado.
+     * @return el resultado.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V obtener(String clave, Supplier<V> calculo, ToLongFunction<? super V> tamano) {
+        if (!habilitada) {
+            return calculo.get();
+        }
+        long versionConsulta;
+        synchronized (this) {
+            versionConsulta = vigente();
+            Entrada e = protegida.get(clave);
+            if (e == null) {
+                e = prueba.remove(clave);
+                if (e != null) {
+                    proteger(clave, e);
+                }
+            }
+            if (e != null) {
+                aciertos++;
+                return (V) e.valor;
+            }
+            fallos++;
+        }
+        V valor = calculo.get();
+        long bytesValor = tamano.applyAsLong(valor) + 40L + 2L * clave.length();
+        synchronized (this) {
+            // Si los datos cambiaron mientras se calculaba, el resultado ya no sirve para la caché
+            if (vigente() == versionConsulta && bytesValor <= maxBytes && !protegida.containsKey(clave)
+                    && !prueba.containsKey(clave)) {
+                prueba.put(clave, new Entrada(valor, bytesValor));
+                bytes += bytesValor;
+                expulsar();
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Descarta todas las entradas si cambió la versión de los datos y retorna la versión actual.
+     */
+    private long vigente() {
+        long actual = version.get();
+        if (actual != versionEntradas) {
+            if (!prueba.isEmpty() || !protegida.isEmpty()) {
+                invalidaciones++;
+            }
+            prueba.clear();
+            protegida.clear();
+            bytes = 0;
+            versionEntradas = actual;
+        }
+        return actual;
+    }
+
+    private void proteger(String clave, Entrada e) {
+        protegida.put(clave, e);
+        if (protegida.size() > maxProtegidas) {
+            Iterator<Map.Entry<String, Entrada>> it = protegida.entrySet().iterator();
+            Map.Entry<String, Entrada> antigua = it.next();
+            it.remove();
+            prueba.put(antigua.getKey(), antigua.getValue());
+        }
+    }
+
+    private void expulsar() {
+        while (prueba.size() + protegida.size() > maxEntradas || bytes > maxBytes) {
+            LinkedHashMap<String, Entrada> segmento = prueba.isEmpty() ? protegida : prueba;
+            Iterator<Map.Entry<String, Entrada>> it = segmento.entrySet().iterator();
+            bytes -= it.next().getValue().bytes;
+            it.remove();
+            expulsiones++;
+        }
+    }
+
+    /**
+     * Activa o desactiva la caché. Al desactivarla se descartan las entradas guardadas.
+     *
+     * @param habilitada true para guardar los resultados; false para calcularlos siempre.
+     */
+    public void setHabilitada(boolean habilitada) {
+        this.habilitada = habilitada;
+        if (!habilitada) {
+            vaciar();
+        }
+    }
+
+    /**
+     * Indica si la caché guarda los resultados.
+     *
+     * @return true si está activada.
+     */
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * Descarta todas las entradas y los contadores.
+     */
+    public synchronized void vaciar() {
+        prueba.clear();
+        protegida.clear();
+        bytes = 0;
+        aciertos = 0;
+        fallos = 0;
+        expulsiones = 0;
+        invalidaciones = 0;
+    }
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    public synchronized long getExpulsiones() {
+        return expulsiones;
+    }
+
+    /**
+     * Retorna cuántas veces se descartó la caché completa por un cambio de los datos.
+     *
+     * @return la cantidad de invalidaciones.
+     */
+    public synchronized long getInvalidaciones() {
+        return invalidaciones;
+    }
+
+    public synchronized int getEntradas() {
+        return prueba.size() + protegida.size();
+    }
+
+    /**
+     * Retorna el tamaño estimado de los resultados guardados.
+     *
+     * @return los bytes estimados.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long consultas = aciertos + fallos;
+        return String.format(java.util.Locale.ROOT,
+                "caché: %d aciertos, %d fallos (%.1f %% aciertos), %d expulsiones, %d invalidaciones, %d entradas, %d KB",
+                aciertos, fallos, consultas == 0 ? 0.0 : aciertos * 100.0 / consultas, expulsiones, invalidaciones,
+                prueba.size() + protegida.size(), bytes / 1024);
+    }
+}
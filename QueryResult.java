@@ -0,0 +1,61 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de ejecutar una {@link PokemonQuery}: los Pokémon encontrados (salvo en las
+ * consultas que solo cuentan), la cantidad, el plan elegido y los tiempos de planificación
+ * y de ejecución.
+ */
+public class QueryResult {
+    private final List<Pokemon> pokemons;
+    private final int cantidad;
+    private final String plan;
+    private final long nanosPlanificacion;
+    private final long nanosEjecucion;
+
+    /**
+     * Construye un resultado.
+     *
+     * @param pokemons           Los Pokémon encontrados (vacía si la consulta solo cuenta).
+     * @param cantidad           La cantidad de Pokémon que cumplen la consulta.
+     * @param plan               La descripción del plan de ejecución.
+     * @param nanosPlanificacion El tiempo empleado en elegir el plan, en nanosegundos.
+     * @param nanosEjecucion     El tiempo empleado en ejecutarlo, en nanosegundos.
+     */
+    public QueryResult(List<Pokemon> pokemons, int cantidad, String plan, long nanosPlanificacion, long nanosEjecucion) {
+        this.pokemons = Collections.unmodifiableList(pokemons);
+        this.cantidad = cantidad;
+        this.plan = plan;
+        this.nanosPlanificacion = nanosPlanificacion;
+        this.nanosEjecucion = nanosEjecucion;
+    }
+
+    public List<Pokemon> getPokemons() {
+        return pokemons;
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public long getNanosPlanificacion() {
+        return nanosPlanificacion;
+    }
+
+    public long getNanosEjecucion() {
+        return nanosEjecucion;
+    }
+
+    /**
+     * Retorna un resumen con la cantidad de resultados, los tiempos y el plan.
+     */
+    @Override
+    public String toString() {
+        return cantidad + " resultados (planificación: " + (nanosPlanificacion / 1_000_000.0)
+                + " ms, ejecución: " + (nanosEjecucion / 1_000_000.0) + " ms, plan: " + plan + ")";
+    }
+}
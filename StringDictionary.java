@@ -0,0 +1,161 @@
+import java.util.Arrays;
+
+/**
+ * Diccionario que asigna un código entero a cada cadena distinta.
+ * Se usa para guardar columnas de baja cardinalidad (tipos, clasificaciones, habilidades)
+ * como enteros y compartir una sola instancia de cada String.
+ *
+ * La búsqueda acepta una porción de cualquier CharSequence, de modo que un campo recién
+ * separado del CSV puede codificarse sin crear un String cuando el valor ya existe.
+ */
+public class StringDictionary {
+    private String[] valores = new String[16];
+    private int[] hashes = new int[16];
+    // Tabla de direccionamiento abierto con los códigos + 1 (0 indica posición vacía)
+    private int[] tabla = new int[32];
+    private int tamano;
+
+    /**
+     * Retorna el código de la cadena, agregándola al diccionario si no existía.
+     *
+     * @param valor La cadena a codificar.
+     * @return el código de la cadena.
+     */
+    public int codificar(String valor) {
+        return codificar(valor, 0, valor.length());
+    }
+
+    /**
+     * Retorna el código de la porción [inicio, fin) de la secuencia, agregándola si no existía.
+     * Solo se crea un String cuando la porción no estaba en el diccionario.
+     *
+     * @param texto  La secuencia que contiene el valor.
+     * @param inicio La posición inicial del valor.
+     * @param fin    La posición final (exclusiva) del valor.
+     * @return el código del valor.
+     */
+    public int codificar(CharSequence texto, int inicio, int fin) {
+        int hash = hash(texto, inicio, fin);
+        int posicion = buscarPosicion(texto, inicio, fin, hash);
+        if (tabla[posicion] != 0) {
+            return tabla[posicion] - 1;
+        }
+        if (tamano == valores.length) {
+            valores = Arrays.copyOf(valores, tamano * 2);
+            hashes = Arrays.copyOf(hashes, tamano * 2);
+        }
+        int codigo = tamano++;
+        valores[codigo] = texto.subSequence(inicio, fin).toString();
+        hashes[codigo] = hash;
+        tabla[posicion] = codigo + 1;
+        if (tamano * 2 > tabla.length) {
+            redimensionar();
+        }
+        return codigo;
+    }
+
+    /**
+     * Retorna el código de la porción [inicio, fin) de la secuencia sin agregarla.
+     *
+     * @param texto  La secuencia que contiene el valor.
+     * @param inicio La posición inicial del valor.
+     * @param fin    La posición final (exclusiva) del valor.
+     * @return el código del valor, o -1 si no está en el diccionario.
+     */
+    public int buscar(CharSequence texto, int inicio, int fin) {
+        int posicion = buscarPosicion(texto, inicio, fin, hash(texto, inicio, fin));
+        return tabla[posicion] - 1;
+    }
+
+    /**
+     * Retorna el código de la cadena sin agregarla.
+     *
+     * @param valor La cadena a buscar.
+     * @return el código de la cadena, o -1 si no está en el diccionario.
+     */
+    public int buscar(String valor) {
+        return buscar(valor, 0, valor.length());
+    }
+
+    /**
+     * Retorna la cadena correspondiente a un código.
+     *
+     * @param codigo El código de la cadena.
+     * @return la cadena compartida del diccionario.
+     */
+    public String decodificar(int codigo) {
+        return valores[codigo];
+    }
+
+    /**
+     * Retorna la cantidad de cadenas distintas del diccionario.
+     *
+     * @return la cantidad de cadenas.
+     */
+    public int size() {
+        return tamano;
+    }
+
+    /**
+     * Estima la memoria ocupada por el diccionario, incluyendo las cadenas.
+     *
+     * @return la cantidad aproximada de bytes.
+     */
+    public long estimarMemoriaBytes() {
+        long bytes = 16L + valores.length * 4L + hashes.length * 4L + tabla.length * 4L;
+        for (int i = 0; i < tamano; i++) {
+            // Encabezado del String y de su arreglo interno
+            bytes += 40 + valores[i].length();
+        }
+        return bytes;
+    }
+
+    private static int hash(CharSequence texto, int inicio, int fin) {
+        // Mismo cálculo que String.hashCode para que ambas formas de búsqueda coincidan
+        int h = 0;
+        for (int i = inicio; i < fin; i++) {
+            h = 31 * h + texto.charAt(i);
+        }
+        return h;
+    }
+
+    private int buscarPosicion(CharSequence texto, int inicio, int fin, int hash) {
+        int mascara = tabla.length - 1;
+        int posicion = mezclar(hash) & mascara;
+        while (true) {
+            int codigo = tabla[posicion] - 1;
+            if (codigo < 0 || (hashes[codigo] == hash && iguales(valores[codigo], texto, inicio, fin))) {
+                return posicion;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+    }
+
+    private static boolean iguales(String valor, CharSequence texto, int inicio, int fin) {
+        if (valor.length() != fin - inicio) {
+            return false;
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            if (valor.charAt(i) != texto.charAt(inicio + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mezclar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void redimensionar() {
+        tabla = new int[tabla.length * 2];
+        int mascara = tabla.length - 1;
+        for (int codigo = 0; codigo < tamano; codigo++) {
+            int posicion = mezclar(hashes[codigo]) & mascara;
+            while (tabla[posicion] != 0) {
+                posicion = (posicion + 1) & mascara;
+            }
+            tabla[posicion] = codigo + 1;
+        }
+    }
+}
@@ -0,0 +1,461 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Generador de conjuntos de datos sintéticos con el mismo formato que pokemon_data_pokeapi.csv.
+ *
+ * Cada fila parte de un Pokémon real tomado al azar del archivo de plantillas, por lo que la
+ * proporción de tipos, las combinaciones Type1/Type2, las habilidades y las clasificaciones
+ * siguen la distribución real. Sobre la plantilla se varían la altura y el peso (±20 %), se
+ * agrega a veces una habilidad de otro Pokémon, se acentúan algunos nombres y se escribe una
+ * pequeña fracción de líneas mal formadas. El nombre lleva el número de fila como sufijo
+ * ("Bulbasaur#123") y el número de Pokédex es el número de fila, de modo que ambos son únicos.
+ *
+ * El contenido de cada fila depende solo de la semilla y de su número, así que el archivo
+ * resultante es el mismo sea cual sea la cantidad de hilos. Las filas se generan en bloques
+ * en paralelo, directamente como bytes UTF-8, y un único hilo escribe los bloques en orden
+ * con un FileChannel.
+ *
+ * Uso desde la línea de comandos:
+ * <pre>
+ *   java SyntheticDataGenerator plantillas.csv destino.csv filas [semilla]
+ * </pre>
+ */
+public class SyntheticDataGenerator {
+    static final String ENCABEZADO = "Name,Pokedex Number,Type1,Type2,Classification,Height (m),Weight (kg),Abilities,Generation,Legendary Status";
+    // Filas por bloque de trabajo; cada bloque ocupa unos pocos megabytes
+    private static final int FILAS_POR_BLOQUE = 1 << 15;
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Pokémon real del que se derivan las filas sintéticas, con sus campos ya codificados en UTF-8.
+     */
+    private static final class Plantilla {
+        final Pokemon pokemon;
+        // El sufijo "#fila" va pegado al nombre, por lo que el nombre no puede ir entre comillas
+        final String nombreBase;
+        final String nombreAcentuado;
+        final byte[] nombre;
+        final byte[] nombreConAcentos;
+        // ",Type1,Type2,Classification,"
+        final byte[] tiposYClasificacion;
+        final byte[][] habilidades;
+        // ",Generation,Legendary Status"
+        final byte[] generacionYLegendario;
+
+        Plantilla(Pokemon p) {
+            pokemon = p;
+            nombreBase = p.getName().replace(',', ' ').replace('"', '\'');
+            nombreAcentuado = acentuar(nombreBase);
+            nombre = utf8(nombreBase);
+            nombreConAcentos = utf8(nombreAcentuado);
+            tiposYClasificacion = utf8("," + campo(p.getType1()) + "," + campo(p.getType2()) + ","
+                    + campo(p.getClassification()) + ",");
+            habilidades = new byte[p.getAbilities().size()][];
+            for (int i = 0; i < habilidades.length; i++) {
+                habilidades[i] = utf8(p.getAbilities().get(i));
+            }
+            generacionYLegendario = utf8("," + p.getGeneration() + "," + (p.isLegendaryStatus() ? "Yes" : "No"));
+        }
+    }
+
+    /**
+     * Fila sintética antes de convertirla en bytes o en un objeto Pokemon. Se reutiliza entre filas.
+     */
+    private static final class Fila {
+        long numero;
+        Plantilla plantilla;
+        boolean acentuada;
+        long decimasAltura;
+        long decimasPeso;
+        // Habilidad agregada (índice en el conjunto de habilidades), o -1
+        int habilidadExtra;
+        // 0: fila válida, 1: faltan campos, 2: altura no numérica
+        int error;
+    }
+
+    /**
+     * Arreglo de bytes que crece según haga falta; se recicla entre bloques.
+     */
+    private static final class Bufer {
+        byte[] datos = new byte[FILAS_POR_BLOQUE * 96];
+        int longitud;
+
+        void asegurar(int extra) {
+            if (longitud + extra > datos.length) {
+                datos = Arrays.copyOf(datos, Math.max(datos.length * 2, longitud + extra));
+            }
+        }
+
+        void agregar(byte[] bytes) {
+            asegurar(bytes.length);
+            System.arraycopy(bytes, 0, datos, longitud, bytes.length);
+            longitud += bytes.length;
+        }
+
+        void agregar(char c) {
+            asegurar(1);
+            datos[longitud++] = (byte) c;
+        }
+
+        void agregarNumero(long valor) {
+            asegurar(20);
+            if (valor == 0) {
+                datos[longitud++] = '0';
+                return;
+            }
+            int digitos = 0;
+            for (long v = valor; v > 0; v /= 10) {
+                digitos++;
+            }
+            int fin = longitud + digitos;
+            for (long v = valor; v > 0; v /= 10) {
+                datos[--fin] = (byte) ('0' + v % 10);
+            }
+            longitud += digitos;
+        }
+
+        void agregarDecimas(long decimas) {
+            agregarNumero(decimas / 10);
+            agregar('.');
+            agregar((char) ('0' + decimas % 10));
+        }
+    }
+
+    private final Plantilla[] plantillas;
+    private final byte[][] habilidades;
+    private final String[] nombresHabilidades;
+    private final long semilla;
+    private double tasaErrores = 0.001;
+    private double tasaAcentos = 0.02;
+    private double tasaHabilidadExtra = 0.125;
+    private int hilos = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Construye un generador a partir de los Pokémon indicados.
+     *
+     * @param plantillas Los Pokémon de los que se derivan las filas (al menos uno).
+     * @param semilla    La semilla; la misma semilla produce siempre las mismas filas.
+     */
+    public SyntheticDataGenerator(List<Pokemon> plantillas, long semilla) {
+        if (plantillas.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un Pokémon de plantilla");
+        }
+        this.plantillas = new Plantilla[plantillas.size()];
+        Set<String> todas = new LinkedHashSet<>();
+        for (int i = 0; i < this.plantillas.length; i++) {
+            this.plantillas[i] = new Plantilla(plantillas.get(i));
+            todas.addAll(plantillas.get(i).getAbilities());
+        }
+        nombresHabilidades = todas.toArray(new String[0]);
+        habilidades = new byte[nombresHabilidades.length][];
+        for (int i = 0; i < habilidades.length; i++) {
+            habilidades[i] = utf8(nombresHabilidades[i]);
+        }
+        this.semilla = semilla;
+    }
+
+    /**
+     * Construye un generador que toma como plantillas las filas válidas de un archivo CSV.
+     *
+     * @param csv     El archivo CSV, normalmente pokemon_data_pokeapi.csv.
+     * @param semilla La semilla.
+     * @return el generador.
+     * @throws IOException si el archivo no se puede leer.
+     */
+    public static SyntheticDataGenerator desdeCsv(Path csv, long semilla) throws IOException {
+        List<Pokemon> plantillas = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            br.readLine();
+            CsvTokenizer tokenizer = new CsvTokenizer();
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (tokenizer.split(line) < 10) {
+                    continue;
+                }
+                try {
+                    plantillas.add(PokemonApp.crearPokemon(tokenizer));
+                } catch (NumberFormatException e) {
+                    // Las filas inválidas no sirven de plantilla
+                }
+            }
+        }
+        return new SyntheticDataGenerator(plantillas, semilla);
+    }
+
+    /**
+     * Fija la fracción de líneas mal formadas (por defecto 0,001).
+     *
+     * @param tasa La fracción, entre 0 y 1.
+     * @return este generador.
+     */
+    public SyntheticDataGenerator conTasaErrores(double tasa) {
+        this.tasaErrores = tasa;
+        return this;
+    }
+
+    /**
+     * Fija la fracción de nombres con vocales acentuadas (por defecto 0,02).
+     *
+     * @param tasa La fracción, entre 0 y 1.
+     * @return este generador.
+     */
+    public SyntheticDataGenerator conTasaAcentos(double tasa) {
+        this.tasaAcentos = tasa;
+        return this;
+    }
+
+    /**
+     * Fija la cantidad de hilos que generan bloques al escribir un archivo (por defecto, uno por procesador).
+     *
+     * @param hilos La cantidad de hilos.
+     * @return este generador.
+     */
+    public SyntheticDataGenerator conHilos(int hilos) {
+        this.hilos = Math.max(1, hilos);
+        return this;
+    }
+
+    /**
+     * Escribe un archivo CSV con el encabezado y la cantidad de filas indicada.
+     *
+     * @param destino El archivo a crear o reemplazar.
+     * @param filas   La cantidad de filas de datos.
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public void escribirCsv(Path destino, long filas) throws IOException {
+        long bloques = (filas + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "generador-csv");
+            t.setDaemon(true);
+            return t;
+        });
+        Queue<Bufer> libres = new ConcurrentLinkedQueue<>();
+        // Se mantienen dos bloques en curso por hilo; el resto espera para acotar la memoria
+        ArrayDeque<Future<Bufer>> pendientes = new ArrayDeque<>();
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            escribirTodo(canal, ByteBuffer.wrap(utf8(ENCABEZADO + "\n")));
+            long siguiente = 0;
+            while (siguiente < bloques || !pendientes.isEmpty()) {
+                while (siguiente < bloques && pendientes.size() < hilos * 2) {
+                    long desde = siguiente * FILAS_POR_BLOQUE;
+                    long hasta = Math.min(filas, desde + FILAS_POR_BLOQUE);
+                    pendientes.add(ejecutor.submit(() -> generarBloque(desde, hasta, libres)));
+                    siguiente++;
+                }
+                Bufer bufer = pendientes.poll().get();
+                escribirTodo(canal, ByteBuffer.wrap(bufer.datos, 0, bufer.longitud));
+                libres.add(bufer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Generación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error al generar un bloque", e.getCause());
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    private static void escribirTodo(FileChannel canal, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            canal.write(bytes);
+        }
+    }
+
+    private Bufer generarBloque(long desde, long hasta, Queue<Bufer> libres) {
+        Bufer bufer = libres.poll();
+        if (bufer == null) {
+            bufer = new Bufer();
+        }
+        bufer.longitud = 0;
+        Fila fila = new Fila();
+        for (long i = desde; i < hasta; i++) {
+            generarFila(i, fila);
+            escribirFila(fila, bufer);
+        }
+        return bufer;
+    }
+
+    /**
+     * Genera los Pokémon de las filas válidas y se los entrega al consumidor, en orden y en el
+     * hilo que llama. Son los mismos que se obtendrían al leer el archivo de {@link #escribirCsv}
+     * con la misma semilla y la misma cantidad de filas.
+     *
+     * @param filas   La cantidad de filas (incluidas las que serían inválidas, que se omiten).
+     * @param destino Quien recibe cada Pokémon.
+     * @return la cantidad de filas omitidas por ser inválidas.
+     */
+    public long generar(long filas, Consumer<Pokemon> destino) {
+        Fila fila = new Fila();
+        long omitidas = 0;
+        for (long i = 0; i < filas; i++) {
+            generarFila(i, fila);
+            if (fila.error != 0) {
+                omitidas++;
+                continue;
+            }
+            destino.accept(crearPokemon(fila));
+        }
+        return omitidas;
+    }
+
+    /**
+     * Decide los valores de la fila a partir de la semilla y su número, con SplitMix64.
+     */
+    private void generarFila(long numero, Fila fila) {
+        long estado = semilla + numero * PHI;
+        fila.numero = numero;
+        fila.plantilla = plantillas[(int) Math.floorMod(mezclar(estado += PHI), (long) plantillas.length)];
+        fila.acentuada = uniforme(mezclar(estado += PHI)) < tasaAcentos;
+        fila.decimasAltura = variar(fila.plantilla.pokemon.getHeight(), mezclar(estado += PHI));
+        fila.decimasPeso = variar(fila.plantilla.pokemon.getWeight(), mezclar(estado += PHI));
+        long r = mezclar(estado += PHI);
+        fila.habilidadExtra = uniforme(r) < tasaHabilidadExtra
+                ? (int) Math.floorMod(mezclar(estado += PHI), (long) habilidades.length)
+                : -1;
+        long e = mezclar(estado + PHI);
+        fila.error = uniforme(e) < tasaErrores ? 1 + (int) (e & 1) : 0;
+    }
+
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double uniforme(long r) {
+        return (r >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Multiplica el valor por un factor entre 0,8 y 1,2 y lo redondea a décimas (al menos 0,1).
+     */
+    private static long variar(double valor, long r) {
+        return Math.max(1, Math.round(valor * (0.8 + 0.4 * uniforme(r)) * 10));
+    }
+
+    private void escribirFila(Fila fila, Bufer b) {
+        Plantilla p = fila.plantilla;
+        b.agregar(fila.acentuada ? p.nombreConAcentos : p.nombre);
+        b.agregar('#');
+        b.agregarNumero(fila.numero);
+        b.agregar(',');
+        b.agregarNumero(fila.numero + 1);
+        if (fila.error == 1) {
+            // Línea cortada después del número de Pokédex
+            b.agregar('\n');
+            return;
+        }
+        b.agregar(p.tiposYClasificacion);
+        if (fila.error == 2) {
+            b.agregar('?');
+        } else {
+            b.agregarDecimas(fila.decimasAltura);
+        }
+        b.agregar(',');
+        b.agregarDecimas(fila.decimasPeso);
+        b.agregar(',');
+        boolean extra = fila.habilidadExtra >= 0;
+        boolean entreComillas = p.habilidades.length + (extra ? 1 : 0) > 1;
+        if (entreComillas) {
+            b.agregar('"');
+        }
+        for (int i = 0; i < p.habilidades.length; i++) {
+            if (i > 0) {
+                b.agregar(',');
+                b.agregar(' ');
+            }
+            b.agregar(p.habilidades[i]);
+        }
+        if (extra) {
+            if (p.habilidades.length > 0) {
+                b.agregar(',');
+                b.agregar(' ');
+            }
+            b.agregar(habilidades[fila.habilidadExtra]);
+        }
+        if (entreComillas) {
+            b.agregar('"');
+        }
+        b.agregar(p.generacionYLegendario);
+        b.agregar('\n');
+    }
+
+    private Pokemon crearPokemon(Fila fila) {
+        Pokemon p = fila.plantilla.pokemon;
+        List<String> habilidadesFila = p.getAbilities();
+        if (fila.habilidadExtra >= 0) {
+            habilidadesFila = new ArrayList<>(habilidadesFila);
+            habilidadesFila.add(nombresHabilidades[fila.habilidadExtra]);
+        }
+        String nombre = (fila.acentuada ? fila.plantilla.nombreAcentuado : fila.plantilla.nombreBase) + "#" + fila.numero;
+        return new Pokemon(nombre, (int) (fila.numero + 1), p.getType1(), p.getType2(), p.getClassification(),
+                fila.decimasAltura / 10.0, fila.decimasPeso / 10.0, habilidadesFila, p.getGeneration(),
+                p.isLegendaryStatus());
+    }
+
+    /**
+     * Reemplaza las vocales sin acento por las acentuadas, para ejercitar nombres no ASCII.
+     */
+    static String acentuar(String nombre) {
+        StringBuilder sb = new StringBuilder(nombre.length());
+        for (int i = 0; i < nombre.length(); i++) {
+            char c = nombre.charAt(i);
+            int vocal = "aeiouAEIOU".indexOf(c);
+            sb.append(vocal < 0 ? c : "áéíóúÁÉÍÓÚ".charAt(vocal));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Encierra el campo entre comillas si contiene comas o comillas.
+     */
+    private static String campo(String texto) {
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0) {
+            return texto;
+        }
+        return '"' + texto.replace("\"", "\"\"") + '"';
+    }
+
+    private static byte[] utf8(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Uso: java SyntheticDataGenerator plantillas.csv destino.csv filas [semilla]");
+            return;
+        }
+        long filas = Long.parseLong(args[2]);
+        long semilla = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        SyntheticDataGenerator generador = desdeCsv(Paths.get(args[0]), semilla);
+        long inicio = System.nanoTime();
+        generador.escribirCsv(Paths.get(args[1]), filas);
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        long bytes = Files.size(Paths.get(args[1]));
+        System.out.printf("%d filas, %d MB en %.2f s (%.1f MB/s)%n", filas, bytes >> 20, segundos,
+                bytes / 1e6 / segundos);
+    }
+}
@@ -0,0 +1,153 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Índice secundario por tipo primario (Type1) y secundario (Type2).
+ * Los tipos se guardan en un TreeMap, por lo que recorrer el índice entrega los Pokémon ya
+ * ordenados por Type1 sin necesidad de copiar ni ordenar la colección en cada consulta.
+ * Dentro de un mismo tipo se conserva el orden de inserción.
+ */
+public class TypeIndex implements PokemonIndex {
+    private final TreeMap<String, LinkedHashMap<String, Pokemon>> porTipo1 = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final TreeMap<String, LinkedHashMap<String, Pokemon>> porTipo2 = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private int total;
+
+    @Override
+    public void agregar(String clave, Pokemon p) {
+        // Todo Pokémon aparece en el índice primario (los que no tienen Type1 quedan al inicio);
+        // en el secundario solo se guardan los que tienen Type2
+        agregarEn(porTipo1, tipoPrimario(p), clave, p);
+        if (tieneTipo2(p)) {
+            agregarEn(porTipo2, p.getType2(), clave, p);
+        }
+        total++;
+    }
+
+    @Override
+    public void eliminar(String clave, Pokemon p) {
+        eliminarDe(porTipo1, tipoPrimario(p), clave);
+        if (tieneTipo2(p)) {
+            eliminarDe(porTipo2, p.getType2(), clave);
+        }
+        total--;
+    }
+
+    @Override
+    public void limpiar() {
+        porTipo1.clear();
+        porTipo2.clear();
+        total = 0;
+    }
+
+    private static String tipoPrimario(Pokemon p) {
+        return p.getType1() == null ? "" : p.getType1();
+    }
+
+    private static boolean tieneTipo2(Pokemon p) {
+        return p.getType2() != null && !p.getType2().isEmpty();
+    }
+
+    private static void agregarEn(TreeMap<String, LinkedHashMap<String, Pokemon>> indice, String tipo, String clave, Pokemon p) {
+        indice.computeIfAbsent(tipo, t -> new LinkedHashMap<>()).put(clave, p);
+    }
+
+    private static void eliminarDe(TreeMap<String, LinkedHashMap<String, Pokemon>> indice, String tipo, String clave) {
+        LinkedHashMap<String, Pokemon> grupo = indice.get(tipo);
+        if (grupo != null) {
+            grupo.remove(clave);
+            if (grupo.isEmpty()) {
+                indice.remove(tipo);
+            }
+        }
+    }
+
+    /**
+     * Retorna los Pokémon cuyo tipo primario es el indicado (sin distinguir mayúsculas).
+     *
+     * @param tipo El tipo primario.
+     * @return una vista no modificable de los Pokémon de ese tipo, vacía si no hay ninguno.
+     */
+    public Collection<Pokemon> getPorTipo1(String tipo) {
+        LinkedHashMap<String, Pokemon> grupo = porTipo1.get(tipo);
+        return grupo == null ? Collections.emptyList() : Collections.unmodifiableCollection(grupo.values());
+    }
+
+    /**
+     * Retorna los Pokémon cuyo tipo secundario es el indicado (sin distinguir mayúsculas).
+     *
+     * @param tipo El tipo secundario.
+     * @return una vista no modificable de los Pokémon de ese tipo, vacía si no hay ninguno.
+     */
+    public Collection<Pokemon> getPorTipo2(String tipo) {
+        LinkedHashMap<String, Pokemon> grupo = porTipo2.get(tipo);
+        return grupo == null ? Collections.emptyList() : Collections.unmodifiableCollection(grupo.values());
+    }
+
+    /**
+     * Retorna los tipos primarios presentes, en orden alfabético.
+     *
+     * @return el conjunto de tipos primarios.
+     */
+    public Collection<String> getTipos1() {
+        return Collections.unmodifiableSet(porTipo1.keySet());
+    }
+
+    /**
+     * Retorna la cantidad de Pokémon indexados.
+     *
+     * @return la cantidad de Pokémon.
+     */
+    public int size() {
+        return total;
+    }
+
+    /**
+     * Retorna todos los Pokémon ordenados por su tipo primario.
+     * El recorrido es lineal y no copia la colección.
+     *
+     * @return un Iterable sobre los Pokémon ordenados por Type1.
+     */
+    public Iterable<Pokemon> ordenadosPorTipo1() {
+        return () -> new Iterator<Pokemon>() {
+            private final Iterator<LinkedHashMap<String, Pokemon>> grupos = porTipo1.values().iterator();
+            private Iterator<Pokemon> actual = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!actual.hasNext()) {
+                    if (!grupos.hasNext()) {
+                        return false;
+                    }
+                    actual = grupos.next().values().iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Pokemon next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return actual.next();
+            }
+        };
+    }
+
+    /**
+     * Retorna la cantidad de Pokémon por tipo primario, en orden alfabético de tipo.
+     *
+     * @return un mapa de tipo a cantidad.
+     */
+    public Map<String, Integer> contarPorTipo1() {
+        Map<String, Integer> conteo = new LinkedHashMap<>();
+        for (Map.Entry<String, LinkedHashMap<String, Pokemon>> e : porTipo1.entrySet()) {
+            conteo.put(e.getKey(), e.getValue().size());
+        }
+        return conteo;
+    }
+}
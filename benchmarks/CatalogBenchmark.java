@@ -0,0 +1,159 @@
+package benchmarks;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks de las operaciones de consulta de PokemonApp para cada implementación de Map.
+ * Las operaciones se miden sin escribir en consola: la salida estándar se silencia y las
+ * consultas usan los métodos que retornan resultados en lugar de mostrarlos.
+ *
+ * Las búsquedas por habilidad y el ordenamiento por Type1 pasan por la caché de consultas,
+ * por lo que se miden de dos formas: con {@link SinCache}, que desactiva la caché para todo el
+ * benchmark y mide el índice o el recorrido, y en los benchmarks "ConCache", donde todas las
+ * invocaciones después de la primera son aciertos. Cada benchmark corre en su propio fork, así
+ * que desactivar la caché en uno no afecta a los demás.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CatalogBenchmark {
+
+    /**
+     * Opción de MapFactory (1: HashMap, 2: TreeMap, 3: LinkedHashMap, 4: direccionamiento
+     * abierto, 5: ConcurrentHashMap, 6: fuera del heap).
+     */
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int mapOption;
+
+    /** Cantidad de filas del conjunto de datos (0: archivo incluido). */
+    @Param({"0", "100000", "1000000"})
+    public int filas;
+
+    private Object app;
+    private Map<String, ?> mapa;
+    private Map<String, ?> coleccion;
+    private Object cache;
+    private String[] nombres;
+    private int cursorConsulta;
+    private int cursorInsercion;
+    private PrintStream salidaOriginal;
+
+    @Setup
+    public void preparar() {
+        salidaOriginal = Datasets.silenciarSalida();
+        app = PokemonAppBridge.nuevaApp(mapOption);
+        PokemonAppBridge.loadData(app, Datasets.archivo(filas));
+        mapa = PokemonAppBridge.getPokemonMap(app);
+        coleccion = PokemonAppBridge.getUserCollection(app);
+        cache = PokemonAppBridge.getCache(app);
+        nombres = mapa.keySet().toArray(new String[0]);
+        // Se baraja el orden de consulta para no favorecer a ninguna implementación
+        java.util.Collections.shuffle(java.util.Arrays.asList(nombres), new java.util.Random(42));
+    }
+
+    @TearDown
+    public void restaurar() {
+        System.setOut(salidaOriginal);
+    }
+
+    /**
+     * Desactiva la caché de consultas durante los benchmarks que reciben este estado, de modo
+     * que cada invocación calcula el resultado sin un paso de preparación que se mida con ella.
+     */
+    @State(Scope.Benchmark)
+    public static class SinCache {
+        private Object cache;
+
+        @Setup(Level.Trial)
+        public void desactivar(CatalogBenchmark benchmark) {
+            cache = benchmark.cache;
+            PokemonAppBridge.setCacheHabilitada(cache, false);
+        }
+
+        @TearDown(Level.Trial)
+        public void activar() {
+            PokemonAppBridge.setCacheHabilitada(cache, true);
+        }
+    }
+
+    @Benchmark
+    public Object busquedaPorNombre() {
+        String nombre = nombres[cursorConsulta];
+        cursorConsulta = cursorConsulta + 1 == nombres.length ? 0 : cursorConsulta + 1;
+        return mapa.get(nombre);
+    }
+
+    @Benchmark
+    public int busquedaPorHabilidadNombreCompleto(SinCache sinCache) {
+        // Búsqueda por subcadena usando como texto el nombre completo de una habilidad
+        return PokemonAppBridge.buscarPorHabilidad(app, "Levitate").size();
+    }
+
+    @Benchmark
+    public int busquedaPorHabilidadSubcadena(SinCache sinCache) {
+        return PokemonAppBridge.buscarPorHabilidad(app, "ze").size();
+    }
+
+    @Benchmark
+    public int busquedaPorHabilidadConCache() {
+        return PokemonAppBridge.buscarPorHabilidad(app, "ze").size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int busquedaPorHabilidadRecorridoParalelo(SinCache sinCache) {
+        return PokemonAppBridge.buscarPorHabilidadEnParalelo(app, "ze").size();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int ordenamientoParaleloPorTipo1(SinCache sinCache) {
+        return PokemonAppBridge.ordenarPorTipo1(app).length;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int ordenamientoPorTipo1ConCache() {
+        // Con la caché solo se copia el arreglo ordenado guardado
+        return PokemonAppBridge.ordenarPorTipo1(app).length;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void listadoOrdenadoPorTipo1(Blackhole bh) {
+        for (Object p : PokemonAppBridge.ordenadosPorTipo1(app)) {
+            bh.consume(p);
+        }
+    }
+
+    @Benchmark
+    public int insercionEnColeccionUsuario() {
+        // Al agotar los nombres se vacía la colección para seguir midiendo inserciones nuevas
+        if (cursorInsercion == nombres.length) {
+            coleccion.clear();
+            cursorInsercion = 0;
+        }
+        PokemonAppBridge.agregarPokemonAUsuario(app, nombres[cursorInsercion++]);
+        return coleccion.size();
+    }
+}
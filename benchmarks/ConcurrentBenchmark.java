@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark de ConcurrentPokemonApp con varios hilos: cada operación busca un Pokémon en el
+ * catálogo publicado y lo agrega a la colección del usuario del hilo. Para ver cómo escala,
+ * se ejecuta con distinta cantidad de hilos de JMH, por ejemplo:
+ * <pre>
+ *   ./benchmarks/run-benchmarks.sh ConcurrentBenchmark -t 1
+ *   ./benchmarks/run-benchmarks.sh ConcurrentBenchmark -t max
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ConcurrentBenchmark {
+
+    /** Cantidad de filas del conjunto de datos (0: archivo incluido). */
+    @Param({"0", "100000"})
+    public int filas;
+
+    private static final AtomicInteger USUARIOS = new AtomicInteger();
+
+    private Object app;
+    private String[] nombres;
+    private PrintStream salidaOriginal;
+
+    @Setup
+    public void preparar() {
+        salidaOriginal = Datasets.silenciarSalida();
+        app = PokemonAppBridge.nuevaAppConcurrente(1);
+        PokemonAppBridge.recargarConcurrente(app, Datasets.archivo(filas));
+        nombres = PokemonAppBridge.getPokemonsDelCatalogo(app).keySet().toArray(new String[0]);
+        java.util.Collections.shuffle(java.util.Arrays.asList(nombres), new java.util.Random(42));
+    }
+
+    @TearDown
+    public void restaurar() {
+        System.setOut(salidaOriginal);
+    }
+
+    /**
+     * Usuario y posición de consulta propios de cada hilo.
+     */
+    @State(Scope.Thread)
+    public static class Hilo {
+        String usuario;
+        int cursor;
+
+        @Setup
+        public void preparar() {
+            usuario = "bench" + USUARIOS.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public Object consultaYAgregado(Hilo hilo) {
+        String nombre = nombres[hilo.cursor];
+        hilo.cursor = hilo.cursor + 1 == nombres.length ? 0 : hilo.cursor + 1;
+        Object p = PokemonAppBridge.getDelCatalogo(app, nombre);
+        PokemonAppBridge.agregarPokemonAUsuario(app, hilo.usuario, nombre);
+        return p;
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Conjuntos de datos para los benchmarks.
+ * El tamaño 0 corresponde al archivo incluido en el repositorio; cualquier otro tamaño se
+ * genera una sola vez en el directorio temporal con SyntheticDataGenerator, tomando como
+ * plantillas las filas del archivo incluido y una semilla fija, de modo que todas las corridas
+ * usen exactamente los mismos datos.
+ */
+final class Datasets {
+    static final String ARCHIVO_INCLUIDO = "pokemon_data_pokeapi.csv";
+    static final long SEMILLA = 42;
+
+    private Datasets() {
+    }
+
+    /**
+     * Retorna la ruta de un archivo CSV con la cantidad de filas indicada.
+     *
+     * @param filas La cantidad de filas, o 0 para usar el archivo incluido.
+     * @return la ruta del archivo.
+     */
+    static String archivo(int filas) {
+        if (filas == 0) {
+            return ARCHIVO_INCLUIDO;
+        }
+        Path destino = Paths.get(System.getProperty("java.io.tmpdir"), "pokemon_generado_" + filas + "_" + SEMILLA + ".csv");
+        if (Files.exists(destino)) {
+            return destino.toString();
+        }
+        try {
+            Path temporal = Files.createTempFile(destino.getParent(), "pokemon_generado", ".tmp");
+            PokemonAppBridge.generarCsv(ARCHIVO_INCLUIDO, temporal, filas, SEMILLA);
+            Files.move(temporal, destino, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            return destino.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Silencia la salida estándar para que los mensajes de la aplicación no se midan.
+     *
+     * @return la salida estándar original, para restaurarla al terminar.
+     */
+    static PrintStream silenciarSalida() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de la carga del CSV para cada implementación de Map.
+ * Cada medición construye una aplicación nueva y carga el archivo completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class LoadBenchmark {
+
+    /**
+     * Opción de MapFactory (1: HashMap, 2: TreeMap, 3: LinkedHashMap, 4: direccionamiento
+     * abierto, 5: ConcurrentHashMap, 6: fuera del heap).
+     */
+    @Param({"1", "2", "3", "4", "5", "6"})
+    public int mapOption;
+
+    /** Cantidad de filas del conjunto de datos (0: archivo incluido). */
+    @Param({"0", "100000", "1000000"})
+    public int filas;
+
+    private String archivo;
+    private PrintStream salidaOriginal;
+
+    @Setup
+    public void preparar() {
+        salidaOriginal = Datasets.silenciarSalida();
+        archivo = Datasets.archivo(filas);
+    }
+
+    @TearDown
+    public void restaurar() {
+        System.setOut(salidaOriginal);
+    }
+
+    @Benchmark
+    public Object cargaSecuencial() {
+        Object app = PokemonAppBridge.nuevaApp(mapOption);
+        PokemonAppBridge.loadData(app, archivo);
+        return app;
+    }
+
+    @Benchmark
+    public Object cargaParalela() {
+        Object app = PokemonAppBridge.nuevaApp(mapOption);
+        PokemonAppBridge.loadDataParalelo(app, archivo);
+        return app;
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Costo de las métricas de operaciones: las mismas operaciones cortas se miden con las métricas
+ * activadas y desactivadas, y la diferencia entre ambas corridas es lo que agregan la lectura
+ * del reloj, el histograma y la muestra de asignación de memoria.
+ * <pre>
+ *   ./benchmarks/run-benchmarks.sh MetricsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class MetricsBenchmark {
+
+    /** Si las métricas están activadas. */
+    @Param({"false", "true"})
+    public boolean metricas;
+
+    private Object app;
+    private Object consulta;
+    private PrintStream salidaOriginal;
+
+    @Setup
+    public void preparar() {
+        salidaOriginal = Datasets.silenciarSalida();
+        app = PokemonAppBridge.nuevaApp(1);
+        PokemonAppBridge.loadData(app, Datasets.archivo(0));
+        PokemonAppBridge.setMetricasHabilitadas(app, metricas);
+        consulta = PokemonAppBridge.parsearConsulta("generacion = 3, tipo = water");
+    }
+
+    @TearDown
+    public void restaurar() {
+        System.setOut(salidaOriginal);
+    }
+
+    @Benchmark
+    public int conteoPorGeneracionYTipo() {
+        return PokemonAppBridge.contar(app, consulta);
+    }
+
+    @Benchmark
+    public int busquedaPorHabilidad() {
+        // Con la caché de consultas es un acierto, la operación medida más corta
+        return PokemonAppBridge.buscarPorHabilidad(app, "Levitate").size();
+    }
+}
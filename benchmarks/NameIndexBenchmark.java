@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark de la búsqueda aproximada del índice de nombres, que se ejecuta cada vez que el
+ * usuario escribe un nombre que no existe. Las consultas son nombres del catálogo con un error
+ * de escritura (un carácter borrado o cambiado), elegidos con una semilla fija; se miden con la
+ * distancia que usa la resolución de nombres (2) y con la de las sugerencias (3).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class NameIndexBenchmark {
+
+    /** Cantidad de filas del conjunto de datos (0: archivo incluido). */
+    @Param({"0", "100000", "1000000"})
+    public int filas;
+
+    private Object nameIndex;
+    private String[] consultas;
+    private int cursor;
+    private PrintStream salidaOriginal;
+
+    @Setup
+    public void preparar() {
+        salidaOriginal = Datasets.silenciarSalida();
+        Object app = PokemonAppBridge.nuevaApp(1);
+        PokemonAppBridge.loadDataParalelo(app, Datasets.archivo(filas));
+        nameIndex = PokemonAppBridge.getNameIndex(app);
+        String[] nombres = PokemonAppBridge.getPokemonMap(app).keySet().toArray(new String[0]);
+        Random random = new Random(42);
+        consultas = new String[1024];
+        for (int i = 0; i < consultas.length; i++) {
+            StringBuilder sb = new StringBuilder(nombres[random.nextInt(nombres.length)]);
+            int posicion = random.nextInt(sb.length());
+            if (random.nextBoolean()) {
+                sb.deleteCharAt(posicion);
+            } else {
+                sb.setCharAt(posicion, (char) ('a' + random.nextInt(26)));
+            }
+            consultas[i] = sb.toString();
+        }
+    }
+
+    @TearDown
+    public void restaurar() {
+        System.setOut(salidaOriginal);
+    }
+
+    private String siguienteConsulta() {
+        String consulta = consultas[cursor];
+        cursor = (cursor + 1) & (consultas.length - 1);
+        return consulta;
+    }
+
+    @Benchmark
+    public int busquedaAproximadaDistancia2() {
+        return PokemonAppBridge.buscarAproximado(nameIndex, siguienteConsulta(), 2).size();
+    }
+
+    @Benchmark
+    public int busquedaAproximadaDistancia3() {
+        return PokemonAppBridge.buscarAproximado(nameIndex, siguienteConsulta(), 3).size();
+    }
+}
@@ -0,0 +1,315 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acceso a las clases de la aplicación desde el paquete de benchmarks.
+ * JMH exige que los benchmarks estén en un paquete con nombre, y Java no permite importar
+ * clases del paquete por defecto, por lo que las operaciones se enlazan una sola vez con
+ * MethodHandles constantes. El JIT las trata como llamadas directas.
+ */
+final class PokemonAppBridge {
+    private static final MethodHandle NUEVA_APP;
+    private static final MethodHandle LOAD_DATA;
+    private static final MethodHandle LOAD_DATA_PARALELO;
+    private static final MethodHandle GET_POKEMON_MAP;
+    private static final MethodHandle GET_USER_COLLECTION;
+    private static final MethodHandle BUSCAR_POR_HABILIDAD;
+    private static final MethodHandle BUSCAR_POR_HABILIDAD_EN_PARALELO;
+    private static final MethodHandle ORDENADOS_POR_TIPO1;
+    private static final MethodHandle ORDENAR_POR_TIPO1;
+    private static final MethodHandle AGREGAR_A_USUARIO;
+    private static final MethodHandle GET_CACHE;
+    private static final MethodHandle NUEVA_APP_CONCURRENTE;
+    private static final MethodHandle RECARGAR_CONCURRENTE;
+    private static final MethodHandle GET_CATALOGO;
+    private static final MethodHandle CATALOGO_GET;
+    private static final MethodHandle CATALOGO_POKEMONS;
+    private static final MethodHandle AGREGAR_A_USUARIO_CONCURRENTE;
+    private static final MethodHandle SET_CACHE_HABILITADA;
+    private static final MethodHandle GENERADOR_DESDE_CSV;
+    private static final MethodHandle ESCRIBIR_CSV;
+    private static final MethodHandle GET_NAME_INDEX;
+    private static final MethodHandle BUSCAR_APROXIMADO;
+    private static final MethodHandle GET_METRICAS;
+    private static final MethodHandle SET_HABILITADO;
+    private static final MethodHandle PARSEAR_CONSULTA;
+    private static final MethodHandle CONTAR;
+    private static final MethodHandle GET_CANTIDAD;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> app = Class.forName("PokemonApp");
+            NUEVA_APP = lookup.findConstructor(app, MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            LOAD_DATA = metodo(lookup, app, "loadData", void.class, String.class);
+            LOAD_DATA_PARALELO = metodo(lookup, app, "loadDataParalelo", void.class, String.class);
+            GET_POKEMON_MAP = metodo(lookup, app, "getPokemonMap", Map.class);
+            GET_USER_COLLECTION = metodo(lookup, app, "getUserCollection", Map.class);
+            BUSCAR_POR_HABILIDAD = metodo(lookup, app, "buscarPorHabilidad", List.class, String.class);
+            BUSCAR_POR_HABILIDAD_EN_PARALELO = metodo(lookup, app, "buscarPorHabilidadEnParalelo", List.class, String.class);
+            ORDENADOS_POR_TIPO1 = metodo(lookup, app, "getPokemonsOrdenadosPorTipo1", Iterable.class);
+            ORDENAR_POR_TIPO1 = metodo(lookup, app, "ordenarPorTipo1", Class.forName("[LPokemon;"))
+                    .asType(MethodType.methodType(Object[].class, Object.class));
+            AGREGAR_A_USUARIO = metodo(lookup, app, "agregarPokemonAUsuario", void.class, String.class);
+            Class<?> cache = Class.forName("QueryCache");
+            GET_CACHE = metodo(lookup, app, "getCache", cache)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            SET_CACHE_HABILITADA = metodo(lookup, cache, "setHabilitada", void.class, boolean.class);
+            Class<?> concurrente = Class.forName("ConcurrentPokemonApp");
+            Class<?> catalogo = Class.forName("ConcurrentPokemonApp$Catalogo");
+            NUEVA_APP_CONCURRENTE = lookup.findConstructor(concurrente, MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            RECARGAR_CONCURRENTE = metodo(lookup, concurrente, "recargar", void.class, String.class);
+            GET_CATALOGO = metodo(lookup, concurrente, "getCatalogo", catalogo)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            CATALOGO_GET = metodo(lookup, catalogo, "get", Class.forName("Pokemon"), String.class)
+                    .asType(MethodType.methodType(Object.class, Object.class, String.class));
+            CATALOGO_POKEMONS = metodo(lookup, catalogo, "getPokemons", Map.class);
+            AGREGAR_A_USUARIO_CONCURRENTE = metodo(lookup, concurrente, "agregarPokemonAUsuario",
+                    Class.forName("ConcurrentPokemonApp$Resultado"), String.class, String.class)
+                    .asType(MethodType.methodType(Object.class, Object.class, String.class, String.class));
+            Class<?> generador = Class.forName("SyntheticDataGenerator");
+            GENERADOR_DESDE_CSV = lookup.findStatic(generador, "desdeCsv", MethodType.methodType(generador, Path.class, long.class))
+                    .asType(MethodType.methodType(Object.class, Path.class, long.class));
+            ESCRIBIR_CSV = metodo(lookup, generador, "escribirCsv", void.class, Path.class, long.class);
+            Class<?> nameIndex = Class.forName("NameIndex");
+            GET_NAME_INDEX = metodo(lookup, app, "getNameIndex", nameIndex)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            BUSCAR_APROXIMADO = metodo(lookup, nameIndex, "buscarAproximado", List.class, String.class, int.class);
+            Class<?> metricas = Class.forName("PokemonMetrics");
+            GET_METRICAS = metodo(lookup, app, "getMetricas", metricas)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            SET_HABILITADO = metodo(lookup, metricas, "setHabilitado", void.class, boolean.class);
+            Class<?> consulta = Class.forName("PokemonQuery");
+            Class<?> resultado = Class.forName("QueryResult");
+            PARSEAR_CONSULTA = lookup.findStatic(consulta, "parse", MethodType.methodType(consulta, String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            CONTAR = metodo(lookup, app, "contar", resultado, consulta)
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            GET_CANTIDAD = metodo(lookup, resultado, "getCantidad", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private PokemonAppBridge() {
+    }
+
+    private static MethodHandle metodo(MethodHandles.Lookup lookup, Class<?> app, String nombre,
+                                       Class<?> retorno, Class<?>... parametros) throws ReflectiveOperationException {
+        MethodHandle mh = lookup.findVirtual(app, nombre, MethodType.methodType(retorno, parametros));
+        return mh.asType(mh.type().changeParameterType(0, Object.class));
+    }
+
+    static Object nuevaApp(int mapOption) {
+        try {
+            return (Object) NUEVA_APP.invokeExact(mapOption);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static void loadData(Object app, String archivo) {
+        try {
+            LOAD_DATA.invokeExact(app, archivo);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static void loadDataParalelo(Object app, String archivo) {
+        try {
+            LOAD_DATA_PARALELO.invokeExact(app, archivo);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, ?> getPokemonMap(Object app) {
+        try {
+            return (Map<String, ?>) (Map<?, ?>) GET_POKEMON_MAP.invokeExact(app);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, ?> getUserCollection(Object app) {
+        try {
+            return (Map<String, ?>) (Map<?, ?>) GET_USER_COLLECTION.invokeExact(app);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static List<?> buscarPorHabilidad(Object app, String habilidad) {
+        try {
+            return (List<?>) BUSCAR_POR_HABILIDAD.invokeExact(app, habilidad);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static List<?> buscarPorHabilidadEnParalelo(Object app, String habilidad) {
+        try {
+            return (List<?>) BUSCAR_POR_HABILIDAD_EN_PARALELO.invokeExact(app, habilidad);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static Iterable<?> ordenadosPorTipo1(Object app) {
+        try {
+            return (Iterable<?>) ORDENADOS_POR_TIPO1.invokeExact(app);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static Object[] ordenarPorTipo1(Object app) {
+        try {
+            return (Object[]) ORDENAR_POR_TIPO1.invokeExact(app);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static void agregarPokemonAUsuario(Object app, String nombre) {
+        try {
+            AGREGAR_A_USUARIO.invokeExact(app, nombre);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static Object getCache(Object app) {
+        try {
+            return (Object) GET_CACHE.invokeExact(app);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static void setCacheHabilitada(Object cache, boolean habilitada) {
+        try {
+            SET_CACHE_HABILITADA.invokeExact(cache, habilitada);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static Object nuevaAppConcurrente(int mapOption) {
+        try {
+            return (Object) NUEVA_APP_CONCURRENTE.invokeExact(mapOption);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static void recargarConcurrente(Object app, String archivo) {
+        try {
+            RECARGAR_CONCURRENTE.invokeExact(app, archivo);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    /**
+     * Busca un Pokémon en el catálogo publicado actualmente por la aplicación concurrente.
+     */
+    static Object getDelCatalogo(Object app, String nombre) {
+        try {
+            return (Object) CATALOGO_GET.invokeExact((Object) GET_CATALOGO.invokeExact(app), nombre);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, ?> getPokemonsDelCatalogo(Object app) {
+        try {
+            return (Map<String, ?>) (Map<?, ?>) CATALOGO_POKEMONS.invokeExact((Object) GET_CATALOGO.invokeExact(app));
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static Object agregarPokemonAUsuario(Object app, String usuario, String nombre) {
+        try {
+            return (Object) AGREGAR_A_USUARIO_CONCURRENTE.invokeExact(app, usuario, nombre);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static Object getNameIndex(Object app) {
+        try {
+            return (Object) GET_NAME_INDEX.invokeExact(app);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static List<?> buscarAproximado(Object nameIndex, String nombre, int maxDistancia) {
+        try {
+            return (List<?>) BUSCAR_APROXIMADO.invokeExact(nameIndex, nombre, maxDistancia);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static void setMetricasHabilitadas(Object app, boolean habilitadas) {
+        try {
+            SET_HABILITADO.invokeExact((Object) GET_METRICAS.invokeExact(app), habilitadas);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static Object parsearConsulta(String texto) {
+        try {
+            return (Object) PARSEAR_CONSULTA.invokeExact(texto);
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static int contar(Object app, Object consulta) {
+        try {
+            return (int) GET_CANTIDAD.invokeExact((Object) CONTAR.invokeExact(app, consulta));
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    static void generarCsv(String plantillas, Path destino, long filas, long semilla) throws IOException {
+        try {
+            Object generador = (Object) GENERADOR_DESDE_CSV.invokeExact(Paths.get(plantillas), semilla);
+            ESCRIBIR_CSV.invokeExact(generador, destino, filas);
+        } catch (IOException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw propagar(t);
+        }
+    }
+
+    private static RuntimeException propagar(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,34 @@
+#!/bin/sh
+# Compila la aplicación junto con los benchmarks de JMH y los ejecuta.
+#
+# Uso:
+#   JMH_HOME=/ruta/a/jars ./benchmarks/run-benchmarks.sh [opciones de JMH]
+#
+# JMH_HOME debe contener jmh-core, jmh-generator-annprocess, jopt-simple y commons-math3.
+# Los resultados se exportan en JSON a benchmarks/results.json (o al archivo indicado en
+# RESULTADOS) para comparar corridas y detectar regresiones.
+#
+# Ejemplos:
+#   ./benchmarks/run-benchmarks.sh CatalogBenchmark -p filas=0
+#   ./benchmarks/run-benchmarks.sh LoadBenchmark -p mapOption=1
+#   ./benchmarks/run-benchmarks.sh ConcurrentBenchmark -t max
+#   ./benchmarks/run-benchmarks.sh NameIndexBenchmark -p filas=1000000
+#   ./benchmarks/run-benchmarks.sh MetricsBenchmark
+set -e
+
+cd "$(dirname "$0")/.."
+: "${JMH_HOME:?Defina JMH_HOME con la carpeta que contiene los jars de JMH}"
+RESULTADOS="${RESULTADOS:-benchmarks/results.json}"
+
+CP=$(ls "$JMH_HOME"/*.jar | tr '\n' ':')
+SALIDA=target/benchmarks
+rm -rf "$SALIDA"
+mkdir -p "$SALIDA"
+
+# Las pruebas unitarias se excluyen porque necesitan JUnit
+javac -encoding UTF-8 -cp "$CP" -d "$SALIDA" $(ls *.java | grep -v 'Test\.java$') benchmarks/*.java
+# Filtros de columnas con la Vector API; sin el módulo incubador se usan los escalares
+javac -encoding UTF-8 --add-modules jdk.incubator.vector -d "$SALIDA" vector/*.java
+
+java -cp "$SALIDA:$CP" org.openjdk.jmh.Main -jvmArgsAppend --add-modules=jdk.incubator.vector \
+    -rf json -rff "$RESULTADOS" "$@"
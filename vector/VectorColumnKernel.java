@@ -0,0 +1,131 @@
+package vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Versión SIMD de los filtros de columnas de ColumnScanKernel, con la Vector API de la JDK.
+ *
+ * Cada palabra de la máscara cubre 64 filas; las filas se comparan de a tantas como carriles
+ * tenga el registro vectorial preferido (4 u 8 double con AVX2 o AVX-512). La máscara de
+ * carriles se convierte en bits eligiendo, en cada carril que cumple, una constante con solo
+ * su bit en uno y reduciendo el vector con OR: en la JDK 17 VectorMask.toLong no se compila a
+ * una instrucción y crea objetos en cada llamada. Las palabras ya en cero se saltan y el último
+ * tramo incompleto se evalúa fila por fila.
+ *
+ * Esta clase está en un paquete propio porque necesita el módulo incubador, que no se resuelve
+ * por defecto: se compila y se ejecuta con --add-modules jdk.incubator.vector. La aplicación la
+ * enlaza por reflexión y, si no está disponible, usa los filtros escalares.
+ */
+public final class VectorColumnKernel {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> ENTEROS = IntVector.SPECIES_PREFERRED;
+    // Carril i con solo el bit i en uno, para convertir máscaras de carriles en bits
+    private static final DoubleVector BIT_POR_CARRIL_DOUBLES;
+    private static final IntVector BIT_POR_CARRIL_ENTEROS;
+
+    static {
+        double[] d = new double[DOUBLES.length()];
+        for (int i = 0; i < d.length; i++) {
+            d[i] = Double.longBitsToDouble(1L << i);
+        }
+        BIT_POR_CARRIL_DOUBLES = DoubleVector.fromArray(DOUBLES, d, 0);
+        int[] e = new int[ENTEROS.length()];
+        for (int i = 0; i < e.length; i++) {
+            e[i] = 1 << i;
+        }
+        BIT_POR_CARRIL_ENTEROS = IntVector.fromArray(ENTEROS, e, 0);
+    }
+
+    private VectorColumnKernel() {
+    }
+
+    /**
+     * Deja en la máscara solo las filas cuyo valor está entre min y max (incluidos).
+     */
+    public static void filtrarRango(double[] columna, double min, double max, long[] mascara, int filas) {
+        int carriles = DOUBLES.length();
+        for (int w = 0; w < mascara.length; w++) {
+            if (mascara[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int fin = Math.min(64, filas - base);
+            long bits = 0;
+            int b = 0;
+            for (; b + carriles <= fin; b += carriles) {
+                DoubleVector v = DoubleVector.fromArray(DOUBLES, columna, base + b);
+                VectorMask<Double> dentro = v.compare(VectorOperators.GE, min).and(v.compare(VectorOperators.LE, max));
+                bits |= bitsDeDoubles(dentro) << b;
+            }
+            for (; b < fin; b++) {
+                double v = columna[base + b];
+                bits |= (v >= min & v <= max ? 1L : 0L) << b;
+            }
+            mascara[w] &= bits;
+        }
+    }
+
+    /**
+     * Deja en la máscara solo las filas cuyo valor está entre min y max (incluidos).
+     */
+    public static void filtrarRango(int[] columna, int min, int max, long[] mascara, int filas) {
+        int carriles = ENTEROS.length();
+        for (int w = 0; w < mascara.length; w++) {
+            if (mascara[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int fin = Math.min(64, filas - base);
+            long bits = 0;
+            int b = 0;
+            for (; b + carriles <= fin; b += carriles) {
+                IntVector v = IntVector.fromArray(ENTEROS, columna, base + b);
+                VectorMask<Integer> dentro = v.compare(VectorOperators.GE, min).and(v.compare(VectorOperators.LE, max));
+                bits |= bitsDeEnteros(dentro) << b;
+            }
+            for (; b < fin; b++) {
+                int v = columna[base + b];
+                bits |= (v >= min & v <= max ? 1L : 0L) << b;
+            }
+            mascara[w] &= bits;
+        }
+    }
+
+    /**
+     * Deja en la máscara solo las filas en que alguna de las dos columnas tiene el valor indicado.
+     */
+    public static void filtrarCualquiera(int[] columnaA, int[] columnaB, int valor, long[] mascara, int filas) {
+        int carriles = ENTEROS.length();
+        for (int w = 0; w < mascara.length; w++) {
+            if (mascara[w] == 0) {
+                continue;
+            }
+            int base = w << 6;
+            int fin = Math.min(64, filas - base);
+            long bits = 0;
+            int b = 0;
+            for (; b + carriles <= fin; b += carriles) {
+                VectorMask<Integer> a = IntVector.fromArray(ENTEROS, columnaA, base + b).compare(VectorOperators.EQ, valor);
+                VectorMask<Integer> c = IntVector.fromArray(ENTEROS, columnaB, base + b).compare(VectorOperators.EQ, valor);
+                bits |= bitsDeEnteros(a.or(c)) << b;
+            }
+            for (; b < fin; b++) {
+                bits |= (columnaA[base + b] == valor | columnaB[base + b] == valor ? 1L : 0L) << b;
+            }
+            mascara[w] &= bits;
+        }
+    }
+
+    private static long bitsDeDoubles(VectorMask<Double> m) {
+        return DoubleVector.zero(DOUBLES).blend(BIT_POR_CARRIL_DOUBLES, m).reinterpretAsLongs()
+                .reduceLanes(VectorOperators.OR);
+    }
+
+    private static long bitsDeEnteros(VectorMask<Integer> m) {
+        return IntVector.zero(ENTEROS).blend(BIT_POR_CARRIL_ENTEROS, m).reduceLanes(VectorOperators.OR) & 0xFFFFFFFFL;
+    }
+}